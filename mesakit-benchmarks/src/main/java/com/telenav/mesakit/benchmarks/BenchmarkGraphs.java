@@ -0,0 +1,62 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.benchmarks;
+
+import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.graph.core.testing.GraphUnitTest;
+
+import static com.telenav.kivakit.core.ensure.Ensure.fail;
+
+/**
+ * Gives benchmarks access to the small test graphs that {@link GraphUnitTest} loads (and caches) for unit tests, so
+ * benchmarks and tests run against exactly the same data
+ */
+public class BenchmarkGraphs extends GraphUnitTest
+{
+    private static BenchmarkGraphs graphs;
+
+    /**
+     * Returns the graph with the given name, loading it if it is not already cached
+     */
+    public static synchronized Graph graph(String name)
+    {
+        if (graphs == null)
+        {
+            graphs = new BenchmarkGraphs();
+        }
+        switch (name)
+        {
+            case "Green_Lake_Seattle":
+                return graphs.osmGreenLakeSeattle();
+
+            case "Downtown_Seattle":
+                return graphs.osmDowntownSeattle();
+
+            case "Downtown_Seattle_Test":
+                return graphs.osmDowntownSeattleTest();
+
+            case "Bellevue_Washington":
+                return graphs.osmBellevueWashington();
+
+            default:
+                return fail("Unknown benchmark graph: $", name);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.benchmarks;
+
+import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.graph.Vertex;
+import com.telenav.mesakit.graph.core.testing.GraphRandomValueFactory;
+import com.telenav.mesakit.graph.identifiers.VertexIdentifier;
+import com.telenav.mesakit.graph.io.load.loaders.reordering.ReorderingGraphLoader.Ordering;
+import com.telenav.mesakit.map.geography.Location;
+import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
+import com.telenav.mesakit.map.measurements.geographic.Distance;
+import com.telenav.mesakit.map.measurements.geographic.Heading;
+import com.telenav.mesakit.map.measurements.motion.Speed;
+import com.telenav.mesakit.navigation.routing.cost.CostFunction;
+import com.telenav.mesakit.navigation.routing.cost.functions.TravelTimeCostFunction;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRouter;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRoutingRequest;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A deterministic set of queries against one of the {@link BenchmarkGraphs}. Queries are generated from a fixed seed,
+ * so every run of a benchmark, on every machine and every release, asks the same questions of the same data:
+ *
+ * <ul>
+ *     <li>Pairs of vertexes that have a route between them, each with a cost function for the pair</li>
+ *     <li>Locations and headings to snap</li>
+ *     <li>Rectangles of up to {@link #QUERY_RADIUS} around a random point to search for edges</li>
+ * </ul>
+ * <p>
+ * Benchmarks step through the queries with a per-thread {@link Cursor}. The {@link #ordering} parameter renumbers the
+ * graph with {@link Graph#createReordered(Ordering)} before running the same queries, so the effect of reordering can be
+ * measured by running with <i>-p ordering=NONE,HILBERT,BREADTH_FIRST</i>.
+ */
+@State(Scope.Benchmark)
+public class GraphWorkload
+{
+    /** The number of queries of each kind */
+    public static final int SIZE = 256;
+
+    /** The seed for generating queries */
+    public static final long SEED = 42;
+
+    /** The largest radius of a rectangle query */
+    public static final Distance QUERY_RADIUS = Distance.meters(250);
+
+    /**
+     * The position of a thread in a workload
+     */
+    @State(Scope.Thread)
+    public static class Cursor
+    {
+        private int next;
+
+        /**
+         * Returns the next query index, wrapping around at the given size
+         */
+        public int next(int size)
+        {
+            var index = next;
+            next = (next + 1) % size;
+            return index;
+        }
+    }
+
+    @Param({ "Green_Lake_Seattle", "Downtown_Seattle_Test" })
+    public String graphName;
+
+    @Param({ "NONE" })
+    public String ordering;
+
+    public Graph graph;
+
+    public Vertex[] starts;
+
+    public Vertex[] ends;
+
+    public CostFunction[] costFunctions;
+
+    public Location[] locations;
+
+    public Heading[] headings;
+
+    public Rectangle[] rectangles;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        var original = BenchmarkGraphs.graph(graphName);
+        graph = "NONE".equals(ordering) ? original : original.createReordered(Ordering.valueOf(ordering));
+        var random = new GraphRandomValueFactory(SEED);
+        var vertexCount = original.vertexCount().asInt();
+
+        // Choose pairs of vertexes that can be routed between in the original graph, so that every ordering is asked
+        // the same questions
+        starts = new Vertex[SIZE];
+        ends = new Vertex[SIZE];
+        costFunctions = new CostFunction[SIZE];
+        for (var index = 0; index < SIZE; )
+        {
+            var start = original.vertexForIdentifier(new VertexIdentifier(random.randomIntInclusive(1, vertexCount)));
+            var end = original.vertexForIdentifier(new VertexIdentifier(random.randomIntInclusive(1, vertexCount)));
+            if (!start.equals(end))
+            {
+                var costFunction = new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, start, end);
+                var response = new DijkstraRouter(costFunction).findRoute(new DijkstraRoutingRequest(start, end));
+                if (!response.failed())
+                {
+                    starts[index] = vertex(start);
+                    ends[index] = vertex(end);
+                    costFunctions[index] = new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR,
+                            starts[index], ends[index]);
+                    index++;
+                }
+            }
+        }
+
+        // and locations, headings and rectangles within the graph's bounds
+        var bounds = graph.bounds();
+        locations = new Location[SIZE];
+        headings = new Heading[SIZE];
+        rectangles = new Rectangle[SIZE];
+        for (var index = 0; index < SIZE; index++)
+        {
+            locations[index] = random.newLocation(bounds);
+            headings[index] = Heading.degrees(random.randomIntInclusive(0, 359));
+            rectangles[index] = random.newRectangle(bounds, QUERY_RADIUS);
+        }
+    }
+
+    /**
+     * Returns the vertex in the benchmark graph for the given vertex of the original graph
+     */
+    private Vertex vertex(Vertex original)
+    {
+        return original.graph() == graph ? original : graph.vertexForNodeIdentifier(original.nodeIdentifier());
+    }
+}
@@ -0,0 +1,151 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.benchmarks;
+
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.mesakit.graph.Route;
+import com.telenav.mesakit.graph.Vertex;
+import com.telenav.mesakit.map.measurements.motion.Speed;
+import com.telenav.mesakit.navigation.routing.RoutingDebugger;
+import com.telenav.mesakit.navigation.routing.RoutingRequest;
+import com.telenav.mesakit.navigation.routing.RoutingResponse;
+import com.telenav.mesakit.navigation.routing.cost.Cost;
+import com.telenav.mesakit.navigation.routing.cost.CostFunction;
+import com.telenav.mesakit.navigation.routing.cost.functions.TravelTimeCostFunction;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRouter;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRoutingRequest;
+import com.telenav.mesakit.navigation.routing.landmarks.LandmarkCostFunction;
+import com.telenav.mesakit.navigation.routing.landmarks.LandmarksBuilder;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of plain Dijkstra and of Dijkstra guided by a {@link LandmarkCostFunction} (ALT) between the
+ * vertex pairs of a {@link GraphWorkload}. Both benchmarks route with the same cost function, and the number of
+ * vertexes each settles is reported as the secondary result <i>settled</i>, so the work saved by landmarks can be
+ * compared directly with the time saved.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LandmarkRoutingBenchmark
+{
+    /**
+     * Counts the vertexes settled by the routes of a thread
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Settled implements RoutingDebugger
+    {
+        public long settled;
+
+        @Override
+        public void onEnd(RoutingRequest request, RoutingResponse response)
+        {
+        }
+
+        @Override
+        public void onRelaxed(Route route, Cost cost)
+        {
+        }
+
+        @Override
+        public void onSettled(Vertex vertex, Cost cost)
+        {
+            settled++;
+        }
+
+        @Override
+        public void onStart(RoutingRequest request)
+        {
+        }
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            settled = 0;
+        }
+    }
+
+    private CostFunction costFunction;
+
+    private CostFunction[] heuristics;
+
+    @Benchmark
+    public Route alt(GraphWorkload workload, GraphWorkload.Cursor cursor, Settled settled)
+    {
+        var index = cursor.next(GraphWorkload.SIZE);
+        return new DijkstraRouter(costFunction)
+                .withHeuristicCostFunction(heuristics[index])
+                .findRoute(request(workload, index, settled))
+                .route();
+    }
+
+    @Benchmark
+    public Route dijkstra(GraphWorkload workload, GraphWorkload.Cursor cursor, Settled settled)
+    {
+        var index = cursor.next(GraphWorkload.SIZE);
+        return new DijkstraRouter(costFunction)
+                .findRoute(request(workload, index, settled))
+                .route();
+    }
+
+    @Setup(Level.Trial)
+    public void setup(GraphWorkload workload)
+    {
+        // Landmarks are only admissible for the cost function they were built with, so every pair is routed with a
+        // single cost function scaled to the graph's bounds rather than the per-pair cost functions of the workload
+        var bounds = workload.graph.bounds();
+        costFunction = new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR,
+                bounds.bottomLeft(), bounds.topRight());
+        var landmarks = new LandmarksBuilder(workload.graph, costFunction, Count._8).build();
+
+        // and a heuristic is built for each pair ahead of time, so that only routing is measured
+        heuristics = new CostFunction[GraphWorkload.SIZE];
+        for (var index = 0; index < GraphWorkload.SIZE; index++)
+        {
+            heuristics[index] = new LandmarkCostFunction(landmarks, costFunction,
+                    workload.starts[index], workload.ends[index]);
+        }
+    }
+
+    /**
+     * Returns a request for the given pair of the workload that counts settled vertexes
+     */
+    private DijkstraRoutingRequest request(GraphWorkload workload, int index, Settled settled)
+    {
+        return new DijkstraRoutingRequest(workload.starts[index], workload.ends[index]).withDebugger(settled);
+    }
+}
@@ -0,0 +1,54 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs MesaKit's benchmarks with the GC profiler, so that allocation rates are reported along with the throughput and
+ * latency percentiles each benchmark measures. Any standard JMH command line options can be given, for example:
+ *
+ * <pre>
+ * java -jar mesakit-benchmarks/target/benchmarks.jar RoutingBenchmark -p graphName=Green_Lake_Seattle -rf json
+ * </pre>
+ * <p>
+ * To compare graph orderings, run the same queries against each ordering of the same graph:
+ *
+ * <pre>
+ * java -jar mesakit-benchmarks/target/benchmarks.jar RoutingBenchmark -p ordering=NONE,HILBERT,BREADTH_FIRST -rf json
+ * </pre>
+ */
+public class MesaKitBenchmarks
+{
+    public static void main(String[] arguments) throws RunnerException, CommandLineOptionException
+    {
+        var options = new OptionsBuilder()
+                .parent(new CommandLineOptions(arguments))
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,64 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.benchmarks;
+
+import com.telenav.mesakit.graph.Route;
+import com.telenav.mesakit.navigation.routing.bidijkstra.BiDijkstraRouter;
+import com.telenav.mesakit.navigation.routing.bidijkstra.BiDijkstraRoutingRequest;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRouter;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRoutingRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of finding routes between the vertex pairs of a {@link GraphWorkload}
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoutingBenchmark
+{
+    @Benchmark
+    public Route biDijkstra(GraphWorkload workload, GraphWorkload.Cursor cursor)
+    {
+        var index = cursor.next(GraphWorkload.SIZE);
+        return new BiDijkstraRouter(workload.costFunctions[index])
+                .findRoute(new BiDijkstraRoutingRequest(workload.starts[index], workload.ends[index]))
+                .route();
+    }
+
+    @Benchmark
+    public Route dijkstra(GraphWorkload workload, GraphWorkload.Cursor cursor)
+    {
+        var index = cursor.next(GraphWorkload.SIZE);
+        return new DijkstraRouter(workload.costFunctions[index])
+                .findRoute(new DijkstraRoutingRequest(workload.starts[index], workload.ends[index]))
+                .route();
+    }
+}
@@ -0,0 +1,96 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.benchmarks;
+
+import com.telenav.mesakit.graph.Edge;
+import com.telenav.mesakit.map.geography.indexing.rtree.RTreeSpatialIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of finding the edges that intersect the rectangles of a {@link GraphWorkload}, both through
+ * the graph and directly from the edge store's {@link RTreeSpatialIndex}, by iteration and by visitor
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpatialQueryBenchmark
+{
+    private RTreeSpatialIndex<Edge> index;
+
+    @Setup(Level.Trial)
+    public void setup(GraphWorkload workload)
+    {
+        index = workload.graph.edgeStore().spatialIndex();
+    }
+
+    @Benchmark
+    public void graphEdgesIntersecting(GraphWorkload workload, GraphWorkload.Cursor cursor, Blackhole blackhole)
+    {
+        for (var edge : workload.graph.edgesIntersecting(workload.rectangles[cursor.next(GraphWorkload.SIZE)]))
+        {
+            blackhole.consume(edge);
+        }
+    }
+
+    @Benchmark
+    public void graphForEachEdgeIntersecting(GraphWorkload workload, GraphWorkload.Cursor cursor, Blackhole blackhole)
+    {
+        workload.graph.forEachEdgeIntersecting(workload.rectangles[cursor.next(GraphWorkload.SIZE)], edge ->
+        {
+            blackhole.consume(edge);
+            return true;
+        });
+    }
+
+    @Benchmark
+    public void rtreeForEachIntersecting(GraphWorkload workload, GraphWorkload.Cursor cursor, Blackhole blackhole)
+    {
+        index.forEachIntersecting(workload.rectangles[cursor.next(GraphWorkload.SIZE)], edge ->
+        {
+            blackhole.consume(edge);
+            return true;
+        });
+    }
+
+    @Benchmark
+    public void rtreeIntersecting(GraphWorkload workload, GraphWorkload.Cursor cursor, Blackhole blackhole)
+    {
+        for (var edge : index.intersecting(workload.rectangles[cursor.next(GraphWorkload.SIZE)]))
+        {
+            blackhole.consume(edge);
+        }
+    }
+}
@@ -24,6 +24,7 @@ import com.telenav.kivakit.data.compression.DataCompressionKryoTypes;
 import com.telenav.kivakit.filesystem.File;
 import com.telenav.kivakit.filesystem.Folder;
 import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsKryoTypes;
+import com.telenav.kivakit.resource.FileName;
 import com.telenav.kivakit.resource.serialization.ObjectSerializerRegistry;
 import com.telenav.kivakit.serialization.gson.GsonObjectSerializer;
 import com.telenav.kivakit.serialization.gson.KivaKitCoreGsonFactory;
@@ -68,6 +69,7 @@ import com.telenav.mesakit.map.region.testing.RegionUnitTest;
 import static com.telenav.kivakit.core.object.Lazy.lazy;
 import static com.telenav.kivakit.core.progress.ProgressReporter.nullProgressReporter;
 import static com.telenav.kivakit.core.project.Project.resolveProject;
+import static com.telenav.kivakit.filesystem.Folder.FolderType.CLEAN_UP_ON_EXIT;
 import static com.telenav.kivakit.filesystem.Folder.parseFolder;
 import static com.telenav.kivakit.resource.Extension.GRAPH;
 import static com.telenav.kivakit.resource.Extension.JSON;
@@ -212,6 +214,14 @@ public abstract class GraphUnitTest extends RegionUnitTest
             .mergedWith(new GraphKryoTypes());
     }
 
+    /**
+     * Returns the graph in the given graph archive
+     */
+    protected Graph loadGraphArchive(File file)
+    {
+        return new GraphArchive(this, file, READ, nullProgressReporter()).load(this);
+    }
+
     protected Location location(String location)
     {
         return locationInDegreesConverter.convert(location);
@@ -281,11 +291,29 @@ public abstract class GraphUnitTest extends RegionUnitTest
         return (OsmGraph) OsmDataSpecification.get().newGraph(Metadata.osm(OSM, PBF));
     }
 
+    /**
+     * Returns the Green Lake test graph after saving it to a temporary graph archive and loading it again, so that its
+     * attributes are loaded from the archive as they are used
+     */
+    protected Graph osmGreenLakeSeattleArchived()
+    {
+        return loadGraphArchive(saveGraphArchive(osmGreenLakeSeattle(), false));
+    }
+
     protected Edge osmGreenLakeSeattleEdge(long identifier)
     {
         return osmGreenLakeSeattle().edgeForIdentifier(new EdgeIdentifier(identifier));
     }
 
+    /**
+     * Returns the PBF file that the Green Lake test graph is converted from
+     */
+    protected File osmGreenLakeSeattlePbf()
+    {
+        return pbf(OsmDataSpecification.get(), "Green_Lake_Seattle",
+            Country.UNITED_STATES.WASHINGTON.SEATTLE.GREEN_LAKE.bounds());
+    }
+
     protected HeavyWeightRelation osmRelation(int identifier, int index)
     {
         var relation = OsmDataSpecification.get().newHeavyWeightRelation(null, identifier);
@@ -314,6 +342,28 @@ public abstract class GraphUnitTest extends RegionUnitTest
         return builder.route();
     }
 
+    /**
+     * Saves the given graph to a new temporary graph archive, along with a columns file if columnar is true
+     *
+     * @return The graph archive file
+     */
+    protected File saveGraphArchive(Graph graph, boolean columnar)
+    {
+        var file = temporaryGraphFile();
+        graph.save(new GraphArchive(this, file, WRITE, nullProgressReporter()).columnar(columnar));
+        return file;
+    }
+
+    /**
+     * Returns a new graph archive file in the temporary folder of this process, which is removed with everything in it
+     * when the process exits
+     */
+    protected File temporaryGraphFile()
+    {
+        return Folder.temporaryFolderForProcess(CLEAN_UP_ON_EXIT)
+            .temporaryFile(FileName.parseFileName(this, getClass().getSimpleName()), GRAPH);
+    }
+
     protected HeavyWeightEdge testEdge(long identifier)
     {
         var edge = OsmDataSpecification.get().newHeavyWeightEdge(null, identifier);
@@ -374,22 +424,8 @@ public abstract class GraphUnitTest extends RegionUnitTest
             var graphFile = listenTo(file(dataDescriptor, bounds).withExtension(GRAPH));
             if (!graphFile.exists())
             {
-                // and the PBF file doesn't exist
-                var pbfFile = listenTo(file(dataDescriptor, bounds).withExtension(OSM_PBF));
-                if (!pbfFile.exists())
-                {
-                    // then try to copy it from the test data folder
-                    var source = listenTo(parsePackage(this, GraphUnitTest.class, "data"));
-                    var destination = listenTo(pbfFile.parent()).mkdirs();
-                    source.copyTo(destination, OVERWRITE, FLATTEN, OSM_PBF::matches, nullProgressReporter());
-                }
-
-                // and if we can't find it there, and it's an OSM graph being requested,
-                if (!pbfFile.exists() && specification.isOsm())
-                {
-                    // then download the area from overpass.
-                    downloadFromOverpass(dataDescriptor, bounds);
-                }
+                // then find the PBF file to convert it from
+                var pbfFile = pbf(specification, name, bounds);
 
                 // Now that the PBF file exists,
                 if (pbfFile.exists())
@@ -433,4 +469,29 @@ public abstract class GraphUnitTest extends RegionUnitTest
             return null;
         }
     }
+
+    /**
+     * Returns the PBF file for the given test data, copying it from the test data folder or downloading it if needed
+     */
+    private File pbf(DataSpecification specification, String name, Rectangle bounds)
+    {
+        // If the PBF file doesn't exist
+        var dataDescriptor = "OSM-OSM-PBF-" + name;
+        var pbfFile = listenTo(file(dataDescriptor, bounds).withExtension(OSM_PBF));
+        if (!pbfFile.exists())
+        {
+            // then try to copy it from the test data folder
+            var source = listenTo(parsePackage(this, GraphUnitTest.class, "data"));
+            var destination = listenTo(pbfFile.parent()).mkdirs();
+            source.copyTo(destination, OVERWRITE, FLATTEN, OSM_PBF::matches, nullProgressReporter());
+        }
+
+        // and if we can't find it there, and it's an OSM graph being requested,
+        if (!pbfFile.exists() && specification.isOsm())
+        {
+            // then download the area from overpass.
+            downloadFromOverpass(dataDescriptor, bounds);
+        }
+        return pbfFile;
+    }
 }
@@ -2512,7 +2512,7 @@ public abstract class Edge extends GraphElement implements
      */
     public int travelTimeInMilliseconds()
     {
-        return (int) travelTime().asMilliseconds();
+        return (int) freeFlowSpeed().average().timeToTravelInMilliseconds(lengthInMillimeters());
     }
 
     /**
@@ -67,6 +67,8 @@ import com.telenav.mesakit.graph.io.load.loaders.region.regions.ContinentLoader;
 import com.telenav.mesakit.graph.io.load.loaders.region.regions.CountryLoader;
 import com.telenav.mesakit.graph.io.load.loaders.region.regions.MetropolitanAreaLoader;
 import com.telenav.mesakit.graph.io.load.loaders.region.regions.StateLoader;
+import com.telenav.mesakit.graph.io.load.loaders.reordering.ReorderingGraphLoader;
+import com.telenav.mesakit.graph.io.load.loaders.reordering.ReorderingGraphLoader.Ordering;
 import com.telenav.mesakit.graph.map.MapEdgeIdentifier;
 import com.telenav.mesakit.graph.matching.snapping.GraphSnapper;
 import com.telenav.mesakit.graph.metadata.DataSpecification;
@@ -90,6 +92,7 @@ import com.telenav.mesakit.graph.specifications.common.vertex.VertexAttributes;
 import com.telenav.mesakit.graph.specifications.common.vertex.store.VertexStore;
 import com.telenav.mesakit.graph.specifications.library.attributes.Attribute;
 import com.telenav.mesakit.graph.specifications.library.attributes.AttributeSet;
+import com.telenav.mesakit.graph.specifications.library.attributes.AttributeStorage;
 import com.telenav.mesakit.graph.specifications.library.store.ArchivedGraphStore;
 import com.telenav.mesakit.graph.specifications.library.store.GraphStore;
 import com.telenav.mesakit.graph.specifications.osm.OsmDataSpecification;
@@ -104,6 +107,9 @@ import com.telenav.mesakit.map.data.formats.pbf.model.identifiers.PbfRelationIde
 import com.telenav.mesakit.map.data.formats.pbf.model.identifiers.PbfWayIdentifier;
 import com.telenav.mesakit.map.geography.Location;
 import com.telenav.mesakit.map.geography.Precision;
+import com.telenav.mesakit.map.geography.indexing.ElementVisitor;
+import com.telenav.mesakit.map.geography.indexing.rtree.ElementDistance;
+import com.telenav.mesakit.map.geography.indexing.rtree.RTreeSpatialIndex;
 import com.telenav.mesakit.map.geography.shape.polyline.Polyline;
 import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
 import com.telenav.mesakit.map.measurements.geographic.Angle;
@@ -119,6 +125,7 @@ import org.jetbrains.annotations.MustBeInvokedByOverriders;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -127,6 +134,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
 import static com.telenav.kivakit.core.ensure.Ensure.fail;
 import static com.telenav.kivakit.core.ensure.Ensure.unsupported;
 import static com.telenav.kivakit.core.messaging.context.CallStack.Matching.SUBCLASS;
@@ -236,6 +244,7 @@ import static com.telenav.mesakit.graph.collections.EdgeSequence.Type.FORWARD_ED
  *     <li>{@link #createConstrained(Matcher)} - Creates a graph constrained to data that matches the given matcher</li>
  *     <li>{@link #createConstrained(GraphConstraints)} - Creates a graph matching the given {@link GraphConstraints}</li>
  *     <li>{@link #createDecimated(Distance, Angle, ProgressReporter)} - Creates a graph that has been simplified</li>
+ *     <li>{@link #createReordered(Ordering)} - Creates a copy with edges and vertexes renumbered for locality</li>
  * </ul>
  * <p>
  * <b>Edges</b>
@@ -248,6 +257,7 @@ import static com.telenav.mesakit.graph.collections.EdgeSequence.Type.FORWARD_ED
  *     <li>{@link #edgesMatching(Edge)}</li>
  *     <li>{@link #edgesIntersecting(Rectangle)}</li>
  *     <li>{@link #edgesIntersecting(Rectangle, Matcher)}</li>
+ *     <li>{@link #edgesNearest(Location, Maximum, Distance, ElementDistance)}</li>
  *     <li>{@link #edgeForIdentifier(EdgeIdentifier)}</li>
  *     <li>{@link #edgeForIdentifier(MapEdgeIdentifier)}</li>
  *     <li>{@link #edgeForIdentifier(long)}</li>
@@ -255,6 +265,8 @@ import static com.telenav.mesakit.graph.collections.EdgeSequence.Type.FORWARD_ED
  *     <li>{@link #edgeNearest(Location, Distance)}</li>
  *     <li>{@link #edgeNearest(Location, Distance, Edge.TransportMode)}</li>
  *     <li>{@link #edgeNearest(Location, Distance, Heading, Edge.TransportMode)}</li>
+ *     <li>{@link #forEachEdgeIntersecting(Rectangle, ElementVisitor)}</li>
+ *     <li>{@link #forEachForwardEdgeIntersecting(Rectangle, ElementVisitor)}</li>
  *     <li>{@link #forwardEdgeCount()}</li>
  *     <li>{@link #forwardEdges()}</li>
  *     <li>{@link #forwardEdgesIntersecting(Rectangle)}</li>
@@ -383,6 +395,9 @@ import static com.telenav.mesakit.graph.collections.EdgeSequence.Type.FORWARD_ED
      */
     private transient Object attachedObject;
 
+    /** Where scalar attributes are held once they're loaded from an archive */
+    private AttributeStorage attributeStorage = AttributeStorage.HEAP;
+
     /** The data specification for data in this graph */
     private final DataSpecification dataSpecification;
 
@@ -475,6 +490,26 @@ import static com.telenav.mesakit.graph.collections.EdgeSequence.Type.FORWARD_ED
         return (T) attachedObject;
     }
 
+    /**
+     * Returns where scalar attributes are held once they're loaded from an archive
+     */
+    public AttributeStorage attributeStorage()
+    {
+        return attributeStorage;
+    }
+
+    /**
+     * Selects where scalar attributes are held once they're loaded from an archive. With
+     * {@link AttributeStorage#OFF_HEAP}, the attributes that allow it are copied into off-heap columns as they are
+     * loaded, so the heap doesn't grow with the size of the graph. This must be selected before the graph is loaded.
+     */
+    public Graph attributeStorage(AttributeStorage storage)
+    {
+        ensure(archive == null, "Attribute storage must be selected before the graph is loaded");
+        attributeStorage = storage;
+        return this;
+    }
+
     /**
      * Returns batches of edges of the given size
      */
@@ -672,6 +707,19 @@ import static com.telenav.mesakit.graph.collections.EdgeSequence.Type.FORWARD_ED
         return decimated;
     }
 
+    /**
+     * Returns a copy of this graph with edge and vertex indexes renumbered in the given order, so that elements which
+     * are near each other in the graph are also near each other in memory
+     *
+     * @see ReorderingGraphLoader
+     */
+    public final Graph createReordered(Ordering ordering)
+    {
+        var reordered = listenTo(createCompatible());
+        var metadata = reordered.load(listenTo(new ReorderingGraphLoader(this, ordering)), GraphConstraints.ALL);
+        return metadata == null ? null : reordered;
+    }
+
     /**
      * Returns the data specification for this graph
      *
@@ -896,6 +944,34 @@ import static com.telenav.mesakit.graph.collections.EdgeSequence.Type.FORWARD_ED
         return unsupported();
     }
 
+    /**
+     * Returns up to the given number of forward edges no further than the given maximum distance from the given
+     * location, nearest first, as measured by the given distance function. Graphs with an edge spatial index search it
+     * best-first. This implementation measures every forward edge intersecting the bounds of the search.
+     *
+     * @see RTreeSpatialIndex#nearest(Location, Maximum, Distance, ElementDistance)
+     */
+    public List<Edge> edgesNearest(Location location, Maximum count, Distance maximum, ElementDistance<Edge> distance)
+    {
+        // Measure each edge within the maximum distance,
+        var nearest = new ArrayList<Edge>();
+        var millimeters = new HashMap<Edge, Long>();
+        forEachForwardEdgeIntersecting(location.within(maximum), edge ->
+        {
+            var edgeDistance = distance.millimetersTo(edge);
+            if (edgeDistance != ElementDistance.EXCLUDED && edgeDistance <= maximum.asMillimeters())
+            {
+                nearest.add(edge);
+                millimeters.put(edge, edgeDistance);
+            }
+            return true;
+        });
+
+        // then return the nearest of them.
+        nearest.sort(Comparator.comparingLong(millimeters::get));
+        return nearest.subList(0, (int) Math.min(nearest.size(), count.longValue()));
+    }
+
     /**
      * @param identifier A map identifier (node, way or relation) with the identifier type encoded in the high bits
      * @return The graph element associated with the identifier. In the case of a node, this would be a {@link Vertex},
@@ -959,6 +1035,44 @@ import static com.telenav.mesakit.graph.collections.EdgeSequence.Type.FORWARD_ED
         estimatedMemorySize = size;
     }
 
+    /**
+     * Passes each edge whose road shape intersects the given bounding rectangle to the visitor, until the visitor
+     * returns false. Graphs with an edge spatial index visit the index directly, without creating iterators or edge sequences.
+     * This implementation visits the edges of {@link #edgesIntersecting(Rectangle)}.
+     *
+     * @return True if every intersecting edge was visited, false if the visitor stopped the traversal
+     */
+    public boolean forEachEdgeIntersecting(Rectangle bounds, ElementVisitor<Edge> visitor)
+    {
+        for (var edge : edgesIntersecting(bounds))
+        {
+            if (!visitor.onElement(edge))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Passes each forward edge whose road shape intersects the given bounding rectangle to the visitor, until the
+     * visitor returns false
+     *
+     * @return True if every intersecting forward edge was visited, false if the visitor stopped the traversal
+     * @see #forEachEdgeIntersecting(Rectangle, ElementVisitor)
+     */
+    public boolean forEachForwardEdgeIntersecting(Rectangle bounds, ElementVisitor<Edge> visitor)
+    {
+        for (var edge : forwardEdgesIntersecting(bounds))
+        {
+            if (!visitor.onElement(edge))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Returns the number of forward edges in this graph
      */
@@ -1808,39 +1922,17 @@ import static com.telenav.mesakit.graph.collections.EdgeSequence.Type.FORWARD_ED
     public Vertex vertexNearest(Location location, Distance maximum,
                                 RoadFunctionalClass minimumFunctionalClass)
     {
-        // The nearest vertex
-        Vertex closest = null;
-        var closestDistance = Distance.MAXIMUM;
-
-        // Look in 100 meter increments, so we don't search too wide an area
-        for (var near = maximum.minimum(Distance.meters(100)); near
-                .isLessThanOrEqualTo(maximum); near = near.add(Distance.meters(100)))
+        // Find the edge with the nearest vertex that has the minimum importance,
+        var nearest = edgesNearest(location, Maximum._1, maximum, edge ->
         {
-            // Go through candidates at the given (rectangular) distance
-            for (var candidate : vertexesInside(location.within(near)))
-            {
-                // If the candidate vertex' most important edge has the minimum importance
-                if (candidate.maximumRoadFunctionalClass().isMoreImportantThanOrEqual(minimumFunctionalClass))
-                {
-                    // If this is the first candidate or the distance of the candidate is closer
-                    var candidateDistance = candidate.location().distanceTo(location);
-                    if (closest == null || candidateDistance.isLessThan(closestDistance))
-                    {
-                        // then this is now the closest
-                        closest = candidate;
-                        closestDistance = candidateDistance;
-                    }
-                }
-            }
+            var vertex = nearerVertex(location, edge, minimumFunctionalClass);
+            return vertex == null
+                    ? ElementDistance.EXCLUDED
+                    : location.equirectangularDistanceToInMillimeters(vertex.location());
+        });
 
-            // If we found the closest vertex
-            if (closest != null)
-            {
-                // then return it (otherwise expand the search area)
-                return closest;
-            }
-        }
-        return null;
+        // and return that vertex.
+        return nearest.isEmpty() ? null : nearerVertex(location, nearest.get(0), minimumFunctionalClass);
     }
 
     /**
@@ -1903,12 +1995,7 @@ import static com.telenav.mesakit.graph.collections.EdgeSequence.Type.FORWARD_ED
     private Edge edgeNearest(Location location, Distance near, Heading heading,
                              Edge.TransportMode mode)
     {
-        var snap = new GraphSnapper(this, near, null, mode).snap(location, heading);
-        if (snap != null)
-        {
-            return snap.closestEdge();
-        }
-        return null;
+        return new GraphSnapper(this, near, null, mode).closestEdge(location, heading);
     }
 
     /**
@@ -1933,4 +2020,27 @@ import static com.telenav.mesakit.graph.collections.EdgeSequence.Type.FORWARD_ED
         }
         return matches;
     }
+
+    /**
+     * Returns the vertex of the given edge nearer to the given location whose most important edge has at least the
+     * given functional class, or null if neither vertex does
+     */
+    private Vertex nearerVertex(Location location, Edge edge, RoadFunctionalClass minimumFunctionalClass)
+    {
+        Vertex nearer = null;
+        var nearerDistance = Long.MAX_VALUE;
+        for (var vertex : List.of(edge.from(), edge.to()))
+        {
+            if (vertex.maximumRoadFunctionalClass().isMoreImportantThanOrEqual(minimumFunctionalClass))
+            {
+                var distance = location.equirectangularDistanceToInMillimeters(vertex.location());
+                if (distance < nearerDistance)
+                {
+                    nearer = vertex;
+                    nearerDistance = distance;
+                }
+            }
+        }
+        return nearer;
+    }
 }
@@ -186,8 +186,20 @@ public class Vertex extends GraphNode
         return store().retrieveEdgeSequence(this);
     }
 
+    /**
+     * Returns an edge from this vertex to the given vertex, or null if there is no such edge
+     */
     public Edge edgeTo(Vertex that)
     {
+        // If both vertexes are in the same (non-composite) graph,
+        var graph = graph();
+        if (!graph.isComposite() && that.graph() == graph && index() > 0 && that.index() > 0)
+        {
+            // then look up the edge in the compressed adjacency without creating any edges along the way
+            var edgeIndex = store().adjacency().edgeTo(index(), that.index());
+            return edgeIndex == 0 ? null : graph.edgeStore().edgeForIndex(edgeIndex);
+        }
+
         for (var edge : outEdgeSequence())
         {
             if (edge.to().equals(that))
@@ -0,0 +1,371 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.graph.io.archive;
+
+import com.telenav.kivakit.core.messaging.repeaters.BaseRepeater;
+import com.telenav.kivakit.core.time.Time;
+import com.telenav.kivakit.filesystem.File;
+import com.telenav.kivakit.primitive.collections.list.PrimitiveList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * An uncompressed, page-aligned file of attribute columns that is saved alongside a {@link GraphArchive}. Where a
+ * graph archive holds Kryo-serialized fields that must be deserialized onto the heap before they can be used, the
+ * columns in this file are mapped into memory with {@link FileChannel#map(FileChannel.MapMode, long, long)} and read in
+ * place as {@link MappedColumn}s. Opening a graph is then nearly instant, the columns take no heap, and several
+ * processes on one host share a single copy of the data through the page cache.
+ * <p>
+ * The file has the name of the graph archive plus ".columns". It starts with a header that identifies the graph
+ * archive it was saved with (by size and last modified time), followed by a table of contents. Each column starts on a
+ * page boundary and holds little-endian signed values of the narrowest width (1, 2, 4 or 8 bytes) that can represent
+ * all of its values, including the value it returns for indexes beyond its end. A columns file that no longer matches
+ * its graph archive is ignored.
+ * <p>
+ * The graph archive still holds every field, so any attribute that isn't read through a mapped column can be loaded
+ * from the archive as usual.
+ *
+ * @see GraphArchive
+ * @see MappedColumn
+ * @see MappedColumns
+ */
+public class ColumnarGraphArchive extends BaseRepeater
+{
+    /** The alignment of each column in the file */
+    public static final int PAGE_SIZE = 4096;
+
+    /** Identifies a columns file ("MKGC") */
+    private static final int MAGIC = 0x4d4b4743;
+
+    /** The version of the file layout */
+    private static final int VERSION = 1;
+
+    /** The size of the fixed part of the header */
+    private static final int FIXED_HEADER_SIZE = 4 + 4 + 4 + 8 + 8 + 4;
+
+    /** The size of a table of contents entry, excluding its name */
+    private static final int ENTRY_SIZE = 2 + 1 + 4 + 1 + 8 + 8;
+
+    /** The size of the buffer used to write columns */
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Returns the given offset rounded up to the next page boundary
+     */
+    private static long align(long offset)
+    {
+        return (offset + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE;
+    }
+
+    /**
+     * Returns the number of bytes needed to hold the given range of signed values
+     */
+    private static int width(long minimum, long maximum)
+    {
+        if (minimum >= Byte.MIN_VALUE && maximum <= Byte.MAX_VALUE)
+        {
+            return 1;
+        }
+        if (minimum >= Short.MIN_VALUE && maximum <= Short.MAX_VALUE)
+        {
+            return 2;
+        }
+        if (minimum >= Integer.MIN_VALUE && maximum <= Integer.MAX_VALUE)
+        {
+            return 4;
+        }
+        return 8;
+    }
+
+    /** The graph archive file */
+    private final Path archive;
+
+    /** The columns file */
+    private final Path path;
+
+    /**
+     * @param archive The graph archive that this columns file is saved alongside
+     */
+    public ColumnarGraphArchive(File archive)
+    {
+        this.archive = archive.asJavaFile().toPath();
+        path = Path.of(this.archive + ".columns");
+    }
+
+    /**
+     * Returns true if the columns file exists
+     */
+    public boolean exists()
+    {
+        return Files.exists(path);
+    }
+
+    /**
+     * Maps the columns in this file into memory
+     *
+     * @return The mapped columns, or null if the file doesn't exist, is invalid or was not saved with the current
+     * graph archive
+     */
+    public MappedColumns map()
+    {
+        if (!exists())
+        {
+            return null;
+        }
+
+        var start = Time.now();
+        try (var channel = FileChannel.open(path, READ))
+        {
+            // Read the fixed part of the header,
+            var fixed = read(channel, 0, FIXED_HEADER_SIZE);
+            if (fixed.getInt() != MAGIC || fixed.getInt() != VERSION)
+            {
+                warning("Ignoring $, which is not a version $ columns file", path, VERSION);
+                return null;
+            }
+            var headerSize = fixed.getInt();
+            var archiveSize = fixed.getLong();
+            var archiveLastModified = fixed.getLong();
+            var count = fixed.getInt();
+
+            // and if the file was saved with some other graph archive,
+            if (archiveSize != Files.size(archive)
+                    || archiveLastModified != Files.getLastModifiedTime(archive).toMillis())
+            {
+                // it can't be used.
+                warning("Ignoring $, which does not match $", path, archive);
+                return null;
+            }
+
+            // Go through the table of contents
+            var contents = read(channel, FIXED_HEADER_SIZE, headerSize - FIXED_HEADER_SIZE);
+            var columns = new MappedColumns();
+            for (var index = 0; index < count; index++)
+            {
+                // reading the entry for each column,
+                var name = new byte[contents.getShort()];
+                contents.get(name);
+                int width = contents.get();
+                var size = contents.getInt();
+                var hasNull = contents.get() != 0;
+                var nullValue = contents.getLong();
+                var offset = contents.getLong();
+
+                // and mapping its values.
+                var bytes = (long) size * width;
+                var buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, bytes).order(ByteOrder.LITTLE_ENDIAN);
+                var column = new MappedColumn(new String(name, StandardCharsets.UTF_8), buffer, width, size, hasNull,
+                        nullValue);
+                columns.add(column, bytes);
+            }
+
+            information("Mapped $ from $ in $", columns, path, start.elapsedSince());
+            return columns;
+        }
+        catch (IOException e)
+        {
+            problem(e, "Unable to map columns from $", path);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the columns file
+     */
+    public Path path()
+    {
+        return path;
+    }
+
+    /**
+     * Saves the given columns to this file. The graph archive must already be saved and closed, since the columns file
+     * records its size and modification time.
+     *
+     * @param columns The columns to save by name ([store].[field])
+     */
+    public void save(Map<String, PrimitiveList> columns)
+    {
+        var start = Time.now();
+
+        // Sort the columns by name so that the file layout is deterministic,
+        var sorted = new ArrayList<>(new TreeMap<>(columns).entrySet());
+        var count = sorted.size();
+
+        // then determine the width and null value of each column
+        var names = new byte[count][];
+        var widths = new int[count];
+        var hasNulls = new boolean[count];
+        var nullValues = new long[count];
+        var headerSize = FIXED_HEADER_SIZE;
+        for (var index = 0; index < count; index++)
+        {
+            var entry = sorted.get(index);
+            var list = entry.getValue();
+            var nullValue = list.safeGetPrimitive(list.size());
+            var minimum = nullValue;
+            var maximum = nullValue;
+            for (var at = 0; at < list.size(); at++)
+            {
+                var value = list.safeGetPrimitive(at);
+                minimum = Math.min(minimum, value);
+                maximum = Math.max(maximum, value);
+            }
+            names[index] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            widths[index] = width(minimum, maximum);
+            hasNulls[index] = list.isPrimitiveNull(nullValue);
+            nullValues[index] = nullValue;
+            headerSize += ENTRY_SIZE + names[index].length;
+        }
+
+        // and lay out the columns on page boundaries after the header.
+        var offsets = new long[count];
+        var offset = align(headerSize);
+        for (var index = 0; index < count; index++)
+        {
+            var bytes = (long) sorted.get(index).getValue().size() * widths[index];
+            ensure(bytes <= Integer.MAX_VALUE, "Column $ is too large to map ($ bytes)",
+                    sorted.get(index).getKey(), bytes);
+            offsets[index] = offset;
+            offset = align(offset + bytes);
+        }
+
+        // Write to a temporary file, so processes that have the existing file mapped are not disturbed,
+        var temporary = Path.of(path + ".tmp");
+        try
+        {
+            try (var channel = FileChannel.open(temporary, CREATE, WRITE, TRUNCATE_EXISTING))
+            {
+                // starting with the header
+                var header = ByteBuffer.allocate(headerSize).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC);
+                header.putInt(VERSION);
+                header.putInt(headerSize);
+                header.putLong(Files.size(archive));
+                header.putLong(Files.getLastModifiedTime(archive).toMillis());
+                header.putInt(count);
+                for (var index = 0; index < count; index++)
+                {
+                    header.putShort((short) names[index].length);
+                    header.put(names[index]);
+                    header.put((byte) widths[index]);
+                    header.putInt(sorted.get(index).getValue().size());
+                    header.put((byte) (hasNulls[index] ? 1 : 0));
+                    header.putLong(nullValues[index]);
+                    header.putLong(offsets[index]);
+                }
+                write(channel, header.flip(), 0);
+
+                // followed by the values of each column
+                var buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                for (var index = 0; index < count; index++)
+                {
+                    var list = sorted.get(index).getValue();
+                    var position = offsets[index];
+                    for (var at = 0; at < list.size(); at++)
+                    {
+                        if (buffer.remaining() < Long.BYTES)
+                        {
+                            position += write(channel, buffer.flip(), position);
+                            buffer.clear();
+                        }
+                        put(buffer, widths[index], list.safeGetPrimitive(at));
+                    }
+                    write(channel, buffer.flip(), position);
+                    buffer.clear();
+                }
+            }
+
+            // and then move the file into place.
+            Files.move(temporary, path, REPLACE_EXISTING, ATOMIC_MOVE);
+            information("Saved $ columns to $ in $", count, path, start.elapsedSince());
+        }
+        catch (IOException e)
+        {
+            problem(e, "Unable to save columns to $", path);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return path.toString();
+    }
+
+    private void put(ByteBuffer buffer, int width, long value)
+    {
+        switch (width)
+        {
+            case 1:
+                buffer.put((byte) value);
+                break;
+
+            case 2:
+                buffer.putShort((short) value);
+                break;
+
+            case 4:
+                buffer.putInt((int) value);
+                break;
+
+            default:
+                buffer.putLong(value);
+                break;
+        }
+    }
+
+    private ByteBuffer read(FileChannel channel, long position, int size) throws IOException
+    {
+        var buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining())
+        {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+            {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private int write(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+    {
+        var written = 0;
+        while (buffer.hasRemaining())
+        {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+}
@@ -46,6 +46,8 @@ import com.telenav.mesakit.graph.Metadata;
 import com.telenav.mesakit.graph.collections.GraphList;
 import com.telenav.mesakit.graph.io.load.SmartGraphLoader;
 import com.telenav.mesakit.graph.metadata.DataSupplier;
+import com.telenav.mesakit.graph.specifications.library.attributes.AttributeStorage;
+import com.telenav.mesakit.graph.specifications.library.attributes.WarmProfile;
 import com.telenav.mesakit.graph.specifications.library.store.GraphStore;
 
 import java.util.zip.ZipFile;
@@ -63,6 +65,11 @@ import static com.telenav.kivakit.core.ensure.Ensure.unsupported;
  * {@link GraphArchive} it is preferable to call {@link Graph#save(GraphArchive)}. To load a graph, call {@link
  * GraphArchive#load(Listener)} or use the {@link SmartGraphLoader}, which supports loading graphs from all supported
  * formats, including graph archives.
+ * <p>
+ * When {@link #columnar(boolean)} is enabled, scalar attribute columns are also saved to a page-aligned
+ * {@link ColumnarGraphArchive} next to the archive. When a graph is loaded, these columns are memory-mapped and read in
+ * place instead of being deserialized. Otherwise, {@link #attributeStorage(AttributeStorage)} can move the scalar
+ * attributes of loaded graphs off the heap.
  *
  * @author jonathanl (shibo)
  * @see Graph
@@ -79,6 +86,9 @@ public class GraphArchive extends FieldArchive implements
     /** The extension for a graph archive */
     public static final Extension EXTENSION = Extension.GRAPH;
 
+    /** The name of the archive entry holding the warm profile, if any */
+    private static final String WARM_PROFILE = "warm-profile";
+
     public static boolean accepts(FileName name)
     {
         return name.endsWith(EXTENSION);
@@ -184,6 +194,12 @@ public class GraphArchive extends FieldArchive implements
         }
     }
 
+    /** Where attributes of graphs loaded from this archive are held */
+    private AttributeStorage attributeStorage = AttributeStorage.HEAP;
+
+    /** True if attribute columns should be saved to a {@link ColumnarGraphArchive} alongside this archive */
+    private boolean columnar;
+
     public GraphArchive(Listener listener,
                         File file,
                         ZipArchive.AccessMode mode,
@@ -193,6 +209,52 @@ public class GraphArchive extends FieldArchive implements
         listener.listenTo(this);
     }
 
+    /**
+     * Returns where the scalar attributes of graphs loaded from this archive are held
+     */
+    public AttributeStorage attributeStorage()
+    {
+        return attributeStorage;
+    }
+
+    /**
+     * Selects where the scalar attributes of graphs loaded from this archive are held
+     *
+     * @see Graph#attributeStorage(AttributeStorage)
+     */
+    public GraphArchive attributeStorage(AttributeStorage storage)
+    {
+        attributeStorage = storage;
+        return this;
+    }
+
+    /**
+     * Sets whether attribute columns should be saved to a memory-mappable {@link ColumnarGraphArchive} alongside this
+     * archive when a graph is saved
+     */
+    public GraphArchive columnar(boolean columnar)
+    {
+        this.columnar = columnar;
+        return this;
+    }
+
+    /**
+     * Returns the {@link ColumnarGraphArchive} that is saved alongside this archive, or null if this archive is not a
+     * file
+     */
+    public ColumnarGraphArchive columns()
+    {
+        return resource() instanceof File file ? listenTo(new ColumnarGraphArchive(file)) : null;
+    }
+
+    /**
+     * Returns true if attribute columns should be saved alongside this archive
+     */
+    public boolean isColumnar()
+    {
+        return columnar;
+    }
+
     public Time lastModified()
     {
         return resource().lastModified();
@@ -205,6 +267,7 @@ public class GraphArchive extends FieldArchive implements
         trace("Loading $ from $", metadata, resource());
         var graph = metadata.dataSpecification().newGraph(metadata.withName(resource().fileName().name()));
         graph.addListener(listener);
+        graph.attributeStorage(attributeStorage);
         graph.load(this);
         return graph;
     }
@@ -247,9 +310,34 @@ public class GraphArchive extends FieldArchive implements
         zip().save(require(KryoObjectSerializer.class), "metadata", new SerializableObject<>(metadata, VERSION));
     }
 
+    /**
+     * Saves the given warm profile in this archive, so that the attributes in it are prefetched when the archive is
+     * loaded
+     */
+    public void saveWarmProfile(WarmProfile profile)
+    {
+        zip().save(require(KryoObjectSerializer.class), WARM_PROFILE, new SerializableObject<>(profile.asString(), VERSION));
+    }
+
     @Override
     public String toString()
     {
         return name();
     }
+
+    /**
+     * Returns the warm profile saved in this archive, or null if there is none
+     */
+    public WarmProfile warmProfile()
+    {
+        if (zip().entry(WARM_PROFILE) != null)
+        {
+            VersionedObject<String> profile = zip().loadVersionedObject(require(KryoObjectSerializer.class), WARM_PROFILE);
+            if (profile != null)
+            {
+                return WarmProfile.parse(profile.object());
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,151 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.graph.io.archive;
+
+import com.telenav.mesakit.graph.specifications.library.attributes.AttributeColumn;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A read-only column of fixed-width signed integer values that is memory-mapped from a {@link ColumnarGraphArchive}.
+ * Values are read directly from the mapping, so a column costs no heap and no deserialization time, and the pages of a
+ * column are shared through the operating system's page cache by all processes that map the same file.
+ * <p>
+ * Values are retrieved with {@link #get(int)} or {@link #safeGet(int)}, which returns the column's null value when
+ * the index is beyond the end of the column, the same way that the primitive lists the column was saved from do.
+ * Reads use absolute offsets into the mapping, so a column can be read by any number of threads at once.
+ *
+ * @see ColumnarGraphArchive
+ * @see MappedColumns
+ */
+public class MappedColumn implements AttributeColumn
+{
+    /** The mapped values */
+    private final ByteBuffer buffer;
+
+    /** True if the null value is a null, rather than just the value returned beyond the end of this column */
+    private final boolean hasNull;
+
+    /** The name of this column, as [store].[field] */
+    private final String name;
+
+    /** The value returned for indexes that are beyond the end of this column */
+    private final long nullValue;
+
+    /** The number of values in this column */
+    private final int size;
+
+    /** The width of each value in bytes, either 1, 2, 4 or 8 */
+    private final int width;
+
+    MappedColumn(String name, ByteBuffer buffer, int width, int size, boolean hasNull, long nullValue)
+    {
+        this.hasNull = hasNull;
+        this.name = name;
+        this.buffer = buffer;
+        this.width = width;
+        this.size = size;
+        this.nullValue = nullValue;
+    }
+
+    /**
+     * Returns the value at the given index, which must be less than {@link #size()}
+     */
+    @Override
+    public long get(int index)
+    {
+        switch (width)
+        {
+            case 1:
+                return buffer.get(index);
+
+            case 2:
+                return buffer.getShort(index << 1);
+
+            case 4:
+                return buffer.getInt(index << 2);
+
+            default:
+                return buffer.getLong(index << 3);
+        }
+    }
+
+    /**
+     * Returns true if this column has a null value
+     */
+    @Override
+    public boolean hasNull()
+    {
+        return hasNull;
+    }
+
+    /**
+     * Returns true if the given value is this column's null value
+     */
+    @Override
+    public boolean isNull(long value)
+    {
+        return hasNull && value == nullValue;
+    }
+
+    @Override
+    public String name()
+    {
+        return name;
+    }
+
+    /**
+     * Returns the value returned for indexes beyond the end of this column
+     */
+    @Override
+    public long nullValue()
+    {
+        return nullValue;
+    }
+
+    /**
+     * Returns the value at the given index, or the null value if the index is outside this column
+     */
+    @Override
+    public long safeGet(int index)
+    {
+        return index >= 0 && index < size ? get(index) : nullValue;
+    }
+
+    /**
+     * Returns the value at the given index as an int, or the null value if the index is outside this column
+     */
+    @Override
+    public int safeGetInt(int index)
+    {
+        return (int) safeGet(index);
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name + " (" + size + " x " + width + " bytes)";
+    }
+}
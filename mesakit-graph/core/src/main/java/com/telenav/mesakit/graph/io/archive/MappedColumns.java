@@ -0,0 +1,75 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.graph.io.archive;
+
+import com.telenav.kivakit.core.value.count.Bytes;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The set of {@link MappedColumn}s mapped from a {@link ColumnarGraphArchive}, by column name ([store].[field]).
+ *
+ * @see ColumnarGraphArchive
+ * @see MappedColumn
+ */
+public class MappedColumns
+{
+    /** The columns by name */
+    private final Map<String, MappedColumn> columnForName = new HashMap<>();
+
+    /** The total number of bytes mapped */
+    private long bytes;
+
+    /**
+     * Returns the total size of the mapped columns
+     */
+    public Bytes bytes()
+    {
+        return Bytes.bytes(bytes);
+    }
+
+    /**
+     * Returns the column with the given name, or null if there is no such column
+     */
+    public MappedColumn column(String name)
+    {
+        return columnForName.get(name);
+    }
+
+    /**
+     * Returns the number of mapped columns
+     */
+    public int size()
+    {
+        return columnForName.size();
+    }
+
+    @Override
+    public String toString()
+    {
+        return size() + " columns (" + bytes() + ")";
+    }
+
+    void add(MappedColumn column, long bytes)
+    {
+        columnForName.put(column.name(), column);
+        this.bytes += bytes;
+    }
+}
@@ -24,6 +24,7 @@ import com.telenav.kivakit.core.logging.Logger;
 import com.telenav.kivakit.core.logging.LoggerFactory;
 import com.telenav.kivakit.resource.Resource;
 import com.telenav.kivakit.resource.FileName;
+import com.telenav.mesakit.graph.Edge;
 import com.telenav.mesakit.graph.Graph;
 import com.telenav.mesakit.graph.Metadata;
 import com.telenav.mesakit.graph.io.archive.GraphArchive;
@@ -97,7 +98,7 @@ public class CopyingGraphLoader extends BaseGraphLoader
             // Go through the forward edges in the source graph,
             var edgeAdder = store.edgeStore().adder();
             var relationAdder = store.relationStore().adder();
-            for (var edge : source.forwardEdgesIntersecting(constraints.bounds()))
+            for (var edge : edges(constraints))
             {
                 // and if the constraints include the edge,
                 if (constraints.includes(edge))
@@ -160,4 +161,21 @@ public class CopyingGraphLoader extends BaseGraphLoader
     {
         return source.resource();
     }
+
+    /**
+     * Returns the forward edges to copy from the source graph, in the order they should be added. Edges that don't
+     * match the constraints are skipped when they are copied.
+     */
+    protected Iterable<Edge> edges(GraphConstraints constraints)
+    {
+        return source.forwardEdgesIntersecting(constraints.bounds());
+    }
+
+    /**
+     * Returns the graph being copied
+     */
+    protected Graph source()
+    {
+        return source;
+    }
 }
@@ -0,0 +1,207 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.graph.io.load.loaders.reordering;
+
+import com.telenav.kivakit.core.time.Time;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.mesakit.graph.Edge;
+import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.graph.io.load.GraphConstraints;
+import com.telenav.mesakit.graph.io.load.GraphLoader;
+import com.telenav.mesakit.graph.io.load.loaders.copying.CopyingGraphLoader;
+import com.telenav.mesakit.map.geography.Location;
+import com.telenav.mesakit.map.geography.indexing.curve.HilbertCurve;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A {@link GraphLoader} that copies a source graph, adding its edges in an order with good locality of reference.
+ * Edge indexes are assigned in the order edges are added and vertex indexes in the order vertexes are first reached by
+ * an edge, so every attribute column and the connectivity store of the copy are laid out in the new order. Neighboring
+ * edges then tend to be near each other in memory, which helps routing and spatial scans stay in the CPU cache.
+ *
+ * @see Ordering
+ * @see Graph#createReordered(Ordering)
+ */
+public class ReorderingGraphLoader extends CopyingGraphLoader
+{
+    /** The order of the Hilbert curve, which must leave room for a 32-bit edge index in a positive long */
+    private static final int HILBERT_ORDER = HilbertCurve.DEFAULT_ORDER - 1;
+
+    /**
+     * The order in which to add edges
+     */
+    public enum Ordering
+    {
+        /** Edges are sorted by the position of their "from" vertex along a Hilbert curve over the graph's bounds */
+        HILBERT,
+
+        /** Edges are added as they are reached by a breadth-first traversal of the graph */
+        BREADTH_FIRST
+    }
+
+    /** The order to add edges in */
+    private final Ordering ordering;
+
+    /**
+     * @param source The source graph to copy (load) from
+     * @param ordering The order to add edges in
+     */
+    public ReorderingGraphLoader(Graph source, Ordering ordering)
+    {
+        super(source);
+        this.ordering = ordering;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Iterable<Edge> edges(GraphConstraints constraints)
+    {
+        var start = Time.now();
+        var edgeStore = source().edgeStore();
+        var indexes = ordering == Ordering.HILBERT ? hilbertOrder() : breadthFirstOrder();
+        information("Ordered $ edges of $ by $ in $", Count.count(indexes.length), source().name(), ordering, start.elapsedSince());
+
+        List<Edge> edges = new ArrayList<>(indexes.length);
+        for (var index : indexes)
+        {
+            edges.add(edgeStore.edgeForIndex(index));
+        }
+        return edges;
+    }
+
+    /**
+     * Returns the indexes of all forward edges in the order a breadth-first traversal of the graph reaches them, with
+     * any edges that can't be reached (such as closed roads) at the end
+     */
+    private int[] breadthFirstOrder()
+    {
+        var adjacency = source().vertexStore().adjacency();
+        var vertexes = adjacency.vertexCount();
+        var reached = new BitSet(vertexes);
+        var added = new BitSet();
+        var queue = new int[vertexes];
+        var order = new int[16_384];
+        var size = 0;
+
+        // Go through each vertex,
+        for (var seed = 1; seed < vertexes; seed++)
+        {
+            // and if it hasn't been reached yet, start a traversal from it
+            if (!reached.get(seed))
+            {
+                var head = 0;
+                var tail = 0;
+                queue[tail++] = seed;
+                reached.set(seed);
+                while (head < tail)
+                {
+                    var at = queue[head++];
+
+                    // by adding each edge leaving the vertex that hasn't been added,
+                    for (int offset = adjacency.outStart(at), end = adjacency.outEnd(at); offset < end; offset++)
+                    {
+                        var edgeIndex = Math.abs(adjacency.outEdge(offset));
+                        if (!added.get(edgeIndex))
+                        {
+                            added.set(edgeIndex);
+                            if (size == order.length)
+                            {
+                                order = Arrays.copyOf(order, size * 2);
+                            }
+                            order[size++] = edgeIndex;
+                        }
+
+                        // and queueing the vertex it leads to, if it hasn't been reached.
+                        var next = adjacency.outTarget(offset);
+                        if (!reached.get(next))
+                        {
+                            reached.set(next);
+                            queue[tail++] = next;
+                        }
+                    }
+
+                    // Also queue vertexes that lead to this one, so one-way streets don't cut the traversal short
+                    for (int offset = adjacency.inStart(at), end = adjacency.inEnd(at); offset < end; offset++)
+                    {
+                        var previous = adjacency.inSource(offset);
+                        if (!reached.get(previous))
+                        {
+                            reached.set(previous);
+                            queue[tail++] = previous;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Finally, add any forward edges that are not connected to a vertex
+        for (var edge : source().forwardEdges())
+        {
+            if (!added.get(edge.index()))
+            {
+                added.set(edge.index());
+                if (size == order.length)
+                {
+                    order = Arrays.copyOf(order, size * 2);
+                }
+                order[size++] = edge.index();
+            }
+        }
+
+        return Arrays.copyOf(order, size);
+    }
+
+    /**
+     * Returns the indexes of all forward edges sorted by the Hilbert index of their "from" vertex
+     */
+    private int[] hilbertOrder()
+    {
+        // Pack the Hilbert index of each edge's "from" vertex into the high bits and the edge index into the low 32
+        // bits, so that sorting the keys sorts the edges by Hilbert index and then by original index (the curve order
+        // is one less than the default to keep the keys positive),
+        var bounds = source().bounds();
+        var keys = new long[16_384];
+        var size = 0;
+        for (var edge : source().forwardEdges())
+        {
+            if (size == keys.length)
+            {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            var from = edge.fromLocationAsLong();
+            var hilbert = HilbertCurve.index(Location.latitude(from), Location.longitude(from), bounds, HILBERT_ORDER);
+            keys[size++] = (hilbert << 32) | edge.index();
+        }
+        Arrays.sort(keys, 0, size);
+
+        // then extract the edge indexes in sorted order.
+        var order = new int[size];
+        for (var index = 0; index < size; index++)
+        {
+            order[index] = (int) keys[index];
+        }
+        return order;
+    }
+}
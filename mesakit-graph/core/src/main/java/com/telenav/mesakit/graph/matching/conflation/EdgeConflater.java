@@ -27,10 +27,15 @@ import com.telenav.kivakit.core.logging.LoggerFactory;
 import com.telenav.mesakit.graph.Edge;
 import com.telenav.mesakit.graph.Graph;
 import com.telenav.mesakit.graph.ui.viewer.GraphDebugViewer;
+import com.telenav.mesakit.map.geography.indexing.ElementVisitor;
+import com.telenav.mesakit.map.geography.shape.polyline.Polyline;
+import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
 import com.telenav.mesakit.map.measurements.geographic.Angle;
 import com.telenav.mesakit.map.measurements.geographic.Distance;
 import com.telenav.mesakit.map.road.model.RoadFunctionalClass;
 
+import java.util.function.Predicate;
+
 import static com.telenav.kivakit.core.value.level.Percent.percent;
 
 public class EdgeConflater
@@ -124,6 +129,62 @@ public class EdgeConflater
      * Returns the set of conflations in the base map for the given enhancing edge.
      */
     public ConflationSet conflate(Edge enhancing)
+    {
+        // Visit all the edges that could possibly match in the base graph
+        var bounds = enhancing.bounds().expanded(maximumSnapDistance);
+        return conflate(enhancing, visitor -> base.forEachEdgeIntersecting(bounds, visitor));
+    }
+
+    /**
+     * Returns the set of conflations of the given enhancing edge with the given candidate edges from the base map, in
+     * the order they are given. Given the edges of {@link Graph#edgesIntersecting(Rectangle)} for the enhancing edge's
+     * bounds expanded by the maximum snap distance, this is the same as {@link #conflate(Edge)}.
+     */
+    public ConflationSet conflate(Edge enhancing, Iterable<Edge> candidates)
+    {
+        return conflate(enhancing, visitor ->
+        {
+            for (var candidate : candidates)
+            {
+                if (!visitor.onElement(candidate))
+                {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    public void conflateEdgesWithDifferentNames(boolean conflateEdgesWithDifferentNames)
+    {
+        this.conflateEdgesWithDifferentNames = conflateEdgesWithDifferentNames;
+    }
+
+    public void conflateToConstruction(boolean conflateToConstruction)
+    {
+        this.conflateToConstruction = conflateToConstruction;
+    }
+
+    public void maximumHeadingDeviation(Angle maximumHeadingDeviation)
+    {
+        this.maximumHeadingDeviation = maximumHeadingDeviation;
+    }
+
+    public void maximumSnapDistance(Distance maximumSnapDistance)
+    {
+        this.maximumSnapDistance = maximumSnapDistance;
+    }
+
+    public void minimumCloseness(Percent minimumCloseness)
+    {
+        this.minimumCloseness = minimumCloseness;
+    }
+
+    /**
+     * Returns the set of conflations of the given enhancing edge with the candidate edges passed to the visitor given to
+     * the candidates predicate
+     */
+    private ConflationSet conflate(Edge enhancing, Predicate<ElementVisitor<Edge>> candidates)
     {
         // Show current edge in viewer
         if (viewer != null)
@@ -138,67 +199,12 @@ public class EdgeConflater
         // Augment road shape
         var augmented = enhancing.roadShape().augmented(augmentationSpacing);
 
-        // Go through all the edges that could possibly match in the base graph
-        for (var base : base.edgesIntersecting(enhancing.bounds().expanded(maximumSnapDistance)))
+        // Visit each candidate edge
+        candidates.test(candidate ->
         {
-            // If we hit the debug edge identifier or road name defined at the top of this file,
-            if (base.identifier().asLong() == DEBUG_CANDIDATE_EDGE_IDENTIFIER || (base.roadName() != null
-                    && base.safeRoadName().toLowerCase().contains(DEBUG_CANDIDATE_ROAD_NAME.toLowerCase())))
-            {
-                // break at this line in the debugger (for convenience)
-                LOGGER.information("Base edge " + base + " (" + base.displayRoadName() + ") reached");
-            }
-
-            // We don't want to conflate a truly important enhancing edge (main, 1st or 2nd class)
-            // with a far less important edge like a footpath (4th class).
-            if (!shouldConflate(enhancing, base))
-            {
-                continue;
-            }
-
-            // If we don't want to conflate edges with different names
-            if (!conflateEdgesWithDifferentNames)
-            {
-                // and both edges are named, but their names differ
-                if (base.roadName() != null && enhancing.roadName() != null
-                        && !base.hasSameStandardizedBaseNameAs(enhancing))
-                {
-                    // then skip it
-                    continue;
-                }
-            }
-
-            // Augment the candidate
-            var augmentedCandidate = base.roadShape().augmented(augmentationSpacing);
-
-            // Determine closeness
-            Percent closeness;
-            Distance overlap;
-            if (augmented.length().isLessThan(augmentedCandidate.length()))
-            {
-                closeness = augmented.closeness(augmentedCandidate, maximumSnapDistance, maximumHeadingDeviation);
-                overlap = augmented.length().times(closeness);
-            }
-            else
-            {
-                closeness = augmentedCandidate.closeness(augmented, maximumSnapDistance, maximumHeadingDeviation);
-                overlap = augmentedCandidate.length().times(closeness);
-            }
-
-            // Show candidate edge in viewer
-            if (viewer != null)
-            {
-                viewer.candidate(base, "candidate (" + closeness + ")");
-                viewer.frameComplete();
-            }
-
-            // If the candidate edge is close enough
-            if (closeness.isGreaterThan(minimumCloseness))
-            {
-                // it is a valid conflation, so add it to the set of conflations
-                conflations.add(new Conflation(enhancing, base.forward(), closeness, overlap));
-            }
-        }
+            conflate(enhancing, augmented, candidate, conflations);
+            return true;
+        });
 
         // If there was at least one conflation,
         if (!conflations.isEmpty())
@@ -216,29 +222,68 @@ public class EdgeConflater
         return conflations;
     }
 
-    public void conflateEdgesWithDifferentNames(boolean conflateEdgesWithDifferentNames)
+    /**
+     * Adds a conflation to the given set if the base graph candidate edge is close enough to the enhancing edge
+     */
+    private void conflate(Edge enhancing, Polyline augmented, Edge candidate, ConflationSet conflations)
     {
-        this.conflateEdgesWithDifferentNames = conflateEdgesWithDifferentNames;
-    }
+        // If we hit the debug edge identifier or road name defined at the top of this file,
+        if (candidate.identifier().asLong() == DEBUG_CANDIDATE_EDGE_IDENTIFIER || (candidate.roadName() != null
+                && candidate.safeRoadName().toLowerCase().contains(DEBUG_CANDIDATE_ROAD_NAME.toLowerCase())))
+        {
+            // break at this line in the debugger (for convenience)
+            LOGGER.information("Base edge " + candidate + " (" + candidate.displayRoadName() + ") reached");
+        }
 
-    public void conflateToConstruction(boolean conflateToConstruction)
-    {
-        this.conflateToConstruction = conflateToConstruction;
-    }
+        // We don't want to conflate a truly important enhancing edge (main, 1st or 2nd class)
+        // with a far less important edge like a footpath (4th class).
+        if (!shouldConflate(enhancing, candidate))
+        {
+            return;
+        }
 
-    public void maximumHeadingDeviation(Angle maximumHeadingDeviation)
-    {
-        this.maximumHeadingDeviation = maximumHeadingDeviation;
-    }
+        // If we don't want to conflate edges with different names
+        if (!conflateEdgesWithDifferentNames)
+        {
+            // and both edges are named, but their names differ
+            if (candidate.roadName() != null && enhancing.roadName() != null
+                    && !candidate.hasSameStandardizedBaseNameAs(enhancing))
+            {
+                // then skip it
+                return;
+            }
+        }
 
-    public void maximumSnapDistance(Distance maximumSnapDistance)
-    {
-        this.maximumSnapDistance = maximumSnapDistance;
-    }
+        // Augment the candidate
+        var augmentedCandidate = candidate.roadShape().augmented(augmentationSpacing);
 
-    public void minimumCloseness(Percent minimumCloseness)
-    {
-        this.minimumCloseness = minimumCloseness;
+        // Determine closeness
+        Percent closeness;
+        Distance overlap;
+        if (augmented.length().isLessThan(augmentedCandidate.length()))
+        {
+            closeness = augmented.closeness(augmentedCandidate, maximumSnapDistance, maximumHeadingDeviation);
+            overlap = augmented.length().times(closeness);
+        }
+        else
+        {
+            closeness = augmentedCandidate.closeness(augmented, maximumSnapDistance, maximumHeadingDeviation);
+            overlap = augmentedCandidate.length().times(closeness);
+        }
+
+        // Show candidate edge in viewer
+        if (viewer != null)
+        {
+            viewer.candidate(candidate, "candidate (" + closeness + ")");
+            viewer.frameComplete();
+        }
+
+        // If the candidate edge is close enough
+        if (closeness.isGreaterThan(minimumCloseness))
+        {
+            // it is a valid conflation, so add it to the set of conflations
+            conflations.add(new Conflation(enhancing, candidate.forward(), closeness, overlap));
+        }
     }
 
     /**
@@ -18,21 +18,27 @@
 
 package com.telenav.mesakit.graph.matching.snapping;
 
+import com.telenav.kivakit.core.value.count.Maximum;
 import com.telenav.mesakit.graph.Edge;
 import com.telenav.mesakit.graph.Graph;
 import com.telenav.mesakit.map.geography.Location;
+import com.telenav.mesakit.map.geography.indexing.rtree.ElementDistance;
 import com.telenav.mesakit.map.geography.shape.polyline.PolylineSnap;
 import com.telenav.mesakit.map.geography.shape.polyline.PolylineSnapper;
 import com.telenav.mesakit.map.measurements.geographic.Distance;
 import com.telenav.mesakit.map.measurements.geographic.Heading;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static com.telenav.mesakit.map.measurements.geographic.Angle.Chirality;
 
 /**
  * Takes a location and a heading and snaps it to the nearest edge in the given graph with an appropriate heading.
+ * Candidate edges are found with {@link Graph#edgesNearest(Location, Maximum, Distance, ElementDistance)}, which
+ * measures the distance to each edge by snapping to its road shape, so only edges within the maximum snap distance are
+ * considered, nearest first.
  *
  * @author jonathanl (shibo)
  */
@@ -55,27 +61,86 @@ public class GraphSnapper
         this.transportMode = transportMode;
     }
 
+    /**
+     * Returns the edge nearest to the given location with an appropriate heading, or null if there is none within the
+     * maximum snap distance. This stops searching as soon as the nearest edge is found.
+     */
+    public Edge closestEdge(Location location, Heading heading)
+    {
+        var candidates = new HashMap<Edge, PolylineSnap>();
+        var nearest = graph.edgesNearest(location, Maximum._1, maximumSnapDistance,
+                edge -> millimetersTo(edge, location, heading, candidates));
+        if (!nearest.isEmpty())
+        {
+            // The nearest edge is either the forward edge or its reverse, whichever snapped closer
+            var forward = nearest.get(0);
+            var reverse = forward.isTwoWay() ? forward.reversed() : null;
+            var reverseSnap = reverse == null ? null : candidates.get(reverse);
+            var forwardSnap = candidates.get(forward);
+            if (forwardSnap == null || (reverseSnap != null
+                    && reverseSnap.distanceToSource().isLessThan(forwardSnap.distanceToSource())))
+            {
+                return reverse;
+            }
+            return forward;
+        }
+        return null;
+    }
+
     /**
      * Returns the given location and heading snapped to the best edge, or null if there is no reasonable snap
      */
     public GraphSnap snap(Location location, Heading heading)
     {
-        // Determine the snap bounds
-        var bounds = location.within(maximumSnapDistance);
+        // Snap to every edge within the maximum snap distance, nearest first,
+        Map<Edge, PolylineSnap> candidates = new HashMap<>();
+        graph.edgesNearest(location, Maximum.MAXIMUM, maximumSnapDistance,
+                edge -> millimetersTo(edge, location, heading, candidates));
 
-        // Loop through edges that are close to the given location
-        var snapper = new PolylineSnapper();
+        // then find the closest of the candidate snaps.
         Edge closestEdge = null;
         PolylineSnap closestSnap = null;
-        Map<Edge, PolylineSnap> candidates = new HashMap<>();
-        for (var edge : graph.edgesIntersecting(bounds))
+        for (var entry : candidates.entrySet())
+        {
+            var snap = entry.getValue();
+            if (closestSnap == null || snap.distanceToSource().isLessThan(closestSnap.distanceToSource()))
+            {
+                closestEdge = entry.getKey();
+                closestSnap = snap;
+            }
+        }
+        return closestSnap == null ? null : new GraphSnap(closestEdge, closestSnap, candidates);
+    }
+
+    private boolean canSnapTo(Edge edge)
+    {
+        return edge.isNavigable(transportMode);
+    }
+
+    /**
+     * Snaps the given location and heading to the given forward edge and its reverse (if it's two-way), adding any
+     * acceptable snaps to the given candidates.
+     * <p>
+     * The returned distance orders edges in a nearest neighbour search, which bounds the distance to each node of the
+     * spatial index with an equirectangular distance from the search location. So that those bounds are never more
+     * than the distance to an edge beneath them, the distance to the snapped point is measured in the same way, rather
+     * than with the more precise {@link PolylineSnap#distanceToSource()} that candidates are compared by.
+     *
+     * @return The equirectangular distance to the closer of the acceptable snaps in millimeters, or
+     * {@link ElementDistance#EXCLUDED} if there are none
+     */
+    private long millimetersTo(Edge forward, Location location, Heading heading, Map<Edge, PolylineSnap> candidates)
+    {
+        var snapper = new PolylineSnapper();
+        var nearest = ElementDistance.EXCLUDED;
+        for (var edge : forward.isTwoWay() ? List.of(forward, forward.reversed()) : List.of(forward))
         {
             // If we can snap to the edge
             if (canSnapTo(edge))
             {
-                // and we snap to the edge's road shape
+                // and we snap to the edge's road shape within the maximum snap distance
                 var snap = snapper.snap(edge.roadShape(), location, heading);
-                if (snap != null)
+                if (snap != null && !snap.distanceToSource().isGreaterThan(maximumSnapDistance))
                 {
                     // and the heading deviation is "small"
                     if (heading == null || snap.segmentHeading().difference(heading, Chirality.SMALLEST)
@@ -83,23 +148,11 @@ public class GraphSnapper
                     {
                         // then the edge is a candidate
                         candidates.put(edge, snap);
-
-                        // and if we're closer than any previous snap
-                        if (closestSnap == null || snap.distanceToSource().isLessThan(closestSnap.distanceToSource()))
-                        {
-                            // then update the closest snap
-                            closestEdge = edge;
-                            closestSnap = snap;
-                        }
+                        nearest = Math.min(nearest, location.equirectangularDistanceToInMillimeters(snap));
                     }
                 }
             }
         }
-        return closestSnap == null ? null : new GraphSnap(closestEdge, closestSnap, candidates);
-    }
-
-    private boolean canSnapTo(Edge edge)
-    {
-        return edge.isNavigable(transportMode);
+        return nearest;
     }
 }
@@ -21,6 +21,7 @@ package com.telenav.mesakit.graph.specifications.common;
 import com.telenav.kivakit.core.collections.iteration.Iterables;
 import com.telenav.kivakit.core.string.Separators;
 import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.core.value.count.Maximum;
 import com.telenav.kivakit.interfaces.collection.NextIterator;
 import com.telenav.kivakit.interfaces.comparison.Filter;
 import com.telenav.kivakit.interfaces.comparison.Matcher;
@@ -35,14 +36,20 @@ import com.telenav.mesakit.graph.Vertex;
 import com.telenav.mesakit.graph.collections.EdgeSequence;
 import com.telenav.mesakit.graph.collections.VertexSequence;
 import com.telenav.mesakit.graph.identifiers.EdgeIdentifier;
+import com.telenav.mesakit.graph.io.archive.ColumnarGraphArchive;
 import com.telenav.mesakit.graph.io.archive.GraphArchive;
 import com.telenav.mesakit.graph.map.MapEdgeIdentifier;
 import com.telenav.mesakit.graph.specifications.library.attributes.AttributeSet;
+import com.telenav.mesakit.map.geography.Location;
+import com.telenav.mesakit.map.geography.indexing.ElementVisitor;
+import com.telenav.mesakit.map.geography.indexing.rtree.ElementDistance;
 import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
+import com.telenav.mesakit.map.measurements.geographic.Distance;
 import com.telenav.mesakit.map.measurements.motion.Speed;
 
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 
 import static com.telenav.kivakit.core.ensure.Ensure.ensureNotNull;
 
@@ -87,6 +94,72 @@ public class CommonGraph extends Graph
         }
     }
 
+    /**
+     * Passes each edge whose road shape intersects the given bounding rectangle to the visitor, following each forward
+     * edge with its reverse edge if it is two-way. Edges are visited in the same order as
+     * {@link #edgesIntersecting(Rectangle)}, unless the edge bounds are memory-mapped (see
+     * {@link #forEachForwardEdgeIntersecting(Rectangle, ElementVisitor)}).
+     */
+    @Override
+    public boolean forEachEdgeIntersecting(Rectangle bounds, ElementVisitor<Edge> visitor)
+    {
+        return forEachForwardEdgeIntersecting(bounds, edge ->
+                visitor.onElement(edge) && (!edge.isTwoWay() || visitor.onElement(edge.reversed())));
+    }
+
+    /**
+     * Passes each forward edge whose road shape intersects the given bounding rectangle to the visitor. If the graph
+     * was loaded with memory-mapped columns, the edges are found with the packed r-tree of edge bounds, read in place,
+     * and visited in the order of that tree. Otherwise they are visited straight from the edge spatial index.
+     */
+    @Override
+    public boolean forEachForwardEdgeIntersecting(Rectangle bounds, ElementVisitor<Edge> visitor)
+    {
+        ensureNotNull(bounds);
+
+        if (edgeCount().isGreaterThan(Count._0))
+        {
+            // If the edge bounds are memory-mapped,
+            var edgeStore = edgeStore();
+            if (edgeStore.isPackedSpatialIndexMapped())
+            {
+                // then search them in place, checking the road shape of each edge whose bounds intersect,
+                return edgeStore.packedSpatialIndex().forEachIntersecting(bounds.bottomInDm7(), bounds.leftInDm7(),
+                        bounds.topInDm7(), bounds.rightInDm7(), edgeIndex ->
+                        {
+                            var edge = edgeStore.edgeForIndex(edgeIndex);
+                            return !edge.intersects(bounds) || visitor.onElement(edge);
+                        });
+            }
+
+            // otherwise visit the edge spatial index.
+            var index = edgeStore.spatialIndex();
+            ensureNotNull(index);
+            return index.forEachIntersecting(bounds, visitor);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the forward edges nearest to the given location with a best-first search of the edge spatial index
+     */
+    @Override
+    public List<Edge> edgesNearest(Location location, Maximum count, Distance maximum, ElementDistance<Edge> distance)
+    {
+        ensureNotNull(location);
+
+        if (edgeCount().isGreaterThan(Count._0))
+        {
+            var index = edgeStore().spatialIndex();
+            ensureNotNull(index);
+            return index.nearest(location, count, maximum, distance);
+        }
+        else
+        {
+            return Collections.emptyList();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -210,10 +283,13 @@ public class CommonGraph extends Graph
         // Get the file the archive is targeting
         var file = archive.file();
 
-        // then save to that file with a ".tmp" extension"
+        // then save to that file with a ".tmp" extension" and the settings of the archive. Columns are named after
+        // and stamped with the archive they are saved alongside, so they are saved after the rename below.
         var temporaryFile = file.withExtension(Extension.TEMPORARY);
         temporaryFile.delete();
-        var temporary = new GraphArchive(this, temporaryFile, archive.mode(), archive.progressReporter());
+        var temporary = new GraphArchive(this, temporaryFile, archive.mode(), archive.progressReporter())
+                .attributeStorage(archive.attributeStorage())
+                .columnar(false);
         super.save(temporary);
         graphStore().save(temporary);
         temporary.close();
@@ -221,8 +297,14 @@ public class CommonGraph extends Graph
         // delete the original target file if we're overwriting
         file.delete();
 
-        // and rename the temporary archive to the final one
+        // and rename the temporary archive to the final one,
         temporary.file().renameTo(file);
+
+        // then if the archive is columnar, save the columns alongside the final archive
+        if (archive.isColumnar())
+        {
+            graphStore().saveColumns(listenTo(new ColumnarGraphArchive(file)));
+        }
     }
 
     @Override
@@ -29,10 +29,12 @@ import com.telenav.kivakit.core.value.count.Estimate;
 import com.telenav.kivakit.core.value.count.Maximum;
 import com.telenav.kivakit.primitive.collections.array.packed.SplitPackedArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.ByteArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.IntArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.LongArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.SplitByteArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.SplitIntArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.SplitLongArray;
+import com.telenav.kivakit.primitive.collections.list.PrimitiveList;
 import com.telenav.kivakit.primitive.collections.list.store.LongLinkedListStore;
 import com.telenav.kivakit.primitive.collections.map.multi.dynamic.LongToIntMultiMap;
 import com.telenav.kivakit.primitive.collections.map.scalars.IntToByteMap;
@@ -57,6 +59,7 @@ import com.telenav.mesakit.graph.identifiers.EdgeIdentifier;
 import com.telenav.mesakit.graph.identifiers.GraphElementIdentifier;
 import com.telenav.mesakit.graph.identifiers.RelationIdentifier;
 import com.telenav.mesakit.graph.io.archive.GraphArchive;
+import com.telenav.mesakit.graph.io.archive.MappedColumns;
 import com.telenav.mesakit.graph.io.load.GraphConstraints;
 import com.telenav.mesakit.graph.metadata.DataSpecification;
 import com.telenav.mesakit.graph.specifications.common.edge.EdgeAttributes;
@@ -65,6 +68,7 @@ import com.telenav.mesakit.graph.specifications.common.edge.store.index.Compress
 import com.telenav.mesakit.graph.specifications.common.edge.store.index.CompressedEdgeSpatialIndex;
 import com.telenav.mesakit.graph.specifications.common.edge.store.index.CompressedEdgeSpatialIndexKryoSerializer;
 import com.telenav.mesakit.graph.specifications.common.edge.store.stores.polyline.SplitPolylineStore;
+import com.telenav.mesakit.graph.specifications.common.edge.store.stores.roadname.RoadNameCache;
 import com.telenav.mesakit.graph.specifications.common.edge.store.stores.roadname.RoadNameStore;
 import com.telenav.mesakit.graph.specifications.common.element.ArchivedGraphElementStore;
 import com.telenav.mesakit.graph.specifications.common.element.GraphElementStore;
@@ -78,6 +82,8 @@ import com.telenav.mesakit.map.data.formats.pbf.model.identifiers.PbfWayIdentifi
 import com.telenav.mesakit.map.data.formats.pbf.model.tags.PbfTagList;
 import com.telenav.mesakit.map.geography.Location;
 import com.telenav.mesakit.map.geography.Precision;
+import com.telenav.mesakit.map.geography.indexing.rtree.PackedRTree;
+import com.telenav.mesakit.map.geography.indexing.rtree.PackedRTreeBuilder;
 import com.telenav.mesakit.map.geography.indexing.rtree.RTreeSpatialIndex;
 import com.telenav.mesakit.map.geography.shape.polyline.Polyline;
 import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
@@ -108,6 +114,7 @@ import static com.telenav.kivakit.validation.Validator.nullValidator;
 import static com.telenav.mesakit.graph.GraphElement.NULL_IDENTIFIER;
 import static com.telenav.mesakit.graph.GraphElement.VALIDATE_RAW;
 import static com.telenav.mesakit.graph.Metadata.CountType.ALLOW_ESTIMATE;
+import static com.telenav.mesakit.graph.specifications.library.attributes.BlockCompressedColumn.Encoding.FRAME_OF_REFERENCE;
 
 /**
  * An efficient store of edge information used by the flyweight {@link Edge} object to retrieve attributes. A sequence
@@ -253,6 +260,10 @@ public abstract class EdgeStore extends ArchivedGraphElementStore<Edge> implemen
                 {
                     super.onLoaded(store);
                     store.codec(metadata().roadNameCharacterCodec());
+                    if (predecodeRoadNames)
+                    {
+                        store.predecode();
+                    }
                 }
             };
 
@@ -379,6 +390,18 @@ public abstract class EdgeStore extends ArchivedGraphElementStore<Edge> implemen
     /** True if merging edges into this store */
     private boolean merging;
 
+    /** Packed r-tree of forward edge bounds, either mapped from a columnar archive or built on demand */
+    private transient volatile PackedRTree packedSpatialIndex;
+
+    /** True if the packed r-tree was mapped from a columnar archive rather than built */
+    private transient volatile boolean packedSpatialIndexMapped;
+
+    /** True if road names should be fully decoded when they are loaded */
+    private transient volatile boolean predecodeRoadNames;
+
+    /** The spatial index, published only once it is fully loaded so that readers need no lock */
+    private transient volatile CompressedEdgeSpatialIndex publishedSpatialIndex;
+
     /** Next relation identifier */
     private RelationIdentifier nextRelationIdentifier = new RelationIdentifier(1_000_000_000);
 
@@ -435,6 +458,21 @@ public abstract class EdgeStore extends ArchivedGraphElementStore<Edge> implemen
     protected EdgeStore(Graph graph)
     {
         super(graph);
+
+        // Compress integer columns that are read often but rarely need their full width when they're loaded,
+        FROM_VERTEX_IDENTIFIER.compression(FRAME_OF_REFERENCE);
+        TO_VERTEX_IDENTIFIER.compression(FRAME_OF_REFERENCE);
+        LENGTH_IN_MILLIMETERS.compression(FRAME_OF_REFERENCE);
+
+        // and allow the columns that are only read through loadedColumn() to be held off-heap
+        BOUNDS_BOTTOM_LEFT.allowOffHeap();
+        BOUNDS_TOP_RIGHT.allowOffHeap();
+        FREE_FLOW_SPEED_CATEGORY.allowOffHeap();
+        FROM_VERTEX_IDENTIFIER.allowOffHeap();
+        LENGTH_IN_MILLIMETERS.allowOffHeap();
+        ROAD_STATE.allowOffHeap();
+        ROAD_TYPE.allowOffHeap();
+        TO_VERTEX_IDENTIFIER.allowOffHeap();
     }
 
     /**
@@ -654,15 +692,82 @@ public abstract class EdgeStore extends ArchivedGraphElementStore<Edge> implemen
         temporaryRelations.initialize();
     }
 
+    /**
+     * Returns true if the {@link #packedSpatialIndex()} of this store is read in place from memory-mapped columns
+     */
+    public boolean isPackedSpatialIndexMapped()
+    {
+        return packedSpatialIndexMapped;
+    }
+
+    /**
+     * Returns a packed r-tree of the bounds of the forward edges in this store, whose element indexes are edge indexes.
+     * The tree is read in place from memory-mapped columns when they are attached to this store, and otherwise it is
+     * built from the edge bounds the first time it is needed. Spatial queries of a graph with a mapped tree search it
+     * instead of loading the edge {@link #spatialIndex()}.
+     *
+     * @see PackedRTree
+     * @see #isPackedSpatialIndexMapped()
+     */
+    public PackedRTree packedSpatialIndex()
+    {
+        // If the packed index has already been mapped or built, return it without locking
+        var index = packedSpatialIndex;
+        if (index != null)
+        {
+            return index;
+        }
+
+        synchronized (this)
+        {
+            // If no other thread built the index while we were waiting for the lock,
+            if (packedSpatialIndex == null)
+            {
+                // then pack the bounds of the forward edges.
+                var start = Time.now();
+                var builder = new PackedRTreeBuilder();
+                for (var edge : forwardEdges())
+                {
+                    builder.add(edge.index(), edge.bounds());
+                }
+                packedSpatialIndex = builder.build();
+                information("Built packed edge spatial index in $: $", start.elapsedSince(), packedSpatialIndex);
+            }
+            return packedSpatialIndex;
+        }
+    }
+
+    /**
+     * Decodes all road names up front (immediately if they are loaded, or otherwise as soon as they are loaded), so
+     * that road name lookups don't need to decode or consult the road name cache. This is intended for servers that
+     * have memory to spare.
+     */
+    public void predecodeRoadNames()
+    {
+        predecodeRoadNames = true;
+        var store = roadName;
+        if (store != null)
+        {
+            store.predecode();
+        }
+    }
+
     /**
      * Returns the bounds of the given edge
      */
     public final Rectangle retrieveBounds(Edge edge)
     {
+        var index = edge.index();
+        var bottomLeftColumn = BOUNDS_BOTTOM_LEFT.loadedColumn();
+        var topRightColumn = BOUNDS_TOP_RIGHT.loadedColumn();
+        if (bottomLeftColumn != null && topRightColumn != null)
+        {
+            return Rectangle.fromLongs(bottomLeftColumn.safeGet(index), topRightColumn.safeGet(index));
+        }
+
         BOUNDS_BOTTOM_LEFT.load();
         BOUNDS_TOP_RIGHT.load();
 
-        var index = edge.index();
         var bottomLeft = boundsBottomLeft.get(index);
         var topRight = boundsTopRight.get(index);
         return Rectangle.fromLongs(bottomLeft, topRight);
@@ -708,6 +813,11 @@ public abstract class EdgeStore extends ArchivedGraphElementStore<Edge> implemen
      */
     public final SpeedCategory retrieveFreeFlow(Edge edge)
     {
+        var column = FREE_FLOW_SPEED_CATEGORY.loadedColumn();
+        if (column != null)
+        {
+            return SpeedCategory.forIdentifier(column.safeGetInt(edge.index()));
+        }
         if (freeFlowSpeedCategory == null)
         {
             FREE_FLOW_SPEED_CATEGORY.load();
@@ -735,6 +845,11 @@ public abstract class EdgeStore extends ArchivedGraphElementStore<Edge> implemen
      */
     public final int retrieveFromVertexIdentifier(Edge edge)
     {
+        var column = edge.isReverse() ? TO_VERTEX_IDENTIFIER.loadedColumn() : FROM_VERTEX_IDENTIFIER.loadedColumn();
+        if (column != null)
+        {
+            return column.safeGetInt(edge.index());
+        }
         if (edge.isReverse())
         {
             if (toVertexIdentifier == null)
@@ -753,6 +868,37 @@ public abstract class EdgeStore extends ArchivedGraphElementStore<Edge> implemen
         }
     }
 
+    /**
+     * Returns the index of the "from" vertex of the edge with the given index, without creating an {@link Edge}. If
+     * the index is negative, the edge is the reverse of the edge with the absolute index.
+     */
+    public final int retrieveFromVertexIndex(int edgeIndex)
+    {
+        var reverse = edgeIndex < 0;
+        var index = reverse ? -edgeIndex : edgeIndex;
+        var column = reverse ? TO_VERTEX_IDENTIFIER.loadedColumn() : FROM_VERTEX_IDENTIFIER.loadedColumn();
+        if (column != null)
+        {
+            return column.safeGetInt(index);
+        }
+        if (reverse)
+        {
+            if (toVertexIdentifier == null)
+            {
+                TO_VERTEX_IDENTIFIER.load();
+            }
+            return toVertexIdentifier.safeGet(index);
+        }
+        else
+        {
+            if (fromVertexIdentifier == null)
+            {
+                FROM_VERTEX_IDENTIFIER.load();
+            }
+            return fromVertexIdentifier.safeGet(index);
+        }
+    }
+
     /**
      * Returns the number of HOV lanes for the given edge
      */
@@ -798,12 +944,15 @@ public abstract class EdgeStore extends ArchivedGraphElementStore<Edge> implemen
      */
     public final long retrieveLengthInMillimeters(Edge edge)
     {
-        if (lengthInMillimeters == null)
+        var column = LENGTH_IN_MILLIMETERS.loadedColumn();
+        if (column == null && lengthInMillimeters == null)
         {
             LENGTH_IN_MILLIMETERS.load();
         }
 
-        var millimeters = lengthInMillimeters.safeGet(edge.index());
+        var millimeters = column != null
+                ? column.safeGetInt(edge.index())
+                : lengthInMillimeters.safeGet(edge.index());
 
         // If we have a zero length edge (should not happen, but could), return 1mm distance to prevent
         // divide-by-zero errors
@@ -889,6 +1038,11 @@ public abstract class EdgeStore extends ArchivedGraphElementStore<Edge> implemen
      */
     public final RoadState retrieveRoadState(Edge edge)
     {
+        var column = ROAD_STATE.loadedColumn();
+        if (column != null)
+        {
+            return RoadState.forIdentifier(column.safeGetInt(edge.index()));
+        }
         if (roadState == null)
         {
             ROAD_STATE.load();
@@ -919,6 +1073,11 @@ public abstract class EdgeStore extends ArchivedGraphElementStore<Edge> implemen
      */
     public final RoadType retrieveRoadType(Edge edge)
     {
+        var column = ROAD_TYPE.loadedColumn();
+        if (column != null)
+        {
+            return RoadType.forIdentifier(column.safeGetInt(edge.index()));
+        }
         if (roadType == null)
         {
             ROAD_TYPE.load();
@@ -997,6 +1156,11 @@ public abstract class EdgeStore extends ArchivedGraphElementStore<Edge> implemen
      */
     public final int retrieveToVertexIdentifier(Edge edge)
     {
+        var column = edge.isReverse() ? FROM_VERTEX_IDENTIFIER.loadedColumn() : TO_VERTEX_IDENTIFIER.loadedColumn();
+        if (column != null)
+        {
+            return column.safeGetInt(edge.index());
+        }
         if (edge.isReverse())
         {
             if (fromVertexIdentifier == null)
@@ -1016,35 +1180,88 @@ public abstract class EdgeStore extends ArchivedGraphElementStore<Edge> implemen
     }
 
     /**
-     * Returns the edge spatial index either created freshly, or loaded from any {@link GraphArchive} attached to this
-     * store (by virtue of the store being loaded from a graph file)
+     * Returns the index of the "to" vertex of the edge with the given index, without creating an {@link Edge}. If
+     * the index is negative, the edge is the reverse of the edge with the absolute index.
      */
-    public synchronized RTreeSpatialIndex<Edge> spatialIndex()
+    public final int retrieveToVertexIndex(int edgeIndex)
     {
-        // If there's no spatial index
-        if (spatialIndex == null)
+        var reverse = edgeIndex < 0;
+        var index = reverse ? -edgeIndex : edgeIndex;
+        var column = reverse ? FROM_VERTEX_IDENTIFIER.loadedColumn() : TO_VERTEX_IDENTIFIER.loadedColumn();
+        if (column != null)
         {
-            // and there is an archive
-            //noinspection resource
-            if (archive() != null)
+            return column.safeGetInt(index);
+        }
+        if (reverse)
+        {
+            if (fromVertexIdentifier == null)
             {
-                // then load the spatial index from the graph file
-                var start = Time.now();
-                configureSerializer();
-                loadField("spatial-index");
-                assert spatialIndex != null : "No spatial index for " + graph().name();
-                spatialIndex.graph(graph());
-                graph().information("Loaded edge spatial index in $: $",
-                        start.elapsedSince(), spatialIndex.statistics());
+                FROM_VERTEX_IDENTIFIER.load();
             }
-            else
+            return fromVertexIdentifier.safeGet(index);
+        }
+        else
+        {
+            if (toVertexIdentifier == null)
             {
-                // otherwise, create the index from scratch
-                spatialIndex = new CompressedEdgeBulkSpatialIndexer(this).index(graph());
+                TO_VERTEX_IDENTIFIER.load();
             }
+            return toVertexIdentifier.safeGet(index);
+        }
+    }
+
+    /**
+     * Returns the cache of decoded road names, or null if road names haven't been loaded
+     */
+    public RoadNameCache roadNameCache()
+    {
+        var store = roadName;
+        return store == null ? null : store.cache();
+    }
+
+    /**
+     * Returns the edge spatial index either created freshly, or loaded from any {@link GraphArchive} attached to this
+     * store (by virtue of the store being loaded from a graph file). Once the index exists, this method takes no lock,
+     * so spatial queries from many threads don't contend with each other.
+     */
+    public RTreeSpatialIndex<Edge> spatialIndex()
+    {
+        // If the spatial index has already been published, return it without locking
+        var index = publishedSpatialIndex;
+        if (index != null)
+        {
+            return index;
         }
 
-        return spatialIndex;
+        synchronized (this)
+        {
+            // If no other thread created the spatial index while we were waiting for the lock
+            if (spatialIndex == null)
+            {
+                // and there is an archive
+                //noinspection resource
+                if (archive() != null)
+                {
+                    // then load the spatial index from the graph file
+                    var start = Time.now();
+                    configureSerializer();
+                    loadField("spatial-index");
+                    assert spatialIndex != null : "No spatial index for " + graph().name();
+                    spatialIndex.graph(graph());
+                    graph().information("Loaded edge spatial index in $: $",
+                            start.elapsedSince(), spatialIndex.statistics());
+                }
+                else
+                {
+                    // otherwise, create the index from scratch
+                    spatialIndex = new CompressedEdgeBulkSpatialIndexer(this).index(graph());
+                }
+            }
+
+            // then publish the fully loaded index to readers.
+            publishedSpatialIndex = spatialIndex;
+            return spatialIndex;
+        }
     }
 
     /**
@@ -1318,37 +1535,49 @@ public abstract class EdgeStore extends ArchivedGraphElementStore<Edge> implemen
 
                 problemIf(outer.retrieveForwardEdgeCount().asInt() != size(), "forward edge count doesn't match size");
 
-                // Go through each edge index
+                // Go through each edge index (reading compressed and off-heap attributes through their columns)
                 for (var index = 1; index < size() && !isInvalid(); index++)
                 {
                     // and check identifiers
                     problemIf(outer.fromNodeIdentifier == null, "all 'from' node identifiers are missing");
                     problemIf(outer.toNodeIdentifier == null, "all 'to' node identifiers are missing");
-                    problemIf(outer.fromVertexIdentifier == null, "all 'from' vertex identifiers are missing");
-                    problemIf(outer.toVertexIdentifier == null, "all 'to' vertex identifiers are missing");
+                    problemIf(isMissing(FROM_VERTEX_IDENTIFIER, () -> outer.fromVertexIdentifier),
+                            "all 'from' vertex identifiers are missing");
+                    problemIf(isMissing(TO_VERTEX_IDENTIFIER, () -> outer.toVertexIdentifier),
+                            "all 'to' vertex identifiers are missing");
 
-                    problemIf(!Precision.DM7.isValidLocation(outer.boundsBottomLeft.get(index)), "the bottom left bounds is invalid");
-                    problemIf(!Precision.DM7.isValidLocation(outer.boundsTopRight.get(index)), "the top right bounds is invalid");
+                    var bottomLeft = value(BOUNDS_BOTTOM_LEFT, () -> outer.boundsBottomLeft, index);
+                    var topRight = value(BOUNDS_TOP_RIGHT, () -> outer.boundsTopRight, index);
+                    problemIf(!Precision.DM7.isValidLocation(bottomLeft), "the bottom left bounds is invalid");
+                    problemIf(!Precision.DM7.isValidLocation(topRight), "the top right bounds is invalid");
 
                     var edgeIdentifier = retrieveIdentifier(index);
 
                     problemIf(isNull(outer.bridgeType, index), "the bridge type for edge ${long} at index $ is null", edgeIdentifier, index);
                     warningIf(isNull(outer.country, index), "the country for edge ${long} is null", edgeIdentifier);
-                    problemIf(isNull(outer.freeFlowSpeedCategory, index), "the free flow speed category for edge ${long} is null", edgeIdentifier);
-                    problemIf(isNull(outer.fromVertexIdentifier, index), "the from vertex identifier for edge ${long} is null", edgeIdentifier);
+                    problemIf(isNull(FREE_FLOW_SPEED_CATEGORY, () -> outer.freeFlowSpeedCategory, index),
+                            "the free flow speed category for edge ${long} is null", edgeIdentifier);
+                    problemIf(isNull(FROM_VERTEX_IDENTIFIER, () -> outer.fromVertexIdentifier, index),
+                            "the from vertex identifier for edge ${long} is null", edgeIdentifier);
                     problemIf(isNull(outer.fromNodeIdentifier, index), "the from node identifier for edge ${long} is null", edgeIdentifier);
                     problemIf(isNull(outer.hovLaneCount, index), "the HOV lane count for edge ${long} is null", edgeIdentifier);
                     problemIf(isNull(outer.laneCount, index), "the lane count for edge ${long} is null", edgeIdentifier);
-                    problemIf(isNull(outer.lengthInMillimeters, index), "the length for edge ${long} is null", edgeIdentifier);
+                    problemIf(isNull(LENGTH_IN_MILLIMETERS, () -> outer.lengthInMillimeters, index),
+                            "the length for edge ${long} is null", edgeIdentifier);
                     problemIf(isNull(outer.roadFunctionalClass, index), "the road functional class for edge ${long} is null", edgeIdentifier);
-                    problemIf(isNull(outer.roadState, index), "the road state for edge ${long} is null", edgeIdentifier);
+                    problemIf(isNull(ROAD_STATE, () -> outer.roadState, index),
+                            "the road state for edge ${long} is null", edgeIdentifier);
                     problemIf(isNull(outer.roadSubType, index), "the road sub-type for edge ${long} is null", edgeIdentifier);
                     problemIf(isNull(outer.roadSurface, index), "the road surface for edge ${long} is null", edgeIdentifier);
-                    problemIf(isNull(outer.roadType, index), "the road type for edge ${long} is null", edgeIdentifier);
-                    problemIf(isNull(outer.toVertexIdentifier, index), "the from vertex identifier for edge ${long} is null", edgeIdentifier);
+                    problemIf(isNull(ROAD_TYPE, () -> outer.roadType, index),
+                            "the road type for edge ${long} is null", edgeIdentifier);
+                    problemIf(isNull(TO_VERTEX_IDENTIFIER, () -> outer.toVertexIdentifier, index),
+                            "the to vertex identifier for edge ${long} is null", edgeIdentifier);
                     problemIf(isNull(outer.toNodeIdentifier, index), "the to node identifier for edge ${long} is null", edgeIdentifier);
-                    problemIf(outer.lengthInMillimeters.get(index) > Distance.EARTH_CIRCUMFERENCE.asMillimeters(),
-                            "the road length of edge ${long} is unreasonably long ($)", edgeIdentifier, Distance.millimeters(lengthInMillimeters.get(index)));
+                    var length = value(LENGTH_IN_MILLIMETERS, () -> outer.lengthInMillimeters, index);
+                    problemIf(length > Distance.EARTH_CIRCUMFERENCE.asMillimeters(),
+                            "the road length of edge ${long} is unreasonably long ($)", edgeIdentifier,
+                            Distance.millimeters(length));
                 }
             }
         };
@@ -1435,6 +1664,26 @@ public abstract class EdgeStore extends ArchivedGraphElementStore<Edge> implemen
         }
     }
 
+    /**
+     * Adds the packed spatial index as a single column, so it can be memory-mapped
+     */
+    @Override
+    protected void onAddColumns(Map<String, PrimitiveList> columns)
+    {
+        super.onAddColumns(columns);
+
+        var name = columnName("packed-spatial-index");
+        var block = packedSpatialIndex().toArray();
+        var column = new IntArray(name);
+        column.initialSize(Estimate.estimate(block.length));
+        column.initialize();
+        for (var value : block)
+        {
+            column.add(value);
+        }
+        columns.put(name, column);
+    }
+
     @Override
     protected void onAdded(Edge edge)
     {
@@ -1445,6 +1694,22 @@ public abstract class EdgeStore extends ArchivedGraphElementStore<Edge> implemen
         vertexStore().storeGradeSeparation(edge.to(), edge.to().gradeSeparation());
     }
 
+    /**
+     * Reads the packed spatial index in place from its memory-mapped column, if there is one
+     */
+    @Override
+    protected void onAttached(MappedColumns columns)
+    {
+        super.onAttached(columns);
+
+        var column = columns.column(columnName("packed-spatial-index"));
+        if (column != null)
+        {
+            packedSpatialIndex = PackedRTree.of(offset -> (int) column.get(offset));
+            packedSpatialIndexMapped = true;
+        }
+    }
+
     @Override
     protected void onCommit()
     {
@@ -1610,6 +1875,11 @@ public abstract class EdgeStore extends ArchivedGraphElementStore<Edge> implemen
      */
     private boolean isOneWay(int index)
     {
+        var column = ROAD_STATE.loadedColumn();
+        if (column != null)
+        {
+            return column.safeGet(index) == RoadState.ONE_WAY.longValue();
+        }
         if (roadState == null)
         {
             ROAD_STATE.load();
@@ -1622,6 +1892,11 @@ public abstract class EdgeStore extends ArchivedGraphElementStore<Edge> implemen
      */
     private boolean isTwoWay(int index)
     {
+        var column = ROAD_STATE.loadedColumn();
+        if (column != null)
+        {
+            return column.safeGet(index) == RoadState.TWO_WAY.longValue();
+        }
         if (roadState == null)
         {
             ROAD_STATE.load();
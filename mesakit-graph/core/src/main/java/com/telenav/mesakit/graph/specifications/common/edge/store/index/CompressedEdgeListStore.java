@@ -23,6 +23,8 @@ import com.telenav.kivakit.primitive.collections.CompressibleCollection;
 import com.telenav.mesakit.graph.Edge;
 import com.telenav.mesakit.graph.Graph;
 import com.telenav.mesakit.graph.specifications.common.vertex.store.EdgeArrayStore;
+import com.telenav.mesakit.map.geography.indexing.ElementVisitor;
+import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
 
 import java.util.AbstractList;
 import java.util.List;
@@ -76,6 +78,28 @@ public class CompressedEdgeListStore implements CompressibleCollection, NamedObj
         return store.compressionMethod();
     }
 
+    /**
+     * Passes each edge in the list with the given index that intersects the given rectangle to the visitor, until the
+     * visitor returns false. Edge indexes are read straight from the store, so the only objects created are the edges
+     * themselves.
+     *
+     * @return True if every intersecting edge was visited, false if the visitor stopped
+     */
+    public boolean forEachIntersecting(int list, Rectangle bounds, ElementVisitor<Edge> visitor)
+    {
+        var edgeStore = graph.edgeStore();
+        var size = store.size(list);
+        for (var position = 0; position < size; position++)
+        {
+            var edge = edgeStore.edgeForIndex(store.edgeIndex(list, position));
+            if (edge.intersects(bounds) && !visitor.onElement(edge))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Returns the edge list for the given index
      */
@@ -19,6 +19,7 @@
 package com.telenav.mesakit.graph.specifications.common.edge.store.index;
 
 import com.telenav.mesakit.graph.Edge;
+import com.telenav.mesakit.map.geography.indexing.ElementVisitor;
 import com.telenav.mesakit.map.geography.indexing.rtree.InteriorNode;
 import com.telenav.mesakit.map.geography.indexing.rtree.Leaf;
 import com.telenav.mesakit.map.geography.indexing.rtree.RTreeSpatialIndex;
@@ -53,6 +54,15 @@ public class CompressedLeaf extends Leaf<Edge>
         bounds(Rectangle.fromBoundedObjects(list));
     }
 
+    /**
+     * Visits the edges of this leaf straight from the compressed edge list, without creating a list view of them
+     */
+    @Override
+    protected boolean forEachIntersecting(Rectangle that, ElementVisitor<Edge> visitor)
+    {
+        return edges().forEachIntersecting(list, that, visitor);
+    }
+
     @Override
     protected void addElement(Edge element)
     {
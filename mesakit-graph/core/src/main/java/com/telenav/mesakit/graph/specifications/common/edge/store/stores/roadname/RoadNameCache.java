@@ -0,0 +1,182 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.graph.specifications.common.edge.store.stores.roadname;
+
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.core.value.count.Maximum;
+import com.telenav.mesakit.map.road.model.RoadName;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * A bounded cache of decoded road names, keyed by the index of the encoded name in a {@link RoadNameStore}. The cache
+ * is direct-mapped: each name index has exactly one slot, and storing a name in an occupied slot evicts the name that
+ * was there. Entries are immutable, so readers and writers never lock. A racing reader may miss an entry that was just
+ * stored, which only costs a redundant decode.
+ * <p>
+ * The number of hits, misses and evictions is available from {@link #hits()}, {@link #misses()} and
+ * {@link #evictions()}.
+ */
+public class RoadNameCache
+{
+    /**
+     * An immutable cache entry (final fields make the entry safe to publish without locking)
+     */
+    private static final class Entry
+    {
+        final int nameIndex;
+
+        final RoadName name;
+
+        Entry(int nameIndex, RoadName name)
+        {
+            this.nameIndex = nameIndex;
+            this.name = name;
+        }
+    }
+
+    /** Cache slots, a power of two in length */
+    private final Entry[] entries;
+
+    /** The number of bits to shift a hash to get a slot */
+    private final int shift;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximum The maximum number of names to cache (rounded up to a power of two)
+     */
+    public RoadNameCache(Maximum maximum)
+    {
+        ensure(maximum.asInt() > 1, "Road name cache must hold at least two names");
+
+        var bits = 32 - Integer.numberOfLeadingZeros(maximum.asInt() - 1);
+        entries = new Entry[1 << bits];
+        shift = 32 - bits;
+    }
+
+    /**
+     * Returns the maximum number of names this cache can hold
+     */
+    public Count capacity()
+    {
+        return Count.count(entries.length);
+    }
+
+    /**
+     * Removes all names from this cache
+     */
+    public void clear()
+    {
+        for (var index = 0; index < entries.length; index++)
+        {
+            entries[index] = null;
+        }
+    }
+
+    /**
+     * Returns the number of names that have been evicted to make room for other names
+     */
+    public Count evictions()
+    {
+        return Count.count(evictions.sum());
+    }
+
+    /**
+     * Returns the cached road name for the given name index, or null if it isn't cached
+     */
+    public RoadName get(int nameIndex)
+    {
+        var entry = entries[slot(nameIndex)];
+        if (entry != null && entry.nameIndex == nameIndex)
+        {
+            hits.increment();
+            return entry.name;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Returns the number of lookups that found a cached name
+     */
+    public Count hits()
+    {
+        return Count.count(hits.sum());
+    }
+
+    /**
+     * Returns the number of lookups that did not find a cached name
+     */
+    public Count misses()
+    {
+        return Count.count(misses.sum());
+    }
+
+    /**
+     * Caches the given road name for the given name index, evicting any other name in the same slot
+     */
+    public void put(int nameIndex, RoadName name)
+    {
+        var slot = slot(nameIndex);
+        var existing = entries[slot];
+        if (existing != null && existing.nameIndex != nameIndex)
+        {
+            evictions.increment();
+        }
+        entries[slot] = new Entry(nameIndex, name);
+    }
+
+    /**
+     * Returns the number of names in this cache
+     */
+    public Count size()
+    {
+        var size = 0;
+        for (var entry : entries)
+        {
+            if (entry != null)
+            {
+                size++;
+            }
+        }
+        return Count.count(size);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[RoadNameCache size = " + size() + ", hits = " + hits() + ", misses = " + misses()
+                + ", evictions = " + evictions() + "]";
+    }
+
+    /**
+     * Returns the slot for the given name index, spreading nearby indexes across the cache with a multiplicative hash
+     */
+    private int slot(int nameIndex)
+    {
+        return (nameIndex * 0x9E3779B9) >>> shift;
+    }
+}
@@ -30,11 +30,15 @@ import com.telenav.kivakit.data.compression.codecs.huffman.character.HuffmanChar
 import com.telenav.kivakit.interfaces.lifecycle.Initializable;
 import com.telenav.kivakit.interfaces.naming.NamedObject;
 import com.telenav.kivakit.primitive.collections.array.scalars.SplitByteArray;
+import com.telenav.kivakit.primitive.collections.map.scalars.IntToIntMap;
 import com.telenav.kivakit.primitive.collections.map.scalars.LongToIntMap;
 import com.telenav.mesakit.graph.Edge;
 import com.telenav.mesakit.graph.Metadata;
 import com.telenav.mesakit.map.road.model.RoadName;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Map;
 import java.util.WeakHashMap;
 
 import static com.telenav.kivakit.data.compression.SymbolConsumer.Directive.STOP;
@@ -50,6 +54,15 @@ public class RoadNameStore implements NamedObject, Initializable
 
     private static final BitDiagram.BitField ORDINAL = KEY.field('O');
 
+    /** The maximum number of decoded road names to cache in each store */
+    private static final Maximum CACHE_SIZE = Maximum.maximum(65_536);
+
+    /**
+     * Road names shared by all predecoded stores, so each distinct name is held in memory only once. Names are held
+     * weakly, so they are released when no loaded store uses them any longer.
+     */
+    private static final Map<String, WeakReference<RoadName>> SHARED_NAMES = new WeakHashMap<>();
+
     /** Efficient store of road names */
     private SplitByteArray names;
 
@@ -70,7 +83,14 @@ public class RoadNameStore implements NamedObject, Initializable
      */
     private final transient CacheMap<String, Integer> pool = new CacheMap<>(Maximum._8192);
 
-    private final transient WeakHashMap<Long, String> cache = new WeakHashMap<>();
+    /** Recently decoded road names */
+    private final transient RoadNameCache cache = new RoadNameCache(CACHE_SIZE);
+
+    /** The dense ordinal in the predecoded array of each name index, if the store has been predecoded */
+    private transient IntToIntMap predecodedOrdinals;
+
+    /** Every distinct road name by dense ordinal, if the store has been predecoded */
+    private transient volatile RoadName[] predecoded;
 
     public RoadNameStore(String objectName, Estimate initialSize, Metadata metadata)
     {
@@ -86,6 +106,14 @@ public class RoadNameStore implements NamedObject, Initializable
     {
     }
 
+    /**
+     * Returns the cache of decoded road names, for inspecting its hit, miss and eviction counts
+     */
+    public RoadNameCache cache()
+    {
+        return cache;
+    }
+
     public void codec(HuffmanCharacterCodec codec)
     {
         this.codec = codec;
@@ -98,26 +126,40 @@ public class RoadNameStore implements NamedObject, Initializable
         var nameIndex = keyToNameIndex.get(key);
         if (!keyToNameIndex.isNull(nameIndex))
         {
-            synchronized (cache)
+            // If all names have been decoded, look the name up by its ordinal,
+            var predecoded = this.predecoded;
+            if (predecoded != null)
             {
-                var cached = cache.get(key);
-                if (cached == null)
+                var ordinal = predecodedOrdinals.get(nameIndex);
+                if (!predecodedOrdinals.isNull(ordinal) && predecoded[ordinal] != null)
                 {
-                    var name = new MutableValue<String>();
-                    codec.decode(names.sublist(nameIndex, 256), (ordinal, decoded) ->
-                    {
-                        name.set(decoded);
-                        return STOP;
-                    });
-                    cached = name.get();
-                    cache.put(key, cached);
+                    return predecoded[ordinal];
                 }
-                return RoadName.forName(cached);
             }
+
+            // otherwise, check the cache and decode the name if it's not there.
+            var name = cache.get(nameIndex);
+            if (name == null)
+            {
+                name = RoadName.forName(decode(nameIndex));
+                if (name != null)
+                {
+                    cache.put(nameIndex, name);
+                }
+            }
+            return name;
         }
         return null;
     }
 
+    /**
+     * Returns true if all names in this store have been decoded by {@link #predecode()}
+     */
+    public boolean isPredecoded()
+    {
+        return predecoded != null;
+    }
+
     @Override
     public void objectName(String objectName)
     {
@@ -143,6 +185,38 @@ public class RoadNameStore implements NamedObject, Initializable
         keyToNameIndex.initialize();
     }
 
+    /**
+     * Decodes every name in this store up front, interning the names in a weak table shared by all road name stores, so
+     * that no further decoding or cache lookups are needed. This uses more memory and is intended for servers that
+     * have memory to spare. Names are held in an array with one entry per distinct name, indexed by a dense ordinal
+     * for each name index, rather than in an array as large as the encoded names.
+     */
+    public synchronized void predecode()
+    {
+        if (predecoded == null)
+        {
+            // Give each distinct name index an ordinal and decode its name
+            var ordinals = new IntToIntMap(objectName() + ".predecodedOrdinals");
+            ordinals.initialize();
+            var predecoded = new ArrayList<RoadName>();
+            var keys = keyToNameIndex.keys();
+            while (keys.hasNext())
+            {
+                var nameIndex = keyToNameIndex.get(keys.next());
+                if (ordinals.isNull(ordinals.get(nameIndex)))
+                {
+                    var name = decode(nameIndex);
+                    ordinals.put(nameIndex, predecoded.size());
+                    predecoded.add(name == null ? null : shared(name));
+                }
+            }
+
+            // then publish the names after their ordinals, so readers that see the names see the ordinals too.
+            predecodedOrdinals = ordinals;
+            this.predecoded = predecoded.toArray(new RoadName[0]);
+        }
+    }
+
     public void set(Edge edge, RoadName.Type type, int roadNameOrdinal, RoadName roadName)
     {
         if (roadName != null)
@@ -194,6 +268,43 @@ public class RoadNameStore implements NamedObject, Initializable
         return count;
     }
 
+    /**
+     * Returns the road name for the given name from the table shared by all stores, adding it if it's not there
+     */
+    private static RoadName shared(String name)
+    {
+        synchronized (SHARED_NAMES)
+        {
+            // Look up the name in the table, and if it's not there or has been released,
+            var reference = SHARED_NAMES.get(name);
+            var roadName = reference == null ? null : reference.get();
+            if (roadName == null)
+            {
+                // create it and add it, keyed by its own string so the entry lives as long as the road name does
+                roadName = RoadName.forName(name);
+                if (roadName != null)
+                {
+                    SHARED_NAMES.put(roadName.name(), new WeakReference<>(roadName));
+                }
+            }
+            return roadName;
+        }
+    }
+
+    /**
+     * Returns the name encoded at the given index in the names array
+     */
+    private String decode(int nameIndex)
+    {
+        var name = new MutableValue<String>();
+        codec.decode(names.sublist(nameIndex, 256), (ordinal, decoded) ->
+        {
+            name.set(decoded);
+            return STOP;
+        });
+        return name.get();
+    }
+
     /**
      * Returns a pseudo-index for a given edgeIndex, type and road-name ordinal
      */
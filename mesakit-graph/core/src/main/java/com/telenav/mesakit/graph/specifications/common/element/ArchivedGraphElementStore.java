@@ -23,12 +23,15 @@ import com.telenav.kivakit.core.logging.LoggerFactory;
 import com.telenav.kivakit.core.messaging.Debug;
 import com.telenav.kivakit.core.registry.RegistryTrait;
 import com.telenav.kivakit.interfaces.loading.Unloadable;
+import com.telenav.kivakit.primitive.collections.list.PrimitiveList;
 import com.telenav.kivakit.resource.Resource;
 import com.telenav.kivakit.serialization.kryo.KryoObjectSerializer;
 import com.telenav.mesakit.graph.Graph;
 import com.telenav.mesakit.graph.GraphElement;
 import com.telenav.mesakit.graph.Metadata;
+import com.telenav.mesakit.graph.io.archive.ColumnarGraphArchive;
 import com.telenav.mesakit.graph.io.archive.GraphArchive;
+import com.telenav.mesakit.graph.io.archive.MappedColumns;
 import com.telenav.mesakit.graph.specifications.common.edge.store.EdgeStore;
 import com.telenav.mesakit.graph.specifications.common.relation.store.RelationStore;
 import com.telenav.mesakit.graph.specifications.common.vertex.store.VertexStore;
@@ -39,6 +42,8 @@ import com.telenav.mesakit.graph.specifications.library.attributes.AttributeSet;
 import com.telenav.mesakit.map.geography.Precision;
 import org.jetbrains.annotations.MustBeInvokedByOverriders;
 
+import java.util.Map;
+
 import static com.telenav.kivakit.core.ensure.Ensure.ensureNotNull;
 
 /**
@@ -47,7 +52,8 @@ import static com.telenav.kivakit.core.ensure.Ensure.ensureNotNull;
  * #loadAllExcept(AttributeSet)}. Loading of attributes is performed by an associated {@link AttributeLoader} which uses
  * {@link AttributeReference}s manage individual attributes. Archived stores can be unloaded from memory by calling the
  * method {@link #unload()} and the attached {@link GraphArchive} can be retrieved by subclasses with {@link
- * #archive()}.
+ * #archive()}. When the graph archive has a {@link ColumnarGraphArchive} alongside it, its memory-mapped columns are
+ * attached with {@link #attach(MappedColumns)}.
  *
  * @author jonathanl (shibo)
  * @see EdgeStore
@@ -67,6 +73,11 @@ public abstract class ArchivedGraphElementStore<T extends GraphElement> extends
      */
     private transient GraphArchive archive;
 
+    /**
+     * Columns memory-mapped from a columnar archive saved alongside the graph archive, if any
+     */
+    private transient MappedColumns columns;
+
     /**
      * The attribute loader
      */
@@ -114,6 +125,38 @@ public abstract class ArchivedGraphElementStore<T extends GraphElement> extends
         onAttached(archive);
     }
 
+    /**
+     * Adds the scalar attribute columns of this store to the given map by name ([store].[field]), so they can be saved
+     * to a {@link ColumnarGraphArchive}
+     */
+    public void addColumns(Map<String, PrimitiveList> columns)
+    {
+        for (var reference : attributeLoader().references())
+        {
+            if (reference.allocate() instanceof PrimitiveList list)
+            {
+                columns.put(columnName(reference.fieldName()), list);
+            }
+        }
+        onAddColumns(columns);
+    }
+
+    /**
+     * Attaches the given memory-mapped columns to the attribute references of this store, so values can be read from
+     * the columns without loading attributes from the graph archive
+     */
+    public final void attach(MappedColumns columns)
+    {
+        ensureNotNull(columns);
+
+        this.columns = columns;
+        for (var reference : attributeLoader().references())
+        {
+            reference.attach(columns.column(columnName(reference.fieldName())));
+        }
+        onAttached(columns);
+    }
+
     /**
      * Returns the loader for this attribute store
      */
@@ -229,6 +272,22 @@ public abstract class ArchivedGraphElementStore<T extends GraphElement> extends
         onUnloaded();
     }
 
+    /**
+     * Returns the name of the column for the given field of this store
+     */
+    protected String columnName(String fieldName)
+    {
+        return objectName() + "." + fieldName;
+    }
+
+    /**
+     * Returns any columns memory-mapped from a {@link ColumnarGraphArchive}, or null if there are none
+     */
+    protected MappedColumns columns()
+    {
+        return columns;
+    }
+
     /**
      * Loads the given attribute
      */
@@ -246,6 +305,23 @@ public abstract class ArchivedGraphElementStore<T extends GraphElement> extends
         archive.loadFieldOf(require(KryoObjectSerializer.class), this, fieldName);
     }
 
+    /**
+     * Called when columns are being added for saving to a {@link ColumnarGraphArchive}, so subclasses can add columns
+     * for data that is not held directly in attributes
+     */
+    @MustBeInvokedByOverriders
+    protected void onAddColumns(Map<String, PrimitiveList> columns)
+    {
+    }
+
+    /**
+     * Called after memory-mapped columns have been attached to this store
+     */
+    @MustBeInvokedByOverriders
+    protected void onAttached(MappedColumns columns)
+    {
+    }
+
     /**
      * Called after an archive has been attached to this store
      */
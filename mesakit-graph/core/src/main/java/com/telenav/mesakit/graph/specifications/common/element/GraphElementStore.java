@@ -74,6 +74,8 @@ import org.jetbrains.annotations.MustBeInvokedByOverriders;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 
 import static com.telenav.kivakit.core.ensure.Ensure.ensure;
 import static com.telenav.mesakit.graph.Metadata.CountType.ALLOW_ESTIMATE;
@@ -107,6 +109,76 @@ public abstract class GraphElementStore<T extends GraphElement> extends BaseRepe
         CREATE
     }
 
+    /**
+     * Validated heavyweight elements added by a single thread, waiting to be stored
+     */
+    private class ElementBuffer implements Addable<T>
+    {
+        /** The validated elements waiting to be stored */
+        private List<T> elements = new ArrayList<>();
+
+        /** The number of elements discarded by this buffer since it was last drained */
+        private int discarded;
+
+        @Override
+        public boolean onAdd(T element)
+        {
+            // Validate the element on this thread,
+            var heavyweight = validated(element);
+
+            List<T> full = null;
+            synchronized (this)
+            {
+                // and if it was invalid,
+                if (heavyweight == null)
+                {
+                    // then count it as discarded.
+                    discarded++;
+                    return false;
+                }
+
+                // Otherwise, buffer the element and if the buffer is full,
+                elements.add(heavyweight);
+                if (elements.size() >= BATCH_SIZE.asInt())
+                {
+                    // take the batch,
+                    full = elements;
+                    elements = new ArrayList<>();
+                }
+            }
+
+            // and store it outside the buffer lock, so other threads can keep validating elements.
+            if (full != null)
+            {
+                storeAll(full, 0);
+            }
+            return true;
+        }
+
+        @Override
+        public int size()
+        {
+            return GraphElementStore.this.size();
+        }
+
+        /**
+         * Stores any buffered elements
+         */
+        void drain()
+        {
+            List<T> remaining;
+            int discarded;
+            synchronized (this)
+            {
+                remaining = elements;
+                discarded = this.discarded;
+                elements = new ArrayList<>();
+                this.discarded = 0;
+            }
+            storeAll(remaining, discarded);
+        }
+    }
+
     protected abstract class StoreValidator extends BaseValidator
     {
         @Override
@@ -128,6 +200,32 @@ public abstract class GraphElementStore<T extends GraphElement> extends BaseRepe
             return list.isPrimitiveNull(list.safeGetPrimitive(index));
         }
 
+        /**
+         * Returns true if the given attribute has neither a column nor a loaded referent
+         */
+        protected boolean isMissing(AttributeReference<?> attribute, Supplier<PrimitiveList> list)
+        {
+            return attribute.loadedColumn() == null && list.get() == null;
+        }
+
+        /**
+         * Returns true if the value at the given index is null, reading it from the attribute's column if it has one
+         */
+        protected boolean isNull(AttributeReference<?> attribute, Supplier<PrimitiveList> list, int index)
+        {
+            var column = attribute.loadedColumn();
+            return column != null ? column.isNull(column.safeGet(index)) : isNull(list.get(), index);
+        }
+
+        /**
+         * Returns the value at the given index, reading it from the attribute's column if it has one
+         */
+        protected long value(AttributeReference<?> attribute, Supplier<PrimitiveList> list, int index)
+        {
+            var column = attribute.loadedColumn();
+            return column != null ? column.safeGet(index) : list.get().safeGetPrimitive(index);
+        }
+
         @Override
         protected Problem problem(String message, Object... parameters)
         {
@@ -188,6 +286,12 @@ public abstract class GraphElementStore<T extends GraphElement> extends BaseRepe
     /** The interface for batch adding for each thread */
     private ThreadLocal<Addable<T>> adder;
 
+    /** The buffer of validated elements for each thread when building in parallel */
+    private transient ThreadLocal<ElementBuffer> buffer;
+
+    /** All per-thread buffers, so they can be drained by {@link #flush()} */
+    private final transient List<ElementBuffer> buffers = new CopyOnWriteArrayList<>();
+
     /** A batch queue with an associated thread to speed up throughput */
     private Batcher<T> batcher;
 
@@ -215,6 +319,9 @@ public abstract class GraphElementStore<T extends GraphElement> extends BaseRepe
     /** The graph for which this is a graph */
     private final transient Graph graph;
 
+    /** True if elements are validated on the adding threads and stored in batches */
+    private transient volatile boolean parallel;
+
     private final AttributeReference<SplitLongArray> IDENTIFIER =
             new AttributeReference<>(this, GraphElementAttributes.get().IDENTIFIER, "identifier",
                     () -> (SplitLongArray) new SplitLongArray("identifier").initialSize(estimatedElements()));
@@ -308,10 +415,27 @@ public abstract class GraphElementStore<T extends GraphElement> extends BaseRepe
 
     /**
      * Returns an interface through which elements can be added to this store. When batching is enabled, this will be a
-     * {@link Batcher.BatchAdder} and when it's not, it will be a reference to {@link #internalAdd(GraphElement)}.
+     * {@link Batcher.BatchAdder} and when it's not, it will be a reference to {@link #internalAdd(GraphElement)}. When
+     * this store is building in parallel (see {@link #parallel(boolean)}), each thread gets its own buffering adder.
      */
     public synchronized Addable<T> adder()
     {
+        // If we are building in parallel,
+        if (parallel)
+        {
+            // then return the element buffer for this thread
+            if (buffer == null)
+            {
+                buffer = ThreadLocal.withInitial(() ->
+                {
+                    var buffer = new ElementBuffer();
+                    buffers.add(buffer);
+                    return buffer;
+                });
+            }
+            return buffer.get();
+        }
+
         // If batching is enabled
         if (BATCHING_ENABLED)
         {
@@ -462,10 +586,16 @@ public abstract class GraphElementStore<T extends GraphElement> extends BaseRepe
     }
 
     /**
-     * If batching is enabled, flushes any remaining items
+     * Stores any elements remaining in per-thread buffers and, if batching is enabled, flushes any remaining items. When
+     * building in parallel, this must be called after all adding threads have finished and before the store is read.
      */
     public synchronized void flush()
     {
+        for (var buffer : buffers)
+        {
+            buffer.drain();
+        }
+
         if (BATCHING_ENABLED)
         {
             if (!flushed)
@@ -531,6 +661,23 @@ public abstract class GraphElementStore<T extends GraphElement> extends BaseRepe
         resetIndex();
     }
 
+    /**
+     * Enables or disables parallel building. When enabled, each thread calling {@link #adder()} gets its own buffer.
+     * Elements added through it are validated and converted to heavyweight elements on the adding thread, and then
+     * stored in batches of {@link #BATCH_SIZE} elements while holding this store's lock. Any partially filled buffers
+     * are stored by {@link #flush()}, which is called by {@link #commit()}. Because batches from different threads can
+     * be stored in any order, element indexes are not deterministic when building in parallel, but element
+     * identifiers are.
+     */
+    public synchronized void parallel(boolean parallel)
+    {
+        if (this.parallel && !parallel)
+        {
+            flush();
+        }
+        this.parallel = parallel;
+    }
+
     /**
      * In special circumstance, it may be necessary to run logic and add extra elements to a committed element store.
      * This method runs the given code, allowing final additions.
@@ -559,6 +706,11 @@ public abstract class GraphElementStore<T extends GraphElement> extends BaseRepe
 
     public long retrieveIdentifier(int index)
     {
+        var column = IDENTIFIER.loadedColumn();
+        if (column != null)
+        {
+            return column.safeGet(index);
+        }
         IDENTIFIER.load();
         return identifier.safeGet(index);
     }
@@ -752,6 +904,10 @@ public abstract class GraphElementStore<T extends GraphElement> extends BaseRepe
             @Override
             protected void onValidate()
             {
+                // Restore any attributes that were replaced by columns when they were loaded, since validation reads
+                // attribute fields directly
+                outer.attributeLoader().restoreAll();
+
                 outer.IDENTIFIER.load();
                 outer.IDENTIFIER_TO_INDEX.load();
 
@@ -1023,8 +1179,33 @@ public abstract class GraphElementStore<T extends GraphElement> extends BaseRepe
      * @param element The {@link GraphElement} to add to this store
      * @return True if the element was added and false if it was invalid
      */
-    @SuppressWarnings("unchecked")
     private synchronized boolean internalAdd(T element)
+    {
+        // If the element is valid,
+        var heavyweight = validated(element);
+        if (heavyweight != null)
+        {
+            // then store it
+            return store(heavyweight);
+        }
+        else
+        {
+            discarded++;
+        }
+        return false;
+    }
+
+    private String qualifiedName()
+    {
+        return graph().name() + "-" + elementType().getSimpleName();
+    }
+
+    /**
+     * Adds the given validated heavyweight element to this store
+     *
+     * @return True if the element was added and false if this store has already been committed
+     */
+    private synchronized boolean store(T heavyweight)
     {
         // If we have already finalized changes to this store,
         if (committed)
@@ -1034,43 +1215,35 @@ public abstract class GraphElementStore<T extends GraphElement> extends BaseRepe
             return false;
         }
 
-        // If the element is valid
-        if (element.validator(GraphElement.VALIDATE_RAW).validate(DEBUG.listener()))
-        {
-            // NOTE: An element MUST be heavyweight to be added to a store. This is because a flyweight element cannot
-            // belong to two graphs at once. The flyweight element will have its own graph and index, but those fields
-            // will be overwritten prior to adding the element's values to storage. As soon as those fields are changed,
-            // it belongs to the new graph and its values can no longer be retrieved in order to add it.
-            var heavyweight = (T) element.asHeavyWeight();
-
-            // assign it to this graph,
-            heavyweight.graph(graph());
-
-            // and then add it to the store.
-            onAdding(heavyweight);
-            try
-            {
-                onAdd(heavyweight);
-                onAdded(heavyweight);
-                size++;
-            }
-            catch (Exception e)
-            {
-                warning(e, "Unable to add graph element $", heavyweight);
-            }
+        // Assign the element to this graph,
+        heavyweight.graph(graph());
 
-            return true;
+        // and then add it to the store.
+        onAdding(heavyweight);
+        try
+        {
+            onAdd(heavyweight);
+            onAdded(heavyweight);
+            size++;
         }
-        else
+        catch (Exception e)
         {
-            discarded++;
+            warning(e, "Unable to add graph element $", heavyweight);
         }
-        return false;
+
+        return true;
     }
 
-    private String qualifiedName()
+    /**
+     * Stores a batch of validated heavyweight elements from a per-thread buffer
+     */
+    private synchronized void storeAll(List<T> elements, int discarded)
     {
-        return graph().name() + "-" + elementType().getSimpleName();
+        this.discarded += discarded;
+        for (var element : elements)
+        {
+            store(element);
+        }
     }
 
     /**
@@ -1087,4 +1260,23 @@ public abstract class GraphElementStore<T extends GraphElement> extends BaseRepe
         ensure(this.identifier.get(index) == identifier);
         ensure(identifierToIndex.get(identifier) == index);
     }
+
+    /**
+     * Returns the heavyweight form of the given element, or null if it is not valid. This method does not modify the
+     * store, so it can be called concurrently by threads adding elements.
+     */
+    @SuppressWarnings("unchecked")
+    private T validated(T element)
+    {
+        // If the element is valid,
+        if (element.validator(GraphElement.VALIDATE_RAW).validate(DEBUG.listener()))
+        {
+            // NOTE: An element MUST be heavyweight to be added to a store. This is because a flyweight element cannot
+            // belong to two graphs at once. The flyweight element will have its own graph and index, but those fields
+            // will be overwritten prior to adding the element's values to storage. As soon as those fields are changed,
+            // it belongs to the new graph and its values can no longer be retrieved in order to add it.
+            return (T) element.asHeavyWeight();
+        }
+        return null;
+    }
 }
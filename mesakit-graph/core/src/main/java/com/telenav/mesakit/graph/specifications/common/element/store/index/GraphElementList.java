@@ -25,6 +25,7 @@ import com.telenav.kivakit.interfaces.comparison.Matcher;
 import com.telenav.kivakit.primitive.collections.array.scalars.LongArray;
 import com.telenav.kivakit.primitive.collections.iteration.LongIterator;
 import com.telenav.mesakit.graph.GraphElement;
+import com.telenav.mesakit.map.geography.indexing.ElementVisitor;
 import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
 import org.jetbrains.annotations.NotNull;
 
@@ -49,6 +50,28 @@ final class GraphElementList<T extends GraphElement> implements Iterable<T>
         identifiers().add(element.identifierAsLong());
     }
 
+    /**
+     * Passes each element in this list that is inside the given bounds to the visitor, going through the identifiers
+     * by index so that no iterator is created
+     *
+     * @return False if the visitor stopped the traversal
+     */
+    public boolean forEachInside(Rectangle bounds, ElementVisitor<T> visitor)
+    {
+        if (!isEmpty())
+        {
+            for (var at = 0; at < identifiers.size(); at++)
+            {
+                var element = index.forIdentifier(identifiers.get(at));
+                if (element.isInside(bounds) && !visitor.onElement(element))
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     public boolean isEmpty()
     {
         return identifiers == null || identifiers.isEmpty();
@@ -23,6 +23,7 @@ import com.telenav.kivakit.core.collections.iteration.BaseIterator;
 import com.telenav.kivakit.core.string.AsciiArt;
 import com.telenav.kivakit.core.value.count.Estimate;
 import com.telenav.mesakit.graph.GraphElement;
+import com.telenav.mesakit.map.geography.indexing.ElementVisitor;
 import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
 
 import java.io.PrintStream;
@@ -200,6 +201,28 @@ final class GraphElementQuadrant<T extends GraphElement>
         }
     }
 
+    boolean forEachInside(Rectangle bounds, ElementVisitor<T> visitor)
+    {
+        // Visit the elements retained in this quadrant,
+        if (!edges.forEachInside(bounds, visitor))
+        {
+            return false;
+        }
+
+        // then the elements in each child quadrant that intersects the bounds.
+        if (!isLeaf())
+        {
+            for (var child : children)
+            {
+                if (!child.isEmpty() && bounds.intersects(child.bounds) && !child.forEachInside(bounds, visitor))
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     Iterator<T> inside(Rectangle rectangle, Matcher<T> matcher)
     {
         return new QuadrantIterator(rectangle, matcher);
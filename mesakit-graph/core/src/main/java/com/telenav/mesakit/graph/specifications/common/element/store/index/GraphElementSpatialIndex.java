@@ -22,6 +22,7 @@ import com.telenav.kivakit.interfaces.comparison.Filter;
 import com.telenav.kivakit.interfaces.comparison.Matcher;
 import com.telenav.mesakit.graph.Graph;
 import com.telenav.mesakit.graph.GraphElement;
+import com.telenav.mesakit.map.geography.indexing.ElementVisitor;
 import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
 
 import java.io.PrintStream;
@@ -101,6 +102,18 @@ public abstract class GraphElementSpatialIndex<T extends GraphElement>
         root.dump(out, 0);
     }
 
+    /**
+     * Passes each element completely contained by the given bounding rectangle to the visitor, until the visitor
+     * returns false. Unlike {@link #inside(Rectangle)}, no iterators are created, although each element visited is
+     * created from its identifier.
+     *
+     * @return True if every element inside the bounds was visited, false if the visitor stopped the traversal
+     */
+    public boolean forEachInside(Rectangle bounds, ElementVisitor<T> visitor)
+    {
+        return root.forEachInside(bounds, visitor);
+    }
+
     public void graph(Graph graph)
     {
         this.graph = graph;
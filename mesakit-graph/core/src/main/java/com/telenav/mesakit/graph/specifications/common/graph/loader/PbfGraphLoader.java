@@ -19,6 +19,7 @@
 package com.telenav.mesakit.graph.specifications.common.graph.loader;
 
 import com.telenav.kivakit.core.progress.ProgressReporter;
+import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.resource.Resource;
 import com.telenav.mesakit.graph.Graph;
 import com.telenav.mesakit.graph.Metadata;
@@ -90,6 +91,9 @@ public abstract class PbfGraphLoader extends BaseGraphLoader
         /** True to include region information (which can be expensive if RTree lookups are required) */
         private Boolean regionInformation = true;
 
+        /** The number of threads to section ways with, or null for one per processor */
+        private Count sectioningThreads;
+
         public Region cleanCutTo()
         {
             return cleanCutTo;
@@ -123,6 +127,23 @@ public abstract class PbfGraphLoader extends BaseGraphLoader
             return this;
         }
 
+        /**
+         * Returns the number of threads to section ways with, or null for one per processor
+         */
+        public Count sectioningThreads()
+        {
+            return sectioningThreads;
+        }
+
+        /**
+         * Sets the number of threads to section ways with. Sectioned graphs are the same for any number of threads.
+         */
+        public Configuration sectioningThreads(Count sectioningThreads)
+        {
+            this.sectioningThreads = sectioningThreads;
+            return this;
+        }
+
         public void tagFilter(PbfTagFilter tagFilter)
         {
             this.tagFilter = tagFilter;
@@ -25,6 +25,7 @@ import com.telenav.kivakit.core.messaging.repeaters.BaseRepeater;
 import com.telenav.mesakit.graph.Graph;
 import com.telenav.mesakit.graph.Metadata;
 import com.telenav.mesakit.graph.io.convert.GraphConverter;
+import com.telenav.mesakit.graph.io.load.loaders.reordering.ReorderingGraphLoader.Ordering;
 import com.telenav.mesakit.graph.specifications.library.pbf.PbfDataSourceFactory;
 import com.telenav.mesakit.graph.specifications.osm.graph.converter.OsmPbfToGraphConverter;
 import org.jetbrains.annotations.MustBeInvokedByOverriders;
@@ -64,6 +65,8 @@ public abstract class PbfToGraphConverter extends BaseRepeater implements GraphC
 
         private PbfGraphLoader.Configuration loaderConfiguration = new PbfGraphLoader.Configuration();
 
+        private Ordering ordering;
+
         private boolean parallel;
 
         private Count threads = Count._4;
@@ -108,6 +111,25 @@ public abstract class PbfToGraphConverter extends BaseRepeater implements GraphC
             return this;
         }
 
+        /**
+         * Returns the order to renumber edges and vertexes in after conversion, or null to keep them in input order
+         */
+        public Ordering ordering()
+        {
+            return ordering;
+        }
+
+        /**
+         * Renumbers the edges and vertexes of converted graphs in the given order
+         *
+         * @see Graph#createReordered(Ordering)
+         */
+        public Configuration ordering(Ordering ordering)
+        {
+            this.ordering = ordering;
+            return this;
+        }
+
         public Configuration parallel(boolean parallel)
         {
             this.parallel = parallel;
@@ -194,6 +216,13 @@ public abstract class PbfToGraphConverter extends BaseRepeater implements GraphC
 
             // convert the data to a graph,
             var graph = onConvert(input, metadata);
+
+            // renumber it for locality if we were asked to,
+            if (graph != null && configuration.ordering != null)
+            {
+                graph = graph.createReordered(configuration.ordering);
+            }
+
             if (graph != null)
             {
                 // then let the subclass add anything else it wants
@@ -99,6 +99,7 @@ import java.util.Set;
 import static com.telenav.kivakit.core.ensure.Ensure.ensure;
 import static com.telenav.mesakit.graph.GraphElement.VALIDATE_RAW;
 import static com.telenav.mesakit.graph.Metadata.CountType.ALLOW_ESTIMATE;
+import static com.telenav.mesakit.graph.specifications.library.pbf.PbfDataSourceFactory.Type.PARALLEL_READER;
 import static com.telenav.mesakit.map.data.formats.pbf.processing.PbfDataProcessor.Action;
 import static com.telenav.mesakit.map.data.formats.pbf.processing.PbfDataProcessor.Action.ACCEPTED;
 import static com.telenav.mesakit.map.data.formats.pbf.processing.PbfDataProcessor.Action.DISCARDED;
@@ -390,6 +391,9 @@ public abstract class RawPbfGraphLoader extends PbfGraphLoader
     {
         var graph = store.graph();
 
+        // If the input is read on several threads at once, validate elements on the reading threads as they're added
+        store.parallel(dataSourceFactory().type() == PARALLEL_READER);
+
         placeAdder = ThreadLocal.withInitial(() -> store.placeStore().adder());
         edgeAdder = ThreadLocal.withInitial(() -> store.edgeStore().adder());
         relationAdder = ThreadLocal.withInitial(() -> store.relationStore().adder());
@@ -438,7 +442,8 @@ public abstract class RawPbfGraphLoader extends PbfGraphLoader
             @Override
             public void onEndWays()
             {
-                // Create vertexes for use in relation processing
+                // Store any edges still buffered by reading threads, and create vertexes for use in relation processing
+                store.flush();
                 store.vertexStore().addVertexes();
             }
 
@@ -501,7 +506,9 @@ public abstract class RawPbfGraphLoader extends PbfGraphLoader
             }
         });
 
+        // Store any elements still buffered and go back to adding elements one at a time
         store.flush();
+        store.parallel(false);
 
         var edgeStore = store.edgeStore();
         var relationStore = store.relationStore();
@@ -116,6 +116,9 @@ public abstract class NodeStore<T extends GraphNode> extends ArchivedGraphElemen
     protected NodeStore(Graph graph)
     {
         super(graph);
+
+        // Allow node locations, which are only read through loadedColumn(), to be held off-heap
+        NODE_LOCATION.allowOffHeap();
     }
 
     /**
@@ -173,6 +176,11 @@ public abstract class NodeStore<T extends GraphNode> extends ArchivedGraphElemen
      */
     public final boolean retrieveIsNodeSynthetic(GraphNode node)
     {
+        var column = NODE_IDENTIFIER.loadedColumn();
+        if (column != null)
+        {
+            return PbfNodeIdentifier.isSynthetic(column.safeGet(node.index()));
+        }
         if (nodeIdentifier == null)
         {
             NODE_IDENTIFIER.load();
@@ -201,12 +209,17 @@ public abstract class NodeStore<T extends GraphNode> extends ArchivedGraphElemen
         // If the vertex is valid,
         if (vertexIndex > 0)
         {
-            // get its location
-            NODE_LOCATION.load();
-            var location = nodeLocation.safeGet(vertexIndex);
+            // get its location from any mapped column,
+            var column = NODE_LOCATION.loadedColumn();
+            if (column == null)
+            {
+                // or from the loaded attribute,
+                NODE_LOCATION.load();
+            }
+            var location = column != null ? column.safeGet(vertexIndex) : nodeLocation.safeGet(vertexIndex);
 
             // and if that's valid,
-            if (!nodeLocation.isNull(location))
+            if (column != null ? !column.isNull(location) : !nodeLocation.isNull(location))
             {
                 // return a Location object
                 return location;
@@ -257,6 +270,10 @@ public abstract class NodeStore<T extends GraphNode> extends ArchivedGraphElemen
 
                 problemIf(outer.size() == 0, "it is empty");
 
+                // Restore any attributes that were replaced by columns when they were loaded, since validation reads
+                // attribute fields directly
+                outer.attributeLoader().restoreAll();
+
                 outer.NODE_IDENTIFIER.load();
                 outer.NODE_LOCATION.load();
                 outer.NODE_IDENTIFIER_TO_INDEX.load();
@@ -0,0 +1,256 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.graph.specifications.common.vertex.store;
+
+import com.telenav.mesakit.graph.specifications.common.edge.store.EdgeStore;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed-sparse-row (CSR) adjacency for the vertexes in a {@link ConnectivityStore}. For each vertex index, the
+ * "out" edges occupy the range [{@link #outStart(int)}, {@link #outEnd(int)}) of the {@link #outEdge(int)} and
+ * {@link #outTarget(int)} arrays, and the "in" edges occupy the range [{@link #inStart(int)}, {@link #inEnd(int)}) of
+ * the {@link #inEdge(int)} and {@link #inSource(int)} arrays. Edge indexes are signed, as with
+ * {@link EdgeStore#edgeForIndex(int)}, so that the reverse of a two-way edge is a negative index.
+ * <p>
+ * The edges for each vertex are in the same order as the edges in {@link ConnectivityStore#retrieveOutEdgeSequence(int)}
+ * and {@link ConnectivityStore#retrieveInEdgeSequence(int)}, but traversals and routers can walk them with
+ * {@link #forEachOutEdge(int, IntConsumer)}, {@link #forEachInEdge(int, IntConsumer)} or the offset methods without
+ * allocating any {@link com.telenav.mesakit.graph.Edge} objects.
+ */
+public class CompressedAdjacency
+{
+    /**
+     * Returns the adjacency of the given "in", "out" and two-way edge lists, with target vertexes from the given edge
+     * store
+     */
+    static CompressedAdjacency of(EdgeArrayStore inEdges,
+                                  EdgeArrayStore outEdges,
+                                  EdgeArrayStore twoWayEdges,
+                                  EdgeStore edgeStore)
+    {
+        var vertexes = Math.max(inEdges.size(), Math.max(outEdges.size(), twoWayEdges.size()));
+        var adjacency = new CompressedAdjacency(vertexes);
+
+        // Count the "in" and "out" edges of each vertex to determine the offsets,
+        for (var vertexIndex = 1; vertexIndex < vertexes; vertexIndex++)
+        {
+            var twoWay = size(twoWayEdges, vertexIndex);
+            adjacency.outOffsets[vertexIndex + 1] = adjacency.outOffsets[vertexIndex] + twoWay + size(outEdges, vertexIndex);
+            adjacency.inOffsets[vertexIndex + 1] = adjacency.inOffsets[vertexIndex] + twoWay + size(inEdges, vertexIndex);
+        }
+
+        adjacency.outEdges = new int[adjacency.outOffsets[vertexes]];
+        adjacency.outTargets = new int[adjacency.outOffsets[vertexes]];
+        adjacency.inEdges = new int[adjacency.inOffsets[vertexes]];
+        adjacency.inSources = new int[adjacency.inOffsets[vertexes]];
+
+        // then go through each vertex
+        for (var vertexIndex = 1; vertexIndex < vertexes; vertexIndex++)
+        {
+            // and add two-way edges followed by "out" edges, in the same order as the "out" edge sequence,
+            var out = adjacency.outOffsets[vertexIndex];
+            var twoWay = size(twoWayEdges, vertexIndex) > 0 ? twoWayEdges.list(vertexIndex) : null;
+            if (twoWay != null)
+            {
+                for (var i = 0; i < twoWay.size(); i++)
+                {
+                    var edgeIndex = twoWay.get(i);
+                    adjacency.outEdges[out] = edgeIndex;
+                    adjacency.outTargets[out++] = edgeStore.retrieveToVertexIndex(edgeIndex);
+                }
+            }
+            if (size(outEdges, vertexIndex) > 0)
+            {
+                var list = outEdges.list(vertexIndex);
+                for (var i = 0; i < list.size(); i++)
+                {
+                    var edgeIndex = list.get(i);
+                    adjacency.outEdges[out] = edgeIndex;
+                    adjacency.outTargets[out++] = edgeStore.retrieveToVertexIndex(edgeIndex);
+                }
+            }
+
+            // and reversed two-way edges followed by "in" edges, in the same order as the "in" edge sequence.
+            var in = adjacency.inOffsets[vertexIndex];
+            if (twoWay != null)
+            {
+                for (var i = 0; i < twoWay.size(); i++)
+                {
+                    var edgeIndex = -twoWay.get(i);
+                    adjacency.inEdges[in] = edgeIndex;
+                    adjacency.inSources[in++] = edgeStore.retrieveFromVertexIndex(edgeIndex);
+                }
+            }
+            if (size(inEdges, vertexIndex) > 0)
+            {
+                var list = inEdges.list(vertexIndex);
+                for (var i = 0; i < list.size(); i++)
+                {
+                    var edgeIndex = list.get(i);
+                    adjacency.inEdges[in] = edgeIndex;
+                    adjacency.inSources[in++] = edgeStore.retrieveFromVertexIndex(edgeIndex);
+                }
+            }
+        }
+
+        return adjacency;
+    }
+
+    /**
+     * Returns the size of the list at the given index, or zero if the store has no such list
+     */
+    private static int size(EdgeArrayStore store, int index)
+    {
+        return index < store.size() ? store.size(index) : 0;
+    }
+
+    /** Offset of the first "out" edge of each vertex, with one extra entry marking the end of the last vertex */
+    private final int[] outOffsets;
+
+    /** Signed "out" edge indexes laid out end-to-end by vertex */
+    private int[] outEdges;
+
+    /** The "to" vertex index of each "out" edge */
+    private int[] outTargets;
+
+    /** Offset of the first "in" edge of each vertex, with one extra entry marking the end of the last vertex */
+    private final int[] inOffsets;
+
+    /** Signed "in" edge indexes laid out end-to-end by vertex */
+    private int[] inEdges;
+
+    /** The "from" vertex index of each "in" edge */
+    private int[] inSources;
+
+    private CompressedAdjacency(int vertexes)
+    {
+        outOffsets = new int[vertexes + 1];
+        inOffsets = new int[vertexes + 1];
+    }
+
+    /**
+     * Returns the signed index of an edge from the given vertex to the given vertex, or zero if there is no such edge
+     */
+    public int edgeTo(int fromVertexIndex, int toVertexIndex)
+    {
+        for (int offset = outStart(fromVertexIndex), end = outEnd(fromVertexIndex); offset < end; offset++)
+        {
+            if (outTargets[offset] == toVertexIndex)
+            {
+                return outEdges[offset];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Calls the given consumer with the signed index of each "in" edge of the given vertex
+     */
+    public void forEachInEdge(int vertexIndex, IntConsumer consumer)
+    {
+        for (int offset = inStart(vertexIndex), end = inEnd(vertexIndex); offset < end; offset++)
+        {
+            consumer.accept(inEdges[offset]);
+        }
+    }
+
+    /**
+     * Calls the given consumer with the signed index of each "out" edge of the given vertex
+     */
+    public void forEachOutEdge(int vertexIndex, IntConsumer consumer)
+    {
+        for (int offset = outStart(vertexIndex), end = outEnd(vertexIndex); offset < end; offset++)
+        {
+            consumer.accept(outEdges[offset]);
+        }
+    }
+
+    /**
+     * Returns the signed edge index at the given "in" offset
+     */
+    public int inEdge(int offset)
+    {
+        return inEdges[offset];
+    }
+
+    /**
+     * Returns the offset just past the last "in" edge of the given vertex
+     */
+    public int inEnd(int vertexIndex)
+    {
+        return vertexIndex < vertexCount() ? inOffsets[vertexIndex + 1] : 0;
+    }
+
+    /**
+     * Returns the "from" vertex index of the edge at the given "in" offset
+     */
+    public int inSource(int offset)
+    {
+        return inSources[offset];
+    }
+
+    /**
+     * Returns the offset of the first "in" edge of the given vertex
+     */
+    public int inStart(int vertexIndex)
+    {
+        return vertexIndex < vertexCount() ? inOffsets[vertexIndex] : 0;
+    }
+
+    /**
+     * Returns the signed edge index at the given "out" offset
+     */
+    public int outEdge(int offset)
+    {
+        return outEdges[offset];
+    }
+
+    /**
+     * Returns the offset just past the last "out" edge of the given vertex
+     */
+    public int outEnd(int vertexIndex)
+    {
+        return vertexIndex < vertexCount() ? outOffsets[vertexIndex + 1] : 0;
+    }
+
+    /**
+     * Returns the offset of the first "out" edge of the given vertex
+     */
+    public int outStart(int vertexIndex)
+    {
+        return vertexIndex < vertexCount() ? outOffsets[vertexIndex] : 0;
+    }
+
+    /**
+     * Returns the "to" vertex index of the edge at the given "out" offset
+     */
+    public int outTarget(int offset)
+    {
+        return outTargets[offset];
+    }
+
+    /**
+     * Returns the number of vertex slots in this adjacency (vertex indexes start at one)
+     */
+    public int vertexCount()
+    {
+        return outOffsets.length - 1;
+    }
+}
@@ -35,6 +35,7 @@ import com.telenav.kivakit.interfaces.naming.NamedObject;
 import com.telenav.kivakit.primitive.collections.CompressibleCollection;
 import com.telenav.kivakit.primitive.collections.array.scalars.SplitIntArray;
 import com.telenav.kivakit.primitive.collections.iteration.IntIterator;
+import com.telenav.kivakit.primitive.collections.list.PrimitiveList;
 import com.telenav.kivakit.primitive.collections.list.store.IntLinkedListStore;
 import com.telenav.kivakit.resource.compression.archive.ArchivedField;
 import com.telenav.kivakit.validation.BaseValidator;
@@ -45,10 +46,13 @@ import com.telenav.mesakit.graph.Edge;
 import com.telenav.mesakit.graph.Graph;
 import com.telenav.mesakit.graph.collections.EdgeSequence;
 import com.telenav.mesakit.graph.collections.EdgeSet;
+import com.telenav.mesakit.graph.io.archive.ColumnarGraphArchive;
+import com.telenav.mesakit.graph.io.archive.MappedColumns;
 import com.telenav.mesakit.graph.specifications.common.edge.store.EdgeStore;
 import com.telenav.mesakit.map.geography.Location;
 
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import static com.telenav.kivakit.core.ensure.Ensure.ensureNotNull;
@@ -84,8 +88,17 @@ import static com.telenav.mesakit.graph.specifications.common.vertex.store.Conne
  *     <li>{@link #retrieveTwoWayEdgeSequence(int)}</li>
  * </ul>
  * <p>
+ * <b>Adjacency</b>
+ * <p>
+ * {@link #adjacency()} returns a {@link CompressedAdjacency} built on first use, which lets traversals and routers walk
+ * the "in" and "out" edges of a vertex by index without creating {@link Edge} objects.
+ * <p>
  * A variety of methods starting with "temporary" are used to temporarily store connectivity information while
  * loading data. These collections are discarded once the store is populated with edge lists.
+ * <p>
+ * When a graph is saved with a {@link ColumnarGraphArchive}, the edge lists are saved as columns with
+ * {@link #addColumns(String, Map)} and a store that reads them in place can be created with
+ * {@link #mapped(String, Graph, MappedColumns)}.
  *
  * @author jonathanl (shibo)
  */
@@ -102,6 +115,28 @@ public class ConnectivityStore implements
 
     private static final Debug DEBUG = new Debug(LOGGER);
 
+    /**
+     * Returns a connectivity store that reads its edge lists from the memory-mapped columns with the given name prefix,
+     * or null if the columns were not mapped
+     */
+    public static ConnectivityStore mapped(String objectName, Graph graph, MappedColumns columns)
+    {
+        var inEdges = EdgeArrayStore.mapped(objectName + ".in-edges", columns);
+        var outEdges = EdgeArrayStore.mapped(objectName + ".out-edges", columns);
+        var twoWayEdges = EdgeArrayStore.mapped(objectName + ".two-way-edges", columns);
+        if (inEdges != null && outEdges != null && twoWayEdges != null)
+        {
+            var store = new ConnectivityStore();
+            store.objectName = objectName;
+            store.graph = ensureNotNull(graph);
+            store.inEdges = inEdges;
+            store.outEdges = outEdges;
+            store.twoWayEdges = twoWayEdges;
+            return store;
+        }
+        return null;
+    }
+
     enum Sequence
     {
         OUT,
@@ -140,6 +175,9 @@ public class ConnectivityStore implements
     /** The name of this object for debugging purposes */
     private String objectName;
 
+    /** Compressed-sparse-row adjacency, built on first use and discarded when edge lists change */
+    private transient volatile CompressedAdjacency adjacency;
+
     public ConnectivityStore(String objectName, Graph graph)
     {
         assert objectName != null;
@@ -153,6 +191,37 @@ public class ConnectivityStore implements
     {
     }
 
+    /**
+     * Adds the "in", "out" and two-way edge lists of this store to the given map of columns for saving to a
+     * {@link ColumnarGraphArchive}
+     */
+    public void addColumns(String prefix, Map<String, PrimitiveList> columns)
+    {
+        inEdges.addColumns(prefix + ".in-edges", columns);
+        outEdges.addColumns(prefix + ".out-edges", columns);
+        twoWayEdges.addColumns(prefix + ".two-way-edges", columns);
+    }
+
+    /**
+     * Returns the compressed-sparse-row adjacency for this store, building it if it doesn't exist yet
+     */
+    public CompressedAdjacency adjacency()
+    {
+        var adjacency = this.adjacency;
+        if (adjacency == null)
+        {
+            synchronized (this)
+            {
+                adjacency = this.adjacency;
+                if (adjacency == null)
+                {
+                    this.adjacency = adjacency = CompressedAdjacency.of(inEdges, outEdges, twoWayEdges, edgeStore());
+                }
+            }
+        }
+        return adjacency;
+    }
+
     @Override
     public CompressibleCollection.Method compress(Method method)
     {
@@ -329,6 +398,7 @@ public class ConnectivityStore implements
         inEdges.list(vertexIndex, in);
         outEdges.list(vertexIndex, out);
         twoWayEdges.list(vertexIndex, twoWay);
+        adjacency = null;
     }
 
     public void storeTemporaryLists(int vertexIndex)
@@ -30,13 +30,18 @@ import com.telenav.kivakit.primitive.collections.array.scalars.SplitByteArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.SplitIntArray;
 import com.telenav.kivakit.primitive.collections.iteration.IntIterator;
 import com.telenav.kivakit.primitive.collections.list.IntList;
+import com.telenav.kivakit.primitive.collections.list.PrimitiveList;
 import com.telenav.kivakit.primitive.collections.list.adapters.IntListAdapter;
 import com.telenav.mesakit.graph.Edge;
 import com.telenav.mesakit.graph.Metadata;
 import com.telenav.mesakit.graph.collections.EdgeSequence;
+import com.telenav.mesakit.graph.io.archive.ColumnarGraphArchive;
+import com.telenav.mesakit.graph.io.archive.MappedColumn;
+import com.telenav.mesakit.graph.io.archive.MappedColumns;
 import com.telenav.mesakit.graph.specifications.common.edge.store.EdgeStore;
 
 import java.util.List;
+import java.util.Map;
 
 import static com.telenav.mesakit.graph.Metadata.CountType.ALLOW_ESTIMATE;
 
@@ -44,7 +49,9 @@ import static com.telenav.mesakit.graph.Metadata.CountType.ALLOW_ESTIMATE;
  * Stores lists of edge indexes. A new list can be added under a given index with {@link #list(int, IntIterator)}, the
  * list can be retrieved with {@link #list(int)} and the size of the list can be determined with {@link #size()}. A
  * sequence of edges can be retrieved by index with {@link #edgeSequence(EdgeStore, int)}, and the number of edge lists
- * in the store is available by calling {@link #size()}.
+ * in the store is available by calling {@link #size()}. A store saved to a {@link ColumnarGraphArchive} with
+ * {@link #addColumns(String, Map)} can be read back directly from memory-mapped columns with
+ * {@link #mapped(String, MappedColumns)}.
  *
  * @author jonathanl (shibo)
  */
@@ -55,6 +62,27 @@ public class EdgeArrayStore extends BaseRepeater implements
 {
     private static final Logger LOGGER = LoggerFactory.newLogger();
 
+    /**
+     * Returns an edge array store that reads from the columns with the given name prefix, or null if the columns were
+     * not mapped
+     */
+    public static EdgeArrayStore mapped(String objectName, MappedColumns columns)
+    {
+        var indexes = columns.column(objectName + ".indexes");
+        var offsets = columns.column(objectName + ".offsets");
+        var lengths = columns.column(objectName + ".lengths");
+        if (indexes != null && offsets != null && lengths != null)
+        {
+            var store = new EdgeArrayStore();
+            store.objectName = objectName;
+            store.mappedIndexes = indexes;
+            store.mappedOffsets = offsets;
+            store.mappedLengths = lengths;
+            return store;
+        }
+        return null;
+    }
+
     /** All edge indexes laid out end-to-end */
     private SplitIntArray indexes;
 
@@ -64,6 +92,15 @@ public class EdgeArrayStore extends BaseRepeater implements
     /** The length of each list of edge indexes */
     private SplitByteArray lengths;
 
+    /** Memory-mapped edge indexes, if this store is read from a columnar archive */
+    private transient MappedColumn mappedIndexes;
+
+    /** Memory-mapped offsets, if this store is read from a columnar archive */
+    private transient MappedColumn mappedOffsets;
+
+    /** Memory-mapped lengths, if this store is read from a columnar archive */
+    private transient MappedColumn mappedLengths;
+
     /** The current offset we're writing to in the edgeIndexes array */
     private int offset;
 
@@ -104,9 +141,24 @@ public class EdgeArrayStore extends BaseRepeater implements
     {
     }
 
+    /**
+     * Adds the indexes, offsets and lengths of this store to the given map of columns for saving to a
+     * {@link ColumnarGraphArchive}
+     */
+    public void addColumns(String prefix, Map<String, PrimitiveList> columns)
+    {
+        columns.put(prefix + ".indexes", indexes);
+        columns.put(prefix + ".offsets", offsets);
+        columns.put(prefix + ".lengths", lengths);
+    }
+
     @Override
     public Method compress(Method method)
     {
+        if (isMapped())
+        {
+            return Method.RESIZE;
+        }
         lengths.compress(method);
         offsets.compress(method);
         indexes.compress(method);
@@ -122,6 +174,14 @@ public class EdgeArrayStore extends BaseRepeater implements
     /**
      * Returns a sequence of edges from the given edge store created from the list stored at the given index
      */
+    /**
+     * Returns the edge index at the given position in the list at the given index, without creating an {@link IntList}
+     */
+    public int edgeIndex(int index, int position)
+    {
+        return index(offset(index) + position);
+    }
+
     public EdgeSequence edgeSequence(EdgeStore store, int index)
     {
         return new EdgeSequence(Iterables.iterable(() -> new NextIterator<>()
@@ -195,33 +255,33 @@ public class EdgeArrayStore extends BaseRepeater implements
      */
     public IntList list(int index)
     {
-        var offset = offsets.get(index);
-        int length = lengths.get(index);
+        var offset = offset(index);
+        var length = size(index);
         var outer = this;
         return new IntListAdapter()
         {
             @Override
             public int get(int index)
             {
-                return outer.indexes.get(offset + index);
+                return outer.index(offset + index);
             }
 
             @Override
             public boolean hasNullInt()
             {
-                return outer.indexes.hasNullInt();
+                return outer.isMapped() ? outer.mappedIndexes.hasNull() : outer.indexes.hasNullInt();
             }
 
             @Override
             public boolean isNull(int value)
             {
-                return outer.indexes.isNull(value);
+                return outer.isMapped() ? outer.mappedIndexes.isNull(value) : outer.indexes.isNull(value);
             }
 
             @Override
             public int nullInt()
             {
-                return outer.indexes.nullInt();
+                return outer.isMapped() ? (int) outer.mappedIndexes.nullValue() : outer.indexes.nullInt();
             }
 
             @Override
@@ -233,7 +293,9 @@ public class EdgeArrayStore extends BaseRepeater implements
             @Override
             public int safeGet(int index)
             {
-                return outer.indexes.safeGet(offset + index);
+                return outer.isMapped()
+                        ? outer.mappedIndexes.safeGetInt(offset + index)
+                        : outer.indexes.safeGet(offset + index);
             }
 
             @Override
@@ -255,7 +317,7 @@ public class EdgeArrayStore extends BaseRepeater implements
      */
     public int size()
     {
-        return lengths.size();
+        return isMapped() ? mappedLengths.size() : lengths.size();
     }
 
     /**
@@ -263,6 +325,30 @@ public class EdgeArrayStore extends BaseRepeater implements
      */
     public int size(int index)
     {
-        return lengths.get(index);
+        return isMapped() ? (int) mappedLengths.get(index) : lengths.get(index);
+    }
+
+    /**
+     * Returns the edge index at the given offset in the array of all edge indexes
+     */
+    private int index(int offset)
+    {
+        return isMapped() ? (int) mappedIndexes.get(offset) : indexes.get(offset);
+    }
+
+    /**
+     * Returns true if this store reads from memory-mapped columns
+     */
+    private boolean isMapped()
+    {
+        return mappedIndexes != null;
+    }
+
+    /**
+     * Returns the offset of the list at the given index in the array of all edge indexes
+     */
+    private int offset(int index)
+    {
+        return isMapped() ? (int) mappedOffsets.get(index) : offsets.get(index);
     }
 }
@@ -32,6 +32,7 @@ import com.telenav.kivakit.interfaces.collection.NextIterator;
 import com.telenav.kivakit.interfaces.comparison.Matcher;
 import com.telenav.kivakit.primitive.collections.array.packed.SplitPackedArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.IntArray;
+import com.telenav.kivakit.primitive.collections.list.PrimitiveList;
 import com.telenav.kivakit.primitive.collections.map.scalars.IntToByteMap;
 import com.telenav.kivakit.primitive.collections.set.LongSet;
 import com.telenav.kivakit.resource.compression.archive.ArchivedField;
@@ -47,6 +48,7 @@ import com.telenav.mesakit.graph.collections.EdgeSet;
 import com.telenav.mesakit.graph.collections.VertexSequence;
 import com.telenav.mesakit.graph.identifiers.VertexIdentifier;
 import com.telenav.mesakit.graph.io.archive.GraphArchive;
+import com.telenav.mesakit.graph.io.archive.MappedColumns;
 import com.telenav.mesakit.graph.metadata.DataSpecification;
 import com.telenav.mesakit.graph.specifications.common.edge.EdgeAttributes;
 import com.telenav.mesakit.graph.specifications.common.edge.HeavyWeightEdge;
@@ -73,6 +75,7 @@ import com.telenav.mesakit.map.road.model.GradeSeparation;
 
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.Map;
 
 import static com.telenav.kivakit.core.ensure.Ensure.fail;
 import static com.telenav.kivakit.primitive.collections.array.packed.PackedPrimitiveArray.OverflowHandling.NO_OVERFLOW;
@@ -123,6 +126,9 @@ public class VertexStore extends NodeStore<Vertex>
                             .hasNullLong(false)
                             .initialSize(estimatedElements()));
 
+    /** Connectivity read from memory-mapped columns, if the graph archive has them */
+    private transient ConnectivityStore mappedConnectivity;
+
     /** Edge and vertex connectivity information */
     @ArchivedField
     private ConnectivityStore connectivity;
@@ -148,6 +154,18 @@ public class VertexStore extends NodeStore<Vertex>
     {
         super(graph);
         graphStore = graph.graphStore();
+
+        // Allow clipping flags, which are only read through loadedColumn(), to be held off-heap
+        IS_CLIPPED.allowOffHeap();
+    }
+
+    /**
+     * Returns the compressed-sparse-row adjacency of the vertexes in this store, for walking edges by index without
+     * allocating
+     */
+    public final CompressedAdjacency adjacency()
+    {
+        return connectivity().adjacency();
     }
 
     /**
@@ -564,6 +582,11 @@ public class VertexStore extends NodeStore<Vertex>
      */
     public final boolean retrieveIsClipped(Vertex vertex)
     {
+        var column = IS_CLIPPED.loadedColumn();
+        if (column != null)
+        {
+            return column.safeGet(vertex.index()) != 0;
+        }
         IS_CLIPPED.load();
         return isClipped.safeGet(vertex.index()) != 0;
     }
@@ -818,6 +841,10 @@ public class VertexStore extends NodeStore<Vertex>
 
     protected ConnectivityStore connectivity()
     {
+        if (mappedConnectivity != null)
+        {
+            return mappedConnectivity;
+        }
         if (!CONNECTIVITY.load())
         {
             CONNECTIVITY.allocate();
@@ -840,6 +867,16 @@ public class VertexStore extends NodeStore<Vertex>
         return Vertex.class;
     }
 
+    /**
+     * Adds the edge lists of the connectivity store to the given columns
+     */
+    @Override
+    protected void onAddColumns(Map<String, PrimitiveList> columns)
+    {
+        super.onAddColumns(columns);
+        connectivity().addColumns(columnName("connectivity"), columns);
+    }
+
     /**
      * Adds the given vertex to this store. Updates "in" and "out" edge counts, vertex connectivity, increases the
      * bounds of the graph store and stores the vertex's clips state.
@@ -871,6 +908,16 @@ public class VertexStore extends NodeStore<Vertex>
         }
     }
 
+    /**
+     * Reads connectivity from the mapped edge list columns, if there are any
+     */
+    @Override
+    protected void onAttached(MappedColumns columns)
+    {
+        super.onAttached(columns);
+        mappedConnectivity = ConnectivityStore.mapped(columnName("connectivity"), graph(), columns);
+    }
+
     @Override
     protected void onCommit()
     {
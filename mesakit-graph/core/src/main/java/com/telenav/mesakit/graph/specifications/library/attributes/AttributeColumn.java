@@ -0,0 +1,75 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.graph.specifications.library.attributes;
+
+import com.telenav.kivakit.interfaces.collection.Sized;
+import com.telenav.kivakit.interfaces.naming.Named;
+import com.telenav.mesakit.graph.io.archive.MappedColumn;
+
+/**
+ * A read-only column of integer attribute values that an {@link AttributeReference} can read from in place of its
+ * referent. Values are retrieved with {@link #get(int)} or {@link #safeGet(int)}, which returns the column's null value
+ * when the index is beyond the end of the column, the same way that the primitive lists columns are created from do.
+ *
+ * @see MappedColumn
+ * @see BlockCompressedColumn
+ */
+public interface AttributeColumn extends
+        Named,
+        Sized
+{
+    /**
+     * Returns the value at the given index, which must be less than {@link #size()}
+     */
+    long get(int index);
+
+    /**
+     * Returns true if this column has a null value
+     */
+    boolean hasNull();
+
+    /**
+     * Returns true if the given value is this column's null value
+     */
+    default boolean isNull(long value)
+    {
+        return hasNull() && value == nullValue();
+    }
+
+    /**
+     * Returns the value returned for indexes beyond the end of this column
+     */
+    long nullValue();
+
+    /**
+     * Returns the value at the given index, or the null value if the index is outside this column
+     */
+    default long safeGet(int index)
+    {
+        return index >= 0 && index < size() ? get(index) : nullValue();
+    }
+
+    /**
+     * Returns the value at the given index as an int, or the null value if the index is outside this column
+     */
+    default int safeGetInt(int index)
+    {
+        return (int) safeGet(index);
+    }
+}
@@ -58,6 +58,12 @@ import static com.telenav.kivakit.core.ensure.Ensure.fail;
  *     <li>{@link #isLoaded()} - True if any attribute is loaded, false if all attributes are unloaded</li>
  *     <li>{@link #unload()} - Unloads all attributes</li>
  * </ul>
+ * <p>
+ * <b>Access Recording</b>
+ * <ul>
+ *     <li>{@link #accessed()} - The references that have been accessed since access was last reset</li>
+ *     <li>{@link #resetAccessed()} - Clears the access record of all references</li>
+ * </ul>
  *
  * @author jonathanl (shibo)
  * @see FieldArchive
@@ -97,6 +103,23 @@ public class AttributeLoader implements Unloadable, NamedObject
         supported.initialize();
     }
 
+    /**
+     * Returns the attribute references in this loader that have been accessed since the last call to
+     * {@link #resetAccessed()}
+     */
+    public ObjectList<AttributeReference<?>> accessed()
+    {
+        var accessed = new ObjectList<AttributeReference<?>>();
+        for (var reference : references())
+        {
+            if (reference.isAccessed())
+            {
+                accessed.add(reference);
+            }
+        }
+        return accessed;
+    }
+
     /**
      * Adds the attribute reference to this loader
      */
@@ -175,7 +198,7 @@ public class AttributeLoader implements Unloadable, NamedObject
         for (var reference : references())
         {
             DEBUG.trace("Force loading $", reference);
-            reference.load();
+            reference.preload();
         }
     }
 
@@ -189,7 +212,7 @@ public class AttributeLoader implements Unloadable, NamedObject
             if (attributes.contains(reference.attribute()))
             {
                 DEBUG.trace("Force loading $", reference);
-                reference.load();
+                reference.preload();
             }
         }
     }
@@ -204,7 +227,7 @@ public class AttributeLoader implements Unloadable, NamedObject
             if (!attributes.contains(reference.attribute()))
             {
                 DEBUG.trace("Force loading $", reference);
-                reference.load();
+                reference.preload();
             }
         }
     }
@@ -240,6 +263,31 @@ public class AttributeLoader implements Unloadable, NamedObject
         return referenceForAttribute.values();
     }
 
+    /**
+     * Clears the access record of all attribute references in this loader
+     */
+    public void resetAccessed()
+    {
+        for (var reference : references())
+        {
+            reference.resetAccessed();
+        }
+    }
+
+    /**
+     * Restores the referents of any attributes that were replaced by compressed or off-heap columns when they were
+     * loaded
+     *
+     * @see AttributeReference#restore()
+     */
+    public void restoreAll()
+    {
+        for (var reference : references())
+        {
+            reference.restore();
+        }
+    }
+
     /**
      * Returns true if this attribute loader supports the given attribute
      */
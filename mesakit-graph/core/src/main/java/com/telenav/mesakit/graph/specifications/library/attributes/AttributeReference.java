@@ -26,6 +26,8 @@ import com.telenav.kivakit.core.logging.Logger;
 import com.telenav.kivakit.core.logging.LoggerFactory;
 import com.telenav.kivakit.core.messaging.Debug;
 import com.telenav.kivakit.core.registry.RegistryTrait;
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.interfaces.collection.Indexable;
 import com.telenav.kivakit.interfaces.collection.Sized;
 import com.telenav.kivakit.interfaces.factory.Factory;
@@ -46,7 +48,9 @@ import com.telenav.kivakit.serialization.kryo.KryoObjectSerializer;
 import com.telenav.mesakit.graph.Edge;
 import com.telenav.mesakit.graph.GraphElement;
 import com.telenav.mesakit.graph.io.archive.GraphArchive;
+import com.telenav.mesakit.graph.io.archive.MappedColumn;
 import com.telenav.mesakit.graph.metadata.DataSpecification;
+import com.telenav.mesakit.graph.specifications.library.attributes.BlockCompressedColumn.Encoding;
 import org.jetbrains.annotations.MustBeInvokedByOverriders;
 
 import java.util.List;
@@ -61,9 +65,21 @@ import static com.telenav.kivakit.core.ensure.Ensure.fail;
  * has a field name and a factory that will create a referent if one needs to be allocated.
  * <p>
  * The kind of attribute being managed can be retrieved with {@link #attribute()} and the archive to load from can be
- * attached with {@link #attach(FieldArchive)}. When a referent is loaded, {@link #onLoaded(NamedObject)} is called and
+ * attached with {@link #attach(FieldArchive)}. If the archive was saved with memory-mappable columns, the column for
+ * the attribute is attached with {@link #attach(MappedColumn)} and values are read directly from it without loading
+ * the referent. When a referent is loaded, {@link #onLoaded(NamedObject)} is called and
  * when an attribute is allocated, {@link #onAllocated()} is called.
  * <p>
+ * An integer attribute can be selected for compression with {@link #compression(Encoding)}. When the referent of such
+ * an attribute is loaded from an archive, it is replaced by a read-only {@link BlockCompressedColumn} that values are
+ * read from in the same way as from a memory-mapped column.
+ * <p>
+ * An attribute that is only ever read through {@link #loadedColumn()} can be allowed off the heap with
+ * {@link #allowOffHeap()}. When such an attribute is loaded into a graph whose {@link AttributeStorage} is
+ * {@link AttributeStorage#OFF_HEAP}, its referent is copied into an {@link OffHeapColumn} and released. A referent
+ * that was replaced by a column is restored by {@link #restore()}, or when it is next allocated, for example before
+ * the attribute is modified or saved.
+ * <p>
  * The remaining methods in attribute reference are methods for retrieving and storing different kinds of values in the
  * referent object. Many of these methods take a {@link LongValued} rather than a specific primitive key value. This
  * permits any quantizable object to be used as a key. For example, all {@link GraphElement}s are {@link Indexable} and
@@ -94,6 +110,18 @@ public class AttributeReference<Referent extends NamedObject & Initializable> im
     /** The attribute in the store */
     private final Attribute<?> attribute;
 
+    /**
+     * True if this attribute has been loaded or read through {@link #load()} or {@link #loadedColumn()} since access
+     * was last reset
+     */
+    private transient boolean accessed;
+
+    /** The column to read values from, if the attribute is memory-mapped, compressed or off-heap */
+    private transient volatile AttributeColumn column;
+
+    /** The encoding to compress this attribute with when it is loaded, or null if it should not be compressed */
+    private Encoding compression;
+
     /** A factory to create the referent */
     private final Factory<Referent> factory;
 
@@ -106,9 +134,15 @@ public class AttributeReference<Referent extends NamedObject & Initializable> im
     /** True if a load has been attempted */
     private boolean loadAttempted;
 
+    /** True if the referent can be replaced by an off-heap column when it is loaded */
+    private boolean offHeapAllowed;
+
     /** A cached reference to the store field (so reflection does not have to be used often) */
     private volatile Referent reference;
 
+    /** The column that replaced the referent when it was loaded, if the attribute was compressed or moved off-heap */
+    private transient volatile AttributeColumn replacement;
+
     /** The store being referenced */
     private final AttributeStore store;
 
@@ -148,6 +182,13 @@ public class AttributeReference<Referent extends NamedObject & Initializable> im
     @SuppressWarnings("unchecked")
     public synchronized Referent allocate()
     {
+        // If the referent was replaced by a column when it was loaded, restore it
+        if (reference == null && replacement != null)
+        {
+            restore();
+            return reference;
+        }
+
         // If there is no reference yet,
         if (reference == null)
         {
@@ -180,6 +221,38 @@ public class AttributeReference<Referent extends NamedObject & Initializable> im
         return reference;
     }
 
+    /**
+     * Allows the referent of this attribute to be replaced by an {@link OffHeapColumn} when it is loaded into a graph
+     * with {@link AttributeStorage#OFF_HEAP} storage. This must only be allowed for attributes that are always read
+     * through {@link #loadedColumn()} or the retrieve methods of this class.
+     *
+     * @return This reference, for use in attribute declarations
+     */
+    public AttributeReference<Referent> allowOffHeap()
+    {
+        offHeapAllowed = true;
+        return this;
+    }
+
+    /**
+     * Returns the size of this attribute's entry in the attached archive, or zero bytes if there is no archive or
+     * no entry. This is an estimate of the memory needed to load the attribute.
+     */
+    public Bytes archivedSize()
+    {
+        @SuppressWarnings("resource")
+        var archive = archive();
+        if (archive != null)
+        {
+            var entry = archive.zip().entry(store.objectName() + "." + fieldName);
+            if (entry != null)
+            {
+                return entry.sizeInBytes();
+            }
+        }
+        return Bytes.bytes(0);
+    }
+
     /**
      * Attaches this reference to the given field archive so that referenced attributes can be loaded with
      * {@link #load()}
@@ -190,6 +263,19 @@ public class AttributeReference<Referent extends NamedObject & Initializable> im
         trace("attached '$'", archive.zip().resource());
     }
 
+    /**
+     * Attaches a memory-mapped column that values can be read from without loading the referent, or null if there is
+     * no column for this attribute
+     */
+    public void attach(MappedColumn column)
+    {
+        this.column = column;
+        if (column != null)
+        {
+            trace("mapped '$'", column);
+        }
+    }
+
     /**
      * Returns the attribute that's being referenced
      */
@@ -198,6 +284,34 @@ public class AttributeReference<Referent extends NamedObject & Initializable> im
         return attribute;
     }
 
+    /**
+     * Returns the memory-mapped, compressed or off-heap column for this attribute, or null if there is none
+     */
+    public AttributeColumn column()
+    {
+        return column;
+    }
+
+    /**
+     * Returns the encoding this attribute is compressed with when it is loaded, or null if it is not compressed
+     */
+    public Encoding compression()
+    {
+        return compression;
+    }
+
+    /**
+     * Selects block compression with the given encoding (or none, if the encoding is null) for this attribute. The
+     * attribute is compressed when it is loaded from an archive, if it is an integer list.
+     *
+     * @return This reference, for use in attribute declarations
+     */
+    public AttributeReference<Referent> compression(Encoding compression)
+    {
+        this.compression = compression;
+        return this;
+    }
+
     /**
      * Returns the name of the field in the attribute store that is being referenced
      */
@@ -206,18 +320,49 @@ public class AttributeReference<Referent extends NamedObject & Initializable> im
         return fieldName;
     }
 
+    /**
+     * Returns true if this attribute has been accessed through {@link #load()} or {@link #loadedColumn()} since the
+     * last call to {@link #resetAccessed()}, whether or not it was already loaded. Loads made with {@link #preload()}
+     * are not counted, but reads of a preloaded attribute are.
+     */
+    public boolean isAccessed()
+    {
+        return accessed;
+    }
+
     /**
      * Returns true if the referent is loaded. Note that the store field and the reference are always assigned at the
      * same time with {@link #reference(NamedObject)}
      */
     public boolean isLoaded()
     {
-        return reference != null;
+        return reference != null || replacement != null;
     }
 
-    public synchronized boolean load()
+    /**
+     * Loads the referent from the attached archive if it is not already loaded, recording that this attribute was
+     * accessed
+     *
+     * @return True if the referent is loaded
+     */
+    public boolean load()
     {
-        if (reference == null)
+        // Record the access
+        markAccessed();
+
+        // and load the referent.
+        return preload();
+    }
+
+    /**
+     * Loads the referent from the attached archive if it is not already loaded, without recording an access. This is
+     * used when loading attributes ahead of time.
+     *
+     * @return True if the referent is loaded
+     */
+    public synchronized boolean preload()
+    {
+        if (reference == null && replacement == null)
         {
             if (!loadAttempted)
             {
@@ -241,7 +386,19 @@ public class AttributeReference<Referent extends NamedObject & Initializable> im
                             trace("loaded");
                         }
                         onLoaded(reference);
-                        reference(reference);
+
+                        // and publish either the column that replaces it or the referent itself, but never both, so
+                        // readers never see the store field change under them.
+                        var replacement = replacementFor(reference);
+                        if (replacement != null)
+                        {
+                            this.replacement = replacement;
+                            column = replacement;
+                        }
+                        else
+                        {
+                            reference(reference);
+                        }
                         return true;
                     }
                     else
@@ -258,6 +415,39 @@ public class AttributeReference<Referent extends NamedObject & Initializable> im
         }
     }
 
+    /**
+     * Returns the column for this attribute, loading the attribute first if it has no column and isn't loaded yet.
+     * Readers should use this rather than {@link #column()}, because a loaded referent can be replaced by a column.
+     * Every call records an access, so readers that fall back to the referent when this returns null are recorded too.
+     *
+     * @return The column, or null if the attribute is read from its referent
+     */
+    public AttributeColumn loadedColumn()
+    {
+        markAccessed();
+        var column = this.column;
+        if (column == null && reference == null)
+        {
+            load();
+            column = this.column;
+        }
+        return column;
+    }
+
+    /**
+     * Returns the number of values in this attribute's column or loaded referent, without loading or allocating the
+     * referent. Returns zero if the attribute is not loaded or its referent has no size.
+     */
+    public Count loadedSize()
+    {
+        var column = this.column;
+        if (column != null)
+        {
+            return Count.count(column.size());
+        }
+        return reference instanceof Sized sized ? Count.count(sized.size()) : Count._0;
+    }
+
     /**
      * Returns the name of this attribute reference as [store].[property]
      */
@@ -267,11 +457,49 @@ public class AttributeReference<Referent extends NamedObject & Initializable> im
         return store.objectName() + "." + attribute.name();
     }
 
+    /**
+     * Clears the record of whether this attribute has been accessed
+     */
+    public void resetAccessed()
+    {
+        accessed = false;
+    }
+
+    /**
+     * Restores the referent of an attribute that was replaced by a compressed or off-heap column when it was loaded.
+     * This must be done before the referent is modified or saved.
+     */
+    public synchronized void restore()
+    {
+        var replacement = this.replacement;
+        if (replacement != null)
+        {
+            // Allocate a new referent,
+            this.replacement = null;
+            column = null;
+            if (allocate() instanceof PrimitiveList list)
+            {
+                // and copy the column's values into it
+                for (var index = 0; index < replacement.size(); index++)
+                {
+                    list.setPrimitive(index, replacement.get(index));
+                }
+                trace("restored from $", replacement);
+            }
+        }
+    }
+
     /**
      * Returns returns the boolean value at the index specified by the quantizable index object
      */
     public boolean retrieveBoolean(LongValued index)
     {
+        var column = loadedColumn();
+        if (column != null)
+        {
+            return column.safeGet((int) index.longValue()) != 0;
+        }
+
         if (!load())
         {
             allocate();
@@ -299,6 +527,12 @@ public class AttributeReference<Referent extends NamedObject & Initializable> im
      */
     public int retrieveInt(LongValued index)
     {
+        var column = loadedColumn();
+        if (column != null)
+        {
+            return column.safeGetInt((int) index.longValue());
+        }
+
         if (!load())
         {
             allocate();
@@ -318,6 +552,12 @@ public class AttributeReference<Referent extends NamedObject & Initializable> im
      */
     public long retrieveLong(LongValued index)
     {
+        var column = loadedColumn();
+        if (column != null)
+        {
+            return column.safeGet((int) index.longValue());
+        }
+
         if (!load())
         {
             allocate();
@@ -337,6 +577,13 @@ public class AttributeReference<Referent extends NamedObject & Initializable> im
      */
     public <T> T retrieveObject(LongValued index, LongMapper<T> factory)
     {
+        var column = loadedColumn();
+        if (column != null)
+        {
+            var value = column.safeGet((int) index.longValue());
+            return column.isNull(value) ? null : factory.map(value);
+        }
+
         if (!load())
         {
             allocate();
@@ -567,6 +814,15 @@ public class AttributeReference<Referent extends NamedObject & Initializable> im
             reference(null);
             trace("unloaded");
         }
+
+        // and any column that replaced it, so the attribute will be loaded again when it's next used
+        if (replacement != null)
+        {
+            replacement = null;
+            column = null;
+            loadAttempted = false;
+            trace("unloaded replacement column");
+        }
     }
 
     /** Called when a referent is allocated */
@@ -590,6 +846,31 @@ public class AttributeReference<Referent extends NamedObject & Initializable> im
         return archive;
     }
 
+    /**
+     * Returns a column to replace the given loaded referent with if it's a primitive list that isn't already read from a
+     * memory-mapped column, and either the graph stores attributes off-heap and this attribute allows it, or
+     * compression is selected for this attribute and it is an integer list. Returns null if the referent should be kept.
+     */
+    private AttributeColumn replacementFor(Referent referent)
+    {
+        if (column == null && referent instanceof PrimitiveList list)
+        {
+            if (offHeapAllowed && store.graph().attributeStorage() == AttributeStorage.OFF_HEAP)
+            {
+                var offHeap = OffHeapColumn.copyOf(objectName(), list);
+                trace("moved $ values off-heap ($)", list.size(), offHeap.offHeapSize());
+                return offHeap;
+            }
+            if (compression != null && (list instanceof IntList || list instanceof LongList))
+            {
+                var compressed = BlockCompressedColumn.compress(objectName(), list, compression);
+                trace("compressed $ values to $", list.size(), compressed.heapSize());
+                return compressed;
+            }
+        }
+        return null;
+    }
+
     private DataSpecification dataSpecification()
     {
         return store.graph().dataSpecification();
@@ -608,6 +889,17 @@ public class AttributeReference<Referent extends NamedObject & Initializable> im
         fail("Unable to store value for attribute $", objectName());
     }
 
+    /**
+     * Records that this attribute was accessed. The check avoids writing to a shared cache line on every read.
+     */
+    private void markAccessed()
+    {
+        if (!accessed)
+        {
+            accessed = true;
+        }
+    }
+
     /**
      * Assigns the given reference to the reference and to the attribute field in the store
      */
@@ -0,0 +1,41 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.graph.specifications.library.attributes;
+
+import com.telenav.mesakit.graph.Graph;
+
+/**
+ * Where the values of scalar attributes are held once they are loaded from a graph archive. The storage is selected
+ * for each graph with {@link Graph#attributeStorage(AttributeStorage)} before it is loaded.
+ *
+ * @see OffHeapColumn
+ * @see AttributeReference#allowOffHeap()
+ */
+public enum AttributeStorage
+{
+    /** Values are held in primitive lists on the Java heap */
+    HEAP,
+
+    /**
+     * Values of attributes that allow it are copied into {@link OffHeapColumn}s and the primitive lists they were
+     * loaded into are released
+     */
+    OFF_HEAP
+}
@@ -0,0 +1,300 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.graph.specifications.library.attributes;
+
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.primitive.collections.list.PrimitiveList;
+
+import java.util.Arrays;
+
+/**
+ * A read-only, block-compressed column of integer values. Values are split into blocks of {@link #BLOCK_SIZE} and each
+ * block is bit-packed at the narrowest width that can hold it, using one of two {@link Encoding}s:
+ *
+ * <ul>
+ *     <li>{@link Encoding#FRAME_OF_REFERENCE} - Each value is stored as its offset from the smallest value in its
+ *     block. A lookup unpacks a single value, so point lookups take a few nanoseconds.</li>
+ *     <li>{@link Encoding#DELTA} - Each value is stored as its difference from the previous value, less the smallest
+ *     difference in its block. This packs sorted or slowly changing columns more tightly, but a lookup must sum the
+ *     differences up to the value in its block.</li>
+ * </ul>
+ * <p>
+ * Blocks are packed end-to-end into a single long array and values are unpacked with shifts and masks, with no
+ * branches other than for values that straddle two words. Columns are immutable, so they can be read by any number of
+ * threads at once.
+ *
+ * @see AttributeReference#compression(Encoding)
+ */
+public final class BlockCompressedColumn implements AttributeColumn
+{
+    /** The number of values in each block */
+    public static final int BLOCK_SIZE = 128;
+
+    /** The number of bits to shift an index to get its block */
+    private static final int BLOCK_SHIFT = 7;
+
+    /**
+     * The way values are encoded in each block
+     */
+    public enum Encoding
+    {
+        FRAME_OF_REFERENCE,
+        DELTA
+    }
+
+    /**
+     * Returns a compressed column with the given name, holding the values in the given list, encoded in the given way
+     */
+    public static BlockCompressedColumn compress(String name, PrimitiveList list, Encoding encoding)
+    {
+        var size = list.size();
+        var nullValue = list.safeGetPrimitive(size);
+        var blocks = (size + BLOCK_SIZE - 1) >>> BLOCK_SHIFT;
+        var column = new BlockCompressedColumn(name, encoding, size, list.isPrimitiveNull(nullValue), nullValue, blocks);
+
+        var words = new long[Math.max(1, size / 16)];
+        var bit = 0L;
+        var values = new long[BLOCK_SIZE];
+        for (var block = 0; block < blocks; block++)
+        {
+            // Read the values in the block,
+            var start = block << BLOCK_SHIFT;
+            var count = Math.min(BLOCK_SIZE, size - start);
+            for (var index = 0; index < count; index++)
+            {
+                values[index] = list.safeGetPrimitive(start + index);
+            }
+
+            // turn them into unsigned offsets from a reference value,
+            if (encoding == Encoding.DELTA)
+            {
+                var previous = values[0];
+                column.references[block] = previous;
+                var minimum = Long.MAX_VALUE;
+                for (var index = count - 1; index > 0; index--)
+                {
+                    values[index] -= values[index - 1];
+                    minimum = Math.min(minimum, values[index]);
+                }
+                column.minimumDeltas[block] = count > 1 ? minimum : 0;
+                values[0] = 0;
+                for (var index = 1; index < count; index++)
+                {
+                    values[index] -= column.minimumDeltas[block];
+                }
+            }
+            else
+            {
+                var minimum = Long.MAX_VALUE;
+                for (var index = 0; index < count; index++)
+                {
+                    minimum = Math.min(minimum, values[index]);
+                }
+                column.references[block] = minimum;
+                for (var index = 0; index < count; index++)
+                {
+                    values[index] -= minimum;
+                }
+            }
+
+            // find the number of bits needed to hold the largest offset,
+            var or = 0L;
+            for (var index = 0; index < count; index++)
+            {
+                or |= values[index];
+            }
+            var width = 64 - Long.numberOfLeadingZeros(or);
+            column.widths[block] = (byte) width;
+            column.offsets[block] = bit;
+
+            // and pack the offsets at that width.
+            if (width > 0)
+            {
+                var needed = (int) ((bit + (long) width * count + 63) >>> 6) + 1;
+                if (needed > words.length)
+                {
+                    words = Arrays.copyOf(words, Math.max(needed, words.length * 2));
+                }
+                for (var index = 0; index < count; index++)
+                {
+                    write(words, bit, width, values[index]);
+                    bit += width;
+                }
+            }
+        }
+        column.words = Arrays.copyOf(words, (int) ((bit + 63) >>> 6) + 1);
+        return column;
+    }
+
+    /**
+     * Writes the low bits of the given value at the given bit position
+     */
+    private static void write(long[] words, long bit, int width, long value)
+    {
+        var word = (int) (bit >>> 6);
+        var shift = (int) (bit & 63);
+        words[word] |= value << shift;
+        if (shift + width > 64)
+        {
+            words[word + 1] |= value >>> (64 - shift);
+        }
+    }
+
+    /** The encoding of values in this column */
+    private final Encoding encoding;
+
+    /** True if the null value is a null, rather than just the value returned beyond the end of this column */
+    private final boolean hasNull;
+
+    /** The smallest difference between consecutive values in each block, for delta encoding */
+    private final long[] minimumDeltas;
+
+    /** The name of this column */
+    private final String name;
+
+    /** The value returned for indexes that are beyond the end of this column */
+    private final long nullValue;
+
+    /** The bit offset of each block in the array of words */
+    private final long[] offsets;
+
+    /** The reference value of each block (the smallest value or, for delta encoding, the first value) */
+    private final long[] references;
+
+    /** The number of values in this column */
+    private final int size;
+
+    /** The width of each packed value in each block, in bits */
+    private final byte[] widths;
+
+    /** The packed values of all blocks */
+    private long[] words;
+
+    private BlockCompressedColumn(String name, Encoding encoding, int size, boolean hasNull, long nullValue, int blocks)
+    {
+        this.name = name;
+        this.encoding = encoding;
+        this.size = size;
+        this.hasNull = hasNull;
+        this.nullValue = nullValue;
+        references = new long[blocks];
+        offsets = new long[blocks];
+        widths = new byte[blocks];
+        minimumDeltas = encoding == Encoding.DELTA ? new long[blocks] : null;
+    }
+
+    /**
+     * Returns the encoding of values in this column
+     */
+    public Encoding encoding()
+    {
+        return encoding;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long get(int index)
+    {
+        var block = index >>> BLOCK_SHIFT;
+        var width = widths[block];
+        var reference = references[block];
+        if (width == 0)
+        {
+            return encoding == Encoding.DELTA
+                    ? reference + (long) (index & (BLOCK_SIZE - 1)) * minimumDeltas[block]
+                    : reference;
+        }
+
+        if (encoding == Encoding.DELTA)
+        {
+            // Sum the deltas up to the index within the block
+            var position = index & (BLOCK_SIZE - 1);
+            var bit = offsets[block] + width;
+            var sum = 0L;
+            for (var at = 1; at <= position; at++)
+            {
+                sum += read(bit, width);
+                bit += width;
+            }
+            return reference + sum + position * minimumDeltas[block];
+        }
+
+        return reference + read(offsets[block] + (long) (index & (BLOCK_SIZE - 1)) * width, width);
+    }
+
+    @Override
+    public boolean hasNull()
+    {
+        return hasNull;
+    }
+
+    /**
+     * Returns the approximate heap size of this column
+     */
+    public Bytes heapSize()
+    {
+        var bytes = (long) words.length * Long.BYTES
+                + (long) references.length * Long.BYTES
+                + (long) offsets.length * Long.BYTES
+                + widths.length
+                + (minimumDeltas == null ? 0 : (long) minimumDeltas.length * Long.BYTES);
+        return Bytes.bytes(bytes);
+    }
+
+    @Override
+    public String name()
+    {
+        return name;
+    }
+
+    @Override
+    public long nullValue()
+    {
+        return nullValue;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name + " (" + size + " values, " + encoding + ", " + heapSize() + ")";
+    }
+
+    /**
+     * Returns the unsigned value of the given width at the given bit position
+     */
+    private long read(long bit, int width)
+    {
+        var word = (int) (bit >>> 6);
+        var shift = (int) (bit & 63);
+        var value = words[word] >>> shift;
+        if (shift + width > 64)
+        {
+            value |= words[word + 1] << (64 - shift);
+        }
+        return width == 64 ? value : value & ((1L << width) - 1);
+    }
+}
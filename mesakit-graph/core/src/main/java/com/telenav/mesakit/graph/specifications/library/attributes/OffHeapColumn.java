@@ -0,0 +1,218 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.graph.specifications.library.attributes;
+
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.primitive.collections.list.PrimitiveList;
+import com.telenav.mesakit.graph.io.archive.MappedColumn;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A read-only column of fixed-width signed integer values held in direct byte buffers outside the Java heap. A column
+ * is copied from a loaded primitive list with {@link #copyOf(String, PrimitiveList)}, at the narrowest width (1, 2, 4
+ * or 8 bytes) that can hold its values. The garbage collector never scans or moves the values, so the heap (and GC
+ * pause times) stay the same size no matter how large a graph is. The memory is released when the column is no longer
+ * referenced and its buffers are collected.
+ * <p>
+ * Values are stored in chunks of {@link #CHUNK_SIZE} so that columns can be larger than a single buffer. Reads use
+ * absolute offsets, so a column can be read by any number of threads at once. Note that the total size of all
+ * off-heap columns is limited by the JVM's -XX:MaxDirectMemorySize, which defaults to the maximum heap size.
+ *
+ * @see AttributeStorage#OFF_HEAP
+ * @see MappedColumn
+ */
+public final class OffHeapColumn implements AttributeColumn
+{
+    /** The number of values in each chunk */
+    public static final int CHUNK_SIZE = 1 << 24;
+
+    private static final int CHUNK_SHIFT = 24;
+
+    /**
+     * Returns an off-heap copy of the values in the given list
+     */
+    public static OffHeapColumn copyOf(String name, PrimitiveList list)
+    {
+        // Find the range of values in the list, including its null value,
+        var size = list.size();
+        var nullValue = list.safeGetPrimitive(size);
+        var minimum = nullValue;
+        var maximum = nullValue;
+        for (var index = 0; index < size; index++)
+        {
+            var value = list.safeGetPrimitive(index);
+            minimum = Math.min(minimum, value);
+            maximum = Math.max(maximum, value);
+        }
+
+        // allocate chunks wide enough to hold that range,
+        var width = width(minimum, maximum);
+        var chunks = new ByteBuffer[Math.max(1, (size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+        for (var chunk = 0; chunk < chunks.length; chunk++)
+        {
+            var values = Math.min(CHUNK_SIZE, size - (chunk << CHUNK_SHIFT));
+            chunks[chunk] = ByteBuffer.allocateDirect(values * width).order(ByteOrder.nativeOrder());
+        }
+
+        // and copy the values into them.
+        var column = new OffHeapColumn(name, chunks, width, size, list.isPrimitiveNull(nullValue), nullValue);
+        for (var index = 0; index < size; index++)
+        {
+            column.put(index, list.safeGetPrimitive(index));
+        }
+        return column;
+    }
+
+    /**
+     * Returns the number of bytes needed to hold the given range of signed values
+     */
+    private static int width(long minimum, long maximum)
+    {
+        if (minimum >= Byte.MIN_VALUE && maximum <= Byte.MAX_VALUE)
+        {
+            return 1;
+        }
+        if (minimum >= Short.MIN_VALUE && maximum <= Short.MAX_VALUE)
+        {
+            return 2;
+        }
+        if (minimum >= Integer.MIN_VALUE && maximum <= Integer.MAX_VALUE)
+        {
+            return 4;
+        }
+        return 8;
+    }
+
+    /** The chunks of values */
+    private final ByteBuffer[] chunks;
+
+    /** True if the null value is a null, rather than just the value returned beyond the end of this column */
+    private final boolean hasNull;
+
+    /** The name of this column */
+    private final String name;
+
+    /** The value returned for indexes that are beyond the end of this column */
+    private final long nullValue;
+
+    /** The number of values in this column */
+    private final int size;
+
+    /** The width of each value in bytes, either 1, 2, 4 or 8 */
+    private final int width;
+
+    private OffHeapColumn(String name, ByteBuffer[] chunks, int width, int size, boolean hasNull, long nullValue)
+    {
+        this.name = name;
+        this.chunks = chunks;
+        this.width = width;
+        this.size = size;
+        this.hasNull = hasNull;
+        this.nullValue = nullValue;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long get(int index)
+    {
+        var chunk = chunks[index >>> CHUNK_SHIFT];
+        var offset = index & (CHUNK_SIZE - 1);
+        switch (width)
+        {
+            case 1:
+                return chunk.get(offset);
+
+            case 2:
+                return chunk.getShort(offset << 1);
+
+            case 4:
+                return chunk.getInt(offset << 2);
+
+            default:
+                return chunk.getLong(offset << 3);
+        }
+    }
+
+    @Override
+    public boolean hasNull()
+    {
+        return hasNull;
+    }
+
+    @Override
+    public String name()
+    {
+        return name;
+    }
+
+    @Override
+    public long nullValue()
+    {
+        return nullValue;
+    }
+
+    /**
+     * Returns the amount of memory outside the heap that is used by this column
+     */
+    public Bytes offHeapSize()
+    {
+        return Bytes.bytes((long) size * width);
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name + " (" + size + " x " + width + " bytes off-heap)";
+    }
+
+    private void put(int index, long value)
+    {
+        var chunk = chunks[index >>> CHUNK_SHIFT];
+        var offset = index & (CHUNK_SIZE - 1);
+        switch (width)
+        {
+            case 1:
+                chunk.put(offset, (byte) value);
+                break;
+
+            case 2:
+                chunk.putShort(offset << 1, (short) value);
+                break;
+
+            case 4:
+                chunk.putInt(offset << 2, (int) value);
+                break;
+
+            default:
+                chunk.putLong(offset << 3, value);
+                break;
+        }
+    }
+}
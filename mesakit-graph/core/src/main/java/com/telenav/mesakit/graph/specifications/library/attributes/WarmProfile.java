@@ -0,0 +1,117 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.graph.specifications.library.attributes;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The set of attributes that a workload actually uses, by {@link AttributeReference#objectName()} ([store].[attribute]).
+ * A warm profile is recorded from the access statistics of a running graph (see {@link AttributeLoader#accessed()}) and
+ * saved in a graph archive, so that when the archive is opened again, exactly those attributes can be prefetched in the
+ * background before the first queries arrive.
+ *
+ * @see AttributeReference#isAccessed()
+ */
+public class WarmProfile
+{
+    /**
+     * Returns the warm profile for the given comma-separated list of attribute names
+     */
+    public static WarmProfile parse(String text)
+    {
+        var names = new TreeSet<String>();
+        for (var name : text.split(","))
+        {
+            var trimmed = name.trim();
+            if (!trimmed.isEmpty())
+            {
+                names.add(trimmed);
+            }
+        }
+        return new WarmProfile(names);
+    }
+
+    /** The names of the attributes in this profile */
+    private final Set<String> names;
+
+    public WarmProfile(Collection<String> names)
+    {
+        this.names = new TreeSet<>(names);
+    }
+
+    /**
+     * Returns this profile as a comma-separated list of attribute names
+     */
+    public String asString()
+    {
+        return String.join(",", names);
+    }
+
+    /**
+     * Returns true if the given attribute is in this profile
+     */
+    public boolean includes(AttributeReference<?> reference)
+    {
+        return names.contains(reference.objectName());
+    }
+
+    /**
+     * Returns true if this profile has no attributes
+     */
+    public boolean isEmpty()
+    {
+        return names.isEmpty();
+    }
+
+    /**
+     * Returns the names of the attributes in this profile
+     */
+    public Set<String> names()
+    {
+        return Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Returns the number of attributes in this profile
+     */
+    public int size()
+    {
+        return names.size();
+    }
+
+    @Override
+    public String toString()
+    {
+        return asString();
+    }
+
+    /**
+     * Returns a profile with the attributes of both this profile and the given one
+     */
+    public WarmProfile union(WarmProfile that)
+    {
+        var names = new TreeSet<>(this.names);
+        names.addAll(that.names);
+        return new WarmProfile(names);
+    }
+}
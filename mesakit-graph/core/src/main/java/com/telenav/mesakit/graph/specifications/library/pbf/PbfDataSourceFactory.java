@@ -86,4 +86,12 @@ public class PbfDataSourceFactory extends BaseRepeater implements Mapper<Metadat
     {
         return resource;
     }
+
+    /**
+     * Returns the type of data source this factory creates
+     */
+    public Type type()
+    {
+        return type;
+    }
 }
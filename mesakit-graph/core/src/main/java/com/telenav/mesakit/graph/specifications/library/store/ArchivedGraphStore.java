@@ -25,11 +25,19 @@ import com.telenav.kivakit.core.logging.LoggerFactory;
 import com.telenav.kivakit.core.messaging.Debug;
 import com.telenav.kivakit.core.time.Time;
 import com.telenav.kivakit.interfaces.loading.Unloadable;
+import com.telenav.kivakit.primitive.collections.list.PrimitiveList;
 import com.telenav.kivakit.resource.Resource;
 import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.graph.io.archive.ColumnarGraphArchive;
 import com.telenav.mesakit.graph.io.archive.GraphArchive;
 import com.telenav.mesakit.graph.specifications.common.element.ArchivedGraphElementStore;
+import com.telenav.mesakit.graph.specifications.library.attributes.AttributeReference;
 import com.telenav.mesakit.graph.specifications.library.attributes.AttributeSet;
+import com.telenav.mesakit.graph.specifications.library.attributes.WarmProfile;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.function.Predicate;
 
 import static com.telenav.kivakit.core.ensure.Ensure.ensure;
 import static com.telenav.kivakit.core.string.AsciiArt.textBox;
@@ -53,6 +61,9 @@ import static com.telenav.kivakit.core.string.Formatter.format;
     /** True when data is being unloaded */
     private transient boolean unloading;
 
+    /** The attributes to prefetch when this store is loaded from an archive, if any */
+    private transient WarmProfile warmProfile;
+
     /**
      * Construct this graph store for the given graph, including the given features. The estimated number of vertexes
      * and edges is used to prevent unnecessary map rehashes to improve performance. It is a good idea to guess
@@ -63,6 +74,24 @@ import static com.telenav.kivakit.core.string.Formatter.format;
         super(graph);
     }
 
+    /**
+     * Returns a warm profile of the attributes in all stores that have been accessed since the last call to
+     * {@link #resetAccessProfile()}. The profile can be saved with the graph (see {@link #warmProfile(WarmProfile)}),
+     * so that those attributes are prefetched when it is next loaded.
+     */
+    public WarmProfile accessProfile()
+    {
+        var names = new ArrayList<String>();
+        forEachStore(store ->
+        {
+            for (var reference : store.attributeLoader().accessed())
+            {
+                names.add(reference.objectName());
+            }
+        });
+        return new WarmProfile(names);
+    }
+
     /**
      * True if this store is loading data, false if it's done, at which point the store can't be modified.
      */
@@ -100,6 +129,17 @@ import static com.telenav.kivakit.core.string.Formatter.format;
         // Attach archive to all the sub-stores
         attach(archive);
 
+        // Map any columns saved alongside the archive
+        var columns = archive.columns();
+        if (columns != null)
+        {
+            var mapped = columns.map();
+            if (mapped != null)
+            {
+                forEachStore(store -> store.attach(mapped));
+            }
+        }
+
         // Clear out all the lazy-loaded fields we will load from archive
         unload();
 
@@ -114,43 +154,42 @@ import static com.telenav.kivakit.core.string.Formatter.format;
         // We're done loading
         loaded(archive);
 
+        // If the archive has a warm profile, prefetch the attributes in it
+        warmProfile = archive.warmProfile();
+        if (warmProfile != null && !warmProfile.isEmpty())
+        {
+            prefetch(warmProfile);
+        }
+
         // Done!
         graph().information(textBox(format("Loaded from $ in $",
                 graph().metadata().descriptor(), start.elapsedSince()), graph().asString()));
     }
 
     /**
-     * Force each graph element store to fully load
+     * Force each graph element store to fully load, loading attributes in parallel
+     *
+     * @see AttributeLoadPlan
      */
     public void loadAll()
     {
-        forEachStore((store) ->
-        {
-            DEBUG.trace("Force loading $", store.getClass().getSimpleName());
-            store.loadAll();
-        });
+        loadAll(reference -> true);
     }
 
     /**
-     * Force each graph element store to fully load, except for the given attributes
+     * Force each graph element store to load the given attributes, loading them in parallel
      */
-    public void loadAll(AttributeSet except)
+    public void loadAll(AttributeSet attributes)
     {
-        for (var store : stores())
-        {
-            store.loadAll(except);
-        }
+        loadAll(reference -> attributes.contains(reference.attribute()));
     }
 
     /**
-     * Force each graph element store to fully load, except for the given attributes
+     * Force each graph element store to fully load, except for the given attributes, loading them in parallel
      */
     public void loadAllExcept(AttributeSet except)
     {
-        for (var store : stores())
-        {
-            store.loadAllExcept(except);
-        }
+        loadAll(reference -> !except.contains(reference.attribute()));
     }
 
     public void loaded(Resource resource)
@@ -176,6 +215,37 @@ import static com.telenav.kivakit.core.string.Formatter.format;
         return "graph.store";
     }
 
+    /**
+     * Loads the attributes in the given warm profile on a background thread
+     */
+    public void prefetch(WarmProfile profile)
+    {
+        var plan = new AttributeLoadPlan(graph());
+        forEachStore(store ->
+        {
+            for (var reference : store.attributeLoader().references())
+            {
+                if (profile.includes(reference))
+                {
+                    plan.add(reference);
+                }
+            }
+        });
+
+        graph().information("Prefetching $ attributes from warm profile", profile.size());
+        var thread = new Thread(plan::load, "Prefetch-" + graph().name());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Clears the record of accessed attributes in all stores
+     */
+    public void resetAccessProfile()
+    {
+        forEachStore(store -> store.attributeLoader().resetAccessed());
+    }
+
     public Resource resource()
     {
         return resource;
@@ -193,7 +263,10 @@ import static com.telenav.kivakit.core.string.Formatter.format;
      */
     public final void save(GraphArchive archive)
     {
-        // If the store is invalid
+        // Restore any attributes that were compressed or moved off-heap on loading, so they can be validated and saved,
+        forEachStore(store -> store.attributeLoader().restoreAll());
+
+        // and if the store is invalid
         if (!isValid(this))
         {
             // we cannot save
@@ -219,12 +292,24 @@ import static com.telenav.kivakit.core.string.Formatter.format;
             var metadata = graph().metadata().withDataBounds(bounds());
             archive.saveMetadata(metadata);
 
+            // and any warm profile
+            if (warmProfile != null)
+            {
+                archive.saveWarmProfile(warmProfile);
+            }
+
             // Save fields of each graph element store
             forEachStore(ArchivedGraphElementStore::save);
 
             // Close the archive
             archive.close();
 
+            // and if the archive is columnar, save the scalar attribute columns alongside it
+            if (archive.isColumnar())
+            {
+                saveColumns(archive);
+            }
+
             // We're done saving
             saved(archive);
         }
@@ -241,6 +326,34 @@ import static com.telenav.kivakit.core.string.Formatter.format;
         information(textBox(format("Saved $", metadata().descriptor()), report.join("\n")));
     }
 
+    /**
+     * Saves the scalar attribute columns of this store to the given columns file. The graph archive that the columns
+     * file is saved alongside must already be saved and closed, since the columns file records its size and
+     * modification time.
+     */
+    public void saveColumns(ColumnarGraphArchive columns)
+    {
+        var map = new HashMap<String, PrimitiveList>();
+        forEachStore(store -> store.addColumns(map));
+        columns.save(map);
+    }
+
+    /**
+     * Returns the warm profile saved with or loaded from this store's archive, or null if there is none
+     */
+    public WarmProfile warmProfile()
+    {
+        return warmProfile;
+    }
+
+    /**
+     * Sets the warm profile to save with this store
+     */
+    public void warmProfile(WarmProfile warmProfile)
+    {
+        this.warmProfile = warmProfile;
+    }
+
     /**
      * Shrinks this store by removing references to reloadable objects
      */
@@ -324,6 +437,26 @@ import static com.telenav.kivakit.core.string.Formatter.format;
         onAttached(archive);
     }
 
+    /**
+     * Loads the attributes of all stores that match the given filter with an {@link AttributeLoadPlan}
+     */
+    private void loadAll(Predicate<AttributeReference<?>> include)
+    {
+        var plan = new AttributeLoadPlan(graph());
+        forEachStore(store ->
+        {
+            DEBUG.trace("Force loading $", store.getClass().getSimpleName());
+            for (var reference : store.attributeLoader().references())
+            {
+                if (include.test(reference))
+                {
+                    plan.add(reference);
+                }
+            }
+        });
+        plan.load();
+    }
+
     private void loaded(GraphArchive archive)
     {
         forEachStore((store) -> store.loaded(archive));
@@ -341,6 +474,17 @@ import static com.telenav.kivakit.core.string.Formatter.format;
         forEachStore((store) -> store.loading(archive));
     }
 
+    private void saveColumns(GraphArchive archive)
+    {
+        var columns = archive.columns();
+        if (columns == null)
+        {
+            warning("Cannot save columns for $, which is not a file", archive);
+            return;
+        }
+        saveColumns(columns);
+    }
+
     private void saved(GraphArchive archive)
     {
         forEachStore((store) -> store.saved(archive));
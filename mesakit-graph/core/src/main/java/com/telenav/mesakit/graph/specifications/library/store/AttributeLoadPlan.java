@@ -0,0 +1,217 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.graph.specifications.library.store;
+
+import com.telenav.kivakit.core.thread.Threads;
+import com.telenav.kivakit.core.time.Time;
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.core.vm.JavaVirtualMachine;
+import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.graph.specifications.library.attributes.AttributeReference;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads a set of {@link AttributeReference}s from their archives concurrently. Each attribute is decompressed and
+ * decoded independently, so attributes are loaded on a pool of threads, largest first. The total estimated size (see
+ * {@link AttributeReference#archivedSize()}) of the attributes being loaded at any one time is kept within a memory
+ * budget, which by default is half of the memory the JVM has available. The load time and size of each attribute is
+ * reported through the graph's information channel.
+ *
+ * @see ArchivedGraphStore#loadAll()
+ */
+public class AttributeLoadPlan
+{
+    /** The graph being loaded */
+    private final Graph graph;
+
+    /** The attributes to load */
+    private final List<AttributeReference<?>> references = new ArrayList<>();
+
+    /** The maximum number of estimated bytes to load at once */
+    private long memoryBudget = defaultMemoryBudget();
+
+    /** The number of threads to load with */
+    private Count threads = JavaVirtualMachine.javaVirtualMachine().processors();
+
+    /** The estimated number of bytes being loaded right now */
+    private long loading;
+
+    public AttributeLoadPlan(Graph graph)
+    {
+        this.graph = graph;
+    }
+
+    /**
+     * Adds the given attribute to this plan if it is not already loaded
+     */
+    public void add(AttributeReference<?> reference)
+    {
+        if (!reference.isLoaded())
+        {
+            references.add(reference);
+        }
+    }
+
+    /**
+     * Loads all attributes in this plan, returning when they have all been loaded
+     */
+    public void load()
+    {
+        if (references.isEmpty())
+        {
+            return;
+        }
+
+        var start = Time.now();
+
+        // Load the largest attributes first, so that small ones fill in at the end,
+        references.sort(Comparator.comparing((AttributeReference<?> reference) -> reference.archivedSize().asBytes())
+                .reversed());
+
+        // then submit each attribute to a thread pool,
+        var executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads.asInt(), references.size())));
+        for (var reference : references)
+        {
+            executor.submit(() -> load(reference));
+        }
+
+        // and wait for them all to load.
+        Threads.shutdownAndAwaitTermination(executor);
+
+        graph.information("Loaded $ attributes with $ threads in $", references.size(), threads, start.elapsedSince());
+    }
+
+    /**
+     * Sets the maximum total estimated size of attributes being loaded at the same time
+     */
+    public AttributeLoadPlan withMemoryBudget(Bytes memoryBudget)
+    {
+        this.memoryBudget = memoryBudget.asBytes();
+        return this;
+    }
+
+    /**
+     * Sets the number of threads used to load attributes
+     */
+    public AttributeLoadPlan withThreads(Count threads)
+    {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Called on a loading thread once the given attribute fits within the memory budget, just before it is loaded
+     */
+    protected void onLoading(AttributeReference<?> reference)
+    {
+    }
+
+    /**
+     * Called on a loading thread when the given attribute has been loaded, or has failed to load, just before its
+     * estimated size is released from the memory budget
+     */
+    protected void onLoaded(AttributeReference<?> reference)
+    {
+    }
+
+    /**
+     * Returns half of the memory that the JVM can still allocate
+     */
+    private static long defaultMemoryBudget()
+    {
+        var runtime = Runtime.getRuntime();
+        var used = runtime.totalMemory() - runtime.freeMemory();
+        return Math.max(0, runtime.maxMemory() - used) / 2;
+    }
+
+    /**
+     * Loads the given attribute within the memory budget
+     */
+    private void load(AttributeReference<?> reference)
+    {
+        // If we're interrupted while waiting for room in the memory budget, give up on the attribute
+        var size = reference.archivedSize().asBytes();
+        if (!reserve(size))
+        {
+            return;
+        }
+
+        try
+        {
+            // otherwise, load the attribute,
+            onLoading(reference);
+            var start = Time.now();
+            if (reference.preload())
+            {
+                // and report how long it took and how big it is (without allocating the referent, which would undo
+                // any compression or off-heap storage).
+                graph.information("Loaded $ ($ elements, $) in $", reference.objectName(), reference.loadedSize(),
+                        Bytes.bytes(size), start.elapsedSince());
+            }
+        }
+        catch (Exception e)
+        {
+            graph.warning(e, "Unable to load $", reference.objectName());
+        }
+        finally
+        {
+            onLoaded(reference);
+            release(size);
+        }
+    }
+
+    /**
+     * Releases the given number of bytes from the memory budget
+     */
+    private synchronized void release(long bytes)
+    {
+        loading -= bytes;
+        notifyAll();
+    }
+
+    /**
+     * Waits until the given number of bytes fits within the memory budget and then reserves it. An attribute is always
+     * allowed to load when nothing else is loading, even if it's bigger than the budget.
+     *
+     * @return True if the bytes were reserved, false if the thread was interrupted while waiting
+     */
+    private synchronized boolean reserve(long bytes)
+    {
+        while (loading > 0 && loading + bytes > memoryBudget)
+        {
+            try
+            {
+                wait();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        loading += bytes;
+        return true;
+    }
+}
@@ -213,6 +213,16 @@ public abstract class GraphStore extends BaseRepeater implements Unloadable, Val
                 .withPlaceCount(placeStore().retrieveCount());
     }
 
+    /**
+     * Enables or disables parallel building for each graph element store
+     *
+     * @see GraphElementStore#parallel(boolean)
+     */
+    public void parallel(boolean parallel)
+    {
+        forEachStore(store -> store.parallel(parallel));
+    }
+
     public final PlaceStore placeStore()
     {
         if (placeStore == null)
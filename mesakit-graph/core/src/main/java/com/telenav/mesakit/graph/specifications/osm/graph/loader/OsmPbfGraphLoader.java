@@ -132,6 +132,10 @@ public final class OsmPbfGraphLoader extends PbfGraphLoader
             var edgeSectioner = listenTo(new EdgeSectioner(
                     destination, analysis, loader.edgeNodes(), Distance.MAXIMUM));
             var waySectioner = new WaySectioningGraphLoader(raw, edgeSectioner);
+            if (configuration().sectioningThreads() != null)
+            {
+                waySectioner.threads(configuration().sectioningThreads());
+            }
             var ways = Properties.systemPropertyOrEnvironmentVariable("MESAKIT_DEBUG_WAY_SECTIONS");
             if (ways != null)
             {
@@ -87,6 +87,44 @@ public class EdgeSectioner extends BaseRepeater
         this.waysToDebug = waysToDebug;
     }
 
+    /**
+     * Returns true if a visual debugger is attached to this sectioner, in which case edges should be sectioned on a
+     * single thread with {@link #section(Edge)}
+     */
+    public boolean isDebugging()
+    {
+        return debugger != null;
+    }
+
+    /**
+     * Returns the sections of the given edge that can be determined from the raw edge alone (breaks at intersections
+     * and loops), or null if the edge can't be sectioned. Since this does not look at the destination graph, it can be
+     * called concurrently by any number of threads.
+     *
+     * @see #section(Edge, EdgeSectionList)
+     */
+    public EdgeSectionList presection(Edge edge)
+    {
+        // Get nodes list for way
+        var nodes = edgeNodeMap.get(edge.identifier());
+
+        // If there are at least two nodes we can do way sectioning
+        if (nodes != null && nodes.size() >= 2)
+        {
+            try
+            {
+                // Break the edge at intersections and simple loops
+                return sectionLoops(sectionAtIntersections(new EdgeSection(edge, nodes, edge.roadShape())));
+            }
+            catch (Exception e)
+            {
+                LOGGER.warning(e, "Unable to section edge $ of $", edge.identifier(), edge.graph().name());
+            }
+        }
+
+        return null;
+    }
+
     /**
      * Returns a list of sectioned edges for the given edge
      */
@@ -133,6 +171,30 @@ public class EdgeSectioner extends BaseRepeater
         return Collections.singletonList(edge);
     }
 
+    /**
+     * Returns a list of sectioned edges for the given edge, given the sections returned for it by
+     * {@link #presection(Edge)}. Whether a section is ambiguous depends on the edges already added to the destination
+     * graph, so this method must be called for edges in the same order as they are added.
+     */
+    public List<Edge> section(Edge edge, EdgeSectionList presections)
+    {
+        // If the edge could be presectioned,
+        if (presections != null)
+        {
+            try
+            {
+                // split ambiguous edges and finally section any edges that are too long
+                return sectionLongEdges(sectionAmbiguousEdges(presections)).edges();
+            }
+            catch (Exception e)
+            {
+                LOGGER.warning(e, "Unable to section edge $ of $", edge.identifier(), edge.graph().name());
+            }
+        }
+
+        return Collections.singletonList(edge);
+    }
+
     /**
      * Returns the given list of edge sections with any ambiguities resolved by bisecting a way
      */
@@ -19,11 +19,16 @@
 package com.telenav.mesakit.graph.specifications.osm.graph.loader.sectioner;
 
 import com.telenav.kivakit.validation.ValidationType;
+import com.telenav.kivakit.core.progress.ProgressReporter;
 import com.telenav.kivakit.core.progress.reporters.ConcurrentBroadcastingProgressReporter;
+import com.telenav.kivakit.core.thread.Threads;
+import com.telenav.kivakit.core.vm.JavaVirtualMachine;
+import com.telenav.kivakit.interfaces.collection.Addable;
 import com.telenav.kivakit.core.time.Time;
 import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.resource.Resource;
 import com.telenav.mesakit.graph.Edge;
+import com.telenav.mesakit.graph.EdgeRelation;
 import com.telenav.mesakit.graph.Graph;
 import com.telenav.mesakit.graph.Metadata;
 import com.telenav.mesakit.graph.io.load.GraphConstraints;
@@ -32,7 +37,12 @@ import com.telenav.mesakit.graph.io.load.loaders.BaseGraphLoader;
 import com.telenav.mesakit.graph.specifications.common.relation.store.RelationStore;
 import com.telenav.mesakit.graph.specifications.library.store.GraphStore;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -45,6 +55,25 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 public class WaySectioningGraphLoader extends BaseGraphLoader
 {
+    /**
+     * A batch of raw ways that has been presectioned by a worker thread and is waiting to be added to the destination
+     * graph in sequence
+     */
+    private static class PresectionedBatch
+    {
+        /** The ways in this batch */
+        final List<Edge> ways;
+
+        /** The presections for each way, or null for ways that couldn't be sectioned */
+        final List<EdgeSectionList> presections;
+
+        PresectionedBatch(List<Edge> ways, List<EdgeSectionList> presections)
+        {
+            this.ways = ways;
+            this.presections = presections;
+        }
+    }
+
     /** The raw, un-sectioned graph we're loading from where each edge is an OSM way */
     private final Graph raw;
 
@@ -54,6 +83,21 @@ public class WaySectioningGraphLoader extends BaseGraphLoader
     /** Sections an individual edge */
     private final EdgeSectioner edgeSectioner;
 
+    /** The number of worker threads presectioning ways */
+    private Count threads = JavaVirtualMachine.javaVirtualMachine().processors();
+
+    /** Presectioned batches that are waiting for earlier batches to be added, by sequence number */
+    private final Map<Integer, PresectionedBatch> waiting = new HashMap<>();
+
+    /** The number of batches taken from the raw graph by worker threads */
+    private int batchesTaken;
+
+    /** The sequence number of the next batch to add to the destination graph */
+    private int nextSequence;
+
+    /** Held while adding batches to the destination graph, so they are added by only one thread at a time */
+    private final ReentrantLock addLock = new ReentrantLock();
+
     /**
      * @param raw The raw graph to section
      * @param edgeSectioner The configured edge sectioner to do the job
@@ -83,74 +127,101 @@ public class WaySectioningGraphLoader extends BaseGraphLoader
 
         // and an iterator over batches of edges
         var batches = raw.batches(Count._16_384);
+        var batchLock = new ReentrantLock(true);
+
+        // then we start a thread pool (a visual debugger can only follow one thread),
+        var workers = edgeSectioner.isDebugging() ? 1 : threads.asInt();
+        information("Sectioning ways with $ threads", workers);
+        var executor = Executors.newFixedThreadPool(workers);
 
-        // then we start a thread pool
-        var lock = new ReentrantLock(true);
+        // limiting the number of batches in memory at once
+        var permits = new Semaphore(workers * 2);
 
         // and get adders for each store
         var edgeStoreAdder = edgeStore.adder();
         var relationStoreAdder = relationStore.adder();
-
-        // then we loop
-        while (true)
+        var outer = this;
+        for (var worker = 0; worker < workers; worker++)
         {
-            // so long as there is another batch
-            List<Edge> batch = null;
-            lock.lock();
-            try
-            {
-                if (batches.hasNext())
-                {
-                    batch = batches.next();
-                }
-                if (batch == null)
-                {
-                    break;
-                }
-            }
-            finally
-            {
-                lock.unlock();
-            }
-
-            // and process each way/edge in the batch
-            for (var way : batch)
+            executor.submit(() ->
             {
-                // breaking the way into smaller sections
-                var sections = edgeSectioner.section(way);
-                for (var section : sections)
+                try
                 {
-                    // and if a section is included,
-                    if (constraints.includes(section))
+                    // then we loop
+                    while (true)
                     {
-                        // we add it to the edge store.
-                        var heavyweight = section.asHeavyWeight();
-                        heavyweight.copyRoadNames(way);
-                        edgeStoreAdder.add(heavyweight);
+                        // so long as there is another batch
+                        permits.acquireUninterruptibly();
+                        List<Edge> batch = null;
+                        var batchSequence = -1;
+                        var presectioned = new PresectionedBatch(List.of(), List.of());
+                        try
+                        {
+                            batchLock.lock();
+                            try
+                            {
+                                if (batches.hasNext())
+                                {
+                                    batchSequence = batchesTaken++;
+                                    batch = batches.next();
+                                }
+                            }
+                            finally
+                            {
+                                batchLock.unlock();
+                            }
+                            if (batch != null)
+                            {
+                                // presectioning each way/edge in the batch on this thread,
+                                var presections = new ArrayList<EdgeSectionList>(batch.size());
+                                for (var way : batch)
+                                {
+                                    presections.add(edgeSectioner.presection(way));
+                                }
+                                presectioned = new PresectionedBatch(batch, presections);
+                            }
+                        }
+                        catch (Exception e)
+                        {
+                            outer.problem(e, "Unable to presection batch $", batchSequence);
+                        }
+                        finally
+                        {
+                            // If we took no batch,
+                            if (batchSequence < 0)
+                            {
+                                // then we give back the permit,
+                                permits.release();
+                            }
+                            else
+                            {
+                                // otherwise we put the batch in sequence, even if it's empty because it failed, so
+                                // that it's skipped and its permit released instead of holding up later batches
+                                synchronized (waiting)
+                                {
+                                    waiting.put(batchSequence, presectioned);
+                                }
+                            }
+                        }
+
+                        // and then add this batch and any others that are ready, in sequence.
+                        if (batchSequence >= 0)
+                        {
+                            addReadyBatches(store, constraints, edgeStoreAdder, relationStoreAdder, permits, progress);
+                        }
+                        if (batch == null)
+                        {
+                            break;
+                        }
                     }
                 }
-
-                // Then for each of the way's relations,
-                for (var relation : way.relations())
+                catch (Exception e)
                 {
-                    // if it hasn't already been added,
-                    if (!relationStore.containsIdentifier(relation.identifierAsLong()))
-                    {
-                        // add it.
-                        relationStoreAdder.add(relation.asHeavyWeight());
-                    }
-
-                    // and go through the way's sections
-                    for (var edge : sections)
-                    {
-                        // adding the relation to the edge
-                        store.edgeStore().storeRelation(edge, relation);
-                    }
+                    outer.problem(e, "Way sectioning thread failed");
                 }
-            }
-
-            progress.next(batch.size());
+            });
         }
+        Threads.shutdownAndAwaitTermination(executor);
 
         progress.end();
 
@@ -180,9 +251,126 @@ public class WaySectioningGraphLoader extends BaseGraphLoader
         return dataSource;
     }
 
+    /**
+     * Sets the number of threads used to presection ways
+     */
+    public WaySectioningGraphLoader threads(Count threads)
+    {
+        this.threads = threads;
+        return this;
+    }
+
     @Override
     public ValidationType validation()
     {
         return new ValidationType().exclude(RelationStore.class);
     }
+
+    /**
+     * Adds the given presectioned batch of ways to the destination graph
+     */
+    private void add(PresectionedBatch batch,
+                     GraphStore store,
+                     GraphConstraints constraints,
+                     Addable<Edge> edgeStoreAdder,
+                     Addable<EdgeRelation> relationStoreAdder)
+    {
+        var relationStore = store.relationStore();
+
+        // Process each way/edge in the batch
+        for (var index = 0; index < batch.ways.size(); index++)
+        {
+            // breaking the way into smaller sections
+            var way = batch.ways.get(index);
+            var sections = edgeSectioner.section(way, batch.presections.get(index));
+            for (var section : sections)
+            {
+                // and if a section is included,
+                if (constraints.includes(section))
+                {
+                    // we add it to the edge store.
+                    var heavyweight = section.asHeavyWeight();
+                    heavyweight.copyRoadNames(way);
+                    edgeStoreAdder.add(heavyweight);
+                }
+            }
+
+            // Then for each of the way's relations,
+            for (var relation : way.relations())
+            {
+                // if it hasn't already been added,
+                if (!relationStore.containsIdentifier(relation.identifierAsLong()))
+                {
+                    // add it.
+                    relationStoreAdder.add(relation.asHeavyWeight());
+                }
+
+                // and go through the way's sections
+                for (var edge : sections)
+                {
+                    // adding the relation to the edge
+                    store.edgeStore().storeRelation(edge, relation);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds presectioned batches to the destination graph in sequence. Sectioning ambiguous edges depends on the edges
+     * added before them, so adding batches in the same order as the raw graph yields the same graph (with the same
+     * element indexes and synthetic node identifiers) no matter how many threads are presectioning ways.
+     */
+    private void addReadyBatches(GraphStore store,
+                                 GraphConstraints constraints,
+                                 Addable<Edge> edgeStoreAdder,
+                                 Addable<EdgeRelation> relationStoreAdder,
+                                 Semaphore permits,
+                                 ProgressReporter progress)
+    {
+        // While we can become the thread adding batches,
+        while (addLock.tryLock())
+        {
+            try
+            {
+                // add each batch that is next in sequence.
+                while (true)
+                {
+                    PresectionedBatch next;
+                    synchronized (waiting)
+                    {
+                        next = waiting.remove(nextSequence);
+                    }
+                    if (next == null)
+                    {
+                        break;
+                    }
+                    try
+                    {
+                        add(next, store, constraints, edgeStoreAdder, relationStoreAdder);
+                    }
+                    finally
+                    {
+                        // (even if adding failed, so that later batches can be added)
+                        nextSequence++;
+                        permits.release();
+                        progress.next(next.ways.size());
+                    }
+                }
+            }
+            finally
+            {
+                addLock.unlock();
+            }
+
+            // If the next batch arrived after we looked for it, but before we released the lock, then the thread
+            // that added it could not get the lock, so we loop around to add it. Otherwise, we are done.
+            synchronized (waiting)
+            {
+                if (!waiting.containsKey(nextSequence))
+                {
+                    break;
+                }
+            }
+        }
+    }
 }
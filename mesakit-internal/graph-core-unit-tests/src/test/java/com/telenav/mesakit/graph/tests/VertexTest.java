@@ -22,6 +22,8 @@ import com.telenav.mesakit.graph.core.testing.GraphUnitTest;
 import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.mesakit.graph.Vertex;
 import com.telenav.mesakit.map.geography.Location;
+import com.telenav.mesakit.map.measurements.geographic.Distance;
+import com.telenav.mesakit.map.road.model.RoadFunctionalClass;
 import org.junit.Test;
 
 /**
@@ -29,6 +31,36 @@ import org.junit.Test;
  */
 public class VertexTest extends GraphUnitTest
 {
+    @Test
+    public void testAdjacency()
+    {
+        var graph = osmDowntownSeattleTest();
+        var adjacency = graph.vertexStore().adjacency();
+        for (var vertex : graph.vertexes())
+        {
+            // The "out" edges in the adjacency should be the out edge sequence, in the same order,
+            var offset = adjacency.outStart(vertex.index());
+            for (var edge : vertex.outEdgeSequence())
+            {
+                ensureEqual(edge.index() * (edge.isReverse() ? -1 : 1), adjacency.outEdge(offset));
+                ensureEqual(edge.to().index(), adjacency.outTarget(offset));
+                ensureEqual(edge.to(), vertex.edgeTo(edge.to()).to());
+                offset++;
+            }
+            ensureEqual(adjacency.outEnd(vertex.index()), offset);
+
+            // and the "in" edges should be the in edge sequence
+            offset = adjacency.inStart(vertex.index());
+            for (var edge : vertex.inEdgeSequence())
+            {
+                ensureEqual(edge.index() * (edge.isReverse() ? -1 : 1), adjacency.inEdge(offset));
+                ensureEqual(edge.from().index(), adjacency.inSource(offset));
+                offset++;
+            }
+            ensureEqual(adjacency.inEnd(vertex.index()), offset);
+        }
+    }
+
     @Test
     public void testInEdges()
     {
@@ -39,6 +71,46 @@ public class VertexTest extends GraphUnitTest
         ensure(firstAndVirginia.inEdges().contains(osmDowntownSeattleTestEdge(206877624000002L)));
     }
 
+    @Test
+    public void testNearest()
+    {
+        var graph = osmDowntownSeattleTest();
+        var maximum = Distance.meters(250);
+        var factory = newRandomValueFactory();
+        for (var i = 0; i < 25; i++)
+        {
+            var location = factory.newLocation(graph.bounds());
+
+            // Find the nearest qualifying vertex by brute force,
+            Vertex expected = null;
+            var expectedDistance = Long.MAX_VALUE;
+            for (var vertex : graph.vertexes())
+            {
+                if (vertex.maximumRoadFunctionalClass().isMoreImportantThanOrEqual(RoadFunctionalClass.FOURTH_CLASS))
+                {
+                    var distance = location.equirectangularDistanceToInMillimeters(vertex.location());
+                    if (distance <= maximum.asMillimeters() && distance < expectedDistance)
+                    {
+                        expected = vertex;
+                        expectedDistance = distance;
+                    }
+                }
+            }
+
+            // and check that the spatial index search finds a vertex at the same distance.
+            var nearest = graph.vertexNearest(location, maximum);
+            if (expected == null)
+            {
+                ensure(nearest == null);
+            }
+            else
+            {
+                ensure(nearest != null);
+                ensureEqual(expectedDistance, location.equirectangularDistanceToInMillimeters(nearest.location()));
+            }
+        }
+    }
+
     @Test
     public void testOutEdges()
     {
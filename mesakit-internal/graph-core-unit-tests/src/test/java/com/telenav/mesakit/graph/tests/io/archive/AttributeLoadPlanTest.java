@@ -0,0 +1,154 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.graph.tests.io.archive;
+
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.graph.core.testing.GraphUnitTest;
+import com.telenav.mesakit.graph.specifications.library.attributes.AttributeReference;
+import com.telenav.mesakit.graph.specifications.library.store.AttributeLoadPlan;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AttributeLoadPlanTest extends GraphUnitTest
+{
+    @Test
+    public void testLargestFirst()
+    {
+        var graph = osmGreenLakeSeattleArchived();
+        var plan = new RecordingPlan(graph, Long.MAX_VALUE);
+        plan.withThreads(Count._1);
+        var references = add(graph, plan);
+        plan.load();
+
+        // With one thread, attributes are loaded one at a time from largest to smallest
+        ensureEqual(references.size(), plan.order.size());
+        ensureEqual(1, plan.mostLoading);
+        for (var index = 1; index < plan.order.size(); index++)
+        {
+            ensure(!plan.order.get(index).archivedSize().isGreaterThan(plan.order.get(index - 1).archivedSize()));
+        }
+        for (var reference : references)
+        {
+            ensure(reference.isLoaded() || reference.archivedSize().asBytes() == 0);
+        }
+    }
+
+    @Test
+    public void testMemoryBudget()
+    {
+        var graph = osmGreenLakeSeattleArchived();
+
+        // Load with a budget of half the largest attribute, so the largest attributes are bigger than the budget,
+        var largest = 0L;
+        for (var reference : graph.edgeStore().attributeLoader().references())
+        {
+            largest = Math.max(largest, reference.archivedSize().asBytes());
+        }
+        ensure(largest > 1);
+        var budget = largest / 2;
+        var plan = new RecordingPlan(graph, budget);
+        plan.withThreads(Count._4);
+        var references = add(graph, plan);
+        plan.load();
+
+        // and check that the budget was never exceeded, except by an attribute loading on its own,
+        ensureEqual(references.size(), plan.order.size());
+        ensure(!plan.exceeded);
+
+        // and that attributes bigger than the budget were still loaded.
+        for (var reference : references)
+        {
+            if (reference.archivedSize().asBytes() > budget)
+            {
+                ensure(reference.isLoaded());
+            }
+        }
+    }
+
+    /**
+     * Adds the edge attributes of the given graph to the given plan, returning them
+     */
+    private List<AttributeReference<?>> add(Graph graph, AttributeLoadPlan plan)
+    {
+        var references = new ArrayList<AttributeReference<?>>();
+        for (var reference : graph.edgeStore().attributeLoader().references())
+        {
+            if (!reference.isLoaded())
+            {
+                references.add(reference);
+                plan.add(reference);
+            }
+        }
+        ensure(!references.isEmpty());
+        return references;
+    }
+
+    /**
+     * A load plan that records the order attributes are loaded in and how many load at once
+     */
+    private static class RecordingPlan extends AttributeLoadPlan
+    {
+        /** The memory budget */
+        private final long budget;
+
+        /** The attributes in the order they started loading */
+        private final List<AttributeReference<?>> order = new ArrayList<>();
+
+        /** The estimated bytes loading right now */
+        private long bytes;
+
+        /** The number of attributes loading right now */
+        private int loading;
+
+        /** The most attributes that were loading at once */
+        private int mostLoading;
+
+        /** True if the budget was exceeded by more than one attribute loading at once */
+        private boolean exceeded;
+
+        RecordingPlan(Graph graph, long budget)
+        {
+            super(graph);
+            this.budget = budget;
+            withMemoryBudget(Bytes.bytes(budget));
+        }
+
+        @Override
+        protected synchronized void onLoaded(AttributeReference<?> reference)
+        {
+            bytes -= reference.archivedSize().asBytes();
+            loading--;
+        }
+
+        @Override
+        protected synchronized void onLoading(AttributeReference<?> reference)
+        {
+            order.add(reference);
+            bytes += reference.archivedSize().asBytes();
+            loading++;
+            mostLoading = Math.max(mostLoading, loading);
+            exceeded |= loading > 1 && bytes > budget;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.graph.tests.io.archive;
+
+import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.graph.core.testing.GraphUnitTest;
+import com.telenav.mesakit.graph.specifications.common.edge.EdgeAttributes;
+import com.telenav.mesakit.graph.specifications.library.attributes.Attribute;
+import com.telenav.mesakit.graph.specifications.library.attributes.AttributeColumn;
+import com.telenav.mesakit.graph.specifications.library.attributes.BlockCompressedColumn;
+import org.junit.Test;
+
+public class BlockCompressedAttributeLoadTest extends GraphUnitTest
+{
+    @Test
+    public void testCompressedAfterLoadAll()
+    {
+        // Loading every attribute of a graph on the heap
+        var graph = osmGreenLakeSeattle();
+        var loaded = osmGreenLakeSeattleArchived();
+        loaded.loadAll();
+
+        // leaves compressed attributes compressed,
+        ensure(column(loaded, EdgeAttributes.get().FROM_VERTEX_IDENTIFIER) instanceof BlockCompressedColumn);
+        ensure(column(loaded, EdgeAttributes.get().TO_VERTEX_IDENTIFIER) instanceof BlockCompressedColumn);
+        ensure(column(loaded, EdgeAttributes.get().LENGTH) instanceof BlockCompressedColumn);
+
+        // and their values are read from the compressed columns.
+        ensureEqual(graph.edgeCount(), loaded.edgeCount());
+        for (var edge : graph.edges())
+        {
+            var compressed = loaded.edgeForIdentifier(edge.identifier());
+            ensureEqual(edge.from().identifier(), compressed.from().identifier());
+            ensureEqual(edge.to().identifier(), compressed.to().identifier());
+            ensureEqual(edge.lengthInMillimeters(), compressed.lengthInMillimeters());
+        }
+    }
+
+    /**
+     * Returns the column that the given edge attribute is read from in the given graph, if any
+     */
+    private AttributeColumn column(Graph graph, Attribute<?> attribute)
+    {
+        for (var reference : graph.edgeStore().attributeLoader().references())
+        {
+            if (reference.attribute() == attribute)
+            {
+                return reference.column();
+            }
+        }
+        return null;
+    }
+}
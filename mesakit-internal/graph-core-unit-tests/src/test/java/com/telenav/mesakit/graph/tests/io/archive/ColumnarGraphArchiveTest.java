@@ -0,0 +1,122 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.graph.tests.io.archive;
+
+import com.telenav.kivakit.resource.Extension;
+import com.telenav.mesakit.graph.Edge;
+import com.telenav.mesakit.graph.core.testing.GraphUnitTest;
+import com.telenav.mesakit.graph.io.archive.ColumnarGraphArchive;
+import com.telenav.mesakit.graph.io.archive.GraphArchive;
+import com.telenav.mesakit.map.geography.Location;
+import com.telenav.mesakit.map.measurements.geographic.Distance;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static com.telenav.kivakit.core.progress.ProgressReporter.nullProgressReporter;
+import static com.telenav.kivakit.resource.compression.archive.ZipArchive.AccessMode.WRITE;
+
+public class ColumnarGraphArchiveTest extends GraphUnitTest
+{
+    @Test
+    public void testMappedColumns()
+    {
+        var graph = osmGreenLakeSeattle();
+
+        // Save the graph with columns
+        var file = saveGraphArchive(graph, true);
+        var columns = listenTo(new ColumnarGraphArchive(file));
+        ensure(columns.exists());
+        ensure(columns.map().size() > 0);
+
+        // then load it again and check that attributes read from the mapped columns are the same
+        var loaded = loadGraphArchive(file);
+        for (var edge : graph.edges())
+        {
+            var mapped = loaded.edgeForIdentifier(edge.identifier());
+            ensureEqual(edge.from().identifier(), mapped.from().identifier());
+            ensureEqual(edge.to().identifier(), mapped.to().identifier());
+            ensureEqual(edge.lengthInMillimeters(), mapped.lengthInMillimeters());
+            ensureEqual(edge.freeFlowSpeed(), mapped.freeFlowSpeed());
+            ensureEqual(edge.roadType(), mapped.roadType());
+            ensureEqual(edge.bounds(), mapped.bounds());
+            ensureEqual(edge.from().location(), mapped.from().location());
+        }
+        for (var vertex : graph.vertexes())
+        {
+            var mapped = loaded.vertexForIdentifier(vertex.identifier());
+            ensureEqual(vertex.inEdges().size(), mapped.inEdges().size());
+            ensureEqual(vertex.outEdges().size(), mapped.outEdges().size());
+        }
+
+        // and that the packed edge spatial index is read in place from its column.
+        ensure(loaded.edgeStore().isPackedSpatialIndexMapped());
+        ensure(Arrays.equals(graph.edgeStore().packedSpatialIndex().toArray(),
+                loaded.edgeStore().packedSpatialIndex().toArray()));
+    }
+
+    @Test
+    public void testMappedSpatialQueries()
+    {
+        var graph = osmGreenLakeSeattle();
+        var loaded = loadGraphArchive(saveGraphArchive(graph, true));
+        ensure(loaded.edgeStore().isPackedSpatialIndexMapped());
+
+        // Spatial queries answered from the mapped packed index find the same edges as the edge spatial index
+        for (var latitude = 47.66; latitude < 47.69; latitude += 0.005)
+        {
+            var bounds = Location.degrees(latitude, -122.335).within(Distance.meters(300));
+            var expected = new HashSet<Edge>();
+            graph.forEachEdgeIntersecting(bounds, edge ->
+            {
+                expected.add(edge);
+                return true;
+            });
+            var mapped = new HashSet<Edge>();
+            loaded.forEachEdgeIntersecting(bounds, edge ->
+            {
+                mapped.add(edge);
+                return true;
+            });
+            ensureEqual(expected.size(), mapped.size());
+            for (var edge : expected)
+            {
+                ensure(mapped.contains(loaded.edgeForIdentifier(edge.identifier())));
+            }
+        }
+    }
+
+    @Test
+    public void testSavedAlongsideArchive()
+    {
+        // Save a graph with columns over an existing archive
+        var graph = osmGreenLakeSeattle();
+        var file = saveGraphArchive(graph, false);
+        graph.save(new GraphArchive(this, file, WRITE, nullProgressReporter()).columnar(true));
+
+        // and check that the columns are named after the archive and not the temporary file it was saved to,
+        var columns = listenTo(new ColumnarGraphArchive(file));
+        ensure(columns.exists());
+        ensure(!listenTo(new ColumnarGraphArchive(file.withExtension(Extension.TEMPORARY))).exists());
+
+        // and that they are stamped with the archive, so they are mapped when it is loaded.
+        ensure(columns.map() != null);
+    }
+}
@@ -0,0 +1,93 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.graph.tests.io.archive;
+
+import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.graph.core.testing.GraphUnitTest;
+import com.telenav.mesakit.graph.io.archive.GraphArchive;
+import com.telenav.mesakit.graph.specifications.common.edge.EdgeAttributes;
+import com.telenav.mesakit.graph.specifications.library.attributes.Attribute;
+import com.telenav.mesakit.graph.specifications.library.attributes.AttributeColumn;
+import com.telenav.mesakit.graph.specifications.library.attributes.OffHeapColumn;
+import org.junit.Test;
+
+import static com.telenav.kivakit.core.progress.ProgressReporter.nullProgressReporter;
+import static com.telenav.kivakit.resource.compression.archive.ZipArchive.AccessMode.READ;
+import static com.telenav.mesakit.graph.specifications.library.attributes.AttributeStorage.OFF_HEAP;
+
+public class OffHeapAttributeStorageTest extends GraphUnitTest
+{
+    @Test
+    public void testOffHeap()
+    {
+        var graph = osmGreenLakeSeattle();
+        var file = saveGraphArchive(graph, false);
+
+        // Load the graph with its attributes off-heap
+        var loaded = new GraphArchive(this, file, READ, nullProgressReporter())
+                .attributeStorage(OFF_HEAP)
+                .load(this);
+        ensureEqual(OFF_HEAP, loaded.attributeStorage());
+        check(graph, loaded);
+
+        // then load the rest of it, which leaves the attributes off the heap,
+        loaded.loadAll();
+        ensure(column(loaded, EdgeAttributes.get().FROM_VERTEX_IDENTIFIER) instanceof OffHeapColumn);
+        ensure(column(loaded, EdgeAttributes.get().LENGTH) instanceof OffHeapColumn);
+        ensure(column(loaded, EdgeAttributes.get().ROAD_TYPE) instanceof OffHeapColumn);
+        check(graph, loaded);
+
+        // and save it again, which restores the attributes to the heap, and check the result
+        check(graph, loadGraphArchive(saveGraphArchive(loaded, false)));
+    }
+
+    private void check(Graph graph, Graph loaded)
+    {
+        ensureEqual(graph.edgeCount(), loaded.edgeCount());
+        for (var edge : graph.edges())
+        {
+            var offHeap = loaded.edgeForIdentifier(edge.identifier());
+            ensureEqual(edge.from().identifier(), offHeap.from().identifier());
+            ensureEqual(edge.to().identifier(), offHeap.to().identifier());
+            ensureEqual(edge.lengthInMillimeters(), offHeap.lengthInMillimeters());
+            ensureEqual(edge.freeFlowSpeed(), offHeap.freeFlowSpeed());
+            ensureEqual(edge.roadType(), offHeap.roadType());
+            ensureEqual(edge.roadState(), offHeap.roadState());
+            ensureEqual(edge.bounds(), offHeap.bounds());
+            ensureEqual(edge.from().location(), offHeap.from().location());
+            ensureEqual(edge.from().isClipped(), offHeap.from().isClipped());
+        }
+    }
+
+    /**
+     * Returns the column that the given edge attribute is read from in the given graph, if any
+     */
+    private AttributeColumn column(Graph graph, Attribute<?> attribute)
+    {
+        for (var reference : graph.edgeStore().attributeLoader().references())
+        {
+            if (reference.attribute() == attribute)
+            {
+                return reference.column();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,90 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.graph.tests.io.archive;
+
+import com.telenav.mesakit.graph.core.testing.GraphUnitTest;
+import com.telenav.mesakit.graph.specifications.library.attributes.WarmProfile;
+import org.junit.Test;
+
+import java.util.List;
+
+public class WarmProfileTest extends GraphUnitTest
+{
+    @Test
+    public void testLoadedAttributesRecorded()
+    {
+        // Load every attribute of a graph, then forget the accesses made while loading
+        var graph = osmGreenLakeSeattleArchived();
+        graph.loadAll();
+        graph.graphStore().resetAccessProfile();
+
+        // read attributes that are already loaded,
+        for (var edge : graph.edges())
+        {
+            ensure(edge.roadType() != null);
+            ensure(edge.roadState() != null);
+            ensure(edge.freeFlowSpeed() != null);
+            ensure(edge.fromVertexIdentifier() != null);
+            ensure(edge.toVertexIdentifier() != null);
+        }
+
+        // and check that the reads are in the access profile.
+        var names = graph.graphStore().accessProfile().names();
+        for (var attribute : List.of("ROAD_TYPE", "ROAD_STATE", "FREE_FLOW", "FROM_VERTEX_IDENTIFIER",
+                "TO_VERTEX_IDENTIFIER"))
+        {
+            ensure(names.stream().anyMatch(name -> name.endsWith("." + attribute)));
+        }
+    }
+
+    @Test
+    public void testParse()
+    {
+        var profile = WarmProfile.parse("edge-store.ROAD_SHAPE, vertex-store.CONNECTIVITY,,");
+        ensureEqual(2, profile.size());
+        ensureEqual("edge-store.ROAD_SHAPE,vertex-store.CONNECTIVITY", profile.asString());
+        ensureEqual(3, profile.union(new WarmProfile(List.of("edge-store.ROAD_NAMES"))).size());
+        ensure(WarmProfile.parse("").isEmpty());
+    }
+
+    @Test
+    public void testRecordAndSave()
+    {
+        // Load the graph and touch the road shapes of its edges
+        var original = osmGreenLakeSeattle();
+        var graph = osmGreenLakeSeattleArchived();
+        graph.graphStore().resetAccessProfile();
+        for (var edge : graph.edges())
+        {
+            ensure(edge.roadShape() != null);
+        }
+
+        // then check that the access profile includes them
+        var profile = graph.graphStore().accessProfile();
+        ensure(!profile.isEmpty());
+        ensure(profile.names().stream().anyMatch(name -> name.endsWith("ROAD_SHAPE")));
+
+        // and that the profile is saved with the graph and found again when it is loaded.
+        original.graphStore().warmProfile(profile);
+        var warmed = saveGraphArchive(original, false);
+        original.graphStore().warmProfile(null);
+        var reloaded = loadGraphArchive(warmed);
+        ensureEqual(profile.asString(), reloaded.graphStore().warmProfile().asString());
+    }
+}
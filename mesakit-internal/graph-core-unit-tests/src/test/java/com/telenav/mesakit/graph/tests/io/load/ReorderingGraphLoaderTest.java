@@ -0,0 +1,74 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.graph.tests.io.load;
+
+import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.graph.core.testing.GraphUnitTest;
+import com.telenav.mesakit.map.geography.Location;
+import com.telenav.mesakit.map.geography.indexing.curve.HilbertCurve;
+import org.junit.Test;
+
+import static com.telenav.mesakit.graph.io.load.loaders.reordering.ReorderingGraphLoader.Ordering.BREADTH_FIRST;
+import static com.telenav.mesakit.graph.io.load.loaders.reordering.ReorderingGraphLoader.Ordering.HILBERT;
+
+public class ReorderingGraphLoaderTest extends GraphUnitTest
+{
+    @Test
+    public void testBreadthFirst()
+    {
+        var graph = osmGreenLakeSeattle();
+        ensureSameGraph(graph, graph.createReordered(BREADTH_FIRST));
+    }
+
+    @Test
+    public void testHilbert()
+    {
+        var graph = osmGreenLakeSeattle();
+        var reordered = graph.createReordered(HILBERT);
+        ensureSameGraph(graph, reordered);
+
+        // Forward edges should be numbered in Hilbert order of their "from" vertexes
+        var bounds = graph.bounds();
+        var previous = -1L;
+        var index = 0;
+        for (var edge : reordered.forwardEdges())
+        {
+            ensure(edge.index() > index);
+            index = edge.index();
+            var from = edge.fromLocationAsLong();
+            var hilbert = HilbertCurve.index(Location.latitude(from), Location.longitude(from), bounds, HilbertCurve.DEFAULT_ORDER - 1);
+            ensure(hilbert >= previous);
+            previous = hilbert;
+        }
+    }
+
+    private void ensureSameGraph(Graph graph, Graph reordered)
+    {
+        ensureEqual(graph.edgeCount(), reordered.edgeCount());
+        ensureEqual(graph.vertexCount(), reordered.vertexCount());
+        for (var edge : graph.edges())
+        {
+            var copy = reordered.edgeForIdentifier(edge.identifier());
+            ensure(copy != null);
+            ensureEqual(edge.fromLocation(), copy.fromLocation());
+            ensureEqual(edge.toLocation(), copy.toLocation());
+            ensureEqual(edge.to().outEdgeCount(), copy.to().outEdgeCount());
+        }
+    }
+}
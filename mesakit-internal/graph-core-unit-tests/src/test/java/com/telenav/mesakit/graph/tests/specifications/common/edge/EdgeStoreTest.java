@@ -33,6 +33,8 @@ import org.junit.Test;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static com.telenav.mesakit.graph.metadata.DataSupplier.OSM;
 import static com.telenav.mesakit.map.data.formats.library.DataFormat.PBF;
@@ -78,4 +80,43 @@ public class EdgeStoreTest extends GraphUnitTest
 
         ensureEqual(index, deserialized);
     }
+
+    @Test
+    public void testParallel() throws InterruptedException
+    {
+        var graph = OsmDataSpecification.get().newGraph(Metadata.osm(OSM, PBF));
+        graph.addListener(this);
+        var store = graph.edgeStore();
+        store.parallel(true);
+
+        final int threads = 4;
+        final int iterations = 1_000;
+
+        // Add edges from several threads at once
+        var executor = Executors.newFixedThreadPool(threads);
+        for (var thread = 0; thread < threads; thread++)
+        {
+            var first = thread * iterations + 1;
+            executor.submit(() ->
+            {
+                var adder = store.adder();
+                for (var index = first; index < first + iterations; index++)
+                {
+                    adder.add(osmEdge(graph, index, index * 100_000));
+                }
+            });
+        }
+        executor.shutdown();
+        ensure(executor.awaitTermination(1, TimeUnit.MINUTES));
+        store.flush();
+
+        // and check that every edge was stored
+        ensureEqual(threads * iterations, store.size());
+        for (var index = 1; index < threads * iterations + 1; index++)
+        {
+            var edge = graph.edgeForIdentifier(index * 100_000);
+            ensure(edge != null);
+            ensureEqual(index * 100_000L, edge.identifierAsLong());
+        }
+    }
 }
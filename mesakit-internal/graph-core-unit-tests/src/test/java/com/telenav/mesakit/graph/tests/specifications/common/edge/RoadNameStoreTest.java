@@ -59,4 +59,45 @@ public class RoadNameStoreTest extends GraphUnitTest
             }
         }
     }
+
+    @Test
+    public void testCache()
+    {
+        var graph = osmGraph();
+        var store = new RoadNameStore("test", Estimate._64, Metadata.defaultMetadata());
+        var edge = osmEdge(graph, 1, 1);
+        store.set(edge, Type.OFFICIAL, 0, forName("Stone Way North"));
+
+        // The first lookup may decode the name, but the second should be a cache hit
+        store.get(edge, Type.OFFICIAL, 0);
+        var hits = store.cache().hits().asLong();
+        var misses = store.cache().misses().asLong();
+        ensureEqual(forName("Stone Way North"), store.get(edge, Type.OFFICIAL, 0));
+        ensureEqual(hits + 1, store.cache().hits().asLong());
+        ensureEqual(misses, store.cache().misses().asLong());
+    }
+
+    @Test
+    public void testPredecode()
+    {
+        var graph = osmGraph();
+        var store1 = new RoadNameStore("test1", Estimate._64, Metadata.defaultMetadata());
+        var store2 = new RoadNameStore("test2", Estimate._64, Metadata.defaultMetadata());
+        var edge1 = osmEdge(graph, 1, 1);
+        var edge2 = osmEdge(graph, 2, 2);
+        store1.set(edge1, Type.OFFICIAL, 0, forName("Green Lake Way North"));
+        store1.set(edge2, Type.OFFICIAL, 0, forName("Aurora Avenue North"));
+        store2.set(edge1, Type.OFFICIAL, 0, forName("Green Lake Way North"));
+
+        store1.predecode();
+        store2.predecode();
+        ensure(store1.isPredecoded());
+
+        // Predecoded names don't go through the cache, and equal names are shared between stores
+        var lookups = store1.cache().hits().asLong() + store1.cache().misses().asLong();
+        ensureEqual(forName("Green Lake Way North"), store1.get(edge1, Type.OFFICIAL, 0));
+        ensureEqual(forName("Aurora Avenue North"), store1.get(edge2, Type.OFFICIAL, 0));
+        ensureEqual(lookups, store1.cache().hits().asLong() + store1.cache().misses().asLong());
+        ensure(store1.get(edge1, Type.OFFICIAL, 0) == store2.get(edge1, Type.OFFICIAL, 0));
+    }
 }
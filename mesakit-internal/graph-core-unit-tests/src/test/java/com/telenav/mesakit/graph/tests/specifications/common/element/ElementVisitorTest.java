@@ -0,0 +1,117 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.graph.tests.specifications.common.element;
+
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.mesakit.graph.Edge;
+import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.graph.Vertex;
+import com.telenav.mesakit.graph.core.testing.GraphUnitTest;
+import com.telenav.mesakit.graph.matching.conflation.EdgeConflater;
+import com.telenav.mesakit.graph.specifications.common.vertex.store.index.VertexSpatialIndex;
+import com.telenav.mesakit.map.geography.Location;
+import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
+import com.telenav.mesakit.map.measurements.geographic.Distance;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that the spatial visitors of graphs find the same elements as the iterators they replace
+ */
+public class ElementVisitorTest extends GraphUnitTest
+{
+    @Test
+    public void testConflaterVisitor()
+    {
+        var graph = osmGreenLakeSeattle();
+        var conflater = new EdgeConflater(graph);
+        var edges = graph.edges().asList();
+        for (var index = 0; index < edges.size(); index += 25)
+        {
+            var edge = edges.get(index);
+            var candidates = graph.edgesIntersecting(edge.bounds().expanded(Distance.meters(10)));
+            ensureEqual(conflater.conflate(edge, candidates), conflater.conflate(edge));
+        }
+    }
+
+    @Test
+    public void testEdgeVisitor()
+    {
+        checkEdgeVisitor(osmGreenLakeSeattle());
+    }
+
+    @Test
+    public void testMappedEdgeVisitor()
+    {
+        checkEdgeVisitor(loadGraphArchive(saveGraphArchive(osmGreenLakeSeattle(), true)));
+    }
+
+    @Test
+    public void testVertexVisitor()
+    {
+        var graph = osmGreenLakeSeattle();
+        var index = new VertexSpatialIndex(graph, Count._8);
+        index.addAll(graph.vertexes());
+        for (var bounds : bounds())
+        {
+            var visited = new ArrayList<Vertex>();
+            ensure(index.forEachInside(bounds, visited::add));
+
+            var iterated = new ArrayList<Vertex>();
+            index.inside(bounds).forEach(iterated::add);
+            ensureEqual(iterated, visited);
+        }
+    }
+
+    /**
+     * Returns rectangles of several sizes around Green Lake, including one that covers none of the graph
+     */
+    private List<Rectangle> bounds()
+    {
+        return List.of(
+                Location.degrees(47.68, -122.335).within(Distance.meters(100)),
+                Location.degrees(47.68, -122.335).within(Distance.meters(500)),
+                Location.degrees(47.676, -122.34).within(Distance.meters(1_000)),
+                Location.degrees(0, 0).within(Distance.meters(100)));
+    }
+
+    private void checkEdgeVisitor(Graph graph)
+    {
+        for (var bounds : bounds())
+        {
+            // Mapped graphs visit edges in the order of their packed index, so compare without order
+            var visited = new ArrayList<Edge>();
+            ensure(graph.forEachEdgeIntersecting(bounds, visited::add));
+
+            var iterated = graph.edgesIntersecting(bounds).asList();
+            ensureEqual(iterated.size(), visited.size());
+            ensure(visited.containsAll(iterated));
+
+            // and stopping the visitor ends the traversal
+            if (!visited.isEmpty())
+            {
+                var count = new int[1];
+                ensure(!graph.forEachEdgeIntersecting(bounds, edge -> ++count[0] < 1));
+                ensureEqual(1, count[0]);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.graph.tests.specifications.library.attributes;
+
+import com.telenav.kivakit.primitive.collections.array.scalars.IntArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.LongArray;
+import com.telenav.kivakit.primitive.collections.list.PrimitiveList;
+import com.telenav.mesakit.graph.core.testing.GraphUnitTest;
+import com.telenav.mesakit.graph.specifications.library.attributes.BlockCompressedColumn;
+import org.junit.Test;
+
+import static com.telenav.mesakit.graph.specifications.library.attributes.BlockCompressedColumn.Encoding.DELTA;
+import static com.telenav.mesakit.graph.specifications.library.attributes.BlockCompressedColumn.Encoding.FRAME_OF_REFERENCE;
+
+public class BlockCompressedColumnTest extends GraphUnitTest
+{
+    @Test
+    public void testDelta()
+    {
+        var values = new LongArray("values");
+        values.initialize();
+        var value = 1_000_000_000_000L;
+        for (var index = 0; index < 1_000; index++)
+        {
+            value += random().randomIntExclusive(0, 1_000);
+            values.add(value);
+        }
+        check(values, DELTA);
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        var values = new IntArray("values");
+        values.initialize();
+        var column = BlockCompressedColumn.compress("values", values, FRAME_OF_REFERENCE);
+        ensureEqual(0, column.size());
+        ensureEqual(values.safeGetPrimitive(0), column.safeGet(0));
+    }
+
+    @Test
+    public void testFrameOfReference()
+    {
+        var values = new IntArray("values");
+        values.initialize();
+        for (var index = 0; index < 1_000; index++)
+        {
+            // Mix narrow blocks with a few that need the full width
+            values.add(index < 512 ? 5_000 + random().randomIntExclusive(0, 100) : random().randomIntExclusive(Integer.MIN_VALUE + 1, Integer.MAX_VALUE));
+        }
+        check(values, FRAME_OF_REFERENCE);
+    }
+
+    @Test
+    public void testUniform()
+    {
+        var values = new IntArray("values");
+        values.initialize();
+        for (var index = 0; index < 300; index++)
+        {
+            values.add(42);
+        }
+        check(values, FRAME_OF_REFERENCE);
+        check(values, DELTA);
+    }
+
+    private void check(PrimitiveList values, BlockCompressedColumn.Encoding encoding)
+    {
+        var column = BlockCompressedColumn.compress("values", values, encoding);
+        ensureEqual(values.size(), column.size());
+        for (var index = 0; index < values.size(); index++)
+        {
+            ensureEqual(values.safeGetPrimitive(index), column.get(index));
+        }
+        ensureEqual(values.safeGetPrimitive(values.size()), column.safeGet(values.size()));
+    }
+}
@@ -0,0 +1,87 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.graph.tests.specifications.library.attributes;
+
+import com.telenav.kivakit.primitive.collections.array.scalars.IntArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.LongArray;
+import com.telenav.kivakit.primitive.collections.list.PrimitiveList;
+import com.telenav.mesakit.graph.core.testing.GraphUnitTest;
+import com.telenav.mesakit.graph.specifications.library.attributes.OffHeapColumn;
+import org.junit.Test;
+
+public class OffHeapColumnTest extends GraphUnitTest
+{
+    @Test
+    public void testEmpty()
+    {
+        var values = new IntArray("values");
+        values.initialize();
+        check(values);
+    }
+
+    @Test
+    public void testInts()
+    {
+        var values = new IntArray("values");
+        values.initialize();
+        for (var index = 0; index < 1_000; index++)
+        {
+            values.add(random().randomIntExclusive(Integer.MIN_VALUE + 1, Integer.MAX_VALUE));
+        }
+        check(values);
+    }
+
+    @Test
+    public void testLongs()
+    {
+        var values = new LongArray("values");
+        values.initialize();
+        for (var index = 0; index < 1_000; index++)
+        {
+            values.add(index * 1_000_000_000_000L);
+        }
+        check(values);
+    }
+
+    @Test
+    public void testNarrow()
+    {
+        var values = new IntArray("values");
+        values.initialize();
+        for (var index = 0; index < 1_000; index++)
+        {
+            values.add(random().randomIntExclusive(0, 100));
+        }
+        var column = check(values);
+        ensure(column.offHeapSize().asBytes() <= values.size() * 4L);
+    }
+
+    private OffHeapColumn check(PrimitiveList values)
+    {
+        var column = OffHeapColumn.copyOf("values", values);
+        ensureEqual(values.size(), column.size());
+        for (var index = 0; index < values.size(); index++)
+        {
+            ensureEqual(values.safeGetPrimitive(index), column.get(index));
+        }
+        ensureEqual(values.safeGetPrimitive(values.size()), column.safeGet(values.size()));
+        return column;
+    }
+}
@@ -0,0 +1,92 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.graph.tests.specifications.osm.graph.converter;
+
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.graph.Metadata;
+import com.telenav.mesakit.graph.core.testing.GraphUnitTest;
+import com.telenav.mesakit.graph.specifications.osm.graph.converter.OsmPbfToGraphConverter;
+import org.junit.Test;
+
+public class OsmPbfToGraphConverterTest extends GraphUnitTest
+{
+    @Test
+    public void testParallel()
+    {
+        // Convert the test data with a serial reader, and with a parallel reader that builds its stores in parallel,
+        var serial = convert(false, Count._1);
+        var parallel = convert(true, Count._1);
+
+        // and check that the parallel graph is valid
+        ensure(parallel.graphStore().isValid(this));
+
+        // and has the same elements as the serial graph.
+        ensureEqual(serial.edgeCount(), parallel.edgeCount());
+        ensureEqual(serial.vertexCount(), parallel.vertexCount());
+        ensureEqual(serial.relationCount(), parallel.relationCount());
+        ensureEqual(serial.placeCount(), parallel.placeCount());
+        for (var edge : serial.edges())
+        {
+            var other = parallel.edgeForIdentifier(edge.identifier());
+            ensure(other != null);
+            ensureEqual(edge.fromLocation(), other.fromLocation());
+            ensureEqual(edge.toLocation(), other.toLocation());
+            ensureEqual(edge.roadShape(), other.roadShape());
+            ensureEqual(edge.roadType(), other.roadType());
+        }
+    }
+
+    @Test
+    public void testSectioningThreads()
+    {
+        // Section the test data with one thread and with four threads,
+        var one = convert(false, Count._1);
+        var four = convert(false, Count._4);
+
+        // and check that the edges have the same identifiers, indexes and (possibly synthetic) node identifiers.
+        ensureEqual(one.edgeCount(), four.edgeCount());
+        for (var edge : one.edges())
+        {
+            var other = four.edgeForIdentifier(edge.identifier());
+            ensure(other != null);
+            ensureEqual(edge.index(), other.index());
+            ensureEqual(edge.fromNodeIdentifier(), other.fromNodeIdentifier());
+            ensureEqual(edge.toNodeIdentifier(), other.toNodeIdentifier());
+            ensureEqual(edge.shapePointNodeIdentifiers(), other.shapePointNodeIdentifiers());
+        }
+    }
+
+    /**
+     * Returns the Green Lake test data read with a serial or parallel reader and sectioned with the given number of
+     * threads
+     */
+    private Graph convert(boolean parallel, Count sectioningThreads)
+    {
+        var pbf = osmGreenLakeSeattlePbf();
+        var converter = listenTo(new OsmPbfToGraphConverter(Metadata.metadata(pbf)));
+        converter.configuration().parallel(parallel);
+        converter.configuration().threads(Count._4);
+        converter.configuration().loaderConfiguration().sectioningThreads(sectioningThreads);
+        var graph = converter.convert(pbf);
+        ensure(graph != null);
+        return graph;
+    }
+}
@@ -0,0 +1,73 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.map.geography.tests.indexing.curve.test;
+
+import com.telenav.mesakit.map.geography.indexing.curve.HilbertCurve;
+import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
+import com.telenav.mesakit.map.geography.testing.GeographyUnitTest;
+import org.junit.Test;
+
+public class HilbertCurveTest extends GeographyUnitTest
+{
+    @Test
+    public void testAdjacency()
+    {
+        // Consecutive cells along the curve should be neighbors in the grid, and every cell should be visited once
+        var order = 5;
+        var cells = 1 << order;
+        var xs = new int[cells * cells];
+        var ys = new int[cells * cells];
+        var visited = new boolean[cells * cells];
+        for (var x = 0; x < cells; x++)
+        {
+            for (var y = 0; y < cells; y++)
+            {
+                var index = (int) HilbertCurve.index(x, y, order);
+                ensure(!visited[index]);
+                visited[index] = true;
+                xs[index] = x;
+                ys[index] = y;
+            }
+        }
+        for (var index = 1; index < cells * cells; index++)
+        {
+            ensureEqual(1, Math.abs(xs[index] - xs[index - 1]) + Math.abs(ys[index] - ys[index - 1]));
+        }
+    }
+
+    @Test
+    public void testLocations()
+    {
+        var bounds = Rectangle.fromLocations(location(0, 0), location(10, 10));
+        ensureEqual(0L, HilbertCurve.index(location(0, 0), bounds));
+        ensure(HilbertCurve.index(location(10, 10), bounds) > 0);
+
+        // Locations outside the bounds are clamped to the nearest cell
+        ensureEqual(HilbertCurve.index(location(0, 0), bounds), HilbertCurve.index(location(-5, -5), bounds));
+    }
+
+    @Test
+    public void testOrderOne()
+    {
+        ensureEqual(0L, HilbertCurve.index(0, 0, 1));
+        ensureEqual(1L, HilbertCurve.index(0, 1, 1));
+        ensureEqual(2L, HilbertCurve.index(1, 1, 1));
+        ensureEqual(3L, HilbertCurve.index(1, 0, 1));
+    }
+}
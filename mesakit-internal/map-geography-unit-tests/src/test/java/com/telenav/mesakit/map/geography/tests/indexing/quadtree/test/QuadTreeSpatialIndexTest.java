@@ -131,6 +131,32 @@ public class QuadTreeSpatialIndexTest extends GeographyUnitTest
         ensureEqual(9, count);
     }
 
+    @Test(timeout=60000)
+    public void testForEachInside()
+    {
+        var index = new QuadTreeSpatialIndex<Location>(10, Distance.miles(0.1));
+        for (var i = 0; i < 1000; i++)
+        {
+            index.add(newRandomValueFactory().newLocation());
+        }
+        for (var i = 0; i < 10; i++)
+        {
+            var rectangle = newRandomValueFactory().newRectangle();
+
+            var visited = new ObjectList<Location>();
+            ensure(index.forEachInside(rectangle, visited::add));
+
+            var iterated = new ObjectList<Location>();
+            iterated.addAll(index.inside(rectangle));
+            ensureEqual(iterated, visited);
+        }
+
+        // Stopping the visitor ends the traversal
+        var count = new AtomicInteger(0);
+        ensure(!index.forEachInside(Rectangle.MAXIMUM, location -> count.incrementAndGet() < 5));
+        ensureEqual(5, count.get());
+    }
+
     @Test(timeout=60000)
     public void testRandom()
     {
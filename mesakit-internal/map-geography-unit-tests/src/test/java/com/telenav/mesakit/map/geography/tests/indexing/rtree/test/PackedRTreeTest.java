@@ -0,0 +1,147 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.map.geography.tests.indexing.rtree.test;
+
+import com.telenav.mesakit.map.geography.indexing.rtree.PackedRTree;
+import com.telenav.mesakit.map.geography.indexing.rtree.PackedRTreeBuilder;
+import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
+import com.telenav.mesakit.map.geography.testing.GeographyUnitTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
+public class PackedRTreeTest extends GeographyUnitTest
+{
+    @Test
+    public void testEmpty()
+    {
+        var tree = new PackedRTreeBuilder().build();
+        ensureEqual(0, tree.size());
+        ensure(tree.bounds() == null);
+        ensure(intersecting(tree, Rectangle.MAXIMUM).isEmpty());
+    }
+
+    @Test
+    public void testForEachIntersecting()
+    {
+        var builder = new PackedRTreeBuilder(4);
+        for (var index = 0; index < 1_000; index++)
+        {
+            builder.add(index, newRandomValueFactory().newRectangle());
+        }
+        var tree = builder.build();
+        for (var iteration = 0; iteration < 25; iteration++)
+        {
+            // Visiting everything finds what intersecting() finds,
+            var query = newRandomValueFactory().newRectangle();
+            var expected = intersecting(tree, query);
+            var visited = new HashSet<Integer>();
+            ensure(tree.forEachIntersecting(query.bottomInDm7(), query.leftInDm7(), query.topInDm7(),
+                    query.rightInDm7(), visited::add));
+            ensureEqual(expected, visited);
+
+            // while a visitor that returns false stops the query after the first element
+            var count = new int[1];
+            var completed = tree.forEachIntersecting(query.bottomInDm7(), query.leftInDm7(), query.topInDm7(),
+                    query.rightInDm7(), index -> ++count[0] < 1);
+            ensureEqual(expected.isEmpty(), completed);
+            ensureEqual(Math.min(1, expected.size()), count[0]);
+        }
+    }
+
+    @Test
+    public void testIntersecting()
+    {
+        for (var nodeSize : new int[] { 2, 4, 16 })
+        {
+            // Pack random rectangles with element indexes that are not just their positions,
+            var rectangles = new ArrayList<Rectangle>();
+            var builder = new PackedRTreeBuilder(nodeSize);
+            for (var index = 0; index < 1_000; index++)
+            {
+                var rectangle = newRandomValueFactory().newRectangle();
+                rectangles.add(rectangle);
+                builder.add(index * 3, rectangle);
+            }
+            var tree = builder.build();
+            ensureEqual(rectangles.size(), tree.size());
+
+            // and check that queries find exactly the rectangles that intersect.
+            for (var iteration = 0; iteration < 100; iteration++)
+            {
+                var query = newRandomValueFactory().newRectangle();
+                var expected = new HashSet<Integer>();
+                for (var index = 0; index < rectangles.size(); index++)
+                {
+                    if (intersects(rectangles.get(index), query))
+                    {
+                        expected.add(index * 3);
+                    }
+                }
+                ensureEqual(expected, intersecting(tree, query));
+            }
+        }
+    }
+
+    @Test
+    public void testSingle()
+    {
+        var rectangle = Rectangle.fromInts(10, 20, 30, 40);
+        var tree = new PackedRTreeBuilder().add(7, rectangle).build();
+        ensureEqual(rectangle, tree.bounds());
+        ensureEqual(Set.of(7), intersecting(tree, Rectangle.fromInts(0, 0, 15, 25)));
+        ensure(intersecting(tree, Rectangle.fromInts(0, 0, 5, 5)).isEmpty());
+    }
+
+    @Test
+    public void testToArray()
+    {
+        var builder = new PackedRTreeBuilder();
+        for (var index = 0; index < 500; index++)
+        {
+            builder.add(index, newRandomValueFactory().newRectangle());
+        }
+        var tree = builder.build();
+
+        // A tree read back from its block gives the same answers
+        var copy = PackedRTree.of(tree.toArray());
+        ensureEqual(tree.blockSize(), copy.blockSize());
+        ensureEqual(tree.bounds(), copy.bounds());
+        for (var iteration = 0; iteration < 25; iteration++)
+        {
+            var query = newRandomValueFactory().newRectangle();
+            ensureEqual(intersecting(tree, query), intersecting(copy, query));
+        }
+    }
+
+    private Set<Integer> intersecting(PackedRTree tree, Rectangle query)
+    {
+        var found = new HashSet<Integer>();
+        tree.intersecting(query, index -> ensure(found.add(index)));
+        return found;
+    }
+
+    private boolean intersects(Rectangle a, Rectangle b)
+    {
+        return a.bottomInDm7() <= b.topInDm7() && a.topInDm7() >= b.bottomInDm7()
+                && a.leftInDm7() <= b.rightInDm7() && a.rightInDm7() >= b.leftInDm7();
+    }
+}
@@ -19,11 +19,13 @@
 package com.telenav.mesakit.map.geography.tests.indexing.rtree.test;
 
 import com.telenav.kivakit.testing.SlowTest;
+import com.telenav.kivakit.core.value.count.Maximum;
 import com.telenav.kivakit.serialization.kryo.types.KryoTypes;
 import com.telenav.mesakit.map.geography.testing.GeographyUnitTest;
 import com.telenav.mesakit.map.geography.Latitude;
 import com.telenav.mesakit.map.geography.Location;
 import com.telenav.mesakit.map.geography.Longitude;
+import com.telenav.mesakit.map.geography.indexing.rtree.ElementDistance;
 import com.telenav.mesakit.map.geography.indexing.rtree.RTreeBulkLoader;
 import com.telenav.mesakit.map.geography.indexing.rtree.RTreeSettings;
 import com.telenav.mesakit.map.geography.indexing.rtree.RTreeSpatialIndex;
@@ -31,6 +33,7 @@ import com.telenav.mesakit.map.geography.shape.polyline.Polyline;
 import com.telenav.mesakit.map.geography.shape.polyline.PolylineBuilder;
 import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
 import com.telenav.mesakit.map.geography.shape.segment.Segment;
+import com.telenav.mesakit.map.measurements.geographic.Distance;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
@@ -38,6 +41,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 @SuppressWarnings("SpellCheckingInspection") @Category({ SlowTest.class })
 public class RTreeSpatialIndexTest extends GeographyUnitTest
@@ -67,6 +71,84 @@ public class RTreeSpatialIndexTest extends GeographyUnitTest
         ensureEqual(count, 2);
     }
 
+    @Test
+    public void testForEachIntersecting()
+    {
+        for (var frozen : new boolean[] { true, false })
+        {
+            // Build a frozen index by bulk loading and a mutable one by adding,
+            var polylines = randomPolylines(500);
+            RTreeSpatialIndex<Polyline> index;
+            if (frozen)
+            {
+                index = new TestSpatialIndex(new RTreeSettings());
+                new RTreeBulkLoader<>(index).load(polylines);
+            }
+            else
+            {
+                index = new RTreeSpatialIndex<>("test", new RTreeSettings());
+                polylines.forEach(index::add);
+            }
+            ensureEqual(frozen, index.isFrozen());
+
+            for (var iteration = 0; iteration < 25; iteration++)
+            {
+                // then check that visiting finds the same elements as intersecting(),
+                var bounds = newRandomValueFactory().newRectangle();
+                var expected = new HashSet<Polyline>();
+                index.intersecting(bounds).forEach(expected::add);
+                var visited = new HashSet<Polyline>();
+                ensure(index.forEachIntersecting(bounds, visited::add));
+                ensureEqual(expected, visited);
+
+                // and that the visit stops as soon as the visitor returns false
+                var count = new int[1];
+                var completed = index.forEachIntersecting(bounds, polyline -> ++count[0] < 1);
+                ensureEqual(expected.isEmpty(), completed);
+                ensureEqual(Math.min(1, expected.size()), count[0]);
+            }
+        }
+    }
+
+    @Test
+    public void testFrozen()
+    {
+        // A bulk loaded index is frozen and can't be added to,
+        var index = randomSpatialIndex(500);
+        ensure(index.isFrozen());
+        ensureThrows(() -> index.add(polyline(0.5, 0.5, 0.6, 0.6)));
+
+        // and it gives the same answers to queries from many threads at once
+        var rectangles = new ArrayList<Rectangle>();
+        var expected = new ArrayList<Integer>();
+        for (var i = 0; i < 100; i++)
+        {
+            var bounds = newRandomValueFactory().newRectangle();
+            rectangles.add(bounds);
+            var count = 0;
+            for (var ignored : index.intersecting(bounds))
+            {
+                count++;
+            }
+            expected.add(count);
+        }
+        IntStream.range(0, rectangles.size()).parallel().forEach(i ->
+        {
+            var count = 0;
+            for (var ignored : index.intersecting(rectangles.get(i)))
+            {
+                count++;
+            }
+            ensureEqual(expected.get(i), count);
+        });
+
+        // while an index that is built by adding elements stays mutable.
+        var mutable = new RTreeSpatialIndex<Polyline>("test", new RTreeSettings());
+        mutable.add(polyline(0.5, 0.5, 0.6, 0.6));
+        ensure(!mutable.isFrozen());
+        ensureEqual(1, mutable.count().asInt());
+    }
+
     @Test
     public void testIntersection()
     {
@@ -108,6 +190,55 @@ public class RTreeSpatialIndexTest extends GeographyUnitTest
         ensureFalse(intersections.contains(outsideBelow));
     }
 
+    @Test
+    public void testNearest()
+    {
+        var index = randomSpatialIndex(500);
+        var polylines = new ArrayList<Polyline>();
+        index.all().forEach(polylines::add);
+        for (var iteration = 0; iteration < 25; iteration++)
+        {
+            // Find the nearest polylines to a random location,
+            var location = newRandomValueFactory().newLocation();
+            var distance = ElementDistance.<Polyline>toBounds(location);
+            var nearest = index.nearest(location, Maximum.maximum(10));
+
+            // then check that their distances are the same as the closest distances found by brute force
+            var expected = new ArrayList<Long>();
+            polylines.forEach(polyline -> expected.add(distance.millimetersTo(polyline)));
+            expected.sort(Long::compare);
+            ensureEqual(Math.min(10, polylines.size()), nearest.size());
+            for (var at = 0; at < nearest.size(); at++)
+            {
+                ensureEqual(expected.get(at), distance.millimetersTo(nearest.get(at)));
+            }
+        }
+    }
+
+    @Test
+    public void testNearestWithinDistance()
+    {
+        var index = new RTreeSpatialIndex<Polyline>("test", new RTreeSettings());
+        var near = polyline(0.5, 0.5, 0.6, 0.6);
+        var far = polyline(5, 5, 6, 6);
+        index.add(near);
+        index.add(far);
+
+        var origin = Location.ORIGIN;
+        var nearest = index.nearest(origin, Maximum.maximum(2), Distance.kilometers(200),
+                ElementDistance.toBounds(origin));
+        ensureEqual(1, nearest.size());
+        ensureEqual(near, nearest.get(0));
+
+        // An excluded element is never returned
+        var excluded = index.nearest(origin, Maximum.maximum(2), Distance.MAXIMUM,
+                polyline -> polyline == near
+                        ? ElementDistance.EXCLUDED
+                        : ElementDistance.millimeters(origin, polyline.bounds()));
+        ensureEqual(1, excluded.size());
+        ensureEqual(far, excluded.get(0));
+    }
+
     @Test
     public void testRandom()
     {
@@ -21,9 +21,11 @@ package com.telenav.mesakit.map.geography.tests.shape.polyline.test;
 import com.telenav.mesakit.map.geography.Latitude;
 import com.telenav.mesakit.map.geography.Location;
 import com.telenav.mesakit.map.geography.Longitude;
+import com.telenav.mesakit.map.geography.shape.Outline.Containment;
 import com.telenav.mesakit.map.geography.shape.polyline.Polygon;
 import com.telenav.mesakit.map.geography.shape.polyline.Polyline;
 import com.telenav.mesakit.map.geography.shape.polyline.PolylineSnapper;
+import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
 import com.telenav.mesakit.map.geography.testing.GeographyUnitTest;
 import com.telenav.mesakit.map.geography.shape.segment.Segment;
 import com.telenav.mesakit.map.measurements.geographic.Distance;
@@ -42,6 +44,21 @@ public class PolygonTest extends GeographyUnitTest
         ensure(polygon.contains(Location.degrees(0, 0)));
     }
 
+    @Test
+    public void testContainment()
+    {
+        var polygon = polygon(-0.5, -0.5, 1, -0.5, 1, 0.85, -0.5, 0.85);
+        ensureEqual(Containment.INSIDE, polygon.containment(rectangle(0, 0, 0.5, 0.5)));
+        ensureEqual(Containment.ON_BORDER, polygon.containment(rectangle(0.5, 0.5, 1.5, 1.5)));
+        ensureEqual(Containment.OUTSIDE, polygon.containment(rectangle(2, 2, 3, 3)));
+
+        // A hole makes rectangles inside it outside the polygon and rectangles that it crosses on the border
+        polygon.addHole(polygon(0.1, 0.1, 0.4, 0.1, 0.4, 0.4, 0.1, 0.4));
+        ensureEqual(Containment.OUTSIDE, polygon.containment(rectangle(0.2, 0.2, 0.3, 0.3)));
+        ensureEqual(Containment.ON_BORDER, polygon.containment(rectangle(0, 0, 0.2, 0.2)));
+        ensureEqual(Containment.INSIDE, polygon.containment(rectangle(0.5, 0.5, 0.6, 0.6)));
+    }
+
     @Test
     public void testContainsRandom()
     {
@@ -114,4 +131,9 @@ public class PolygonTest extends GeographyUnitTest
         }
         return Polygon.fromLocationSequence(locations);
     }
+
+    private Rectangle rectangle(double bottom, double left, double top, double right)
+    {
+        return Rectangle.fromLocations(Location.degrees(bottom, left), Location.degrees(top, right));
+    }
 }
@@ -22,6 +22,7 @@ import com.telenav.kivakit.core.locale.LocaleRegion;
 import com.telenav.kivakit.core.logging.Logger;
 import com.telenav.kivakit.core.logging.loggers.ConsoleLogger;
 import com.telenav.mesakit.map.geography.Location;
+import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
 import com.telenav.mesakit.map.region.RegionIdentity;
 import com.telenav.mesakit.map.region.testing.RegionUnitTest;
 import com.telenav.mesakit.map.region.regions.Country;
@@ -73,6 +74,28 @@ public class CountryTest extends RegionUnitTest
                 Country.forLocation(Country.UNITED_STATES.WASHINGTON.SEATTLE.DOWNTOWN.center()));
     }
 
+    @Test
+    public void testForLocations()
+    {
+        // Pick random locations around the border between the United States and Canada,
+        var bounds = Rectangle.fromLocations(Location.degrees(42, -80), Location.degrees(50, -65));
+        var locations = new long[10_000];
+        for (var index = 0; index < locations.length; index++)
+        {
+            locations[index] = newRandomValueFactory().newLocation(bounds).asDm7Long();
+        }
+
+        // and check that looking them up as a batch gives the same countries as looking them up one at a time
+        var countries = Country.forLocations(locations);
+        ensureEqual(locations.length, countries.size());
+        for (var index = 0; index < locations.length; index++)
+        {
+            ensureEqual(Country.forLocation(Location.dm7(locations[index])), countries.get(index));
+        }
+        ensure(countries.contains(Country.UNITED_STATES));
+        ensure(countries.contains(Country.CANADA));
+    }
+
     @Test
     public void testLanguages()
     {
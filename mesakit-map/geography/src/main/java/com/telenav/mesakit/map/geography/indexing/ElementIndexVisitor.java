@@ -0,0 +1,37 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.map.geography.indexing;
+
+/**
+ * Receives the int indexes of the elements found by a spatial query over a primitive index, such as a
+ * {@link com.telenav.mesakit.map.geography.indexing.rtree.PackedRTree}, so that no element objects are created or
+ * boxed. Returning false from {@link #onElementIndex(int)} stops the query.
+ *
+ * @see ElementVisitor
+ */
+@FunctionalInterface
+public interface ElementIndexVisitor
+{
+    /**
+     * Called with the index of each element found by a spatial query
+     *
+     * @return True to continue the query, false to stop it
+     */
+    boolean onElementIndex(int index);
+}
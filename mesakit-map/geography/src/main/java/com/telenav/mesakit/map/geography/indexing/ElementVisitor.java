@@ -0,0 +1,38 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.map.geography.indexing;
+
+/**
+ * Receives the elements found by a spatial query, one at a time, without the query creating an iterator or a
+ * collection. Returning false from {@link #onElement(Object)} stops the query, so a caller that is looking for one
+ * match, or for the first few, doesn't pay for the rest of the traversal.
+ *
+ * @param <Element> The type of element being visited
+ * @see ElementIndexVisitor
+ */
+@FunctionalInterface
+public interface ElementVisitor<Element>
+{
+    /**
+     * Called for each element found by a spatial query
+     *
+     * @return True to continue the query, false to stop it
+     */
+    boolean onElement(Element element);
+}
@@ -0,0 +1,114 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.map.geography.indexing.curve;
+
+import com.telenav.mesakit.map.geography.Location;
+import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * Maps locations to their distance along a Hilbert space-filling curve over a bounding rectangle. Locations that are
+ * close together along the curve are close together in space, so sorting by {@link #index(long, Rectangle)} gives an
+ * ordering with good spatial locality.
+ */
+public final class HilbertCurve
+{
+    /** The default number of bits in each grid coordinate, giving indexes that fit in 32 bits */
+    public static final int DEFAULT_ORDER = 16;
+
+    /**
+     * Returns the distance along a Hilbert curve of the given order to the grid cell at the given x and y, each of which
+     * must be between zero and 2^order - 1
+     */
+    public static long index(int x, int y, int order)
+    {
+        ensure(order > 0 && order <= 31, "Invalid order $", order);
+
+        long index = 0;
+        for (var size = 1 << (order - 1); size > 0; size >>= 1)
+        {
+            // Find the quadrant the cell is in at this level,
+            var rx = (x & size) > 0 ? 1 : 0;
+            var ry = (y & size) > 0 ? 1 : 0;
+            index += (long) size * size * ((3 * rx) ^ ry);
+
+            // then rotate the cell so the curve in the quadrant is in standard orientation
+            if (ry == 0)
+            {
+                if (rx == 1)
+                {
+                    x = size - 1 - x;
+                    y = size - 1 - y;
+                }
+                var swap = x;
+                x = y;
+                y = swap;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the Hilbert index of the given DM7 location (as a long) within the given bounds, using
+     * {@link #DEFAULT_ORDER}
+     */
+    public static long index(long locationAsLong, Rectangle bounds)
+    {
+        return index(Location.latitude(locationAsLong), Location.longitude(locationAsLong), bounds, DEFAULT_ORDER);
+    }
+
+    /**
+     * Returns the Hilbert index of the given DM7 latitude and longitude within the given bounds, on a grid with 2^order
+     * cells on each side. Locations outside the bounds are clamped to the nearest edge.
+     */
+    public static long index(int latitudeInDm7, int longitudeInDm7, Rectangle bounds, int order)
+    {
+        var cells = 1L << order;
+        var x = cell(longitudeInDm7, bounds.leftInDm7(), bounds.rightInDm7(), cells);
+        var y = cell(latitudeInDm7, bounds.bottomInDm7(), bounds.topInDm7(), cells);
+        return index(x, y, order);
+    }
+
+    /**
+     * Returns the Hilbert index of the given location within the given bounds, using {@link #DEFAULT_ORDER}
+     */
+    public static long index(Location location, Rectangle bounds)
+    {
+        return index(location.latitudeInDm7(), location.longitudeInDm7(), bounds, DEFAULT_ORDER);
+    }
+
+    /**
+     * Returns the grid cell between 0 and cells - 1 for the given value in the range from minimum to maximum
+     */
+    private static int cell(int value, int minimum, int maximum, long cells)
+    {
+        var range = (long) maximum - minimum;
+        if (range <= 0)
+        {
+            return 0;
+        }
+        var offset = Math.max(0L, Math.min(range, (long) value - minimum));
+        return (int) Math.min(cells - 1, offset * cells / (range + 1));
+    }
+
+    private HilbertCurve()
+    {
+    }
+}
@@ -27,6 +27,7 @@ import com.telenav.kivakit.interfaces.serialization.SerializedObject;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 import com.telenav.mesakit.map.geography.Latitude;
 import com.telenav.mesakit.map.geography.Located;
+import com.telenav.mesakit.map.geography.indexing.ElementVisitor;
 import com.telenav.mesakit.map.geography.Longitude;
 import com.telenav.mesakit.map.geography.internal.lexakai.DiagramSpatialIndex;
 import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
@@ -206,6 +207,34 @@ public class QuadTreeSpatialIndex<Element extends Located> implements Serialized
             }
         }
 
+        boolean forEachInside(Rectangle bounds, ElementVisitor<Element> visitor)
+        {
+            // If this quadrant is a leaf,
+            if (isLeaf())
+            {
+                // visit each of its objects that is inside the bounds
+                for (var object : objects)
+                {
+                    if (bounds.contains(object.location()) && !visitor.onElement(object))
+                    {
+                        return false;
+                    }
+                }
+            }
+            else
+            {
+                // otherwise, visit each child quadrant that intersects the bounds.
+                for (var child : children)
+                {
+                    if (bounds.intersects(child.bounds) && !child.forEachInside(bounds, visitor))
+                    {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
         Iterator<Element> inside(Rectangle bounds)
         {
             return inside(bounds, null);
@@ -445,6 +474,17 @@ public class QuadTreeSpatialIndex<Element extends Located> implements Serialized
         root.dump(out);
     }
 
+    /**
+     * Passes each element inside the given bounds to the visitor, until the visitor returns false. Unlike
+     * {@link #inside(Rectangle)}, no quadrant iterators are created.
+     *
+     * @return True if every element inside the bounds was visited, false if the visitor stopped the traversal
+     */
+    public boolean forEachInside(Rectangle bounds, ElementVisitor<Element> visitor)
+    {
+        return root.forEachInside(bounds, visitor);
+    }
+
     public Iterator<Element> inside(Rectangle bounds)
     {
         return inside(bounds, null);
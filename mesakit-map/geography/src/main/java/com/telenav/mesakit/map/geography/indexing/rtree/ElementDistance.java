@@ -0,0 +1,81 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.map.geography.indexing.rtree;
+
+import com.telenav.mesakit.map.geography.Location;
+import com.telenav.mesakit.map.geography.shape.rectangle.Bounded;
+import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
+
+/**
+ * Measures the distance from the location of a nearest neighbour search to an element in a spatial index. Distances are
+ * in millimeters and must never be less than the distance to the element's bounds, since the bounds of nodes in the
+ * index are used as lower bounds on the distances of the elements beneath them. Returning {@link #EXCLUDED} leaves an
+ * element out of the results, so a distance function can also filter elements.
+ *
+ * @param <Element> The type of element
+ * @see RTreeSpatialIndex#nearest(Location, com.telenav.kivakit.core.value.count.Maximum,
+ * com.telenav.mesakit.map.measurements.geographic.Distance, ElementDistance)
+ */
+@FunctionalInterface
+public interface ElementDistance<Element>
+{
+    /** The distance of an element that should not be included in the results */
+    long EXCLUDED = Long.MAX_VALUE;
+
+    /**
+     * Returns a distance function that measures the distance from the given location to the bounds of each element
+     */
+    static <Element extends Bounded> ElementDistance<Element> toBounds(Location location)
+    {
+        return element -> millimeters(location, element.bounds());
+    }
+
+    /**
+     * Returns the distance from the given location to the nearest point in the given rectangle, in millimeters, or
+     * zero if the rectangle contains the location
+     */
+    static long millimeters(Location location, Rectangle rectangle)
+    {
+        return millimeters(location.latitudeInDm7(), location.longitudeInDm7(),
+                rectangle.bottomInDm7(), rectangle.leftInDm7(), rectangle.topInDm7(), rectangle.rightInDm7());
+    }
+
+    /**
+     * Returns the distance from the given latitude and longitude to the nearest point in the given rectangle, in
+     * millimeters, or zero if the rectangle contains the point. All values are in DM7.
+     */
+    static long millimeters(int latitude, int longitude, int bottom, int left, int top, int right)
+    {
+        var nearestLatitude = Math.max(bottom, Math.min(top, latitude));
+        var nearestLongitude = Math.max(left, Math.min(right, longitude));
+        if (nearestLatitude == latitude && nearestLongitude == longitude)
+        {
+            return 0;
+        }
+        return Location.equirectangularDistanceBetweenInMillimeters(latitude, longitude,
+                nearestLatitude, nearestLongitude);
+    }
+
+    /**
+     * Returns the distance to the given element in millimeters, or {@link #EXCLUDED} if the element should be left
+     * out of the results
+     */
+    long millimetersTo(Element element);
+}
@@ -22,6 +22,7 @@ import com.telenav.kivakit.core.collections.iteration.CompoundIterator;
 import com.telenav.kivakit.core.language.Hash;
 import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.interfaces.comparison.Matcher;
+import com.telenav.mesakit.map.geography.indexing.ElementVisitor;
 import com.telenav.mesakit.map.geography.shape.rectangle.Bounded;
 import com.telenav.mesakit.map.geography.shape.rectangle.Intersectable;
 import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
@@ -117,6 +118,27 @@ public class InteriorNode<T extends Bounded & Intersectable> extends Node<T>
         return false;
     }
 
+    @Override
+    protected boolean forEachIntersecting(Rectangle that, ElementVisitor<T> visitor)
+    {
+        // Go through each child node by index, so no iterator is created,
+        var children = children();
+        for (var index = 0; index < children.size(); index++)
+        {
+            // and if the child's bounds intersect the given rectangle,
+            var child = children.get(index);
+            if (child.intersects(that.bottomInDm7(), that.leftInDm7(), that.topInDm7(), that.rightInDm7()))
+            {
+                // visit the child's intersecting elements, stopping if the visitor says to.
+                if (!child.forEachIntersecting(that, visitor))
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     @Override
     public void statistics(int depth, Statistics statistics)
     {
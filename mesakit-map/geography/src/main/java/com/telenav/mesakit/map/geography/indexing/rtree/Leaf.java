@@ -22,6 +22,7 @@ import com.telenav.kivakit.core.collections.iteration.FilteredIterator;
 import com.telenav.kivakit.core.collections.list.ObjectList;
 import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.interfaces.comparison.Matcher;
+import com.telenav.mesakit.map.geography.indexing.ElementVisitor;
 import com.telenav.mesakit.map.geography.shape.rectangle.Bounded;
 import com.telenav.mesakit.map.geography.shape.rectangle.Intersectable;
 import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
@@ -87,6 +88,37 @@ public abstract class Leaf<T extends Bounded & Intersectable> extends Node<T>
         return true;
     }
 
+    @Override
+    protected boolean forEachIntersecting(Rectangle that, ElementVisitor<T> visitor)
+    {
+        // If the elements are in a list,
+        var elements = elements();
+        if (elements instanceof List<T> list)
+        {
+            // then go through them by index, so no iterator is created,
+            for (var index = 0; index < list.size(); index++)
+            {
+                var element = list.get(index);
+                if (element.intersects(that) && !visitor.onElement(element))
+                {
+                    return false;
+                }
+            }
+        }
+        else
+        {
+            // otherwise, iterate through them.
+            for (var element : elements)
+            {
+                if (element.intersects(that) && !visitor.onElement(element))
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     @Override
     public void statistics(int depth, Statistics statistics)
     {
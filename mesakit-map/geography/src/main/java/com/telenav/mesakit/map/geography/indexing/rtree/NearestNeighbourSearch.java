@@ -0,0 +1,153 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.map.geography.indexing.rtree;
+
+import com.telenav.kivakit.core.collections.list.ObjectList;
+import com.telenav.mesakit.map.geography.Location;
+import com.telenav.mesakit.map.geography.shape.rectangle.Bounded;
+import com.telenav.mesakit.map.geography.shape.rectangle.Intersectable;
+
+import java.util.PriorityQueue;
+
+/**
+ * A best-first nearest neighbour search of an {@link RTreeSpatialIndex}. Nodes and elements are kept in a single
+ * priority queue ordered by distance from the search location. A node's distance is the distance to its bounds, which
+ * is a lower bound on the distance to anything beneath it, and an element's distance is measured by an
+ * {@link ElementDistance} function. When an element reaches the head of the queue, nothing left in the queue can be
+ * nearer, so it is the next nearest element. The search visits only the nodes whose bounds are nearer than the last
+ * element returned, so finding the nearest few elements takes a single logarithmic traversal of the tree.
+ *
+ * @see RTreeSpatialIndex#nearest(Location, com.telenav.kivakit.core.value.count.Maximum,
+ * com.telenav.mesakit.map.measurements.geographic.Distance, ElementDistance)
+ */
+class NearestNeighbourSearch<Element extends Bounded & Intersectable>
+{
+    /**
+     * A node or element in the search queue and its distance from the search location
+     */
+    private static class Entry implements Comparable<Entry>
+    {
+        final long distance;
+
+        final Object value;
+
+        final boolean isElement;
+
+        Entry(Object value, long distance, boolean isElement)
+        {
+            this.value = value;
+            this.distance = distance;
+            this.isElement = isElement;
+        }
+
+        @Override
+        public int compareTo(Entry that)
+        {
+            var comparison = Long.compare(distance, that.distance);
+            if (comparison == 0)
+            {
+                // Elements come before nodes at the same distance, so they're returned as soon as possible
+                return Boolean.compare(that.isElement, isElement);
+            }
+            return comparison;
+        }
+    }
+
+    /** The distance function for elements */
+    private final ElementDistance<Element> distance;
+
+    /** The search location's latitude in DM7 */
+    private final int latitude;
+
+    /** The search location's longitude in DM7 */
+    private final int longitude;
+
+    /** The maximum distance of any element that is returned, in millimeters */
+    private final long maximumDistance;
+
+    /** Nodes and elements ordered by distance */
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+
+    NearestNeighbourSearch(Location location, long maximumDistance, ElementDistance<Element> distance)
+    {
+        latitude = location.latitudeInDm7();
+        longitude = location.longitudeInDm7();
+        this.maximumDistance = maximumDistance;
+        this.distance = distance;
+    }
+
+    /**
+     * Returns up to the given number of elements beneath the given root node, in order of increasing distance
+     */
+    @SuppressWarnings("unchecked")
+    ObjectList<Element> search(Node<Element> root, int count)
+    {
+        var nearest = new ObjectList<Element>();
+        enqueue(root);
+        while (nearest.size() < count && !queue.isEmpty())
+        {
+            // Take the nearest node or element from the queue,
+            var entry = queue.poll();
+            if (entry.isElement)
+            {
+                // and if it's an element, it's the next nearest,
+                nearest.add((Element) entry.value);
+            }
+            else if (entry.value instanceof InteriorNode<?> interior)
+            {
+                // otherwise, if it's an interior node, queue its children,
+                for (var child : ((InteriorNode<Element>) interior).children())
+                {
+                    enqueue(child);
+                }
+            }
+            else if (entry.value instanceof Leaf<?> leaf)
+            {
+                // or if it's a leaf, measure and queue its elements.
+                for (var element : ((Leaf<Element>) leaf).elements())
+                {
+                    var millimeters = distance.millimetersTo(element);
+                    if (millimeters != ElementDistance.EXCLUDED && millimeters <= maximumDistance)
+                    {
+                        queue.add(new Entry(element, millimeters, true));
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Adds the given node to the queue if it has bounds and they're within the maximum distance
+     */
+    private void enqueue(Node<Element> node)
+    {
+        if (node.bottomLeft != Location.NULL && node.topRight != Location.NULL)
+        {
+            var millimeters = ElementDistance.millimeters(latitude, longitude,
+                    Location.latitude(node.bottomLeft), Location.longitude(node.bottomLeft),
+                    Location.latitude(node.topRight), Location.longitude(node.topRight));
+            if (millimeters <= maximumDistance)
+            {
+                queue.add(new Entry(node, millimeters, false));
+            }
+        }
+    }
+}
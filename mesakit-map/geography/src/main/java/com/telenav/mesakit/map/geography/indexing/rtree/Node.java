@@ -22,6 +22,7 @@ import com.telenav.kivakit.core.language.Hash;
 import com.telenav.kivakit.core.string.AsciiArt;
 import com.telenav.kivakit.interfaces.comparison.Matcher;
 import com.telenav.mesakit.map.geography.Location;
+import com.telenav.mesakit.map.geography.indexing.ElementVisitor;
 import com.telenav.mesakit.map.geography.indexing.rtree.RTreeSpatialIndex.DumpDetailLevel;
 import com.telenav.mesakit.map.geography.shape.rectangle.Bounded;
 import com.telenav.mesakit.map.geography.shape.rectangle.Intersectable;
@@ -124,6 +125,30 @@ public abstract class Node<T extends Bounded & Intersectable> implements Bounded
 
     public abstract Iterator<T> intersecting(Rectangle that, Matcher<T> matcher);
 
+    /**
+     * Passes each element under this node that intersects the given rectangle to the visitor, until the visitor stops
+     * the traversal
+     *
+     * @return False if the visitor stopped the traversal
+     */
+    protected abstract boolean forEachIntersecting(Rectangle that, ElementVisitor<T> visitor);
+
+    /**
+     * Returns true if this node's bounds intersect the given DM7 rectangle. Unlike {@link #intersects(Rectangle)}, this
+     * doesn't create a rectangle for this node's bounds.
+     */
+    final boolean intersects(int bottom, int left, int top, int right)
+    {
+        if (bottomLeft == Location.NULL || topRight == Location.NULL)
+        {
+            return false;
+        }
+        return Location.latitude(bottomLeft) <= top
+                && Location.latitude(topRight) >= bottom
+                && Location.longitude(bottomLeft) <= right
+                && Location.longitude(topRight) >= left;
+    }
+
     @Override
     public boolean intersects(Rectangle rectangle)
     {
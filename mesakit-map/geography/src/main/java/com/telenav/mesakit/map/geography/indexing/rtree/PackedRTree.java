@@ -0,0 +1,311 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.map.geography.indexing.rtree;
+
+import com.telenav.mesakit.map.geography.indexing.ElementIndexVisitor;
+import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
+
+import java.util.function.IntConsumer;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * A read-only r-tree that is packed into a single flat block of ints, so that it can be saved and memory-mapped as one
+ * column. The tree is built bottom-up by {@link PackedRTreeBuilder}, which sorts elements along a Hilbert curve and
+ * groups them into nodes of a fixed size, level by level, until a single root remains.
+ * <p>
+ * Every entry in the tree, whether it is an element or a node, has its bounds stored as four DM7 ints (bottom, left,
+ * top, right), followed after all the bounds by one int per entry. For an element, that int is the element's index
+ * and for a node it is the offset of its first child, since the children of a node are always contiguous. The block
+ * is laid out like this:
+ * <pre>
+ * [version] [node-size] [element-count] [entry-count] [level-count] [level-end]... [bounds]... [index]...
+ * </pre>
+ * <p>
+ * {@link #intersecting(int, int, int, int, IntConsumer)} walks the tree with an explicit stack of entry offsets,
+ * reading bounds straight from the block and passing the index of each intersecting element to a primitive callback.
+ * It creates no node objects, rectangles or iterators, and a packed tree can be queried by any number of threads at
+ * once. {@link #forEachIntersecting(int, int, int, int, ElementIndexVisitor)} does the same, but lets the visitor stop
+ * the traversal early, and it reuses a per-thread stack so that it allocates nothing at all.
+ *
+ * @see PackedRTreeBuilder
+ */
+public final class PackedRTree
+{
+    /**
+     * Source of the ints in a packed tree, which can be a heap array or a memory-mapped column
+     */
+    @FunctionalInterface
+    public interface Block
+    {
+        /**
+         * Returns the int at the given offset in the block
+         */
+        int get(int offset);
+    }
+
+    /** The version of the block layout */
+    static final int VERSION = 1;
+
+    /** The number of ints in the fixed part of the header */
+    static final int HEADER_SIZE = 5;
+
+    /** Traversal stack for each thread, which is null while a traversal on the thread is using it */
+    private static final ThreadLocal<int[]> STACK = new ThreadLocal<>();
+
+    /**
+     * Returns a packed tree that reads the given block, as returned by {@link #toArray()}
+     */
+    public static PackedRTree of(int[] block)
+    {
+        return new PackedRTree(offset -> block[offset]);
+    }
+
+    /**
+     * Returns a packed tree that reads the given block, which might be memory-mapped
+     */
+    public static PackedRTree of(Block block)
+    {
+        return new PackedRTree(block);
+    }
+
+    /** The block holding the tree */
+    private final Block block;
+
+    /** Offset of the first entry's bounds in the block */
+    private final int boundsOffset;
+
+    /** The number of elements, which are the first entries in the block */
+    private final int elementCount;
+
+    /** The number of elements and nodes */
+    private final int entryCount;
+
+    /** Offset of the first entry's index in the block */
+    private final int indexesOffset;
+
+    /** The exclusive end of the entries in each level of the tree, starting with the elements */
+    private final int[] levelEnd;
+
+    /** The maximum number of children of each node */
+    private final int nodeSize;
+
+    private PackedRTree(Block block)
+    {
+        this.block = block;
+
+        ensure(block.get(0) == VERSION, "Unsupported packed r-tree version $", block.get(0));
+        nodeSize = block.get(1);
+        elementCount = block.get(2);
+        entryCount = block.get(3);
+        levelEnd = new int[block.get(4)];
+        for (var level = 0; level < levelEnd.length; level++)
+        {
+            levelEnd[level] = block.get(HEADER_SIZE + level);
+        }
+        boundsOffset = HEADER_SIZE + levelEnd.length;
+        indexesOffset = boundsOffset + entryCount * 4;
+    }
+
+    /**
+     * Returns the number of ints in this tree's block
+     */
+    public int blockSize()
+    {
+        return indexesOffset + entryCount;
+    }
+
+    /**
+     * Returns the bounds of all elements in this tree, or null if it is empty
+     */
+    public Rectangle bounds()
+    {
+        if (entryCount == 0)
+        {
+            return null;
+        }
+        var root = boundsOffset + (entryCount - 1) * 4;
+        return Rectangle.fromInts(block.get(root), block.get(root + 1), block.get(root + 2), block.get(root + 3));
+    }
+
+    /**
+     * Passes the index of each element whose bounds intersect the given DM7 rectangle to the visitor, until the visitor
+     * returns false
+     *
+     * @return True if every intersecting element was visited, false if the visitor stopped the traversal
+     */
+    public boolean forEachIntersecting(int bottom, int left, int top, int right, ElementIndexVisitor visitor)
+    {
+        // If the tree is empty or its root doesn't intersect the rectangle, there's nothing to visit
+        var root = entryCount - 1;
+        if (root < 0 || !intersects(root, bottom, left, top, right))
+        {
+            return true;
+        }
+
+        // If the root is a lone element,
+        if (root < elementCount)
+        {
+            // then it is the only match.
+            return visitor.onElementIndex(block.get(indexesOffset + root));
+        }
+
+        // Otherwise, no more than one level of siblings is ever waiting on the stack at each level of the tree,
+        // so take this thread's stack if it is big enough and not already in use by an enclosing query,
+        var stack = STACK.get();
+        if (stack == null || stack.length < levelEnd.length * nodeSize + 1)
+        {
+            stack = new int[levelEnd.length * nodeSize + 1];
+        }
+        STACK.set(null);
+        try
+        {
+            return forEachIntersecting(stack, root, bottom, left, top, right, visitor);
+        }
+        finally
+        {
+            // and give it back when the traversal is done.
+            STACK.set(stack);
+        }
+    }
+
+    /**
+     * Passes the index of each element whose bounds intersect the given rectangle to the visitor
+     */
+    public void intersecting(Rectangle bounds, IntConsumer visitor)
+    {
+        intersecting(bounds.bottomInDm7(), bounds.leftInDm7(), bounds.topInDm7(), bounds.rightInDm7(), visitor);
+    }
+
+    /**
+     * Passes the index of each element whose bounds intersect the given DM7 rectangle to the visitor
+     */
+    public void intersecting(int bottom, int left, int top, int right, IntConsumer visitor)
+    {
+        forEachIntersecting(bottom, left, top, right, index ->
+        {
+            visitor.accept(index);
+            return true;
+        });
+    }
+
+    /**
+     * Returns the maximum number of children of each node
+     */
+    public int nodeSize()
+    {
+        return nodeSize;
+    }
+
+    /**
+     * Returns the number of elements in this tree
+     */
+    public int size()
+    {
+        return elementCount;
+    }
+
+    /**
+     * Returns a copy of the block holding this tree, which can be passed to {@link #of(int[])}
+     */
+    public int[] toArray()
+    {
+        var array = new int[blockSize()];
+        for (var offset = 0; offset < array.length; offset++)
+        {
+            array[offset] = block.get(offset);
+        }
+        return array;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[PackedRTree elements = " + elementCount + ", nodes = " + (entryCount - elementCount)
+                + ", levels = " + levelEnd.length + "]";
+    }
+
+    /**
+     * Visits the elements under the given root node that intersect the given DM7 rectangle, using the given stack
+     */
+    private boolean forEachIntersecting(int[] stack, int root, int bottom, int left, int top, int right,
+                                        ElementIndexVisitor visitor)
+    {
+        var size = 0;
+        stack[size++] = root;
+        while (size > 0)
+        {
+            // Pop the next node,
+            var node = stack[--size];
+
+            // find its contiguous children,
+            var first = block.get(indexesOffset + node);
+            var end = Math.min(first + nodeSize, levelEndAfter(first));
+
+            // and go through each child that intersects the rectangle,
+            for (var child = first; child < end; child++)
+            {
+                if (intersects(child, bottom, left, top, right))
+                {
+                    // visiting it if it's an element
+                    if (child < elementCount)
+                    {
+                        if (!visitor.onElementIndex(block.get(indexesOffset + child)))
+                        {
+                            return false;
+                        }
+                    }
+                    else
+                    {
+                        // and pushing it if it's a node.
+                        stack[size++] = child;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the bounds of the given entry intersect the given DM7 rectangle
+     */
+    private boolean intersects(int entry, int bottom, int left, int top, int right)
+    {
+        var offset = boundsOffset + entry * 4;
+        return block.get(offset) <= top
+                && block.get(offset + 2) >= bottom
+                && block.get(offset + 1) <= right
+                && block.get(offset + 3) >= left;
+    }
+
+    /**
+     * Returns the end of the level that contains the given entry
+     */
+    private int levelEndAfter(int entry)
+    {
+        for (var end : levelEnd)
+        {
+            if (entry < end)
+            {
+                return end;
+            }
+        }
+        return entryCount;
+    }
+}
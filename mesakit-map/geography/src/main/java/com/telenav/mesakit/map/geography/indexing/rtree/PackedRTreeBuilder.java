@@ -0,0 +1,214 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.map.geography.indexing.rtree;
+
+import com.telenav.mesakit.map.geography.indexing.curve.HilbertCurve;
+import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * Builds a {@link PackedRTree} from element indexes and their bounds. Elements are sorted by the Hilbert index of the
+ * centers of their bounds, which puts elements that are near each other into the same leaf nodes, and then each level
+ * of nodes is packed from consecutive runs of the level below it.
+ *
+ * @see PackedRTree
+ */
+public class PackedRTreeBuilder
+{
+    /** The default maximum number of children of each node */
+    public static final int DEFAULT_NODE_SIZE = 16;
+
+    /** The order of the Hilbert curve, small enough that a curve index and an element offset fit in one long */
+    private static final int HILBERT_ORDER = 15;
+
+    /** The DM7 bounds of each element, four ints per element */
+    private int[] bounds = new int[64];
+
+    /** The index of each element */
+    private int[] elements = new int[16];
+
+    /** The maximum number of children of each node */
+    private final int nodeSize;
+
+    /** The number of elements added */
+    private int size;
+
+    public PackedRTreeBuilder()
+    {
+        this(DEFAULT_NODE_SIZE);
+    }
+
+    public PackedRTreeBuilder(int nodeSize)
+    {
+        ensure(nodeSize >= 2, "Node size must be at least 2, not $", nodeSize);
+        this.nodeSize = nodeSize;
+    }
+
+    /**
+     * Adds the element with the given index and bounds
+     */
+    public PackedRTreeBuilder add(int element, Rectangle bounds)
+    {
+        return add(element, bounds.bottomInDm7(), bounds.leftInDm7(), bounds.topInDm7(), bounds.rightInDm7());
+    }
+
+    /**
+     * Adds the element with the given index and DM7 bounds
+     */
+    public PackedRTreeBuilder add(int element, int bottom, int left, int top, int right)
+    {
+        if (size == elements.length)
+        {
+            elements = Arrays.copyOf(elements, size * 2);
+            bounds = Arrays.copyOf(bounds, size * 8);
+        }
+        elements[size] = element;
+        var offset = size * 4;
+        bounds[offset] = bottom;
+        bounds[offset + 1] = left;
+        bounds[offset + 2] = top;
+        bounds[offset + 3] = right;
+        size++;
+        return this;
+    }
+
+    /**
+     * Returns the packed tree of the elements that have been added
+     */
+    public PackedRTree build()
+    {
+        // Work out how many entries there are at each level of the tree, from the elements up to a single root,
+        var levelEnds = new ArrayList<Integer>();
+        var entries = size;
+        if (size > 0)
+        {
+            levelEnds.add(size);
+            for (var count = size; count > 1; )
+            {
+                count = (count + nodeSize - 1) / nodeSize;
+                entries += count;
+                levelEnds.add(entries);
+            }
+        }
+
+        // then lay out the block header.
+        var boundsOffset = PackedRTree.HEADER_SIZE + levelEnds.size();
+        var indexesOffset = boundsOffset + entries * 4;
+        var block = new int[indexesOffset + entries];
+        block[0] = PackedRTree.VERSION;
+        block[1] = nodeSize;
+        block[2] = size;
+        block[3] = entries;
+        block[4] = levelEnds.size();
+        for (var level = 0; level < levelEnds.size(); level++)
+        {
+            block[PackedRTree.HEADER_SIZE + level] = levelEnds.get(level);
+        }
+        if (size == 0)
+        {
+            return PackedRTree.of(block);
+        }
+
+        // Store the elements in Hilbert order,
+        var order = hilbertOrder();
+        for (var entry = 0; entry < size; entry++)
+        {
+            var element = order[entry];
+            System.arraycopy(bounds, element * 4, block, boundsOffset + entry * 4, 4);
+            block[indexesOffset + entry] = elements[element];
+        }
+
+        // and then pack each level of nodes from the level below it.
+        var first = 0;
+        for (var level = 1; level < levelEnds.size(); level++)
+        {
+            var childEnd = levelEnds.get(level - 1);
+            var node = childEnd;
+            for (var child = first; child < childEnd; child += nodeSize, node++)
+            {
+                var end = Math.min(child + nodeSize, childEnd);
+                var bottom = Integer.MAX_VALUE;
+                var left = Integer.MAX_VALUE;
+                var top = Integer.MIN_VALUE;
+                var right = Integer.MIN_VALUE;
+                for (var at = child; at < end; at++)
+                {
+                    var offset = boundsOffset + at * 4;
+                    bottom = Math.min(bottom, block[offset]);
+                    left = Math.min(left, block[offset + 1]);
+                    top = Math.max(top, block[offset + 2]);
+                    right = Math.max(right, block[offset + 3]);
+                }
+                var offset = boundsOffset + node * 4;
+                block[offset] = bottom;
+                block[offset + 1] = left;
+                block[offset + 2] = top;
+                block[offset + 3] = right;
+                block[indexesOffset + node] = child;
+            }
+            first = childEnd;
+        }
+
+        return PackedRTree.of(block);
+    }
+
+    /**
+     * Returns the offsets of the added elements, sorted by the Hilbert index of the centers of their bounds
+     */
+    private int[] hilbertOrder()
+    {
+        // Find the bounds of all the elements,
+        var bottom = Integer.MAX_VALUE;
+        var left = Integer.MAX_VALUE;
+        var top = Integer.MIN_VALUE;
+        var right = Integer.MIN_VALUE;
+        for (var element = 0; element < size; element++)
+        {
+            var offset = element * 4;
+            bottom = Math.min(bottom, bounds[offset]);
+            left = Math.min(left, bounds[offset + 1]);
+            top = Math.max(top, bounds[offset + 2]);
+            right = Math.max(right, bounds[offset + 3]);
+        }
+        var all = Rectangle.fromInts(bottom, left, top, right);
+
+        // combine the Hilbert index of each element's center with its offset so that one primitive sort orders them,
+        var keys = new long[size];
+        for (var element = 0; element < size; element++)
+        {
+            var offset = element * 4;
+            var latitude = (int) (((long) bounds[offset] + bounds[offset + 2]) / 2);
+            var longitude = (int) (((long) bounds[offset + 1] + bounds[offset + 3]) / 2);
+            keys[element] = HilbertCurve.index(latitude, longitude, all, HILBERT_ORDER) << 32 | element;
+        }
+        Arrays.sort(keys);
+
+        // and then extract the offsets in sorted order.
+        var order = new int[size];
+        for (var entry = 0; entry < size; entry++)
+        {
+            order[entry] = (int) keys[entry];
+        }
+        return order;
+    }
+}
@@ -56,6 +56,9 @@ public class RTreeBulkLoader<Element extends Bounded & Intersectable>
         this.index = index;
     }
 
+    /**
+     * Loads the given elements into the index and then freezes it, so it can be queried without locking
+     */
     public void load(List<Element> elements)
     {
         assert !elements.isEmpty();
@@ -68,6 +71,7 @@ public class RTreeBulkLoader<Element extends Bounded & Intersectable>
         }
 
         this.index.root(tree(null, Rectangle.MAXIMUM, elements, Sort.NONE));
+        this.index.freeze();
     }
 
     public double log(int base, int num)
@@ -19,28 +19,50 @@
 package com.telenav.mesakit.map.geography.indexing.rtree;
 
 import com.telenav.kivakit.core.collections.iteration.Iterables;
+import com.telenav.kivakit.core.collections.list.ObjectList;
 import com.telenav.kivakit.core.language.Objects;
 import com.telenav.kivakit.core.language.primitive.Booleans;
 import com.telenav.kivakit.core.language.reflection.property.IncludeProperty;
 import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.core.value.count.Maximum;
 import com.telenav.kivakit.interfaces.collection.NextIterator;
 import com.telenav.kivakit.interfaces.comparison.Matcher;
 import com.telenav.kivakit.interfaces.naming.NamedObject;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 import com.telenav.lexakai.annotations.visibility.UmlExcludeSuperTypes;
+import com.telenav.mesakit.map.geography.Location;
+import com.telenav.mesakit.map.geography.indexing.ElementVisitor;
 import com.telenav.mesakit.map.geography.internal.lexakai.DiagramSpatialIndex;
 import com.telenav.mesakit.map.geography.shape.rectangle.Bounded;
 import com.telenav.mesakit.map.geography.shape.rectangle.Intersectable;
 import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
+import com.telenav.mesakit.map.measurements.geographic.Distance;
 
 import java.io.PrintStream;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
 
 /**
  * An r-tree spatial index with a simple linear splitting algorithm that sorts elements by latitude and longitude of
  * their center and picks the two most distant as the beginning of the split. Otherwise, this is a linear r-tree as
  * described in <a href="https://en.wikipedia.org/wiki/R-tree">Wikipedia RTree</a>.
+ * <p>
+ * Elements can be found by intersection with {@link #intersecting(Rectangle)}, or by distance from a location with
+ * {@link #nearest(Location, Maximum, Distance, ElementDistance)}, which is a best-first k-nearest neighbour search.
+ * Hot paths can visit intersecting elements with {@link #forEachIntersecting(Rectangle, ElementVisitor)}, which creates
+ * no iterators and stops as soon as the visitor returns false.
+ * <p>
+ * <b>Concurrency</b>
+ * <p>
+ * An index that is bulk loaded by {@link RTreeBulkLoader} or read by {@link RTreeSpatialIndexKryoSerializer} is
+ * {@link #freeze() frozen}. A frozen index can't be changed, so queries on it take no locks at all and query throughput
+ * scales with the number of threads. An index that is still mutable guards {@link #add(Bounded)} with the write half of
+ * a read-write lock, and its queries collect their results under the read half, so a query never sees a
+ * half-finished node split.
  *
  * @param <Element> An element must be {@link Bounded}, and {@link Intersectable} in order to be spatially indexed by an
  * r-tree.
@@ -85,6 +107,12 @@ public class RTreeSpatialIndex<Element extends Bounded & Intersectable> implemen
     /** Debugger interface */
     private transient RTreeSpatialIndexDebugger<Element> debugger;
 
+    /** True once the index can no longer be changed, and can be queried without locking */
+    private volatile boolean frozen;
+
+    /** Lock guarding the tree while it is still mutable */
+    private final transient ReadWriteLock lock = new ReentrantReadWriteLock();
+
     private String objectName;
 
     /** Settings that determine how the tree is laid out */
@@ -92,7 +120,7 @@ public class RTreeSpatialIndex<Element extends Bounded & Intersectable> implemen
     private RTreeSettings settings;
 
     /** The root of the tree, initially just a root node with a single leaf */
-    public Node<Element> root;
+    public volatile Node<Element> root;
 
     /**
      * Construct with good defaults
@@ -113,12 +141,22 @@ public class RTreeSpatialIndex<Element extends Bounded & Intersectable> implemen
     /**
      * Adds the given element to this spatial index
      */
-    public synchronized void add(Element element)
+    public void add(Element element)
     {
-        root().add(element);
+        ensure(!frozen, "Cannot add to frozen spatial index $", objectName);
+
+        lock.writeLock().lock();
+        try
+        {
+            root().add(element);
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
     }
 
-    public synchronized Iterable<Element> all()
+    public Iterable<Element> all()
     {
         return intersecting(Rectangle.MAXIMUM);
     }
@@ -179,6 +217,43 @@ public class RTreeSpatialIndex<Element extends Bounded & Intersectable> implemen
         return false;
     }
 
+    /**
+     * Passes each element that intersects the given rectangle to the visitor, until the visitor returns false. No
+     * iterators are created by the traversal itself. Leaves whose elements are stored in a compact form may still
+     * create an object for each element they visit, as the leaves of the compressed edge index create edges. If the
+     * index is not frozen, the read lock is held while visiting, so the visitor must not add to this index.
+     *
+     * @return True if every intersecting element was visited, false if the visitor stopped the traversal
+     */
+    public boolean forEachIntersecting(Rectangle bounds, ElementVisitor<Element> visitor)
+    {
+        // If the index is frozen, visit its elements without locking,
+        if (frozen)
+        {
+            return forEachIntersecting(root(), bounds, visitor);
+        }
+
+        // otherwise, visit them while holding the read lock.
+        lock.readLock().lock();
+        try
+        {
+            return forEachIntersecting(root(), bounds, visitor);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Makes this index immutable, so that it can be queried by any number of threads without locking
+     */
+    public void freeze()
+    {
+        // The volatile write publishes the finished tree to every thread that sees the index as frozen
+        frozen = true;
+    }
+
     @Override
     public int hashCode()
     {
@@ -188,30 +263,103 @@ public class RTreeSpatialIndex<Element extends Bounded & Intersectable> implemen
     /**
      * Returns an iterator of elements that intersect with the given bounding rectangle
      */
-    public synchronized Iterable<Element> intersecting(Rectangle bounds)
+    public Iterable<Element> intersecting(Rectangle bounds)
     {
         return intersecting(bounds, allElements);
     }
 
     /**
-     * Returns an iterator of elements that intersect with the given bounding rectangle and match the given matcher
+     * Returns an iterator of elements that intersect with the given bounding rectangle and match the given matcher. If
+     * the index is frozen, the elements are found lazily as the iterator is advanced. Otherwise, they are collected
+     * under the read lock, so that concurrent additions are not observed.
      */
-    public synchronized Iterable<Element> intersecting(Rectangle bounds, Matcher<Element> matcher)
+    public Iterable<Element> intersecting(Rectangle bounds, Matcher<Element> matcher)
     {
-        return Iterables.iterable(() -> new NextIterator<>()
+        // If the index is frozen,
+        if (frozen)
         {
-            final Iterator<Element> elements = root().intersecting(bounds, matcher);
-
-            @Override
-            public Element next()
+            // then it can be searched lazily without locking,
+            return Iterables.iterable(() -> new NextIterator<>()
             {
-                if (elements.hasNext())
+                final Iterator<Element> elements = root().intersecting(bounds, matcher);
+
+                @Override
+                public Element next()
                 {
-                    return elements.next();
+                    if (elements.hasNext())
+                    {
+                        return elements.next();
+                    }
+                    return null;
                 }
-                return null;
-            }
-        });
+            });
+        }
+
+        // otherwise, collect the matching elements while holding the read lock.
+        lock.readLock().lock();
+        try
+        {
+            var elements = new ObjectList<Element>();
+            root().intersecting(bounds, matcher).forEachRemaining(elements::add);
+            return elements;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns true if this index has been frozen and can no longer be changed
+     */
+    public boolean isFrozen()
+    {
+        return frozen;
+    }
+
+    /**
+     * Returns up to the given number of elements nearest to the given location, nearest first, as measured by the
+     * distance to their bounds
+     */
+    public List<Element> nearest(Location location, Maximum count)
+    {
+        return nearest(location, count, Distance.MAXIMUM, ElementDistance.toBounds(location));
+    }
+
+    /**
+     * Returns up to the given number of elements no further than the given maximum distance from the given location,
+     * nearest first, as measured by the given distance function. The tree is searched best-first, so only the nodes
+     * that are nearer than the elements that are returned are visited.
+     *
+     * @param location The location to search from
+     * @param count The maximum number of elements to return
+     * @param maximum The maximum distance of any element that is returned
+     * @param distance The distance from the location to each element, which must be no less than the distance to the
+     * element's bounds
+     * @see NearestNeighbourSearch
+     */
+    public List<Element> nearest(Location location, Maximum count, Distance maximum,
+                                 ElementDistance<Element> distance)
+    {
+        var search = new NearestNeighbourSearch<>(location, maximum.asMillimeters(), distance);
+        var limit = (int) Math.min(Integer.MAX_VALUE, count.longValue());
+
+        // If the index is frozen, search it without locking,
+        if (frozen)
+        {
+            return search.search(root(), limit);
+        }
+
+        // otherwise, search it while holding the read lock.
+        lock.readLock().lock();
+        try
+        {
+            return search.search(root(), limit);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
     public Leaf<Element> newLeaf(InteriorNode<Element> parent)
@@ -233,11 +381,21 @@ public class RTreeSpatialIndex<Element extends Bounded & Intersectable> implemen
 
     public void root(Node<Element> root)
     {
-        if (this.root != null)
+        ensure(!frozen, "Cannot replace the root of frozen spatial index $", objectName);
+
+        lock.writeLock().lock();
+        try
+        {
+            if (this.root != null)
+            {
+                debugger().remove(this.root);
+            }
+            this.root = root;
+        }
+        finally
         {
-            debugger.remove(this.root);
+            lock.writeLock().unlock();
         }
-        this.root = root;
     }
 
     public RTreeSettings settings()
@@ -258,6 +416,12 @@ public class RTreeSpatialIndex<Element extends Bounded & Intersectable> implemen
         return "[RTreeSpatialIndex settings = " + settings() + "]";
     }
 
+    private boolean forEachIntersecting(Node<Element> root, Rectangle bounds, ElementVisitor<Element> visitor)
+    {
+        return !root.intersects(bounds.bottomInDm7(), bounds.leftInDm7(), bounds.topInDm7(), bounds.rightInDm7())
+                || root.forEachIntersecting(bounds, visitor);
+    }
+
     private Node<Element> root()
     {
         return root;
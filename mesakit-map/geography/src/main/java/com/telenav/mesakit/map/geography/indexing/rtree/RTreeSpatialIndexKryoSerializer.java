@@ -47,6 +47,7 @@ public abstract class RTreeSpatialIndexKryoSerializer<T extends Bounded & Inters
         var settings = session.read(RTreeSettings.class);
         RTreeSpatialIndex<T> index = newSpatialIndex(settings);
         index.root = readNode(session, index, null);
+        index.freeze();
         return index;
     }
 
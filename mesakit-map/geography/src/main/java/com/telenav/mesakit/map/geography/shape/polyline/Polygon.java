@@ -200,6 +200,57 @@ public class Polygon extends Polyline implements Shape
         return Containment.OUTSIDE;
     }
 
+    /**
+     * Returns {@link Containment#INSIDE} if the given rectangle is entirely inside this polygon and outside all of its
+     * holes, {@link Containment#OUTSIDE} if no part of the rectangle is inside the polygon and
+     * {@link Containment#ON_BORDER} if the outline of the polygon or one of its holes passes through the rectangle.
+     */
+    public Containment containment(Rectangle rectangle)
+    {
+        // If the rectangle is outside the polygon's bounds,
+        if (!bounds().intersects(rectangle))
+        {
+            // it can't be inside
+            return Containment.OUTSIDE;
+        }
+
+        // If any segment of the outline intersects the rectangle,
+        if (!intersections(rectangle, Count._1).isEmpty())
+        {
+            // the rectangle is partly inside and partly outside
+            return Containment.ON_BORDER;
+        }
+
+        // Since no segment intersects the rectangle, it is entirely inside or entirely outside the outline,
+        // and we can tell which from any one of its corners.
+        if (!bounds().contains(rectangle) || outline().containment(rectangle.topLeft()).isOutside())
+        {
+            return Containment.OUTSIDE;
+        }
+
+        // The rectangle is inside the outline, so if there are holes,
+        if (holes != null)
+        {
+            for (var hole : holes)
+            {
+                // and the rectangle is inside one of them or crossed by one of them,
+                var containment = hole.containment(rectangle);
+                if (containment == Containment.INSIDE)
+                {
+                    // then it is outside the polygon
+                    return Containment.OUTSIDE;
+                }
+                if (containment == Containment.ON_BORDER)
+                {
+                    // or partly inside the polygon
+                    return Containment.ON_BORDER;
+                }
+            }
+        }
+
+        return Containment.INSIDE;
+    }
+
     public boolean contains(Polyline line)
     {
         if (!bounds().contains(line.bounds()))
@@ -245,6 +296,20 @@ public class Polygon extends Polyline implements Shape
         outline();
     }
 
+    /**
+     * Force creation of the outline and segment spatial index of this polygon and any holes, so that
+     * {@link #containment(Rectangle)} builds no lazy state when it is called from more than one thread
+     */
+    public void initializeContainment()
+    {
+        outline();
+        segmentSpatialIndex();
+        if (holes != null)
+        {
+            holes.forEach(Polygon::initializeContainment);
+        }
+    }
+
     /**
      * Returns a list of up to the given maximum number segments intersecting the given bounds
      */
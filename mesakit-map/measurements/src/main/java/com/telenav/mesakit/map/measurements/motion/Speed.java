@@ -398,7 +398,15 @@ public class Speed implements Comparable<Speed>, LongValued
 
     public long timeToTravelInMilliseconds(Distance length)
     {
-        return length.asMillimeters() * (long) duration.dividedBy(Duration.ONE_MILLISECOND) / distance.asMillimeters();
+        return timeToTravelInMilliseconds(length.asMillimeters());
+    }
+
+    /**
+     * Returns the time in milliseconds to travel the given number of millimeters at this speed
+     */
+    public long timeToTravelInMilliseconds(long millimeters)
+    {
+        return millimeters * (long) duration.dividedBy(Duration.ONE_MILLISECOND) / distance.asMillimeters();
     }
 
     @Override
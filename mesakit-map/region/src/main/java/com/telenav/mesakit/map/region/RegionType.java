@@ -32,6 +32,7 @@ import com.telenav.mesakit.map.region.internal.lexakai.DiagramRegion;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
@@ -197,6 +198,16 @@ public class RegionType<T extends Region<T>>
         return borderCache().object(location);
     }
 
+    /**
+     * Returns the region containing each of the given DM7 locations, or null for any location not in a region
+     *
+     * @see BorderCache#objects(long[])
+     */
+    public List<T> forLocations(long[] locations)
+    {
+        return borderCache().objects(locations);
+    }
+
     public T forNumericCountryCode(int code)
     {
         return forNumericCountryCode.get(code);
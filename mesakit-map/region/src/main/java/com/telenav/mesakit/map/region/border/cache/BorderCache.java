@@ -85,6 +85,7 @@ import java.io.IOException;
 import java.nio.file.attribute.PosixFilePermission;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -268,6 +269,11 @@ public abstract class BorderCache<T extends Region<T>> extends BaseComponent imp
     @UmlAggregation(label = "indexed by")
     private BorderSpatialIndex<T> index;
 
+    /**
+     * Grid of rasterised cells for answering batches of locations with {@link #objects(long[])}, created on first use
+     */
+    private BorderRaster<T> raster;
+
     /**
      * Polygon borders for each object
      */
@@ -398,6 +404,26 @@ public abstract class BorderCache<T extends Region<T>> extends BaseComponent imp
         return null;
     }
 
+    /**
+     * Finds the objects containing a batch of locations. This gives the same answers as calling
+     * {@link #object(Location)} for each location, but the locations are tiled into grid cells that are each rasterised
+     * once, so only locations near a border need a polygon test, and the cells are answered in parallel.
+     *
+     * @param locations Locations in DM7 as returned by {@link Location#asDm7Long()}
+     * @return The object each location is in, in the same order as the locations, or null for any location that is not
+     * in an object
+     */
+    public List<T> objects(long[] locations)
+    {
+        ensure(locations != null);
+
+        if (loadBorders())
+        {
+            return raster().regions(locations);
+        }
+        return Collections.nCopies(locations.length, null);
+    }
+
     /**
      * @param relationTags The tags on the multi-polygon relation
      * @param objects The objects that need an identity assigned based on the relation tags
@@ -949,6 +975,18 @@ public abstract class BorderCache<T extends Region<T>> extends BaseComponent imp
         return cacheFolder().file(FileName.parseFileName(this, baseName(type) + ".osm.pbf"));
     }
 
+    private BorderRaster<T> raster()
+    {
+        synchronized (cacheLock)
+        {
+            if (raster == null)
+            {
+                raster = new BorderRaster<>(index());
+            }
+            return raster;
+        }
+    }
+
     private RegionProject regionProject()
     {
         return project(RegionProject.class);
@@ -0,0 +1,257 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.map.region.border.cache;
+
+import com.telenav.mesakit.map.geography.Latitude;
+import com.telenav.mesakit.map.geography.Location;
+import com.telenav.mesakit.map.geography.Longitude;
+import com.telenav.mesakit.map.geography.shape.Outline.Containment;
+import com.telenav.mesakit.map.geography.shape.rectangle.Rectangle;
+import com.telenav.mesakit.map.measurements.geographic.Distance;
+import com.telenav.mesakit.map.region.Region;
+import com.telenav.mesakit.map.region.border.Border;
+import com.telenav.mesakit.map.region.border.BorderSpatialIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensureNotNull;
+
+/**
+ * Finds the regions containing large batches of locations for a {@link BorderCache}. The world is divided into a grid
+ * of cells, and each cell is rasterised as interior to a single region, exterior to all regions or crossed by one or
+ * more borders. Locations in interior and exterior cells are answered without any polygon tests, while locations in
+ * border cells are tested only against the borders that cross their cell.
+ * <p>
+ * Cells are rasterised the first time a batch touches them and are kept for later batches. The locations in a batch
+ * are sorted by cell, and each run of locations in the same cell is answered in parallel.
+ *
+ * @see BorderCache#objects(long[])
+ */
+class BorderRaster<T extends Region<T>>
+{
+    /**
+     * Borders this close to a cell are treated as crossing it, since a polygon outline can answer indeterminate (which
+     * is treated as inside) for locations near its border
+     */
+    private static final Distance BORDER_MARGIN = Distance.kilometers(1);
+
+    /** The size of a grid cell in DM7 units, which is a tenth of a degree or about 11km at the equator */
+    private static final int CELL_SIZE = 1_000_000;
+
+    /** The bottom, left, top and right of the grid in DM7 units */
+    private static final int BOTTOM = Latitude.MINIMUM.asDm7();
+
+    private static final int LEFT = Longitude.MINIMUM.asDm7();
+
+    private static final int TOP = Latitude.MAXIMUM.asDm7();
+
+    private static final int RIGHT = Longitude.MAXIMUM.asDm7();
+
+    /** The number of columns and rows of cells in the grid */
+    private static final int COLUMNS = (int) (((long) RIGHT - LEFT) / CELL_SIZE) + 1;
+
+    private static final int ROWS = (int) (((long) TOP - BOTTOM) / CELL_SIZE) + 1;
+
+    /**
+     * A rasterised grid cell
+     */
+    private class Cell
+    {
+        /** The borders crossing this cell in index order, or null if the cell is not crossed by any border */
+        private final List<Border<T>> borders;
+
+        /** The region containing every location in this cell that is not inside one of the borders */
+        private final T region;
+
+        Cell(List<Border<T>> borders, T region)
+        {
+            this.borders = borders;
+            this.region = region;
+        }
+
+        /**
+         * Returns the region containing the given location, which must be in this cell
+         */
+        T region(long location)
+        {
+            // If any borders cross this cell,
+            if (borders != null)
+            {
+                // test the location against each of them in order
+                var at = Location.dm7(location);
+                for (var border : borders)
+                {
+                    if (border.contains(at))
+                    {
+                        return border.region();
+                    }
+                }
+            }
+
+            // and if none contains it, it's in the region that covers the rest of the cell (if any)
+            return region;
+        }
+    }
+
+    /** Rows of rasterised cells by column, null until a cell in the row is first needed */
+    private final AtomicReferenceArray<AtomicReferenceArray<Cell>> rows = new AtomicReferenceArray<>(ROWS);
+
+    /** The cell for any part of the world that is not in a region */
+    private final Cell exterior = new Cell(null, null);
+
+    /** The borders to rasterise */
+    private final BorderSpatialIndex<T> index;
+
+    BorderRaster(BorderSpatialIndex<T> index)
+    {
+        this.index = ensureNotNull(index);
+    }
+
+    /**
+     * Returns the region containing each of the given DM7 locations in the same order, with null for any location
+     * that is not in a region
+     */
+    @SuppressWarnings("unchecked")
+    List<T> regions(long[] locations)
+    {
+        // Key each location by its cell, keeping its position in the low bits,
+        var size = locations.length;
+        var keys = new long[size];
+        for (var position = 0; position < size; position++)
+        {
+            keys[position] = ((long) cell(locations[position]) << 32) | position;
+        }
+
+        // and sort the keys, so locations in the same cell are next to each other.
+        Arrays.parallelSort(keys);
+
+        // Find where each run of locations in the same cell starts,
+        var runs = new int[Math.max(1, size)];
+        var runCount = 0;
+        for (var at = 0; at < size; at++)
+        {
+            if (at == 0 || (keys[at] >>> 32) != (keys[at - 1] >>> 32))
+            {
+                runs[runCount++] = at;
+            }
+        }
+
+        // then answer each run against its rasterised cell in parallel.
+        var regions = new Object[size];
+        var lastRun = runCount - 1;
+        IntStream.rangeClosed(0, lastRun).parallel().forEach(run ->
+        {
+            var from = runs[run];
+            var to = run < lastRun ? runs[run + 1] : size;
+            var cell = rasterised((int) (keys[from] >>> 32));
+            for (var at = from; at < to; at++)
+            {
+                var position = (int) keys[at];
+                regions[position] = cell.region(locations[position]);
+            }
+        });
+
+        return (List<T>) (List<?>) Arrays.asList(regions);
+    }
+
+    /**
+     * Returns the index of the grid cell containing the given DM7 location
+     */
+    private int cell(long location)
+    {
+        var row = (int) (((long) Location.latitude(location) - BOTTOM) / CELL_SIZE);
+        var column = (int) (((long) Location.longitude(location) - LEFT) / CELL_SIZE);
+        return row * COLUMNS + column;
+    }
+
+    /**
+     * Returns the rasterised cell with the given index, rasterising it if it hasn't been yet
+     */
+    private Cell rasterised(int index)
+    {
+        // Get the row of the cell, allocating it if no cell in it has been rasterised yet,
+        var row = rows.get(index / COLUMNS);
+        if (row == null)
+        {
+            rows.compareAndSet(index / COLUMNS, null, new AtomicReferenceArray<>(COLUMNS));
+            row = rows.get(index / COLUMNS);
+        }
+
+        // then get the cell. Two threads can rasterise the same cell at once, but they will produce equivalent cells.
+        var column = index % COLUMNS;
+        var cell = row.get(column);
+        if (cell == null)
+        {
+            cell = rasterise(index);
+            row.set(column, cell);
+        }
+        return cell;
+    }
+
+    /**
+     * Returns a cell for the given index that knows which borders cross it and which region covers the rest of it
+     */
+    private Cell rasterise(int index)
+    {
+        // Get the bounds of the cell with a margin around it,
+        var bottom = (long) (index / COLUMNS) * CELL_SIZE + BOTTOM;
+        var left = (long) (index % COLUMNS) * CELL_SIZE + LEFT;
+        var bounds = Rectangle.fromInts((int) bottom, (int) left,
+                (int) Math.min(bottom + CELL_SIZE - 1, TOP),
+                (int) Math.min(left + CELL_SIZE - 1, RIGHT)).expanded(BORDER_MARGIN);
+
+        // then go through the borders that might overlap it in the order BorderCache.object() tests them.
+        List<Border<T>> borders = null;
+        for (var border : index.intersecting(bounds))
+        {
+            // Build any lazy state of the border polygon before it can be shared between threads,
+            var polygon = border.polygon();
+            synchronized (polygon)
+            {
+                polygon.initializeContainment();
+            }
+
+            // and if the polygon covers the whole cell,
+            var containment = polygon.containment(bounds);
+            if (containment == Containment.INSIDE)
+            {
+                // then any location that isn't in one of the earlier borders crossing the cell is in its region.
+                return new Cell(borders, border.region());
+            }
+
+            // If the polygon's outline crosses the cell,
+            if (containment == Containment.ON_BORDER)
+            {
+                // locations in the cell will need to be tested against it.
+                if (borders == null)
+                {
+                    borders = new ArrayList<>();
+                }
+                borders.add(border);
+            }
+        }
+
+        return borders == null ? exterior : new Cell(borders, null);
+    }
+}
@@ -689,6 +689,14 @@ public abstract class Country extends Region<Country> implements LongValued
         return type(Country.class).forLocation(location);
     }
 
+    /**
+     * Returns the Country that each of the given DM7 locations is in, or null for any location not in a country
+     */
+    public static List<Country> forLocations(long[] locations)
+    {
+        return type(Country.class).forLocations(locations);
+    }
+
     /**
      * Returns the country for the given numeric code
      */
@@ -83,6 +83,8 @@ public class SpeedCategory implements LongValued
         }
     }
 
+    private final Speed average;
+
     private final int identifier;
 
     private final Speed maximum;
@@ -94,13 +96,14 @@ public class SpeedCategory implements LongValued
         this.identifier = identifier;
         this.minimum = minimum;
         this.maximum = maximum;
+        average = Speed.milesPerHour(
+                minimum.asMilesPerHour() + (maximum.asMilesPerHour() - minimum.asMilesPerHour()) / 2);
         speedCategoryForIdentifier.put(identifier, this);
     }
 
     public Speed average()
     {
-        return Speed.milesPerHour(
-                minimum.asMilesPerHour() + (maximum.asMilesPerHour() - minimum.asMilesPerHour()) / 2);
+        return average;
     }
 
     public int identifier()
@@ -82,6 +82,25 @@ public abstract class RoutingRequest
 
     public abstract String description();
 
+    /**
+     * Returns the response to this request for the given route (which is null if routing failed), notifying any
+     * debugger that routing has ended
+     */
+    public RoutingResponse done(Route route)
+    {
+        var response = new RoutingResponse(route, elapsed());
+        onEndRouting(response);
+        return response;
+    }
+
+    /**
+     * Returns a failed response to this request, notifying any debugger that routing has ended
+     */
+    public RoutingResponse failed()
+    {
+        return done(null);
+    }
+
     public Distance distance()
     {
         return start().location().distanceTo(end().location());
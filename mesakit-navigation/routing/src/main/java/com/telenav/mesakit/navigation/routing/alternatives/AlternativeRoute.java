@@ -0,0 +1,104 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.alternatives;
+
+import com.telenav.mesakit.graph.Route;
+import com.telenav.mesakit.navigation.routing.cost.Cost;
+
+/**
+ * A route found by an {@link AlternativeRouteFinder}, along with the measures it was ranked by:
+ *
+ * <ul>
+ *     <li>{@link #stretch()} - The cost of the route divided by the cost of the best route</li>
+ *     <li>{@link #sharing()} - The largest fraction of the length of any route accepted before this one that this
+ *     route shares. Candidates are accepted in order of stretch and local optimality before the final ranking by
+ *     score, so this is not necessarily overlap with a better-ranked route.</li>
+ *     <li>{@link #localOptimality()} - A lower bound on the fraction of the route's cost over which every stretch of the
+ *     route is a shortest path</li>
+ * </ul>
+ * <p>
+ * Lower scores rank higher. The best route has a stretch of one, no sharing, and a local optimality of one.
+ */
+public class AlternativeRoute
+{
+    /** The route */
+    private final Route route;
+
+    /** The cost of the route */
+    private final Cost cost;
+
+    /** The cost of the route relative to the best route */
+    private final double stretch;
+
+    /** The largest fraction of a route accepted before this one that is shared by this route */
+    private final double sharing;
+
+    /** Lower bound on the locally optimal fraction of the route */
+    private final double localOptimality;
+
+    AlternativeRoute(Route route, Cost cost, double stretch, double sharing, double localOptimality)
+    {
+        this.route = route;
+        this.cost = cost;
+        this.stretch = stretch;
+        this.sharing = sharing;
+        this.localOptimality = localOptimality;
+    }
+
+    public Cost cost()
+    {
+        return cost;
+    }
+
+    public double localOptimality()
+    {
+        return localOptimality;
+    }
+
+    public Route route()
+    {
+        return route;
+    }
+
+    /**
+     * Returns the score this route was ranked by, 2 × stretch + sharing - local optimality, where lower is better
+     */
+    public double score()
+    {
+        return 2 * stretch + sharing - localOptimality;
+    }
+
+    public double sharing()
+    {
+        return sharing;
+    }
+
+    public double stretch()
+    {
+        return stretch;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[AlternativeRoute cost = " + cost + ", stretch = " + stretch + ", sharing = " + sharing
+                + ", localOptimality = " + localOptimality + "]";
+    }
+}
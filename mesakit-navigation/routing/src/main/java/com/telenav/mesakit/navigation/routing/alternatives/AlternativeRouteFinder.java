@@ -0,0 +1,355 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.alternatives;
+
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.mesakit.graph.Route;
+import com.telenav.mesakit.graph.Vertex;
+import com.telenav.mesakit.graph.collections.EdgeSet;
+import com.telenav.mesakit.navigation.routing.bidijkstra.BiDijkstraRouter;
+import com.telenav.mesakit.navigation.routing.bidijkstra.BiDijkstraRoutingRequest;
+import com.telenav.mesakit.navigation.routing.bidijkstra.BiDijkstraSearch;
+import com.telenav.mesakit.navigation.routing.cost.Cost;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRoutingRequest;
+import com.telenav.mesakit.navigation.routing.dijkstra.Direction;
+import com.telenav.mesakit.navigation.routing.dijkstra.VertexState;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds meaningfully different alternatives to the best route using the via-vertex (plateau) method. A single
+ * {@link BiDijkstraSearch} finds the best route and its forward and backward search trees are then grown until they
+ * cover every vertex that could be on an acceptable alternative. Each vertex settled by both searches is a potential
+ * via vertex whose route is the forward tree's route to it followed by the backward tree's route from it.
+ * <p>
+ * Vertexes whose routes are the same form <i>plateaus</i>: chains of edges that are in both search trees. Only one
+ * candidate is considered per plateau, and since every stretch of route inside a plateau is a shortest path, the
+ * plateau's share of the candidate's cost is a lower bound on the candidate's local optimality. Candidates are ranked
+ * and accepted in order if they are:
+ *
+ * <ul>
+ *     <li>no more than {@link #withMaximumStretch(double)} times the cost of the best route</li>
+ *     <li>sharing no more than {@link #withMaximumSharing(double)} of the length of any route already accepted</li>
+ *     <li>at least {@link #withMinimumLocalOptimality(double)} locally optimal</li>
+ * </ul>
+ * <p>
+ * No search is repeated for each alternative, so finding alternatives costs one larger bidirectional search plus
+ * building the routes of the top-ranked candidates.
+ *
+ * @see AlternativeRoute
+ */
+public class AlternativeRouteFinder
+{
+    /** The router whose search trees are used */
+    private final BiDijkstraRouter router;
+
+    /** The most alternatives to find in addition to the best route */
+    private Count maximumAlternatives = Count._3;
+
+    /** The most an alternative can cost as a multiple of the best route's cost */
+    private double maximumStretch = 1.25;
+
+    /** The most of an accepted route's length that an alternative can share */
+    private double maximumSharing = 0.8;
+
+    /** The least fraction of an alternative that must be locally optimal */
+    private double minimumLocalOptimality = 0.25;
+
+    public AlternativeRouteFinder(BiDijkstraRouter router)
+    {
+        this.router = router;
+    }
+
+    private AlternativeRouteFinder(AlternativeRouteFinder that)
+    {
+        router = that.router;
+        maximumAlternatives = that.maximumAlternatives;
+        maximumStretch = that.maximumStretch;
+        maximumSharing = that.maximumSharing;
+        minimumLocalOptimality = that.minimumLocalOptimality;
+    }
+
+    /**
+     * Returns the best route for the given request followed by up to {@link #withMaximumAlternatives(Count)}
+     * alternatives in rank order, or an empty list if there is no route
+     */
+    public List<AlternativeRoute> find(BiDijkstraRoutingRequest request)
+    {
+        // Find the best route
+        var search = router.search(request);
+        if (search.meet().failed())
+        {
+            return List.of();
+        }
+        var best = search.best();
+        var bestCost = best.cost().asDouble();
+        var routes = new ArrayList<AlternativeRoute>();
+        routes.add(new AlternativeRoute(best.route(), best.cost(), 1.0, 0.0, 1.0));
+
+        // then grow both search trees to cover every vertex an alternative could go through
+        var maximumCost = bestCost * maximumStretch;
+        search.extend(Cost.of(maximumCost));
+
+        // and rank the plateaus by what we know of them before building their routes
+        var plateaus = plateaus(search, maximumCost);
+        plateaus.sort(Comparator.comparingDouble(plateau -> 2 * plateau.cost / bestCost - plateau.localOptimality()));
+
+        // Go through each plateau
+        var candidates = new ArrayList<AlternativeRoute>();
+        var accepted = new ArrayList<EdgeSet>();
+        accepted.add(best.route().asEdgeSet());
+        for (var plateau : plateaus)
+        {
+            if (routes.size() > maximumAlternatives.asInt())
+            {
+                break;
+            }
+
+            // and if the plateau is locally optimal enough
+            var localOptimality = plateau.localOptimality();
+            if (localOptimality < minimumLocalOptimality)
+            {
+                continue;
+            }
+
+            // and it forms a simple route
+            var route = plateau.route();
+            if (route == null)
+            {
+                continue;
+            }
+
+            // that is different enough from the routes accepted so far
+            var sharing = sharing(route, routes, accepted);
+            if (sharing <= maximumSharing)
+            {
+                // then accept it as an alternative
+                var alternative = new AlternativeRoute(route, Cost.of(plateau.cost), plateau.cost / bestCost, sharing, localOptimality);
+                candidates.add(alternative);
+                routes.add(alternative);
+                accepted.add(route.asEdgeSet());
+            }
+        }
+
+        // Return the best route followed by the alternatives in score order
+        candidates.sort(Comparator.comparingDouble(AlternativeRoute::score));
+        var ranked = new ArrayList<AlternativeRoute>();
+        ranked.add(routes.get(0));
+        ranked.addAll(candidates);
+        return ranked;
+    }
+
+    public AlternativeRouteFinder withMaximumAlternatives(Count maximumAlternatives)
+    {
+        var finder = new AlternativeRouteFinder(this);
+        finder.maximumAlternatives = maximumAlternatives;
+        return finder;
+    }
+
+    public AlternativeRouteFinder withMaximumSharing(double maximumSharing)
+    {
+        var finder = new AlternativeRouteFinder(this);
+        finder.maximumSharing = maximumSharing;
+        return finder;
+    }
+
+    public AlternativeRouteFinder withMaximumStretch(double maximumStretch)
+    {
+        var finder = new AlternativeRouteFinder(this);
+        finder.maximumStretch = maximumStretch;
+        return finder;
+    }
+
+    public AlternativeRouteFinder withMinimumLocalOptimality(double minimumLocalOptimality)
+    {
+        var finder = new AlternativeRouteFinder(this);
+        finder.minimumLocalOptimality = minimumLocalOptimality;
+        return finder;
+    }
+
+    /**
+     * A chain of edges in both search trees, from the vertex where it starts to the last vertex reached by the forward
+     * search
+     */
+    private static class Plateau
+    {
+        /** The forward state of the vertex at the start of the plateau */
+        final VertexState start;
+
+        /** The forward state of the vertex at the end of the plateau */
+        VertexState forwardEnd;
+
+        /** The backward state of the vertex at the end of the plateau */
+        VertexState backwardEnd;
+
+        /** The cost of the route through the plateau */
+        double cost;
+
+        Plateau(VertexState start)
+        {
+            this.start = start;
+        }
+
+        /**
+         * Returns the share of the route's cost that is within the plateau
+         */
+        double localOptimality()
+        {
+            return cost == 0 ? 1.0 : Math.min(1.0, (forwardEnd.cost().asDouble() - start.cost().asDouble()) / cost);
+        }
+
+        /**
+         * Returns the route through this plateau, or null if the route visits any vertex more than once
+         */
+        Route route()
+        {
+            var forward = forwardEnd.route(Direction.FORWARD);
+            var backward = backwardEnd.route(Direction.BACKWARD);
+            var route = forward == null ? backward : backward == null ? forward : forward.append(backward);
+            if (route != null)
+            {
+                var vertexes = new HashSet<Vertex>();
+                for (var vertex : route.vertexes())
+                {
+                    if (!vertexes.add(vertex))
+                    {
+                        return null;
+                    }
+                }
+            }
+            return route;
+        }
+    }
+
+    /**
+     * Returns the plateaus of the given search that have routes costing no more than the given maximum
+     */
+    private List<Plateau> plateaus(BiDijkstraSearch search, double maximumCost)
+    {
+        var forward = search.forward();
+        var backward = search.backward();
+
+        // Go through each vertex settled by both searches
+        var startOf = new HashMap<Vertex, VertexState>();
+        var plateaus = new HashMap<Vertex, Plateau>();
+        forward.forEachSettled(forwardState ->
+        {
+            var backwardState = backward.settled(forwardState.vertex());
+            if (backwardState != null)
+            {
+                // and if the route through it is cheap enough
+                var cost = forwardState.cost().asDouble() + backwardState.cost().asDouble();
+                if (cost <= maximumCost)
+                {
+                    // find the plateau it's on
+                    var start = plateauStart(forwardState, backward, startOf);
+                    var plateau = plateaus.computeIfAbsent(start.vertex(), vertex -> new Plateau(start));
+
+                    // and if this vertex is further along the plateau than any other
+                    if (plateau.forwardEnd == null || forwardState.cost().isGreaterThan(plateau.forwardEnd.cost()))
+                    {
+                        // it's the end of the plateau
+                        plateau.forwardEnd = forwardState;
+                        plateau.backwardEnd = backwardState;
+                        plateau.cost = cost;
+                    }
+                }
+            }
+        });
+        return new ArrayList<>(plateaus.values());
+    }
+
+    /**
+     * Returns the forward state of the vertex where the plateau through the given vertex starts. A plateau continues
+     * backward from a vertex for as long as the backward search tree leads from the previous vertex in the forward
+     * search tree to the vertex.
+     */
+    private VertexState plateauStart(VertexState state, DijkstraRoutingRequest backward,
+                                     Map<Vertex, VertexState> startOf)
+    {
+        // Walk back along the forward search tree
+        var walked = new ArrayList<Vertex>();
+        var at = state;
+        VertexState start;
+        while (true)
+        {
+            // If we already know where the plateau through this vertex starts
+            var known = startOf.get(at.vertex());
+            if (known != null)
+            {
+                // we're done
+                start = known;
+                break;
+            }
+
+            // If the edge from the previous vertex is in both trees
+            walked.add(at.vertex());
+            var previous = at.previous();
+            var previousBackward = previous == null ? null : backward.settled(previous.vertex());
+            if (previousBackward != null && previousBackward.previous() != null
+                    && previousBackward.previous().vertex().equals(at.vertex()))
+            {
+                // keep walking
+                at = previous;
+            }
+            else
+            {
+                // otherwise the plateau starts here
+                start = at;
+                break;
+            }
+        }
+
+        // Remember the start for every vertex we walked over
+        for (var vertex : walked)
+        {
+            startOf.put(vertex, start);
+        }
+        return start;
+    }
+
+    /**
+     * Returns the largest fraction of the length of any accepted route that is shared by the given route
+     */
+    private double sharing(Route route, List<AlternativeRoute> routes, List<EdgeSet> accepted)
+    {
+        var sharing = 0.0;
+        for (var index = 0; index < routes.size(); index++)
+        {
+            var edges = accepted.get(index);
+            var shared = 0L;
+            for (var edge : route)
+            {
+                if (edges.contains(edge))
+                {
+                    shared += edge.length().asMillimeters();
+                }
+            }
+            var length = routes.get(index).route().length().asMillimeters();
+            sharing = Math.max(sharing, length == 0 ? 1.0 : (double) shared / length);
+        }
+        return sharing;
+    }
+}
@@ -0,0 +1,192 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.batch;
+
+import com.telenav.kivakit.core.value.count.Count;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.telenav.kivakit.core.ensure.Ensure.fail;
+
+/**
+ * A batch of routing pairs submitted to a {@link BatchRoutingService}. The job can be cancelled, waited for and
+ * inspected while it runs:
+ *
+ * <ul>
+ *     <li>{@link #cancel()} - Stops reading pairs, skips pairs that have not started and halts routes in progress</li>
+ *     <li>{@link #await()} - Waits until every pair that was read has been routed or skipped</li>
+ *     <li>{@link #histogram()} - The latencies of the routes completed so far</li>
+ * </ul>
+ * <p>
+ * No more than a fixed number of pairs are pending (read but not yet delivered as results) at any one time. When that
+ * many are pending, reading more pairs waits until results have been delivered, so a slow result consumer slows down
+ * the whole job rather than letting pending work pile up in memory.
+ */
+public class BatchRoutingJob
+{
+    /** Permits for pending pairs */
+    private final Semaphore pending;
+
+    /** The number of tasks still running, plus one while pairs are being read */
+    private final AtomicInteger outstanding = new AtomicInteger(1);
+
+    /** Completes when the job is done */
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    /** Latencies of completed routes */
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    /** The number of pairs that were routed */
+    private final AtomicLong succeeded = new AtomicLong();
+
+    /** The number of pairs that could not be routed */
+    private final AtomicLong failed = new AtomicLong();
+
+    /** True if the job has been cancelled */
+    private volatile boolean cancelled;
+
+    BatchRoutingJob(Count maximumPending)
+    {
+        pending = new Semaphore(maximumPending.asInt());
+    }
+
+    /**
+     * Waits for this job to finish
+     */
+    public BatchRoutingJob await()
+    {
+        try
+        {
+            done.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return fail(e, "Interrupted while waiting for batch routing");
+        }
+        catch (ExecutionException e)
+        {
+            return fail(e.getCause(), "Batch routing failed");
+        }
+        return this;
+    }
+
+    /**
+     * Cancels this job. Pairs that have not been read or started are skipped, and routes in progress are halted.
+     */
+    public void cancel()
+    {
+        cancelled = true;
+    }
+
+    /**
+     * Returns the number of pairs that could not be routed
+     */
+    public Count failed()
+    {
+        return Count.count(failed.get());
+    }
+
+    /**
+     * Returns the histogram of routing latencies
+     */
+    public LatencyHistogram histogram()
+    {
+        return histogram;
+    }
+
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    public boolean isDone()
+    {
+        return done.isDone();
+    }
+
+    /**
+     * Returns the number of pairs that were routed
+     */
+    public Count succeeded()
+    {
+        return Count.count(succeeded.get());
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[BatchRoutingJob succeeded = " + succeeded() + ", failed = " + failed() + ", cancelled = " + cancelled
+                + ", latency = " + histogram + "]";
+    }
+
+    /**
+     * Waits for room for another pending pair, returning false if the job was cancelled while waiting
+     */
+    boolean acquire() throws InterruptedException
+    {
+        while (!cancelled)
+        {
+            if (pending.tryAcquire(10, TimeUnit.MILLISECONDS))
+            {
+                outstanding.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Called when a pending pair has been routed or skipped and its result, if any, delivered
+     */
+    void finished()
+    {
+        pending.release();
+        if (outstanding.decrementAndGet() == 0)
+        {
+            done.complete(null);
+        }
+    }
+
+    /**
+     * Called when all pairs have been read
+     */
+    void read()
+    {
+        if (outstanding.decrementAndGet() == 0)
+        {
+            done.complete(null);
+        }
+    }
+
+    /**
+     * Records the given result
+     */
+    void record(BatchRoutingResult result)
+    {
+        histogram.record(result.latencyInNanoseconds());
+        (result.succeeded() ? succeeded : failed).incrementAndGet();
+    }
+}
@@ -0,0 +1,114 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.batch;
+
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.mesakit.graph.Route;
+import com.telenav.mesakit.navigation.routing.RoutingResponse;
+
+/**
+ * The outcome of routing one {@link RoutingPair} in a batch. Results are delivered in the order they complete, so each
+ * carries the index of its pair in the input.
+ */
+public class BatchRoutingResult
+{
+    /** The index of the pair in the input */
+    private final long index;
+
+    /** The pair that was routed */
+    private final RoutingPair pair;
+
+    /** The router's response, or null if routing threw an exception */
+    private final RoutingResponse response;
+
+    /** The time it took to route the pair, in nanoseconds */
+    private final long latencyInNanoseconds;
+
+    /** Any exception thrown by the router */
+    private final Throwable error;
+
+    BatchRoutingResult(long index, RoutingPair pair, RoutingResponse response, long latencyInNanoseconds,
+                       Throwable error)
+    {
+        this.index = index;
+        this.pair = pair;
+        this.response = response;
+        this.latencyInNanoseconds = latencyInNanoseconds;
+        this.error = error;
+    }
+
+    /**
+     * Returns any exception thrown while routing
+     */
+    public Throwable error()
+    {
+        return error;
+    }
+
+    /**
+     * Returns the index of the routed pair in the input
+     */
+    public long index()
+    {
+        return index;
+    }
+
+    public Duration latency()
+    {
+        return Duration.milliseconds(latencyInNanoseconds / 1_000_000.0);
+    }
+
+    public long latencyInNanoseconds()
+    {
+        return latencyInNanoseconds;
+    }
+
+    public RoutingPair pair()
+    {
+        return pair;
+    }
+
+    public RoutingResponse response()
+    {
+        return response;
+    }
+
+    /**
+     * Returns the route that was found, or null if routing failed
+     */
+    public Route route()
+    {
+        return succeeded() ? response.route() : null;
+    }
+
+    /**
+     * Returns true if a route was found
+     */
+    public boolean succeeded()
+    {
+        return response != null && !response.failed();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[BatchRoutingResult index = " + index + ", succeeded = " + succeeded() + ", latency = " + latency() + "]";
+    }
+}
@@ -0,0 +1,246 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.batch;
+
+import com.telenav.kivakit.core.messaging.repeaters.BaseRepeater;
+import com.telenav.kivakit.core.thread.Threads;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.mesakit.navigation.routing.Router;
+import com.telenav.mesakit.navigation.routing.RoutingLimiter;
+import com.telenav.mesakit.navigation.routing.RoutingRequest;
+import com.telenav.mesakit.navigation.routing.RoutingResponse;
+import com.telenav.mesakit.navigation.routing.bidijkstra.BiDijkstraRouter;
+import com.telenav.mesakit.navigation.routing.bidijkstra.BiDijkstraRoutingRequest;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRoutingRequest;
+import com.telenav.mesakit.navigation.routing.indexed.IndexedDijkstraRouter;
+import com.telenav.mesakit.navigation.routing.indexed.RoutingWorkspace;
+import com.telenav.mesakit.navigation.routing.limiters.CancellableRoutingLimiter;
+
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Finds routes for large batches of independent {@link RoutingPair}s concurrently against one loaded graph.
+ * <p>
+ * Pairs are read from a stream or iterator on a thread of their own and routed on a work-stealing {@link ForkJoinPool}
+ * owned by the service. The pool's threads live as long as the service, so routers that search with a per-thread
+ * {@link RoutingWorkspace}, like {@link IndexedDijkstraRouter}, reuse the same search state for every pair a thread
+ * routes. The router must be safe to use from many threads at once, as the routers in this module are.
+ * <p>
+ * Each pair is routed with a request made by the service's request factory from the pair and a new limiter from its
+ * limiter supplier. By default this is a {@link DijkstraRoutingRequest}, so routers that need a request of their own,
+ * like {@link BiDijkstraRouter} with its {@link BiDijkstraRoutingRequest}, must be given a factory that makes one.
+ * Results are passed to a consumer as they complete, on the thread that routed them, so the consumer must be
+ * thread-safe. {@link #submit(Iterator, Consumer)} returns a {@link BatchRoutingJob} at once, which can be used to wait
+ * for the batch, cancel it or look at its latency histogram. A job never has more than a fixed number of pairs pending,
+ * so a stream of pairs is consumed no faster than results are delivered.
+ * <p>
+ * The service should be closed when it is no longer needed to shut down its threads. Jobs still reading pairs when the
+ * service is closed, and jobs submitted after it is closed, are cancelled.
+ *
+ * @see BatchRoutingJob
+ * @see BatchRoutingResult
+ */
+public class BatchRoutingService extends BaseRepeater implements AutoCloseable
+{
+    /** The router to find routes with */
+    private final Router router;
+
+    /** Supplies a limiter for each pair */
+    private final Supplier<RoutingLimiter> limiters;
+
+    /** Makes the request for each pair, given its limiter */
+    private final BiFunction<RoutingPair, RoutingLimiter, RoutingRequest> requests;
+
+    /** The most pairs pending in a job at once */
+    private final Count maximumPending;
+
+    /** The threads that find routes */
+    private final ForkJoinPool workers;
+
+    /** The threads that read pairs for each job */
+    private final ExecutorService readers;
+
+    public BatchRoutingService(Router router, Count threads)
+    {
+        this(router, threads, Count.count(threads.asInt() * 8L), () -> RoutingLimiter.UNLIMITED);
+    }
+
+    public BatchRoutingService(Router router, Count threads, Count maximumPending, Supplier<RoutingLimiter> limiters)
+    {
+        this(router, threads, maximumPending, limiters,
+                (pair, limiter) -> new DijkstraRoutingRequest(pair.start(), pair.end()).withLimiter(limiter));
+    }
+
+    public BatchRoutingService(Router router,
+                               Count threads,
+                               Count maximumPending,
+                               Supplier<RoutingLimiter> limiters,
+                               BiFunction<RoutingPair, RoutingLimiter, RoutingRequest> requests)
+    {
+        this.router = router;
+        this.limiters = limiters;
+        this.requests = requests;
+        this.maximumPending = maximumPending;
+        workers = new ForkJoinPool(threads.asInt(), ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        readers = Executors.newCachedThreadPool(runnable ->
+        {
+            var thread = new Thread(runnable, "BatchRoutingReader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void close()
+    {
+        // Shut down the workers first, so readers still scheduling pairs are turned away and stop
+        Threads.shutdownAndAwaitTermination(workers);
+        Threads.shutdownAndAwaitTermination(readers);
+    }
+
+    /**
+     * Starts routing the given pairs, passing each result to the given consumer as it completes
+     */
+    public BatchRoutingJob submit(Iterator<RoutingPair> pairs, Consumer<BatchRoutingResult> results)
+    {
+        var job = new BatchRoutingJob(maximumPending);
+        try
+        {
+            readers.execute(() -> read(job, pairs, results));
+        }
+        catch (RejectedExecutionException e)
+        {
+            // If the service has been closed, no pairs will be read, so the job is cancelled and done
+            job.cancel();
+            job.read();
+        }
+        return job;
+    }
+
+    /**
+     * Starts routing the given pairs, passing each result to the given consumer as it completes
+     */
+    public BatchRoutingJob submit(Stream<RoutingPair> pairs, Consumer<BatchRoutingResult> results)
+    {
+        return submit(pairs.iterator(), results);
+    }
+
+    /**
+     * Reads pairs for the given job, scheduling each as there is room for it
+     */
+    private void read(BatchRoutingJob job, Iterator<RoutingPair> pairs, Consumer<BatchRoutingResult> results)
+    {
+        try
+        {
+            // While the job is going and there are pairs left
+            for (var index = 0L; !job.isCancelled() && pairs.hasNext(); index++)
+            {
+                // read the next pair
+                var pair = pairs.next();
+
+                // and when there's room for it,
+                if (!job.acquire())
+                {
+                    break;
+                }
+
+                // route it,
+                var at = index;
+                try
+                {
+                    workers.execute(() -> route(job, at, pair, results));
+                }
+                catch (RejectedExecutionException e)
+                {
+                    // unless the service has been closed, in which case the pair is released and the job cancelled.
+                    job.finished();
+                    job.cancel();
+                    break;
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            job.cancel();
+        }
+        catch (Exception e)
+        {
+            problem(e, "Unable to read routing pairs");
+            job.cancel();
+        }
+        finally
+        {
+            job.read();
+        }
+    }
+
+    /**
+     * Routes the given pair for the given job and delivers the result
+     */
+    private void route(BatchRoutingJob job, long index, RoutingPair pair, Consumer<BatchRoutingResult> results)
+    {
+        try
+        {
+            // If the job has not been cancelled
+            if (!job.isCancelled())
+            {
+                // find the route, halting if the job is cancelled while we're routing
+                var limiter = new CancellableRoutingLimiter(limiters.get(), job::isCancelled);
+                var request = requests.apply(pair, limiter);
+                RoutingResponse response = null;
+                Throwable error = null;
+                var start = System.nanoTime();
+                try
+                {
+                    response = router.findRoute(request);
+                }
+                catch (Exception e)
+                {
+                    error = e;
+                }
+                var result = new BatchRoutingResult(index, pair, response, System.nanoTime() - start, error);
+                job.record(result);
+
+                // and deliver the result.
+                try
+                {
+                    results.accept(result);
+                }
+                catch (Exception e)
+                {
+                    problem(e, "Batch routing result consumer failed on $", result);
+                }
+            }
+        }
+        finally
+        {
+            job.finished();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.batch;
+
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.value.count.Count;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds that can be recorded into from many threads at once. Values are
+ * counted in logarithmic buckets, each power of two being split into eight linear sub-buckets, so any percentile is
+ * reported to within 12.5% using a fixed 488 counters.
+ */
+public class LatencyHistogram
+{
+    /** The number of linear sub-buckets in each power of two, as a power of two */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /** The number of linear sub-buckets in each power of two */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** The count of values in each bucket */
+    private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BUCKET_BITS) * SUB_BUCKETS);
+
+    /** The number of values recorded */
+    private final AtomicLong count = new AtomicLong();
+
+    /** The sum of the values recorded */
+    private final AtomicLong total = new AtomicLong();
+
+    /** The largest value recorded */
+    private final LongAccumulator maximum = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Returns the number of latencies recorded
+     */
+    public Count count()
+    {
+        return Count.count(count.get());
+    }
+
+    /**
+     * Returns the largest latency recorded
+     */
+    public Duration maximum()
+    {
+        return duration(maximum.get());
+    }
+
+    /**
+     * Returns the mean latency
+     */
+    public Duration mean()
+    {
+        var count = this.count.get();
+        return duration(count == 0 ? 0 : total.get() / count);
+    }
+
+    /**
+     * Returns the latency that the given percentage (0 to 100) of recorded latencies are less than or equal to
+     */
+    public Duration percentile(double percent)
+    {
+        ensure(percent >= 0 && percent <= 100, "Percentile $ is not between 0 and 100", percent);
+
+        // Find the bucket containing the given rank
+        var rank = (long) Math.ceil(percent / 100.0 * count.get());
+        var seen = 0L;
+        for (var bucket = 0; bucket < counts.length(); bucket++)
+        {
+            seen += counts.get(bucket);
+            if (seen >= rank && seen > 0)
+            {
+                // and return its upper bound, but no more than the largest value recorded
+                return duration(Math.min(upperBound(bucket), maximum.get()));
+            }
+        }
+        return duration(maximum.get());
+    }
+
+    /**
+     * Records the given latency in nanoseconds
+     */
+    public void record(long nanoseconds)
+    {
+        var value = Math.max(0L, nanoseconds);
+        counts.incrementAndGet(bucket(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        maximum.accumulate(value);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[LatencyHistogram count = " + count() + ", mean = " + mean() + ", p50 = " + percentile(50)
+                + ", p99 = " + percentile(99) + ", maximum = " + maximum() + "]";
+    }
+
+    /**
+     * Returns the bucket for the given value. Values less than {@link #SUB_BUCKETS} have their own bucket, and larger
+     * values are bucketed by their highest bit and the {@link #SUB_BUCKET_BITS} bits after it.
+     */
+    private static int bucket(long value)
+    {
+        if (value < SUB_BUCKETS)
+        {
+            return (int) value;
+        }
+        var highest = 63 - Long.numberOfLeadingZeros(value);
+        var shift = highest - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    private static Duration duration(long nanoseconds)
+    {
+        return Duration.milliseconds(nanoseconds / 1_000_000.0);
+    }
+
+    /**
+     * Returns the largest value that falls in the given bucket
+     */
+    private static long upperBound(int bucket)
+    {
+        if (bucket < SUB_BUCKETS)
+        {
+            return bucket;
+        }
+        var shift = bucket / SUB_BUCKETS - 1;
+        var sub = bucket % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+}
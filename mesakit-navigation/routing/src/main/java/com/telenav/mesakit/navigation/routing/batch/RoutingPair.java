@@ -0,0 +1,54 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.batch;
+
+import com.telenav.mesakit.graph.Vertex;
+
+/**
+ * A start and end vertex to find a route between with a {@link BatchRoutingService}
+ */
+public class RoutingPair
+{
+    private final Vertex start;
+
+    private final Vertex end;
+
+    public RoutingPair(Vertex start, Vertex end)
+    {
+        this.start = start;
+        this.end = end;
+    }
+
+    public Vertex end()
+    {
+        return end;
+    }
+
+    public Vertex start()
+    {
+        return start;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[RoutingPair start = " + start + ", end = " + end + "]";
+    }
+}
@@ -18,7 +18,6 @@
 
 package com.telenav.mesakit.navigation.routing.bidijkstra;
 
-import com.telenav.kivakit.core.value.count.MutableCount;
 import com.telenav.kivakit.core.logging.Logger;
 import com.telenav.kivakit.core.logging.LoggerFactory;
 import com.telenav.kivakit.core.messaging.Debug;
@@ -32,7 +31,6 @@ import com.telenav.mesakit.navigation.routing.cost.RoutePermissionFunction;
 import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRouter;
 import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRoutingRequest;
 import com.telenav.mesakit.navigation.routing.dijkstra.Direction;
-import com.telenav.mesakit.navigation.routing.dijkstra.Meet;
 
 public class BiDijkstraRouter extends BaseRouter
 {
@@ -68,9 +66,15 @@ public class BiDijkstraRouter extends BaseRouter
     @Override
     public RoutingResponse onFindRoute(RoutingRequest request)
     {
-        // Get request as BiDijkstraRoutingRequest
-        var birequest = (BiDijkstraRoutingRequest) request;
+        return search((BiDijkstraRoutingRequest) request).meet();
+    }
 
+    /**
+     * Returns a started bidirectional search for the given request. Calling {@link BiDijkstraSearch#meet()} finds the
+     * route, after which the forward and backward search trees remain available for further use.
+     */
+    public BiDijkstraSearch search(BiDijkstraRoutingRequest request)
+    {
         // Construct forward and backwards routing requests
         var forward = new DijkstraRoutingRequest(request.start(), request.end())
                 .withDirection(Direction.FORWARD)
@@ -83,67 +87,14 @@ public class BiDijkstraRouter extends BaseRouter
                 .withLimiter(request.limiter());
 
         // Create router
-        var forwardRouter = router().withHeuristicCostFunction(birequest.forwardHeuristicCostFunction());
-        var backwardRouter = router().withHeuristicCostFunction(birequest.backwardHeuristicCostFunction());
+        var forwardRouter = router().withHeuristicCostFunction(request.forwardHeuristicCostFunction());
+        var backwardRouter = router().withHeuristicCostFunction(request.backwardHeuristicCostFunction());
 
         // Start routing
         forward.onStartRouting();
         backward.onStartRouting();
 
-        // The best meet we've found
-        Meet best = null;
-
-        // The number of meets we've found
-        var meets = new MutableCount();
-
-        // Flip route direction back and forth forever
-        for (var direction = Direction.FORWARD; ; direction = direction.reversed())
-        {
-            // execute the next step in either the forward or backward request
-            RoutingResponse result;
-            if (direction.isForward())
-            {
-                result = forwardRouter.execute(forward, 1);
-            }
-            else
-            {
-                result = backwardRouter.execute(backward, 1);
-            }
-
-            // If the forward request has just met the backward request
-            var meet = direction.isForward() ? forward.meet(backward) : backward.meet(forward);
-            if (meet != null)
-            {
-                // If we found the same route twice in a row
-                var sameRoute = meet.equals(best);
-
-                // If we have no best meet yet or this meet is cheaper than the best
-                if (best == null || meet.isCheaperThan(best))
-                {
-                    // then we have a new best meet
-                    best = meet;
-                }
-
-                // If (1) we've found the same route or (2) the number of meets so far is greater
-                // than the maximum allowed or (3) the meet cost is greater than the first meet's
-                // cost times the maximum first meet cost multiple
-                meets.increment();
-                if (sameRoute || meets.count().isGreaterThan(birequest.meets())
-                        || meet.cost().isGreaterThan(best.cost().times(birequest.maximumFirstMeetCostMultiple())))
-                {
-                    // then we stop because we're not likely to get a better meet
-                    return forward.done(best.route());
-                }
-            }
-
-            // If we didn't meet because of this step forward or backward and we've never met at all
-            // and our step failed
-            if (meet == null && meets.isZero() && result.failed())
-            {
-                // then it's time to give up because there's no way for us to succeed
-                return forward.failed();
-            }
-        }
+        return new BiDijkstraSearch(request, forward, backward, forwardRouter, backwardRouter);
     }
 
     public BiDijkstraRouter withEdgePermissionFunction(EdgePermissionFunction edgePermissionFunction)
@@ -0,0 +1,184 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.bidijkstra;
+
+import com.telenav.kivakit.core.value.count.MutableCount;
+import com.telenav.mesakit.navigation.routing.RoutingResponse;
+import com.telenav.mesakit.navigation.routing.cost.Cost;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRouter;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRoutingRequest;
+import com.telenav.mesakit.navigation.routing.dijkstra.Direction;
+import com.telenav.mesakit.navigation.routing.dijkstra.Meet;
+
+/**
+ * The forward and backward searches of a {@link BiDijkstraRouter}. The searches are stepped alternately by
+ * {@link #meet()} until they have found the best meeting point they are likely to find. After that, the search trees
+ * can be grown further with {@link #extend(Cost)} and examined through {@link #forward()} and {@link #backward()}, as is
+ * done by {@link com.telenav.mesakit.navigation.routing.alternatives.AlternativeRouteFinder} to find alternative routes
+ * without searching again.
+ */
+public class BiDijkstraSearch
+{
+    /** The request being searched */
+    private final BiDijkstraRoutingRequest request;
+
+    /** The forward search from the start */
+    private final DijkstraRoutingRequest forward;
+
+    /** The backward search from the end */
+    private final DijkstraRoutingRequest backward;
+
+    /** The router stepping the forward search */
+    private final DijkstraRouter forwardRouter;
+
+    /** The router stepping the backward search */
+    private final DijkstraRouter backwardRouter;
+
+    /** The best meet we've found */
+    private Meet best;
+
+    BiDijkstraSearch(BiDijkstraRoutingRequest request,
+                     DijkstraRoutingRequest forward,
+                     DijkstraRoutingRequest backward,
+                     DijkstraRouter forwardRouter,
+                     DijkstraRouter backwardRouter)
+    {
+        this.request = request;
+        this.forward = forward;
+        this.backward = backward;
+        this.forwardRouter = forwardRouter;
+        this.backwardRouter = backwardRouter;
+    }
+
+    /**
+     * Returns the backward search, whose settled vertex states lead to the end of the route
+     */
+    public DijkstraRoutingRequest backward()
+    {
+        return backward;
+    }
+
+    /**
+     * Returns the best meet found by {@link #meet()}, or null if the searches never met
+     */
+    public Meet best()
+    {
+        return best;
+    }
+
+    /**
+     * Continues both searches until every vertex either of them would settle next costs more than the given maximum, or
+     * until they run out of vertexes to settle
+     */
+    public void extend(Cost maximum)
+    {
+        var forwardDone = forward.isDone(maximum);
+        var backwardDone = backward.isDone(maximum);
+        while (!forwardDone || !backwardDone)
+        {
+            // If the forward search is still going, step it
+            if (!forwardDone)
+            {
+                forwardDone = step(forwardRouter, forward, maximum);
+            }
+
+            // and the same for the backward search
+            if (!backwardDone)
+            {
+                backwardDone = step(backwardRouter, backward, maximum);
+            }
+        }
+    }
+
+    /**
+     * Returns the forward search, whose settled vertex states lead from the start of the route
+     */
+    public DijkstraRoutingRequest forward()
+    {
+        return forward;
+    }
+
+    /**
+     * Steps the forward and backward searches alternately until they have met at the best vertex they are likely to
+     * find, returning the route through that vertex, or failure if the searches can't meet
+     */
+    public RoutingResponse meet()
+    {
+        // The number of meets we've found
+        var meets = new MutableCount();
+
+        // Flip route direction back and forth forever
+        for (var direction = Direction.FORWARD; ; direction = direction.reversed())
+        {
+            // execute the next step in either the forward or backward request
+            RoutingResponse result;
+            if (direction.isForward())
+            {
+                result = forwardRouter.execute(forward, 1);
+            }
+            else
+            {
+                result = backwardRouter.execute(backward, 1);
+            }
+
+            // If the forward request has just met the backward request
+            var meet = direction.isForward() ? forward.meet(backward) : backward.meet(forward);
+            if (meet != null)
+            {
+                // If we found the same route twice in a row
+                var sameRoute = meet.equals(best);
+
+                // If we have no best meet yet or this meet is cheaper than the best
+                if (best == null || meet.isCheaperThan(best))
+                {
+                    // then we have a new best meet
+                    best = meet;
+                }
+
+                // If (1) we've found the same route or (2) the number of meets so far is greater
+                // than the maximum allowed or (3) the meet cost is greater than the first meet's
+                // cost times the maximum first meet cost multiple
+                meets.increment();
+                if (sameRoute || meets.count().isGreaterThan(request.meets())
+                        || meet.cost().isGreaterThan(best.cost().times(request.maximumFirstMeetCostMultiple())))
+                {
+                    // then we stop because we're not likely to get a better meet
+                    return forward.done(best.route());
+                }
+            }
+
+            // If we didn't meet because of this step forward or backward and we've never met at all
+            // and our step failed
+            if (meet == null && meets.isZero() && result.failed())
+            {
+                // then it's time to give up because there's no way for us to succeed
+                return forward.failed();
+            }
+        }
+    }
+
+    /**
+     * Settles one vertex in the given search, returning true if the search is finished
+     */
+    private boolean step(DijkstraRouter router, DijkstraRoutingRequest search, Cost maximum)
+    {
+        return router.execute(search, 1).failed() || search.isDone(maximum);
+    }
+}
@@ -0,0 +1,312 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.contraction;
+
+import com.telenav.kivakit.core.messaging.Listener;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.filesystem.File;
+import com.telenav.kivakit.resource.Extension;
+import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.graph.io.archive.GraphArchive;
+import com.telenav.mesakit.navigation.routing.indexed.RoutingWorkspace;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+import static com.telenav.kivakit.core.ensure.Ensure.fail;
+
+/**
+ * The result of contracting the vertexes of a {@link Graph} for a given cost function, as produced by
+ * {@link ContractionHierarchyBuilder} and used by {@link ContractionHierarchyRouter}.
+ * <p>
+ * Each vertex is given a rank, the order in which it was contracted. The hierarchy holds a set of arcs, each of which
+ * is either an original directional edge of the graph or a shortcut that replaces a pair of arcs through a contracted
+ * vertex. Arcs leading from a lower ranked vertex to a higher ranked vertex are found in the <i>upward</i> adjacency of
+ * their from vertex, and all other arcs are found in the <i>downward</i> adjacency of their to vertex, so that both the
+ * forward search from the start of a route and the backward search from its end only ever move up in the hierarchy.
+ * All of this data is held in primitive arrays, and adjacency is stored in compressed sparse row form.
+ * <p>
+ * A hierarchy is saved as a sidecar file next to the {@link GraphArchive} it was built from, with
+ * {@link #save(File)}, and loaded again with {@link #load(File)}. The sidecar for a graph file is given by
+ * {@link #sidecar(File)}. A hierarchy records the number of vertexes and edges of its graph, and
+ * {@link #isFor(Graph)} can be used to check that a hierarchy matches a graph.
+ *
+ * @see ContractionHierarchyBuilder
+ * @see ContractionHierarchyRouter
+ */
+public class ContractionHierarchy
+{
+    /** The extension of contraction hierarchy sidecar files */
+    public static final Extension EXTENSION = Extension.parseExtension(Listener.consoleListener(), ".ch");
+
+    /** Marker for the start of a sidecar file ("MKCH") */
+    private static final int MAGIC = 0x4d4b4348;
+
+    /** The version of the sidecar file format */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Returns the contraction hierarchy sidecar file for the given graph file
+     */
+    public static File sidecar(File graphFile)
+    {
+        return graphFile.parent().file(graphFile.fileName().withExtension(EXTENSION));
+    }
+
+    /**
+     * Returns the contraction hierarchy sidecar file for the given graph, which must have been loaded from a file
+     */
+    public static File sidecar(Graph graph)
+    {
+        var resource = graph.resource();
+        if (resource instanceof File)
+        {
+            return sidecar((File) resource);
+        }
+        return fail("Graph $ was not loaded from a file", graph.name());
+    }
+
+    /**
+     * Returns the contraction hierarchy in the given sidecar file
+     */
+    public static ContractionHierarchy load(File file)
+    {
+        try (var in = new DataInputStream(new BufferedInputStream(file.openForReading())))
+        {
+            ensure(in.readInt() == MAGIC, "$ is not a contraction hierarchy", file);
+            var version = in.readInt();
+            ensure(version == FORMAT_VERSION, "Unsupported contraction hierarchy format $ in $", version, file);
+
+            var hierarchy = new ContractionHierarchy();
+            hierarchy.vertexCapacity = in.readInt();
+            hierarchy.edgeStoreSize = in.readInt();
+            hierarchy.rank = readInts(in);
+            hierarchy.arcFrom = readInts(in);
+            hierarchy.arcTo = readInts(in);
+            hierarchy.arcEdge = readInts(in);
+            hierarchy.arcFirst = readInts(in);
+            hierarchy.arcSecond = readInts(in);
+            hierarchy.arcCost = readDoubles(in);
+            hierarchy.upwardOffsets = readInts(in);
+            hierarchy.upwardArcs = readInts(in);
+            hierarchy.downwardOffsets = readInts(in);
+            hierarchy.downwardArcs = readInts(in);
+            return hierarchy;
+        }
+        catch (IOException e)
+        {
+            return fail(e, "Unable to load contraction hierarchy from $", file);
+        }
+    }
+
+    private static double[] readDoubles(DataInputStream in) throws IOException
+    {
+        var values = new double[in.readInt()];
+        for (var i = 0; i < values.length; i++)
+        {
+            values[i] = in.readDouble();
+        }
+        return values;
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException
+    {
+        var values = new int[in.readInt()];
+        for (var i = 0; i < values.length; i++)
+        {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    private static void write(DataOutputStream out, int[] values) throws IOException
+    {
+        out.writeInt(values.length);
+        for (var value : values)
+        {
+            out.writeInt(value);
+        }
+    }
+
+    private static void write(DataOutputStream out, double[] values) throws IOException
+    {
+        out.writeInt(values.length);
+        for (var value : values)
+        {
+            out.writeDouble(value);
+        }
+    }
+
+    /** The number of vertex indexes in the graph (vertex indexes start at one) */
+    int vertexCapacity;
+
+    /** The size of the graph's edge store */
+    int edgeStoreSize;
+
+    /** The contraction order of each vertex */
+    int[] rank;
+
+    /** The from vertex of each arc. Arc zero is unused. */
+    int[] arcFrom;
+
+    /** The to vertex of each arc */
+    int[] arcTo;
+
+    /** The directional edge index of each arc, or zero if the arc is a shortcut */
+    int[] arcEdge;
+
+    /** The first arc replaced by each shortcut */
+    int[] arcFirst;
+
+    /** The second arc replaced by each shortcut */
+    int[] arcSecond;
+
+    /** The cost of each arc */
+    double[] arcCost;
+
+    /** The start of each vertex's upward arcs in {@link #upwardArcs} */
+    int[] upwardOffsets;
+
+    /** Arcs leading to higher ranked vertexes, grouped by from vertex */
+    int[] upwardArcs;
+
+    /** The start of each vertex's downward arcs in {@link #downwardArcs} */
+    int[] downwardOffsets;
+
+    /** Arcs leading from higher ranked vertexes, grouped by to vertex */
+    int[] downwardArcs;
+
+    ContractionHierarchy()
+    {
+    }
+
+    /**
+     * Returns the number of arcs in this hierarchy, including shortcuts
+     */
+    public Count arcCount()
+    {
+        return Count.count(arcFrom.length - 1);
+    }
+
+    /**
+     * Returns true if this hierarchy has the same vertexes and edges as the given graph
+     */
+    public boolean isFor(Graph graph)
+    {
+        return vertexCapacity == RoutingWorkspace.vertexCapacity(graph) && edgeStoreSize == graph.edgeStore().size();
+    }
+
+    /**
+     * Returns the rank of the given vertex in this hierarchy
+     */
+    public int rank(int vertexIndex)
+    {
+        return rank[vertexIndex];
+    }
+
+    /**
+     * Saves this hierarchy to the given sidecar file
+     */
+    public void save(File file)
+    {
+        try (var out = new DataOutputStream(new BufferedOutputStream(file.openForWriting())))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(vertexCapacity);
+            out.writeInt(edgeStoreSize);
+            write(out, rank);
+            write(out, arcFrom);
+            write(out, arcTo);
+            write(out, arcEdge);
+            write(out, arcFirst);
+            write(out, arcSecond);
+            write(out, arcCost);
+            write(out, upwardOffsets);
+            write(out, upwardArcs);
+            write(out, downwardOffsets);
+            write(out, downwardArcs);
+        }
+        catch (IOException e)
+        {
+            fail(e, "Unable to save contraction hierarchy to $", file);
+        }
+    }
+
+    /**
+     * Returns the number of shortcut arcs in this hierarchy
+     */
+    public Count shortcutCount()
+    {
+        var shortcuts = 0;
+        for (var arc = 1; arc < arcEdge.length; arc++)
+        {
+            if (arcEdge[arc] == 0)
+            {
+                shortcuts++;
+            }
+        }
+        return Count.count(shortcuts);
+    }
+
+    /**
+     * Gives the directional edge index of each graph edge that the given arc stands for, in travel order, to the
+     * given consumer
+     */
+    void unpack(int arc, IntConsumer edges)
+    {
+        var stack = new int[16];
+        var size = 0;
+        stack[size++] = arc;
+        while (size > 0)
+        {
+            var at = stack[--size];
+            if (arcEdge[at] != 0)
+            {
+                edges.accept(arcEdge[at]);
+            }
+            else
+            {
+                if (size + 2 > stack.length)
+                {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+
+                // Push the second arc first so the first arc is unpacked first
+                stack[size++] = arcSecond[at];
+                stack[size++] = arcFirst[at];
+            }
+        }
+    }
+
+    /**
+     * Returns the number of vertex indexes in the graph this hierarchy was built for
+     */
+    int vertexCapacity()
+    {
+        return vertexCapacity;
+    }
+}
@@ -0,0 +1,537 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.contraction;
+
+import com.telenav.kivakit.core.messaging.repeaters.BaseRepeater;
+import com.telenav.kivakit.core.progress.ProgressReporter;
+import com.telenav.kivakit.core.progress.reporters.BroadcastingProgressReporter;
+import com.telenav.kivakit.core.time.Time;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.core.value.count.Maximum;
+import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.navigation.routing.cost.Cost;
+import com.telenav.mesakit.navigation.routing.cost.CostFunction;
+import com.telenav.mesakit.navigation.routing.indexed.IndexedPriorityQueue;
+import com.telenav.mesakit.navigation.routing.indexed.RoutingWorkspace;
+import com.telenav.mesakit.navigation.routing.indexed.SearchState;
+
+import java.util.Arrays;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * Builds a {@link ContractionHierarchy} for a {@link Graph} and a {@link CostFunction}. This is an offline step whose
+ * result is normally saved as a sidecar next to the graph's archive with {@link ContractionHierarchy#save}.
+ * <p>
+ * Vertexes are contracted one at a time in order of importance, where the importance of a vertex is the number of
+ * shortcuts its contraction would add, less the number of arcs it would remove, plus the number of its neighbors that
+ * have already been contracted (which spreads contraction evenly over the graph). Importance is kept in an
+ * {@link IndexedPriorityQueue} and updated lazily: when a vertex reaches the front of the queue its importance is
+ * recomputed, and if it is no longer the least important vertex it is queued again.
+ * <p>
+ * When a vertex is contracted, a shortcut is added between each pair of its remaining in and out neighbors unless a
+ * local witness search finds a path between them that avoids the vertex and is no more costly. Witness searches are
+ * limited to a maximum number of settled vertexes, which can only cause extra shortcuts, never wrong routes.
+ * <p>
+ * Costs are computed once for every directional edge with
+ * {@link CostFunction#costOf(com.telenav.mesakit.graph.Edge)}, and edges with maximum cost are left out. Because the
+ * hierarchy is vertex-based, it does not model turn restrictions or other route permissions.
+ *
+ * @see ContractionHierarchy
+ * @see ContractionHierarchyRouter
+ */
+public class ContractionHierarchyBuilder extends BaseRepeater
+{
+    /** The graph to contract */
+    private final Graph graph;
+
+    /** The cost of edges */
+    private final CostFunction costFunction;
+
+    /** The maximum number of vertexes a witness search may settle */
+    private final int witnessSettleLimit;
+
+    /** The number of vertex indexes in the graph */
+    private int vertexCapacity;
+
+    /** The from vertex of each arc */
+    private int[] arcFrom;
+
+    /** The to vertex of each arc */
+    private int[] arcTo;
+
+    /** The directional edge index of each arc, or zero for shortcuts */
+    private int[] arcEdge;
+
+    /** The first arc replaced by each shortcut */
+    private int[] arcFirst;
+
+    /** The second arc replaced by each shortcut */
+    private int[] arcSecond;
+
+    /** The cost of each arc */
+    private double[] arcCost;
+
+    /** The number of arcs, including the unused arc zero */
+    private int arcCount;
+
+    /** The arcs leaving each vertex */
+    private ArcList[] out;
+
+    /** The arcs arriving at each vertex */
+    private ArcList[] in;
+
+    /** True for each vertex that has been contracted */
+    private boolean[] contracted;
+
+    /** The number of contracted neighbors of each vertex */
+    private int[] contractedNeighbors;
+
+    /** The state of witness searches */
+    private SearchState witness;
+
+    public ContractionHierarchyBuilder(Graph graph, CostFunction costFunction)
+    {
+        this(graph, costFunction, Maximum.maximum(500));
+    }
+
+    public ContractionHierarchyBuilder(Graph graph, CostFunction costFunction, Maximum witnessSettleLimit)
+    {
+        ensure(!graph.isComposite(), "Contraction hierarchies are not supported for composite graphs");
+        this.graph = graph;
+        this.costFunction = costFunction;
+        this.witnessSettleLimit = witnessSettleLimit.asInt();
+    }
+
+    /**
+     * Returns a contraction hierarchy for the graph and cost function given to this builder
+     */
+    public ContractionHierarchy build()
+    {
+        var start = Time.now();
+        information("Contracting $ vertexes of $", graph.vertexCount(), graph.name());
+
+        // Add an arc for each directional edge
+        vertexCapacity = RoutingWorkspace.vertexCapacity(graph);
+        addEdges();
+
+        // Compute the initial importance of each vertex
+        var queue = new IndexedPriorityQueue(vertexCapacity);
+        for (var vertex = 1; vertex < vertexCapacity; vertex++)
+        {
+            queue.offer(vertex, importance(vertex));
+        }
+
+        // Contract vertexes in order of importance
+        var rank = new int[vertexCapacity];
+        var order = 0;
+        var progress = progress();
+        progress.steps(Count.count(vertexCapacity - 1).asMaximum());
+        progress.start();
+        while (!queue.isEmpty())
+        {
+            // Get the least important vertex
+            var vertex = queue.poll();
+
+            // and if its importance has gone up since it was queued
+            var importance = importance(vertex);
+            if (!queue.isEmpty() && importance > queue.peekPriority())
+            {
+                // then queue it again
+                queue.offer(vertex, importance);
+                continue;
+            }
+
+            // otherwise, contract it
+            contract(vertex);
+            rank[vertex] = order++;
+            progress.next();
+
+            // and update the importance of its neighbors
+            updateNeighbors(queue, out[vertex], true);
+            updateNeighbors(queue, in[vertex], false);
+        }
+        progress.end();
+
+        var hierarchy = hierarchy(rank);
+        information("Contracted $ with $ shortcuts in $", graph.name(), hierarchy.shortcutCount(), start.elapsedSince());
+        return hierarchy;
+    }
+
+    /**
+     * A growable list of arc numbers
+     */
+    private static class ArcList
+    {
+        private int[] arcs = new int[4];
+
+        private int size;
+
+        void add(int arc)
+        {
+            if (size == arcs.length)
+            {
+                arcs = Arrays.copyOf(arcs, size * 2);
+            }
+            arcs[size++] = arc;
+        }
+
+        int get(int index)
+        {
+            return arcs[index];
+        }
+
+        void replace(int oldArc, int newArc)
+        {
+            for (var index = 0; index < size; index++)
+            {
+                if (arcs[index] == oldArc)
+                {
+                    arcs[index] = newArc;
+                    return;
+                }
+            }
+        }
+
+        int size()
+        {
+            return size;
+        }
+    }
+
+    /**
+     * Adds an arc for each directional edge in the graph that can be traveled
+     */
+    private void addEdges()
+    {
+        var vertexes = vertexCapacity;
+        var edges = graph.edgeCount().asInt() + 1;
+        arcFrom = new int[edges];
+        arcTo = new int[edges];
+        arcEdge = new int[edges];
+        arcFirst = new int[edges];
+        arcSecond = new int[edges];
+        arcCost = new double[edges];
+        arcCount = 1;
+        out = new ArcList[vertexes];
+        in = new ArcList[vertexes];
+        for (var vertex = 0; vertex < vertexes; vertex++)
+        {
+            out[vertex] = new ArcList();
+            in[vertex] = new ArcList();
+        }
+        contracted = new boolean[vertexes];
+        contractedNeighbors = new int[vertexes];
+        witness = new SearchState(vertexes);
+
+        var edgeStore = graph.edgeStore();
+        for (var edge : graph.edges())
+        {
+            var cost = costFunction.costOf(edge);
+            if (!Cost.isMaximum(cost))
+            {
+                var from = edgeStore.retrieveFromVertexIdentifier(edge);
+                var to = edgeStore.retrieveToVertexIdentifier(edge);
+                if (from != to)
+                {
+                    addArc(from, to, cost, SearchState.directionalIndex(edge), 0, 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds an arc from one vertex to another unless there is already an arc between them that costs no more. If there
+     * is a more costly arc between them, the new arc replaces it.
+     */
+    private void addArc(int from, int to, double cost, int edge, int first, int second)
+    {
+        // If there is already an arc between the two vertexes
+        var existing = arcBetween(from, to);
+        if (existing != 0 && arcCost[existing] <= cost)
+        {
+            // that is at least as cheap, we're done
+            return;
+        }
+
+        // Store the new arc
+        if (arcCount == arcFrom.length)
+        {
+            var length = arcCount + arcCount / 2;
+            arcFrom = Arrays.copyOf(arcFrom, length);
+            arcTo = Arrays.copyOf(arcTo, length);
+            arcEdge = Arrays.copyOf(arcEdge, length);
+            arcFirst = Arrays.copyOf(arcFirst, length);
+            arcSecond = Arrays.copyOf(arcSecond, length);
+            arcCost = Arrays.copyOf(arcCost, length);
+        }
+        var arc = arcCount++;
+        arcFrom[arc] = from;
+        arcTo[arc] = to;
+        arcEdge[arc] = edge;
+        arcFirst[arc] = first;
+        arcSecond[arc] = second;
+        arcCost[arc] = cost;
+
+        // and either replace the existing arc with it or add it
+        if (existing != 0)
+        {
+            out[from].replace(existing, arc);
+            in[to].replace(existing, arc);
+        }
+        else
+        {
+            out[from].add(arc);
+            in[to].add(arc);
+        }
+    }
+
+    /**
+     * Returns the arc from one vertex to another, or zero if there is none
+     */
+    private int arcBetween(int from, int to)
+    {
+        var arcs = out[from];
+        for (var index = 0; index < arcs.size(); index++)
+        {
+            var arc = arcs.get(index);
+            if (arcTo[arc] == to)
+            {
+                return arc;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Contracts the given vertex, adding any shortcuts needed to preserve costs between its neighbors
+     */
+    private void contract(int vertex)
+    {
+        shortcuts(vertex, true);
+        contracted[vertex] = true;
+    }
+
+    /**
+     * Returns the contraction hierarchy for the arcs in this builder and the given vertex ranks
+     */
+    private ContractionHierarchy hierarchy(int[] rank)
+    {
+        // Count the upward and downward arcs of each vertex
+        var upwardOffsets = new int[vertexCapacity + 1];
+        var downwardOffsets = new int[vertexCapacity + 1];
+        for (var vertex = 1; vertex < vertexCapacity; vertex++)
+        {
+            var arcs = out[vertex];
+            for (var index = 0; index < arcs.size(); index++)
+            {
+                var arc = arcs.get(index);
+                if (rank[arcFrom[arc]] < rank[arcTo[arc]])
+                {
+                    upwardOffsets[arcFrom[arc] + 1]++;
+                }
+                else
+                {
+                    downwardOffsets[arcTo[arc] + 1]++;
+                }
+            }
+        }
+        for (var vertex = 0; vertex < vertexCapacity; vertex++)
+        {
+            upwardOffsets[vertex + 1] += upwardOffsets[vertex];
+            downwardOffsets[vertex + 1] += downwardOffsets[vertex];
+        }
+
+        // then place the arcs
+        var upwardArcs = new int[upwardOffsets[vertexCapacity]];
+        var downwardArcs = new int[downwardOffsets[vertexCapacity]];
+        var upwardNext = Arrays.copyOf(upwardOffsets, vertexCapacity);
+        var downwardNext = Arrays.copyOf(downwardOffsets, vertexCapacity);
+        for (var vertex = 1; vertex < vertexCapacity; vertex++)
+        {
+            var arcs = out[vertex];
+            for (var index = 0; index < arcs.size(); index++)
+            {
+                var arc = arcs.get(index);
+                if (rank[arcFrom[arc]] < rank[arcTo[arc]])
+                {
+                    upwardArcs[upwardNext[arcFrom[arc]]++] = arc;
+                }
+                else
+                {
+                    downwardArcs[downwardNext[arcTo[arc]]++] = arc;
+                }
+            }
+        }
+
+        var hierarchy = new ContractionHierarchy();
+        hierarchy.vertexCapacity = vertexCapacity;
+        hierarchy.edgeStoreSize = graph.edgeStore().size();
+        hierarchy.rank = rank;
+        hierarchy.arcFrom = Arrays.copyOf(arcFrom, arcCount);
+        hierarchy.arcTo = Arrays.copyOf(arcTo, arcCount);
+        hierarchy.arcEdge = Arrays.copyOf(arcEdge, arcCount);
+        hierarchy.arcFirst = Arrays.copyOf(arcFirst, arcCount);
+        hierarchy.arcSecond = Arrays.copyOf(arcSecond, arcCount);
+        hierarchy.arcCost = Arrays.copyOf(arcCost, arcCount);
+        hierarchy.upwardOffsets = upwardOffsets;
+        hierarchy.upwardArcs = upwardArcs;
+        hierarchy.downwardOffsets = downwardOffsets;
+        hierarchy.downwardArcs = downwardArcs;
+        return hierarchy;
+    }
+
+    /**
+     * Returns the importance of the given vertex, where less important vertexes are contracted first
+     */
+    private double importance(int vertex)
+    {
+        var removed = 0;
+        for (var index = 0; index < out[vertex].size(); index++)
+        {
+            if (!contracted[arcTo[out[vertex].get(index)]])
+            {
+                removed++;
+            }
+        }
+        for (var index = 0; index < in[vertex].size(); index++)
+        {
+            if (!contracted[arcFrom[in[vertex].get(index)]])
+            {
+                removed++;
+            }
+        }
+        return shortcuts(vertex, false) - removed + contractedNeighbors[vertex];
+    }
+
+    private ProgressReporter progress()
+    {
+        return isDeaf()
+                ? ProgressReporter.nullProgressReporter()
+                : BroadcastingProgressReporter.progressReporter(this, "vertexes");
+    }
+
+    /**
+     * Finds the shortcuts needed to contract the given vertex, adding them if add is true
+     *
+     * @return The number of shortcuts needed
+     */
+    private int shortcuts(int vertex, boolean add)
+    {
+        var shortcuts = 0;
+        var incoming = in[vertex];
+        var outgoing = out[vertex];
+
+        // Go through each arc into the vertex from a vertex that has not been contracted
+        for (var i = 0; i < incoming.size(); i++)
+        {
+            var inArc = incoming.get(i);
+            var from = arcFrom[inArc];
+            if (contracted[from])
+            {
+                continue;
+            }
+
+            // find the most costly path through the vertex from that neighbor
+            var maximumCost = 0.0;
+            for (var j = 0; j < outgoing.size(); j++)
+            {
+                var outArc = outgoing.get(j);
+                if (!contracted[arcTo[outArc]] && arcTo[outArc] != from)
+                {
+                    maximumCost = Math.max(maximumCost, arcCost[inArc] + arcCost[outArc]);
+                }
+            }
+
+            // search for witness paths that avoid the vertex
+            witnessSearch(from, vertex, maximumCost);
+
+            // and for each out neighbor
+            for (var j = 0; j < outgoing.size(); j++)
+            {
+                var outArc = outgoing.get(j);
+                var to = arcTo[outArc];
+                if (contracted[to] || to == from)
+                {
+                    continue;
+                }
+
+                // if there is no witness path
+                var cost = arcCost[inArc] + arcCost[outArc];
+                if (witness.cost(to) > cost)
+                {
+                    // we need a shortcut
+                    shortcuts++;
+                    if (add)
+                    {
+                        addArc(from, to, cost, 0, inArc, outArc);
+                    }
+                }
+            }
+        }
+        return shortcuts;
+    }
+
+    /**
+     * Increments the number of contracted neighbors of the vertexes at the ends of the given arcs and updates their
+     * importance if it has gone down
+     */
+    private void updateNeighbors(IndexedPriorityQueue queue, ArcList arcs, boolean outgoing)
+    {
+        for (var index = 0; index < arcs.size(); index++)
+        {
+            var arc = arcs.get(index);
+            var neighbor = outgoing ? arcTo[arc] : arcFrom[arc];
+            if (!contracted[neighbor])
+            {
+                contractedNeighbors[neighbor]++;
+                queue.offer(neighbor, importance(neighbor));
+            }
+        }
+    }
+
+    /**
+     * Searches from the given vertex, avoiding the vertex being contracted, until all vertexes within the given cost
+     * are settled or the settle limit is reached
+     */
+    private void witnessSearch(int from, int avoid, double maximumCost)
+    {
+        witness.reset(vertexCapacity);
+        witness.relax(from, 0.0, SearchState.NO_EDGE, 0.0);
+        while (!witness.isDone()
+                && witness.nextPriority() <= maximumCost
+                && witness.settledCount() < witnessSettleLimit)
+        {
+            var at = witness.settle();
+            var atCost = witness.cost(at);
+            var arcs = out[at];
+            for (var index = 0; index < arcs.size(); index++)
+            {
+                var arc = arcs.get(index);
+                var to = arcTo[arc];
+                if (to != avoid && !contracted[to])
+                {
+                    var cost = atCost + arcCost[arc];
+                    witness.relax(to, cost, arc, cost);
+                }
+            }
+        }
+    }
+}
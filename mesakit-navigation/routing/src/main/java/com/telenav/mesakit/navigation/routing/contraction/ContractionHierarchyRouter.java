@@ -0,0 +1,207 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.contraction;
+
+import com.telenav.mesakit.graph.Edge;
+import com.telenav.mesakit.graph.Route;
+import com.telenav.mesakit.navigation.routing.BaseRouter;
+import com.telenav.mesakit.navigation.routing.RoutingRequest;
+import com.telenav.mesakit.navigation.routing.RoutingResponse;
+import com.telenav.mesakit.navigation.routing.cost.Cost;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRoutingRequest;
+import com.telenav.mesakit.navigation.routing.dijkstra.Direction;
+import com.telenav.mesakit.navigation.routing.indexed.RoutingWorkspace;
+import com.telenav.mesakit.navigation.routing.indexed.SearchState;
+
+import java.util.ArrayList;
+
+import static com.telenav.kivakit.core.ensure.Ensure.fail;
+import static com.telenav.mesakit.navigation.routing.indexed.SearchState.NO_EDGE;
+
+/**
+ * Answers routing requests with a {@link ContractionHierarchy}. A forward search from the start vertex follows only
+ * upward arcs and a backward search from the end vertex follows only downward arcs in reverse, so both searches climb
+ * the hierarchy and meet at the most important vertex of the best route. The searches alternate, always settling the
+ * vertex with the lower cost, and each stops when its lowest queued cost is no less than the best route found so far.
+ * A vertex is not expanded if it can be reached more cheaply from a higher ranked vertex than by the path that reached
+ * it (stall-on-demand). The shortcuts in the resulting path of arcs are then unpacked into the graph's edges to
+ * produce a regular {@link Route}.
+ * <p>
+ * Search state comes from the calling thread's {@link RoutingWorkspace}, so a router can be shared by any number of
+ * threads. The cost of routes is fixed by the cost function the hierarchy was built with. Routing limiters and turn
+ * restrictions are not consulted, since the searches follow arcs rather than edges.
+ *
+ * @see ContractionHierarchy
+ * @see ContractionHierarchyBuilder
+ */
+public class ContractionHierarchyRouter extends BaseRouter
+{
+    /** The hierarchy to route with */
+    private final ContractionHierarchy hierarchy;
+
+    public ContractionHierarchyRouter(ContractionHierarchy hierarchy)
+    {
+        this.hierarchy = hierarchy;
+    }
+
+    @Override
+    public RoutingResponse onFindRoute(RoutingRequest request)
+    {
+        var graph = request.start().graph();
+        if (graph.isComposite() || !hierarchy.isFor(graph))
+        {
+            return fail("Contraction hierarchy does not match graph $", graph.name());
+        }
+
+        // Start routing
+        request.onStartRouting();
+
+        // Get the start and end vertex indexes (backward Dijkstra requests swap these, so swap them back)
+        var start = request.start().index();
+        var end = request.end().index();
+        if (request instanceof DijkstraRoutingRequest dijkstra && !dijkstra.direction().isForward())
+        {
+            var swap = start;
+            start = end;
+            end = swap;
+        }
+
+        // Seed the forward and backward searches
+        var workspace = RoutingWorkspace.get();
+        var forward = workspace.search(hierarchy.vertexCapacity(), Direction.FORWARD);
+        var backward = workspace.search(hierarchy.vertexCapacity(), Direction.BACKWARD);
+        forward.relax(start, 0.0, NO_EDGE, 0.0);
+        backward.relax(end, 0.0, NO_EDGE, 0.0);
+
+        // The best route found so far and the vertex where its two halves meet
+        var best = Double.POSITIVE_INFINITY;
+        var meet = 0;
+
+        while (true)
+        {
+            // Determine which searches can still find a better route
+            var forwardActive = !forward.isDone() && forward.nextPriority() < best;
+            var backwardActive = !backward.isDone() && backward.nextPriority() < best;
+            if (!forwardActive && !backwardActive)
+            {
+                break;
+            }
+
+            // and settle the next vertex from the cheaper of them
+            var isForward = forwardActive && (!backwardActive || forward.nextPriority() <= backward.nextPriority());
+            var search = isForward ? forward : backward;
+            var other = isForward ? backward : forward;
+            var at = search.settle();
+            var atCost = search.cost(at);
+            if (request.isDebugging())
+            {
+                request.debugger().onSettled(graph.dataSpecification().newVertex(graph, at), Cost.of(atCost));
+            }
+
+            // If the other search has reached this vertex, we may have a better route
+            if (other.isReached(at))
+            {
+                var cost = atCost + other.cost(at);
+                if (cost < best)
+                {
+                    best = cost;
+                    meet = at;
+                }
+            }
+
+            // Expand the vertex unless it is stalled
+            if (isForward)
+            {
+                if (!stalled(forward, at, atCost, hierarchy.downwardOffsets, hierarchy.downwardArcs, hierarchy.arcFrom))
+                {
+                    relax(forward, at, atCost, hierarchy.upwardOffsets, hierarchy.upwardArcs, hierarchy.arcTo);
+                }
+            }
+            else
+            {
+                if (!stalled(backward, at, atCost, hierarchy.upwardOffsets, hierarchy.upwardArcs, hierarchy.arcTo))
+                {
+                    relax(backward, at, atCost, hierarchy.downwardOffsets, hierarchy.downwardArcs, hierarchy.arcFrom);
+                }
+            }
+        }
+
+        // If the searches never met, there's no route
+        if (meet == 0)
+        {
+            return request.failed();
+        }
+
+        // Collect the arcs from the start to the meeting vertex
+        var arcs = new ArrayList<Integer>();
+        for (var vertex = meet; forward.predecessor(vertex) != NO_EDGE; vertex = hierarchy.arcFrom[forward.predecessor(vertex)])
+        {
+            arcs.add(0, forward.predecessor(vertex));
+        }
+
+        // and from the meeting vertex to the end
+        for (var vertex = meet; backward.predecessor(vertex) != NO_EDGE; vertex = hierarchy.arcTo[backward.predecessor(vertex)])
+        {
+            arcs.add(backward.predecessor(vertex));
+        }
+
+        // then unpack them into the edges of the route
+        var edgeStore = graph.edgeStore();
+        var edges = new ArrayList<Edge>();
+        for (var arc : arcs)
+        {
+            hierarchy.unpack(arc, index -> edges.add(edgeStore.edgeForIndex(index)));
+        }
+        return edges.isEmpty() ? request.failed() : request.done(Route.forEdges(edges));
+    }
+
+    /**
+     * Relaxes the given arcs of a vertex, where heads gives the vertex each arc leads to in the direction of the
+     * search
+     */
+    private void relax(SearchState search, int at, double atCost, int[] offsets, int[] arcs, int[] heads)
+    {
+        for (var index = offsets[at]; index < offsets[at + 1]; index++)
+        {
+            var arc = arcs[index];
+            var cost = atCost + hierarchy.arcCost[arc];
+            search.relax(heads[arc], cost, arc, cost);
+        }
+    }
+
+    /**
+     * Returns true if the given vertex can be reached more cheaply from a higher ranked vertex that the search has
+     * already reached than by the path the search took to it. The given arcs are those that lead into the vertex from
+     * higher ranked vertexes, and tails gives the vertex each arc comes from in the direction of the search.
+     */
+    private boolean stalled(SearchState search, int at, double atCost, int[] offsets, int[] arcs, int[] tails)
+    {
+        for (var index = offsets[at]; index < offsets[at + 1]; index++)
+        {
+            var arc = arcs[index];
+            var tail = tails[arc];
+            if (search.isReached(tail) && search.cost(tail) + hierarchy.arcCost[arc] < atCost)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -29,9 +29,20 @@ import com.telenav.kivakit.core.value.level.Weight;
  */
 public class Cost implements Comparable<Cost>
 {
+    /** The largest cost, as a primitive value */
+    public static final double MAXIMUM_VALUE = Integer.MAX_VALUE;
+
     public static final Cost ZERO = new Cost(0.0);
 
-    public static final Cost MAXIMUM = new Cost(Integer.MAX_VALUE);
+    public static final Cost MAXIMUM = new Cost(MAXIMUM_VALUE);
+
+    /**
+     * Returns the sum of the given primitive costs, no greater than {@link #MAXIMUM_VALUE}
+     */
+    public static double add(double a, double b)
+    {
+        return Math.min(MAXIMUM_VALUE, a + b);
+    }
 
     /**
      * Returns a cost of 1.0 minus the given cost value
@@ -41,6 +52,14 @@ public class Cost implements Comparable<Cost>
         return new Cost(1.0 - value);
     }
 
+    /**
+     * Returns true if the given primitive cost is {@link #MAXIMUM_VALUE}, meaning that an edge can't be traveled
+     */
+    public static boolean isMaximum(double cost)
+    {
+        return cost == MAXIMUM_VALUE;
+    }
+
     /**
      * Returns the given cost between 0.0 and 1.0, inclusive
      */
@@ -59,7 +78,7 @@ public class Cost implements Comparable<Cost>
 
     public Cost add(Cost that)
     {
-        return new Cost(Math.min(MAXIMUM.asDouble(), cost + that.cost));
+        return new Cost(add(cost, that.cost));
     }
 
     public double asDouble()
@@ -27,7 +27,8 @@ import com.telenav.mesakit.navigation.routing.cost.operators.Plus;
 import com.telenav.mesakit.navigation.routing.cost.operators.Weighted;
 
 /**
- * Cost function for determining the expense of traversing an edge.
+ * Cost function for determining the expense of traversing an edge. Costs are available as {@link Cost} objects from
+ * {@link #cost(Edge)} and as primitive values from {@link #costOf(Edge)}.
  *
  * @author jonathanl (shibo)
  */
@@ -38,6 +39,16 @@ public interface CostFunction
      */
     Cost cost(Edge edge);
 
+    /**
+     * Returns the cost of traveling along the given edge as a primitive value, where {@link Cost#MAXIMUM_VALUE} means
+     * the edge can't be traveled. This is the same value as {@link #cost(Edge)}, but cost functions that implement it
+     * directly don't allocate a {@link Cost} for each edge, which matters in the inner loops of routers.
+     */
+    default double costOf(Edge edge)
+    {
+        return cost(edge).asDouble();
+    }
+
     /**
      * Returns a cost function that returns the maximum of this cost function and that cost function
      */
@@ -45,10 +45,17 @@ public class TollRoadCostFunction implements CostFunction
     @Override
     public Cost cost(Edge edge)
     {
-        if (mode == TollRoadMode.AVOID_TOLL_ROADS && edge.isTollRoad())
-        {
-            return Cost.MAXIMUM;
-        }
-        return Cost.ZERO;
+        return isAvoided(edge) ? Cost.MAXIMUM : Cost.ZERO;
+    }
+
+    @Override
+    public double costOf(Edge edge)
+    {
+        return isAvoided(edge) ? Cost.MAXIMUM_VALUE : 0.0;
+    }
+
+    private boolean isAvoided(Edge edge)
+    {
+        return mode == TollRoadMode.AVOID_TOLL_ROADS && edge.isTollRoad();
     }
 }
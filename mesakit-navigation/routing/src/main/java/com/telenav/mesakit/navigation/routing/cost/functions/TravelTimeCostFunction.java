@@ -47,6 +47,12 @@ public class TravelTimeCostFunction implements CostFunction
     @Override
     public Cost cost(Edge edge)
     {
-        return Cost.of(Math.min(1.0, edge.travelTime().asMilliseconds() / fastestInMilliseconds));
+        return Cost.of(costOf(edge));
+    }
+
+    @Override
+    public double costOf(Edge edge)
+    {
+        return Math.min(1.0, edge.travelTimeInMilliseconds() / fastestInMilliseconds);
     }
 }
@@ -46,8 +46,12 @@ public class MaximumCost implements CostFunction
     @Override
     public Cost cost(Edge edge)
     {
-        var costA = a.cost(edge);
-        var costB = b.cost(edge);
-        return costA.maximum(costB);
+        return Cost.of(costOf(edge));
+    }
+
+    @Override
+    public double costOf(Edge edge)
+    {
+        return Math.max(a.costOf(edge), b.costOf(edge));
     }
 }
@@ -46,8 +46,12 @@ public class Plus implements CostFunction
     @Override
     public Cost cost(Edge edge)
     {
-        var costA = a.cost(edge);
-        var costB = b.cost(edge);
-        return costA.add(costB);
+        return Cost.of(costOf(edge));
+    }
+
+    @Override
+    public double costOf(Edge edge)
+    {
+        return Cost.add(a.costOf(edge), b.costOf(edge));
     }
 }
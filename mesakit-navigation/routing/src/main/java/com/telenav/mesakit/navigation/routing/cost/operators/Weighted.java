@@ -48,6 +48,12 @@ public class Weighted implements CostFunction
     @Override
     public Cost cost(Edge edge)
     {
-        return costFunction.cost(edge).weighted(weight);
+        return Cost.of(costOf(edge));
+    }
+
+    @Override
+    public double costOf(Edge edge)
+    {
+        return costFunction.costOf(edge) * weight.asZeroToOne();
     }
 }
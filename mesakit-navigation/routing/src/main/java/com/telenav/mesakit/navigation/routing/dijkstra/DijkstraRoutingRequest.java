@@ -25,13 +25,14 @@ import com.telenav.mesakit.graph.collections.EdgeSet;
 import com.telenav.mesakit.navigation.routing.RoutingDebugger;
 import com.telenav.mesakit.navigation.routing.RoutingLimiter;
 import com.telenav.mesakit.navigation.routing.RoutingRequest;
-import com.telenav.mesakit.navigation.routing.RoutingResponse;
 import com.telenav.mesakit.navigation.routing.bidijkstra.BiDijkstraRouter;
+import com.telenav.mesakit.navigation.routing.cost.Cost;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.TreeSet;
+import java.util.function.Consumer;
 
 public class DijkstraRoutingRequest extends RoutingRequest
 {
@@ -74,22 +75,32 @@ public class DijkstraRoutingRequest extends RoutingRequest
         return direction;
     }
 
-    public RoutingResponse done(Route route)
-    {
-        var response = new RoutingResponse(route, elapsed());
-        onEndRouting(response);
-        return response;
-    }
-
     @Override
     public Vertex end()
     {
         return isForward() ? super.end() : super.start();
     }
 
-    public RoutingResponse failed()
+    /**
+     * Calls the given consumer with the state of each vertex settled so far
+     */
+    public void forEachSettled(Consumer<VertexState> consumer)
     {
-        return done(null);
+        for (var vertexState : state.values())
+        {
+            if (vertexState.isSettled())
+            {
+                consumer.accept(vertexState);
+            }
+        }
+    }
+
+    /**
+     * Returns true if there are no more vertexes to settle that cost less than the given maximum
+     */
+    public boolean isDone(Cost maximum)
+    {
+        return queue.isEmpty() || queue.first().cost().isGreaterThan(maximum);
     }
 
     /**
@@ -151,6 +162,15 @@ public class DijkstraRoutingRequest extends RoutingRequest
         return settled;
     }
 
+    /**
+     * Returns the state of the given vertex if it has been settled, or null if it has not
+     */
+    public VertexState settled(Vertex vertex)
+    {
+        var vertexState = state.get(vertex);
+        return vertexState != null && vertexState.isSettled() ? vertexState : null;
+    }
+
     @Override
     public Vertex start()
     {
@@ -100,6 +100,15 @@ public class VertexState implements Comparable<VertexState>
         return settled;
     }
 
+    /**
+     * Returns the state of the vertex before this one on the way from the start of the search, or null if this is the
+     * first vertex
+     */
+    public VertexState previous()
+    {
+        return previous;
+    }
+
     public void relax(VertexState previous, Cost cost, Cost heuristicCost)
     {
         this.previous = previous;
@@ -0,0 +1,293 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.indexed;
+
+import com.telenav.kivakit.core.logging.Logger;
+import com.telenav.kivakit.core.logging.LoggerFactory;
+import com.telenav.mesakit.graph.Edge;
+import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.graph.Route;
+import com.telenav.mesakit.graph.Vertex;
+import com.telenav.mesakit.graph.world.WorldVertex;
+import com.telenav.mesakit.navigation.routing.BaseRouter;
+import com.telenav.mesakit.navigation.routing.LevelPromoter;
+import com.telenav.mesakit.navigation.routing.RoutingRequest;
+import com.telenav.mesakit.navigation.routing.RoutingResponse;
+import com.telenav.mesakit.navigation.routing.cost.Cost;
+import com.telenav.mesakit.navigation.routing.cost.CostFunction;
+import com.telenav.mesakit.navigation.routing.cost.EdgePermissionFunction;
+import com.telenav.mesakit.navigation.routing.cost.RoutePermissionFunction;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRouter;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRoutingRequest;
+import com.telenav.mesakit.navigation.routing.dijkstra.Direction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static com.telenav.kivakit.core.ensure.Ensure.fail;
+import static com.telenav.mesakit.navigation.routing.cost.EdgePermissionFunction.Permission.MAYBE;
+import static com.telenav.mesakit.navigation.routing.indexed.SearchState.NO_EDGE;
+import static com.telenav.mesakit.navigation.routing.indexed.SearchState.directionalIndex;
+
+/**
+ * Dijkstra routing with search state keyed by vertex index. This router finds the same routes as {@link DijkstraRouter}
+ * and accepts the same cost functions, heuristic, permission functions and level promoter, but instead of a map of
+ * {@link Vertex} objects to vertex state objects in a {@link java.util.TreeSet}, it keeps costs, predecessor edges and
+ * settled flags in primitive arrays and queues vertexes in an {@link IndexedPriorityQueue} with decrease-key. The
+ * arrays live in the calling thread's {@link RoutingWorkspace}, so once a thread's workspace has grown to the size of
+ * the graph, a request only allocates when the final {@link Route} is built (or when a turn restriction has to be
+ * checked against the route so far).
+ * <p>
+ * If a {@link DijkstraRoutingRequest} is given, its {@link Direction} is respected. Other requests are routed forward.
+ * Routing between the vertexes of a composite graph, like a world graph, is not supported, since vertex indexes are
+ * only unique within a single graph.
+ *
+ * @see RoutingWorkspace
+ * @see SearchState
+ */
+public class IndexedDijkstraRouter extends BaseRouter
+{
+    private static final Logger LOGGER = LoggerFactory.newLogger();
+
+    /** The cost function for edges in route */
+    private final CostFunction costFunction;
+
+    /** The heuristic cost function, if any */
+    private CostFunction heuristicCostFunction;
+
+    /** Any route permission function for determining turn restrictions, for example */
+    private RoutePermissionFunction routePermissionFunction = RoutePermissionFunction.NULL;
+
+    /** Any edge permission function for determining if an edge could be restricted */
+    private EdgePermissionFunction edgePermissionFunction = EdgePermissionFunction.NULL;
+
+    /** Any level promoter */
+    private LevelPromoter levelPromoter = LevelPromoter.NULL;
+
+    public IndexedDijkstraRouter(CostFunction costFunction)
+    {
+        this.costFunction = costFunction;
+    }
+
+    private IndexedDijkstraRouter(IndexedDijkstraRouter that)
+    {
+        costFunction = that.costFunction;
+        routePermissionFunction = that.routePermissionFunction;
+        edgePermissionFunction = that.edgePermissionFunction;
+        levelPromoter = that.levelPromoter;
+        heuristicCostFunction = that.heuristicCostFunction;
+    }
+
+    @Override
+    public RoutingResponse onFindRoute(RoutingRequest request)
+    {
+        if (request.start() instanceof WorldVertex)
+        {
+            return fail("Indexed routing is not supported for composite graphs");
+        }
+
+        // Start routing
+        request.onStartRouting();
+
+        // Get the graph, the direction and a search state from this thread's workspace
+        var graph = request.start().graph();
+        var edgeStore = graph.edgeStore();
+        var adjacency = graph.vertexStore().adjacency();
+        var direction = request instanceof DijkstraRoutingRequest dijkstra ? dijkstra.direction() : Direction.FORWARD;
+        var forward = direction.isForward();
+        var search = RoutingWorkspace.get().search(graph, direction);
+
+        // The start and end of the search (for a backward search these are swapped by the request)
+        var start = request.start().index();
+        var end = request.end().index();
+
+        // Seed the search with the start vertex
+        search.relax(start, 0.0, NO_EDGE, 0.0);
+
+        // While we have vertexes to process
+        while (!search.isDone())
+        {
+            // get the next vertex and mark it as settled
+            var at = search.settle();
+            var atCost = search.cost(at);
+            if (request.isDebugging())
+            {
+                request.debugger().onSettled(vertex(graph, at), Cost.of(atCost));
+            }
+
+            // update the level promoter
+            if (levelPromoter != LevelPromoter.NULL)
+            {
+                var predecessor = search.predecessor(at);
+                levelPromoter.onSettle(predecessor == NO_EDGE ? null : edgeStore.edgeForIndex(predecessor));
+            }
+
+            // If we reached the goal
+            if (at == end)
+            {
+                // we're done, so call the debugger and return the result
+                return request.done(route(graph, search, at, forward));
+            }
+
+            // Go through each candidate edge leaving the vertex we're at
+            var first = forward ? adjacency.outStart(at) : adjacency.inStart(at);
+            var last = forward ? adjacency.outEnd(at) : adjacency.inEnd(at);
+            for (var offset = first; offset < last; offset++)
+            {
+                // Get the next vertex we can reach via this edge, and skip it if it's already settled
+                var next = forward ? adjacency.outTarget(offset) : adjacency.inSource(offset);
+                if (search.isSettled(next))
+                {
+                    continue;
+                }
+
+                // Get the candidate edge, which is only created once we know it leads somewhere new
+                var candidate = edgeStore.edgeForIndex(forward ? adjacency.outEdge(offset) : adjacency.inEdge(offset));
+
+                // Get candidate cost, and if the cost is maximum, we can't go this way
+                var candidateCost = costFunction.costOf(candidate);
+                if (Cost.isMaximum(candidateCost))
+                {
+                    continue;
+                }
+
+                // If the level promoter says we should not explore this candidate, skip it
+                if (!levelPromoter.shouldExplore(candidate))
+                {
+                    continue;
+                }
+
+                // Ask the limiter what we should do with the edge
+                var instruction = request.limiter().instruction(candidate);
+                switch (instruction.meaning())
+                {
+                    case STOP_ROUTING:
+                        LOGGER.warning("Routing halted by ${class}: $", request.limiter().getClass(), instruction.message());
+                        return request.failed();
+
+                    case EXPLORE_EDGE:
+
+                        // If the candidate edge needs to be checked
+                        if (routePermissionFunction != RoutePermissionFunction.NULL
+                                && edgePermissionFunction.allowed(candidate) == MAYBE)
+                        {
+                            // check if adding the candidate forms an allowed route
+                            var route = route(graph, search, at, forward);
+                            if (route != null && !routePermissionFunction.allowed(direction.concatenate(route, candidate)))
+                            {
+                                // and this candidate forms a bad route, so skip it
+                                continue;
+                            }
+                        }
+
+                        // Relax the edge if it's a cheaper way to get to next
+                        levelPromoter.onRelax(candidate);
+                        var cost = Cost.add(atCost, candidateCost);
+                        var priority = heuristicCostFunction == null ? cost : atCost + heuristicCostFunction.costOf(candidate);
+                        if (search.relax(next, cost, directionalIndex(candidate), priority) && request.isDebugging())
+                        {
+                            var relaxed = route(graph, search, next, forward);
+                            if (relaxed != null)
+                            {
+                                request.onRelaxed(relaxed, Cost.of(cost));
+                            }
+                        }
+                        break;
+
+                    case IGNORE_EDGE:
+                        break;
+                }
+            }
+        }
+
+        // No route was found
+        return request.failed();
+    }
+
+    public IndexedDijkstraRouter withEdgePermissionFunction(EdgePermissionFunction edgePermissionFunction)
+    {
+        var router = new IndexedDijkstraRouter(this);
+        router.edgePermissionFunction = edgePermissionFunction;
+        return router;
+    }
+
+    public IndexedDijkstraRouter withHeuristicCostFunction(CostFunction heuristicCostFunction)
+    {
+        if (heuristicCostFunction != null)
+        {
+            var router = new IndexedDijkstraRouter(this);
+            router.heuristicCostFunction = heuristicCostFunction;
+            return router;
+        }
+        return this;
+    }
+
+    public IndexedDijkstraRouter withLevelPromoter(LevelPromoter levelPromoter)
+    {
+        var router = new IndexedDijkstraRouter(this);
+        router.levelPromoter = levelPromoter;
+        return router;
+    }
+
+    public IndexedDijkstraRouter withRoutePermissionFunction(RoutePermissionFunction routePermissionFunction)
+    {
+        var router = new IndexedDijkstraRouter(this);
+        router.routePermissionFunction = routePermissionFunction;
+        return router;
+    }
+
+    /**
+     * Returns the route to the given vertex by following predecessor edges back to the start of the search, or null if
+     * the vertex is the start of the search
+     */
+    public static Route route(Graph graph, SearchState search, int vertexIndex, boolean forward)
+    {
+        var edgeStore = graph.edgeStore();
+        var edges = new ArrayList<Edge>();
+        for (var predecessor = search.predecessor(vertexIndex); predecessor != NO_EDGE; )
+        {
+            var edge = edgeStore.edgeForIndex(predecessor);
+            edges.add(edge);
+            vertexIndex = forward
+                    ? edgeStore.retrieveFromVertexIdentifier(edge)
+                    : edgeStore.retrieveToVertexIdentifier(edge);
+            predecessor = search.predecessor(vertexIndex);
+        }
+        if (edges.isEmpty())
+        {
+            return null;
+        }
+
+        // A forward search discovers the route from its end back to its start
+        if (forward)
+        {
+            Collections.reverse(edges);
+        }
+        return Route.forEdges(edges);
+    }
+
+    /**
+     * Returns the vertex for the given index
+     */
+    public static Vertex vertex(Graph graph, int vertexIndex)
+    {
+        return graph.dataSpecification().newVertex(graph, vertexIndex);
+    }
+}
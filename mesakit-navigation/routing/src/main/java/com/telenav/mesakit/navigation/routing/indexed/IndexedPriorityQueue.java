@@ -0,0 +1,229 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.indexed;
+
+import java.util.Arrays;
+
+/**
+ * A 4-ary minimum heap of int elements in the range [0, capacity) ordered by double priority. Because the position of
+ * each element in the heap is tracked, the priority of an element that is already queued can be decreased in O(log n)
+ * time without removing and re-adding it, as is necessary with a {@link java.util.TreeSet}.
+ * <p>
+ * The queue allocates only when its capacity grows. Clearing the queue is proportional to the number of elements
+ * still queued, not to its capacity, so a single queue can be reused efficiently for many searches.
+ */
+public class IndexedPriorityQueue
+{
+    /** Number of children of each heap node */
+    private static final int ARITY = 4;
+
+    /** Position value for elements that are not in the queue */
+    private static final int ABSENT = -1;
+
+    /** The elements in heap order */
+    private int[] heap;
+
+    /** The priority of each heap slot */
+    private double[] priorities;
+
+    /** The position of each element in the heap, or {@link #ABSENT} */
+    private int[] positions;
+
+    /** The number of elements in the heap */
+    private int size;
+
+    public IndexedPriorityQueue(int capacity)
+    {
+        heap = new int[Math.max(16, capacity)];
+        priorities = new double[heap.length];
+        positions = new int[Math.max(1, capacity)];
+        Arrays.fill(positions, ABSENT);
+    }
+
+    /**
+     * Returns the number of elements this queue can hold
+     */
+    public int capacity()
+    {
+        return positions.length;
+    }
+
+    /**
+     * Removes all elements from this queue
+     */
+    public void clear()
+    {
+        for (var slot = 0; slot < size; slot++)
+        {
+            positions[heap[slot]] = ABSENT;
+        }
+        size = 0;
+    }
+
+    /**
+     * Returns true if the given element is in this queue
+     */
+    public boolean contains(int element)
+    {
+        return positions[element] != ABSENT;
+    }
+
+    /**
+     * Grows this queue (if needed) so that it can hold elements in the range [0, capacity)
+     */
+    public void ensureCapacity(int capacity)
+    {
+        if (capacity > positions.length)
+        {
+            var oldLength = positions.length;
+            positions = Arrays.copyOf(positions, capacity);
+            Arrays.fill(positions, oldLength, capacity, ABSENT);
+        }
+    }
+
+    /**
+     * Returns true if there are no elements in this queue
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Adds the given element to this queue with the given priority, or if the element is already queued with a higher
+     * priority value, moves it up the heap to its new, lower priority.
+     *
+     * @return True if the element was added or its priority was decreased
+     */
+    public boolean offer(int element, double priority)
+    {
+        var position = positions[element];
+        if (position == ABSENT)
+        {
+            if (size == heap.length)
+            {
+                heap = Arrays.copyOf(heap, size * 2);
+                priorities = Arrays.copyOf(priorities, size * 2);
+            }
+            siftUp(size++, element, priority);
+            return true;
+        }
+        if (priority < priorities[position])
+        {
+            siftUp(position, element, priority);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the lowest priority value in this queue. The queue must not be empty.
+     */
+    public double peekPriority()
+    {
+        assert size > 0;
+        return priorities[0];
+    }
+
+    /**
+     * Removes and returns the element with the lowest priority value. The queue must not be empty.
+     */
+    public int poll()
+    {
+        assert size > 0;
+        var first = heap[0];
+        positions[first] = ABSENT;
+        if (--size > 0)
+        {
+            siftDown(0, heap[size], priorities[size]);
+        }
+        return first;
+    }
+
+    /**
+     * Returns the number of elements in this queue
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Moves the "hole" at the given position down the heap until the given element and priority can be placed there
+     */
+    private void siftDown(int position, int element, double priority)
+    {
+        while (true)
+        {
+            var firstChild = position * ARITY + 1;
+            if (firstChild >= size)
+            {
+                break;
+            }
+
+            // Find the child with the lowest priority
+            var smallest = firstChild;
+            var lastChild = Math.min(firstChild + ARITY, size);
+            for (var child = firstChild + 1; child < lastChild; child++)
+            {
+                if (priorities[child] < priorities[smallest])
+                {
+                    smallest = child;
+                }
+            }
+
+            // and if it's not lower than the element we're placing, we've found the element's position
+            if (priorities[smallest] >= priority)
+            {
+                break;
+            }
+
+            // otherwise, move the child up into the hole and continue down the heap
+            place(position, heap[smallest], priorities[smallest]);
+            position = smallest;
+        }
+        place(position, element, priority);
+    }
+
+    /**
+     * Moves the "hole" at the given position up the heap until the given element and priority can be placed there
+     */
+    private void siftUp(int position, int element, double priority)
+    {
+        while (position > 0)
+        {
+            var parent = (position - 1) / ARITY;
+            if (priorities[parent] <= priority)
+            {
+                break;
+            }
+            place(position, heap[parent], priorities[parent]);
+            position = parent;
+        }
+        place(position, element, priority);
+    }
+
+    private void place(int position, int element, double priority)
+    {
+        heap[position] = element;
+        priorities[position] = priority;
+        positions[element] = position;
+    }
+}
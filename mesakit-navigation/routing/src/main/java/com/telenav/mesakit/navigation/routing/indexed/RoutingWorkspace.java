@@ -0,0 +1,116 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.indexed;
+
+import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.navigation.routing.dijkstra.Direction;
+
+/**
+ * Reusable, per-thread memory for index-based searches. A workspace holds a forward and a backward {@link SearchState}
+ * sized to the vertex indexes of a graph. The workspace for the current thread is obtained with {@link #get()}, and a
+ * search state is prepared for a new search on a graph with {@link #search(Graph, Direction)}. Because search states
+ * reset in constant time and only grow when a larger graph is searched, a thread can answer any number of routing
+ * requests without allocating search state.
+ * <p>
+ * A workspace must not be shared between threads, and a search state must not be used after the same thread asks
+ * its workspace for the state again.
+ *
+ * @see SearchState
+ * @see IndexedDijkstraRouter
+ */
+public class RoutingWorkspace
+{
+    /** The workspace for each thread */
+    private static final ThreadLocal<RoutingWorkspace> WORKSPACE = ThreadLocal.withInitial(RoutingWorkspace::new);
+
+    /**
+     * Returns the workspace for the calling thread
+     */
+    public static RoutingWorkspace get()
+    {
+        return WORKSPACE.get();
+    }
+
+    /**
+     * Returns the number of vertex indexes that a search state must hold for the given graph (vertex indexes start at
+     * one)
+     */
+    public static int vertexCapacity(Graph graph)
+    {
+        return graph.vertexStore().size() + 1;
+    }
+
+    /** State for forward searches */
+    private SearchState forward;
+
+    /** State for backward searches */
+    private SearchState backward;
+
+    /** Route lengths in millimeters, for searches that track length as well as cost */
+    private long[] lengths = new long[0];
+
+    /**
+     * Returns an array of at least the given capacity for route lengths in millimeters. The array is not cleared, so
+     * a search should only read the length of an element it has reached.
+     */
+    public long[] lengths(int capacity)
+    {
+        if (capacity > lengths.length)
+        {
+            lengths = new long[capacity];
+        }
+        return lengths;
+    }
+
+    /**
+     * Returns the search state for the given direction, reset for a new search over the vertexes of the given graph
+     */
+    public SearchState search(Graph graph, Direction direction)
+    {
+        return search(vertexCapacity(graph), direction);
+    }
+
+    /**
+     * Returns the search state for the given direction, reset for a new search over elements in the range [0,
+     * capacity)
+     */
+    public SearchState search(int capacity, Direction direction)
+    {
+        SearchState state;
+        if (direction.isForward())
+        {
+            if (forward == null)
+            {
+                forward = new SearchState(capacity);
+            }
+            state = forward;
+        }
+        else
+        {
+            if (backward == null)
+            {
+                backward = new SearchState(capacity);
+            }
+            state = backward;
+        }
+        state.reset(capacity);
+        return state;
+    }
+}
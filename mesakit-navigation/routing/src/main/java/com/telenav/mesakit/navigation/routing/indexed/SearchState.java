@@ -0,0 +1,213 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.indexed;
+
+import com.telenav.mesakit.graph.Edge;
+
+import java.util.Arrays;
+
+/**
+ * The state of a single shortest-path search, keyed by element index (a vertex index for node-based searches or a
+ * directional edge index for edge-based searches). For each element, the state holds the cost of the best known path
+ * to it, the directional index of the edge it was reached by, and whether it has been settled. The queue of elements
+ * that have been reached but not yet settled is an {@link IndexedPriorityQueue}.
+ * <p>
+ * Rather than clearing its arrays between searches, the state stamps each element with the number of the search that
+ * last touched it. Starting a new search with {@link #reset(int)} simply increments the search number, so resetting is
+ * O(1) and a state object can be reused indefinitely without allocation (see {@link RoutingWorkspace}).
+ *
+ * @see RoutingWorkspace
+ * @see IndexedPriorityQueue
+ */
+public class SearchState
+{
+    /** Predecessor value for an element that was not reached by way of an edge (the start of a search) */
+    public static final int NO_EDGE = 0;
+
+    /**
+     * Returns the index of the given edge, negated if the edge is a reverse edge. This is the same convention used by
+     * {@link com.telenav.mesakit.graph.specifications.common.edge.store.EdgeStore#edgeForIndex(int)}.
+     */
+    public static int directionalIndex(Edge edge)
+    {
+        return edge.isReverse() ? -edge.index() : edge.index();
+    }
+
+    /** The cost of reaching each element */
+    private double[] cost;
+
+    /** The directional index of the edge by which each element was reached */
+    private int[] predecessor;
+
+    /** The search number that last reached each element */
+    private int[] reached;
+
+    /** The search number that last settled each element */
+    private int[] settled;
+
+    /** The number of the current search */
+    private int search;
+
+    /** The number of elements settled in the current search */
+    private int settledCount;
+
+    /** The queue of reached elements that have not been settled yet */
+    private final IndexedPriorityQueue queue;
+
+    public SearchState(int capacity)
+    {
+        cost = new double[capacity];
+        predecessor = new int[capacity];
+        reached = new int[capacity];
+        settled = new int[capacity];
+        queue = new IndexedPriorityQueue(capacity);
+    }
+
+    /**
+     * Returns the number of elements this search state can hold
+     */
+    public int capacity()
+    {
+        return cost.length;
+    }
+
+    /**
+     * Returns the cost of the best known path to the given element, or {@link Double#POSITIVE_INFINITY} if the element
+     * has not been reached in this search
+     */
+    public double cost(int element)
+    {
+        return isReached(element) ? cost[element] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns true if there are no more elements to settle
+     */
+    public boolean isDone()
+    {
+        return queue.isEmpty();
+    }
+
+    /**
+     * Returns true if the given element has been reached in this search
+     */
+    public boolean isReached(int element)
+    {
+        return reached[element] == search;
+    }
+
+    /**
+     * Returns true if the given element has been settled in this search
+     */
+    public boolean isSettled(int element)
+    {
+        return settled[element] == search;
+    }
+
+    /**
+     * Returns the lowest priority of any element waiting to be settled. The search must not be done.
+     */
+    public double nextPriority()
+    {
+        return queue.peekPriority();
+    }
+
+    /**
+     * Returns the directional index of the edge by which the given element was reached, or {@link #NO_EDGE}
+     */
+    public int predecessor(int element)
+    {
+        return isReached(element) ? predecessor[element] : NO_EDGE;
+    }
+
+    /**
+     * Records the given cost and predecessor edge for the given element if the cost is lower than the best cost found
+     * so far, queueing the element with the given priority.
+     *
+     * @return True if the element was relaxed
+     */
+    public boolean relax(int element, double cost, int predecessor, double priority)
+    {
+        if (isReached(element))
+        {
+            if (isSettled(element) || cost >= this.cost[element])
+            {
+                return false;
+            }
+        }
+        else
+        {
+            reached[element] = search;
+        }
+        this.cost[element] = cost;
+        this.predecessor[element] = predecessor;
+        queue.offer(element, priority);
+        return true;
+    }
+
+    /**
+     * Starts a new search, growing this state if needed so it can hold elements in the range [0, capacity)
+     */
+    public void reset(int capacity)
+    {
+        if (capacity > cost.length)
+        {
+            cost = Arrays.copyOf(cost, capacity);
+            predecessor = Arrays.copyOf(predecessor, capacity);
+            reached = Arrays.copyOf(reached, capacity);
+            settled = Arrays.copyOf(settled, capacity);
+            queue.ensureCapacity(capacity);
+        }
+
+        queue.clear();
+        settledCount = 0;
+
+        // If the search number is about to wrap around
+        if (++search == Integer.MAX_VALUE)
+        {
+            // then stale stamps could be mistaken for current ones, so clear them and start over
+            Arrays.fill(reached, 0);
+            Arrays.fill(settled, 0);
+            search = 1;
+        }
+    }
+
+    /**
+     * Removes the element with the lowest priority from the queue and marks it as settled. The search must not be
+     * done.
+     *
+     * @return The settled element
+     */
+    public int settle()
+    {
+        var element = queue.poll();
+        settled[element] = search;
+        settledCount++;
+        return element;
+    }
+
+    /**
+     * Returns the number of elements settled so far in this search
+     */
+    public int settledCount()
+    {
+        return settledCount;
+    }
+}
@@ -0,0 +1,280 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.isochrone;
+
+import com.telenav.kivakit.core.value.level.Percent;
+import com.telenav.mesakit.graph.Edge;
+import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.graph.Vertex;
+import com.telenav.mesakit.map.geography.Location;
+import com.telenav.mesakit.map.geography.shape.polyline.Polygon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The part of a {@link Graph} that can be reached from an origin vertex within a budget, as found by
+ * {@link IsochroneEngine}. An isochrone holds each reachable vertex with the amount of the budget used to reach it,
+ * and each edge leaving a reachable vertex with the fraction of the edge that can be traveled before the budget runs
+ * out. An edge with a fraction of one can be traveled completely, and an edge with a smaller fraction is a
+ * <i>partial</i> edge at the edge of the reachable area.
+ * <p>
+ * The reachable area can be approximated as a {@link Polygon} with {@link #polygon()}, which is the convex hull of the
+ * reachable vertexes and the farthest reachable points along partial edges. A hull is cheap and never leaves out a
+ * reachable point, but it overstates the reachable area wherever the road network isn't convex, for example around a
+ * lake or along a single road out of town. Where the exact area matters, use the reachable edges and their fractions
+ * instead.
+ *
+ * @see IsochroneEngine
+ */
+public class Isochrone
+{
+    /** The graph that was searched */
+    private final Graph graph;
+
+    /** The vertex the search started from */
+    private final Vertex origin;
+
+    /** The budget, in the units of the search */
+    private final double budget;
+
+    /** The index of each reachable vertex */
+    private int[] vertexes = new int[64];
+
+    /** The amount of the budget used to reach each vertex */
+    private double[] vertexCosts = new double[64];
+
+    /** The number of reachable vertexes */
+    private int vertexCount;
+
+    /** The directional index of each reachable edge */
+    private int[] edges = new int[64];
+
+    /** The fraction of each edge that can be reached */
+    private double[] edgeFractions = new double[64];
+
+    /** The number of reachable edges */
+    private int edgeCount;
+
+    Isochrone(Vertex origin, double budget)
+    {
+        graph = origin.graph();
+        this.origin = origin;
+        this.budget = budget;
+    }
+
+    /**
+     * Returns the budget of the search, in the units it was given in (cost, milliseconds or millimeters)
+     */
+    public double budget()
+    {
+        return budget;
+    }
+
+    /**
+     * Returns the given reachable edge
+     */
+    public Edge edge(int index)
+    {
+        return graph.edgeStore().edgeForIndex(edges[index]);
+    }
+
+    /**
+     * Returns the number of reachable edges
+     */
+    public int edgeCount()
+    {
+        return edgeCount;
+    }
+
+    /**
+     * Returns the fraction of the given reachable edge, from its from vertex, that can be traveled within the budget
+     */
+    public double edgeFraction(int index)
+    {
+        return edgeFractions[index];
+    }
+
+    /**
+     * Returns true if only part of the given reachable edge can be traveled within the budget
+     */
+    public boolean isPartial(int index)
+    {
+        return edgeFractions[index] < 1.0;
+    }
+
+    /**
+     * Returns the vertex the search started from
+     */
+    public Vertex origin()
+    {
+        return origin;
+    }
+
+    /**
+     * Returns the convex hull of the reachable area, or null if the reachable area has fewer than three distinct
+     * points. The hull contains every reachable point, but it also contains any unreachable area between them, so it
+     * is an upper bound on the reachable area rather than its shape.
+     */
+    public Polygon polygon()
+    {
+        // Collect the locations of reachable vertexes and the farthest reachable point of each partial edge
+        var points = new long[vertexCount + edgeCount];
+        var size = 0;
+        for (var index = 0; index < vertexCount; index++)
+        {
+            points[size++] = point(vertex(index).location());
+        }
+        for (var index = 0; index < edgeCount; index++)
+        {
+            if (isPartial(index))
+            {
+                var shape = edge(index).roadShape();
+                points[size++] = point(shape.at(Percent.percent(edgeFractions[index] * 100.0)));
+            }
+        }
+
+        var hull = hull(Arrays.copyOf(points, size));
+        return hull.size() < 3 ? null : new Polygon(hull);
+    }
+
+    /**
+     * Returns the given reachable vertex
+     */
+    public Vertex vertex(int index)
+    {
+        return graph.dataSpecification().newVertex(graph, vertexes[index]);
+    }
+
+    /**
+     * Returns the amount of the budget used to reach the given vertex
+     */
+    public double vertexCost(int index)
+    {
+        return vertexCosts[index];
+    }
+
+    /**
+     * Returns the number of reachable vertexes
+     */
+    public int vertexCount()
+    {
+        return vertexCount;
+    }
+
+    /**
+     * Returns the vertex index of the given reachable vertex
+     */
+    public int vertexIndex(int index)
+    {
+        return vertexes[index];
+    }
+
+    void addEdge(int edge, double fraction)
+    {
+        if (edgeCount == edges.length)
+        {
+            edges = Arrays.copyOf(edges, edgeCount * 2);
+            edgeFractions = Arrays.copyOf(edgeFractions, edgeCount * 2);
+        }
+        edges[edgeCount] = edge;
+        edgeFractions[edgeCount] = fraction;
+        edgeCount++;
+    }
+
+    void addVertex(int vertex, double cost)
+    {
+        if (vertexCount == vertexes.length)
+        {
+            vertexes = Arrays.copyOf(vertexes, vertexCount * 2);
+            vertexCosts = Arrays.copyOf(vertexCosts, vertexCount * 2);
+        }
+        vertexes[vertexCount] = vertex;
+        vertexCosts[vertexCount] = cost;
+        vertexCount++;
+    }
+
+    /**
+     * Returns the cross product of the vectors from o to a and from o to b, which is positive if o, a and b turn
+     * counter-clockwise
+     */
+    private static double cross(long o, long a, long b)
+    {
+        return (double) (longitude(a) - longitude(o)) * (latitude(b) - latitude(o))
+                - (double) (latitude(a) - latitude(o)) * (longitude(b) - longitude(o));
+    }
+
+    /**
+     * Returns the convex hull of the given points using Andrew's monotone chain algorithm
+     */
+    private static List<Location> hull(long[] points)
+    {
+        // Sort the points by longitude and then latitude (see point())
+        Arrays.sort(points);
+
+        // then build the lower and upper hulls
+        var hull = new long[points.length * 2];
+        var size = 0;
+        for (var point : points)
+        {
+            while (size >= 2 && cross(hull[size - 2], hull[size - 1], point) <= 0)
+            {
+                size--;
+            }
+            hull[size++] = point;
+        }
+        var lower = size + 1;
+        for (var i = points.length - 2; i >= 0; i--)
+        {
+            while (size >= lower && cross(hull[size - 2], hull[size - 1], points[i]) <= 0)
+            {
+                size--;
+            }
+            hull[size++] = points[i];
+        }
+
+        var locations = new ArrayList<Location>();
+        for (var i = 0; i < size - 1; i++)
+        {
+            locations.add(Location.dm7(latitude(hull[i]), longitude(hull[i])));
+        }
+        return locations;
+    }
+
+    private static int latitude(long point)
+    {
+        return (int) ((point & 0xffff_ffffL) - 900_000_000L);
+    }
+
+    private static int longitude(long point)
+    {
+        return (int) (point >> 32);
+    }
+
+    /**
+     * Returns the given location as a long that sorts by longitude and then latitude. Latitude is offset to be
+     * non-negative so that it does not disturb the ordering of longitude.
+     */
+    private static long point(Location location)
+    {
+        return ((long) location.longitudeInDm7() << 32) | (location.latitudeInDm7() + 900_000_000L);
+    }
+}
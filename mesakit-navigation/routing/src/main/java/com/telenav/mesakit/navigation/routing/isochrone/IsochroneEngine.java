@@ -0,0 +1,182 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.isochrone;
+
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.mesakit.graph.Edge;
+import com.telenav.mesakit.graph.Vertex;
+import com.telenav.mesakit.map.measurements.geographic.Distance;
+import com.telenav.mesakit.navigation.routing.cost.Cost;
+import com.telenav.mesakit.navigation.routing.cost.CostFunction;
+import com.telenav.mesakit.navigation.routing.cost.functions.TravelTimeCostFunction;
+import com.telenav.mesakit.navigation.routing.dijkstra.Direction;
+import com.telenav.mesakit.navigation.routing.indexed.RoutingWorkspace;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+import static com.telenav.mesakit.navigation.routing.indexed.SearchState.NO_EDGE;
+import static com.telenav.mesakit.navigation.routing.indexed.SearchState.directionalIndex;
+
+/**
+ * Finds everything that can be reached from an origin vertex within a budget, producing an {@link Isochrone}. The
+ * budget can be given as:
+ *
+ * <ul>
+ *     <li>A {@link Cost}, in which case the search is ordered by the engine's {@link CostFunction} (for example, a
+ *     {@link TravelTimeCostFunction})</li>
+ *     <li>A {@link Duration}, in which case the search is ordered by the free-flow travel time of edges</li>
+ *     <li>A {@link Distance}, in which case the search is ordered by the length of edges</li>
+ * </ul>
+ * <p>
+ * In all cases, edges that the cost function gives the maximum cost (toll roads when avoiding tolls, for example)
+ * can't be traveled. The search settles vertexes in order until the budget is used up, and then records how much of
+ * each edge leaving a reachable vertex can be traveled with the budget that is left.
+ * <p>
+ * The engine holds no state of its own. Searches use the {@link RoutingWorkspace} of the calling thread, so any number
+ * of threads can share an engine, and apart from the result itself, a search allocates only the edge objects it
+ * iterates over.
+ *
+ * @see Isochrone
+ */
+public class IsochroneEngine
+{
+    /**
+     * The measure that a budget is given in
+     */
+    private enum Measure
+    {
+        COST,
+        TRAVEL_TIME,
+        LENGTH
+    }
+
+    /** The cost of edges, which also determines which edges can be traveled */
+    private final CostFunction costFunction;
+
+    public IsochroneEngine(CostFunction costFunction)
+    {
+        this.costFunction = costFunction;
+    }
+
+    /**
+     * Returns everything reachable from the given origin for no more than the given cost
+     */
+    public Isochrone reachable(Vertex origin, Cost budget)
+    {
+        return reachable(origin, budget.asDouble(), Measure.COST);
+    }
+
+    /**
+     * Returns everything reachable from the given origin by traveling no farther than the given distance
+     */
+    public Isochrone reachable(Vertex origin, Distance budget)
+    {
+        return reachable(origin, budget.asMillimeters(), Measure.LENGTH);
+    }
+
+    /**
+     * Returns everything reachable from the given origin within the given free-flow travel time
+     */
+    public Isochrone reachable(Vertex origin, Duration budget)
+    {
+        return reachable(origin, budget.asMilliseconds(), Measure.TRAVEL_TIME);
+    }
+
+    /**
+     * Returns everything reachable from the given origin within the given budget in the given measure
+     */
+    private Isochrone reachable(Vertex origin, double budget, Measure measure)
+    {
+        var graph = origin.graph();
+        ensure(!graph.isComposite(), "Isochrones are not supported for composite graphs");
+
+        var edgeStore = graph.edgeStore();
+        var adjacency = graph.vertexStore().adjacency();
+        var search = RoutingWorkspace.get().search(graph, Direction.FORWARD);
+        var isochrone = new Isochrone(origin, budget);
+
+        // Seed the search with the origin
+        search.relax(origin.index(), 0.0, NO_EDGE, 0.0);
+
+        // While there are vertexes within the budget
+        while (!search.isDone())
+        {
+            // settle the next one
+            var at = search.settle();
+            var atCost = search.cost(at);
+            isochrone.addVertex(at, atCost);
+
+            // and if there is any budget left
+            var remaining = budget - atCost;
+            if (remaining <= 0)
+            {
+                continue;
+            }
+
+            // go through the edges leaving it
+            for (int offset = adjacency.outStart(at), end = adjacency.outEnd(at); offset < end; offset++)
+            {
+                // skipping any that can't be traveled. Unlike the routers, which only create an edge once its target
+                // is known to be unsettled, every edge is created here, since cost functions weigh edge objects and
+                // even edges to settled vertexes are recorded as reachable.
+                var edge = edgeStore.edgeForIndex(adjacency.outEdge(offset));
+                var weight = weight(edge, measure);
+                if (weight < 0)
+                {
+                    continue;
+                }
+
+                // then record how much of the edge can be traveled
+                isochrone.addEdge(directionalIndex(edge), weight == 0 ? 1.0 : Math.min(1.0, remaining / weight));
+
+                // and if all of it can be, relax the vertex it leads to
+                var cost = atCost + weight;
+                if (cost <= budget)
+                {
+                    search.relax(adjacency.outTarget(offset), cost, directionalIndex(edge), cost);
+                }
+            }
+        }
+
+        return isochrone;
+    }
+
+    /**
+     * Returns the weight of the given edge in the given measure, or -1 if the edge can't be traveled
+     */
+    private double weight(Edge edge, Measure measure)
+    {
+        var cost = costFunction.costOf(edge);
+        if (Cost.isMaximum(cost))
+        {
+            return -1;
+        }
+        switch (measure)
+        {
+            case TRAVEL_TIME:
+                return edge.travelTimeInMilliseconds();
+
+            case LENGTH:
+                return edge.graph().edgeStore().retrieveLengthInMillimeters(edge);
+
+            default:
+                return cost;
+        }
+    }
+}
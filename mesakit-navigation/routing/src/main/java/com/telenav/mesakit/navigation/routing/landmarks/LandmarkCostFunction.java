@@ -0,0 +1,109 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.landmarks;
+
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.mesakit.graph.Edge;
+import com.telenav.mesakit.graph.Vertex;
+import com.telenav.mesakit.graph.specifications.common.edge.store.EdgeStore;
+import com.telenav.mesakit.navigation.routing.cost.Cost;
+import com.telenav.mesakit.navigation.routing.cost.CostFunction;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRouter;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * A* heuristic that uses {@link Landmarks} to bound the remaining cost to the end of a route (the ALT algorithm). The
+ * heuristic cost of an edge is the cost of the edge plus a lower bound on the cost of any route from the edge's to
+ * vertex to the end vertex, so that {@link DijkstraRouter#withHeuristicCostFunction(CostFunction)} orders vertexes by
+ * their cost so far plus their bounded remaining cost:
+ *
+ * <pre>
+ * var heuristic = new LandmarkCostFunction(landmarks, costFunction, start, end);
+ * var router = new DijkstraRouter(costFunction).withHeuristicCostFunction(heuristic);
+ * router.findRoute(new DijkstraRoutingRequest(start, end));</pre>
+ * <p>
+ * The bounds are admissible: as long as the landmarks were built with the same cost function (or one whose costs are
+ * never higher), a bound is never higher than the cost of the cheapest route to the end. They are not exactly
+ * consistent, because each landmark cost is rounded separately, but the error is at most one quantization step (the
+ * largest landmark cost divided by 2<sup>31</sup>). Routes found this way therefore cost the same as routes found
+ * without the heuristic to well within the precision of edge costs. Only the landmarks that give the best bound
+ * between the start and end are consulted for each edge, which is nearly as effective as using all of them and much
+ * cheaper.
+ * <p>
+ * A heuristic is specific to a single end vertex and to forward searches.
+ *
+ * @see Landmarks
+ * @see LandmarksBuilder
+ */
+public class LandmarkCostFunction implements CostFunction
+{
+    /** The default number of landmarks to consult for each edge */
+    private static final Count DEFAULT_ACTIVE_LANDMARKS = Count._4;
+
+    /** The landmarks */
+    private final Landmarks landmarks;
+
+    /** The cost of edges */
+    private final CostFunction costFunction;
+
+    /** The landmarks to use for bounds */
+    private final int[] active;
+
+    /** The end vertex of the route */
+    private final int end;
+
+    /** The edge store of the graph being routed on */
+    private final EdgeStore edgeStore;
+
+    public LandmarkCostFunction(Landmarks landmarks, CostFunction costFunction, Vertex start, Vertex end)
+    {
+        this(landmarks, costFunction, start, end, DEFAULT_ACTIVE_LANDMARKS);
+    }
+
+    public LandmarkCostFunction(Landmarks landmarks, CostFunction costFunction, Vertex start, Vertex end,
+                                Count activeLandmarks)
+    {
+        ensure(landmarks.isFor(end.graph()), "Landmarks do not match graph $", end.graph().name());
+        this.landmarks = landmarks;
+        this.costFunction = costFunction;
+        this.end = end.index();
+        edgeStore = end.graph().edgeStore();
+        active = landmarks.active(start, end, activeLandmarks);
+    }
+
+    @Override
+    public Cost cost(Edge edge)
+    {
+        return Cost.of(costOf(edge));
+    }
+
+    @Override
+    public double costOf(Edge edge)
+    {
+        var cost = costFunction.costOf(edge);
+        if (Cost.isMaximum(cost))
+        {
+            return cost;
+        }
+        var to = edgeStore.retrieveToVertexIdentifier(edge);
+        return Cost.add(cost, landmarks.lowerBound(to, end, active));
+    }
+}
@@ -0,0 +1,265 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.landmarks;
+
+import com.telenav.kivakit.core.messaging.Listener;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.filesystem.File;
+import com.telenav.kivakit.resource.Extension;
+import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.graph.Vertex;
+import com.telenav.mesakit.navigation.routing.cost.CostFunction;
+import com.telenav.mesakit.navigation.routing.indexed.RoutingWorkspace;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+import static com.telenav.kivakit.core.ensure.Ensure.fail;
+
+/**
+ * Precomputed route costs between a small set of landmark vertexes and every vertex of a {@link Graph}, as produced by
+ * {@link LandmarksBuilder}. By the triangle inequality, for any landmark L and vertexes v and t:
+ *
+ * <pre>
+ * cost(v, t) &gt;= cost(L, t) - cost(L, v)
+ * cost(v, t) &gt;= cost(v, L) - cost(t, L)</pre>
+ * <p>
+ * so the largest of these differences over all landmarks is a lower bound on the cost of any route from v to t, which
+ * is what {@link LandmarkCostFunction} gives to an A* search.
+ * <p>
+ * Costs are quantized to ints by a scale factor chosen so the largest cost uses the full range of an int, and each
+ * vertex's costs for all landmarks are packed next to each other in a single int array for each direction. This
+ * keeps the table at 8 bytes per vertex per landmark, and means that computing a bound reads adjacent values.
+ * Quantized costs are always rounded down, and one quantization step is taken off each difference to cover the
+ * rounding of the cost being subtracted, so bounds are admissible: never higher than the cost of the cheapest route.
+ * <p>
+ * Landmarks are saved as a sidecar file next to the graph file with {@link #save(File)} and loaded again with
+ * {@link #load(File)}. The sidecar file for a graph file is given by {@link #sidecar(File)}.
+ *
+ * @see LandmarksBuilder
+ * @see LandmarkCostFunction
+ */
+public class Landmarks
+{
+    /** The extension of landmark sidecar files */
+    public static final Extension EXTENSION = Extension.parseExtension(Listener.consoleListener(), ".landmarks");
+
+    /** Quantized cost value for vertexes that cannot be reached */
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /** Marker for the start of a sidecar file ("MKLM") */
+    private static final int MAGIC = 0x4d4b4c4d;
+
+    /** The version of the sidecar file format */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Returns the landmarks in the given sidecar file
+     */
+    public static Landmarks load(File file)
+    {
+        try (var in = new DataInputStream(new BufferedInputStream(file.openForReading())))
+        {
+            ensure(in.readInt() == MAGIC, "$ is not a landmarks file", file);
+            var version = in.readInt();
+            ensure(version == FORMAT_VERSION, "Unsupported landmarks format $ in $", version, file);
+
+            var landmarks = new Landmarks();
+            landmarks.vertexCapacity = in.readInt();
+            landmarks.edgeStoreSize = in.readInt();
+            landmarks.scale = in.readDouble();
+            landmarks.landmarks = readInts(in);
+            landmarks.fromLandmark = readInts(in);
+            landmarks.toLandmark = readInts(in);
+            return landmarks;
+        }
+        catch (IOException e)
+        {
+            return fail(e, "Unable to load landmarks from $", file);
+        }
+    }
+
+    /**
+     * Returns the landmarks sidecar file for the given graph file
+     */
+    public static File sidecar(File graphFile)
+    {
+        return graphFile.parent().file(graphFile.fileName().withExtension(EXTENSION));
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException
+    {
+        var values = new int[in.readInt()];
+        for (var i = 0; i < values.length; i++)
+        {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    private static void write(DataOutputStream out, int[] values) throws IOException
+    {
+        out.writeInt(values.length);
+        for (var value : values)
+        {
+            out.writeInt(value);
+        }
+    }
+
+    /** The number of vertex indexes in the graph (vertex indexes start at one) */
+    int vertexCapacity;
+
+    /** The size of the graph's edge store */
+    int edgeStoreSize;
+
+    /** The factor by which costs are multiplied before being rounded down to ints */
+    double scale;
+
+    /** The vertex index of each landmark */
+    int[] landmarks;
+
+    /** The quantized cost from each landmark to each vertex, at [vertex * landmarks + landmark] */
+    int[] fromLandmark;
+
+    /** The quantized cost from each vertex to each landmark, at [vertex * landmarks + landmark] */
+    int[] toLandmark;
+
+    Landmarks()
+    {
+    }
+
+    /**
+     * Returns the indexes of the given number of landmarks that give the highest lower bound for routes between the
+     * given vertexes. Bounds computed with just these landmarks are cheaper and nearly as good as bounds computed with
+     * all landmarks.
+     */
+    public int[] active(Vertex start, Vertex end, Count count)
+    {
+        var size = Math.min(count.asInt(), size());
+        var bounds = new double[size()];
+        var order = new Integer[size()];
+        for (var landmark = 0; landmark < size(); landmark++)
+        {
+            bounds[landmark] = lowerBound(start.index(), end.index(), landmark);
+            order[landmark] = landmark;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(bounds[b], bounds[a]));
+
+        var active = new int[size];
+        for (var i = 0; i < size; i++)
+        {
+            active[i] = order[i];
+        }
+        return active;
+    }
+
+    /**
+     * Returns true if these landmarks were built for the given graph
+     */
+    public boolean isFor(Graph graph)
+    {
+        return vertexCapacity == RoutingWorkspace.vertexCapacity(graph) && edgeStoreSize == graph.edgeStore().size();
+    }
+
+    /**
+     * Returns the vertex index of the given landmark
+     */
+    public int landmark(int landmark)
+    {
+        return landmarks[landmark];
+    }
+
+    /**
+     * Returns a lower bound on the cost of any route from one vertex to another using the given landmarks, in the
+     * units of the {@link CostFunction} these landmarks were built with
+     */
+    public double lowerBound(int from, int to, int[] active)
+    {
+        var best = 0.0;
+        for (var landmark : active)
+        {
+            best = Math.max(best, lowerBound(from, to, landmark));
+        }
+        return best;
+    }
+
+    /**
+     * Saves these landmarks to the given sidecar file
+     */
+    public void save(File file)
+    {
+        try (var out = new DataOutputStream(new BufferedOutputStream(file.openForWriting())))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(vertexCapacity);
+            out.writeInt(edgeStoreSize);
+            out.writeDouble(scale);
+            write(out, landmarks);
+            write(out, fromLandmark);
+            write(out, toLandmark);
+        }
+        catch (IOException e)
+        {
+            fail(e, "Unable to save landmarks to $", file);
+        }
+    }
+
+    /**
+     * Returns the number of landmarks
+     */
+    public int size()
+    {
+        return landmarks.length;
+    }
+
+    /**
+     * Returns a lower bound on the cost of any route between the given vertexes using a single landmark
+     */
+    private double lowerBound(int from, int to, int landmark)
+    {
+        var count = landmarks.length;
+        var bound = 0L;
+
+        // Bound from the costs from the landmark: cost(from, to) >= cost(L, to) - cost(L, from)
+        var landmarkToFrom = fromLandmark[from * count + landmark];
+        var landmarkToTo = fromLandmark[to * count + landmark];
+        if (landmarkToFrom != UNREACHABLE && landmarkToTo != UNREACHABLE)
+        {
+            bound = Math.max(bound, (long) landmarkToTo - landmarkToFrom - 1);
+        }
+
+        // Bound from the costs to the landmark: cost(from, to) >= cost(from, L) - cost(to, L)
+        var fromToLandmark = toLandmark[from * count + landmark];
+        var toToLandmark = toLandmark[to * count + landmark];
+        if (fromToLandmark != UNREACHABLE && toToLandmark != UNREACHABLE)
+        {
+            bound = Math.max(bound, (long) fromToLandmark - toToLandmark - 1);
+        }
+
+        // and scale the bound back, rounding down
+        return bound == 0 ? 0.0 : Math.nextDown(bound / scale);
+    }
+}
@@ -0,0 +1,244 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.landmarks;
+
+import com.telenav.kivakit.core.messaging.repeaters.BaseRepeater;
+import com.telenav.kivakit.core.time.Time;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.navigation.routing.cost.Cost;
+import com.telenav.mesakit.navigation.routing.cost.CostFunction;
+import com.telenav.mesakit.navigation.routing.indexed.RoutingWorkspace;
+import com.telenav.mesakit.navigation.routing.indexed.SearchState;
+
+import java.util.Arrays;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * Selects landmarks for a {@link Graph} and computes the cost of routes from and to each landmark for every vertex
+ * under a given {@link CostFunction}. The resulting {@link Landmarks} give lower bounds for any cost function whose
+ * costs are never lower than those of the cost function used here.
+ * <p>
+ * Landmarks are chosen by farthest selection: the first landmark is the vertex farthest from an arbitrary vertex, and
+ * each following landmark is the vertex whose nearest landmark is farthest away. Landmarks chosen this way lie on the
+ * edges of the graph, behind most routes as seen from most vertexes, which is where they give the best bounds.
+ * <p>
+ * Two full searches are needed for each landmark, one forward over out edges and one backward over in edges, so
+ * building landmarks takes a while for a large graph. This is an offline step whose result is normally saved as a
+ * sidecar next to the graph's archive with {@link Landmarks#save}.
+ *
+ * @see Landmarks
+ * @see LandmarkCostFunction
+ */
+public class LandmarksBuilder extends BaseRepeater
+{
+    /** The graph to build landmarks for */
+    private final Graph graph;
+
+    /** The cost of edges */
+    private final CostFunction costFunction;
+
+    /** The number of landmarks to select */
+    private final int count;
+
+    public LandmarksBuilder(Graph graph, CostFunction costFunction, Count count)
+    {
+        ensure(!graph.isComposite(), "Landmarks are not supported for composite graphs");
+        ensure(count.asInt() > 0, "At least one landmark is required");
+        this.graph = graph;
+        this.costFunction = costFunction;
+        this.count = count.asInt();
+    }
+
+    /**
+     * Returns landmarks for the graph and cost function given to this builder
+     */
+    public Landmarks build()
+    {
+        var start = Time.now();
+        information("Selecting $ landmarks for $", count, graph.name());
+
+        var vertexCapacity = RoutingWorkspace.vertexCapacity(graph);
+        var search = new SearchState(vertexCapacity);
+        var from = new double[count][];
+        var to = new double[count][];
+        var landmarks = new int[count];
+
+        // The cost from the nearest landmark to each vertex so far
+        var nearest = new double[vertexCapacity];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+
+        // Start the selection from the vertex farthest from the first vertex
+        var landmark = farthest(search(search, 1, true), null);
+        for (var index = 0; index < count && landmark > 0; index++)
+        {
+            // Compute the costs from and to the landmark
+            landmarks[index] = landmark;
+            from[index] = search(search, landmark, true);
+            to[index] = search(search, landmark, false);
+            trace("Landmark $ is vertex $", index, landmark);
+
+            // then pick the vertex whose nearest landmark is farthest away as the next landmark
+            for (var vertex = 1; vertex < vertexCapacity; vertex++)
+            {
+                nearest[vertex] = Math.min(nearest[vertex], from[index][vertex]);
+            }
+            landmark = farthest(nearest, landmarks);
+        }
+
+        var landmarksBuilt = landmarks(vertexCapacity, landmarks, from, to);
+        information("Built $ landmarks for $ in $", landmarksBuilt.size(), graph.name(), start.elapsedSince());
+        return landmarksBuilt;
+    }
+
+    /**
+     * Returns the reachable vertex with the highest finite cost that is not already a landmark, or zero if there is
+     * no such vertex
+     */
+    private int farthest(double[] costs, int[] landmarks)
+    {
+        var farthest = 0;
+        var farthestCost = -1.0;
+        for (var vertex = 1; vertex < costs.length; vertex++)
+        {
+            var cost = costs[vertex];
+            if (cost != Double.POSITIVE_INFINITY && cost > farthestCost && !contains(landmarks, vertex))
+            {
+                farthest = vertex;
+                farthestCost = cost;
+            }
+        }
+        return farthest;
+    }
+
+    private boolean contains(int[] landmarks, int vertex)
+    {
+        if (landmarks != null)
+        {
+            for (var landmark : landmarks)
+            {
+                if (landmark == vertex)
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns landmarks with the given costs quantized and packed by vertex
+     */
+    private Landmarks landmarks(int vertexCapacity, int[] selected, double[][] from, double[][] to)
+    {
+        // Drop any landmarks that could not be selected because the graph has too few vertexes
+        var size = 0;
+        while (size < selected.length && selected[size] > 0)
+        {
+            size++;
+        }
+
+        // Find the largest finite cost
+        var maximum = 0.0;
+        for (var landmark = 0; landmark < size; landmark++)
+        {
+            for (var vertex = 1; vertex < vertexCapacity; vertex++)
+            {
+                maximum = max(maximum, from[landmark][vertex]);
+                maximum = max(maximum, to[landmark][vertex]);
+            }
+        }
+
+        // and scale costs so it is the largest value below the unreachable marker
+        var landmarks = new Landmarks();
+        landmarks.vertexCapacity = vertexCapacity;
+        landmarks.edgeStoreSize = graph.edgeStore().size();
+        landmarks.scale = maximum > 0 ? (Landmarks.UNREACHABLE - 1) / maximum : 1.0;
+        landmarks.landmarks = Arrays.copyOf(selected, size);
+        landmarks.fromLandmark = new int[vertexCapacity * size];
+        landmarks.toLandmark = new int[vertexCapacity * size];
+        for (var landmark = 0; landmark < size; landmark++)
+        {
+            for (var vertex = 0; vertex < vertexCapacity; vertex++)
+            {
+                landmarks.fromLandmark[vertex * size + landmark] = quantize(from[landmark][vertex], landmarks.scale);
+                landmarks.toLandmark[vertex * size + landmark] = quantize(to[landmark][vertex], landmarks.scale);
+            }
+        }
+        return landmarks;
+    }
+
+    private double max(double maximum, double cost)
+    {
+        return cost == Double.POSITIVE_INFINITY ? maximum : Math.max(maximum, cost);
+    }
+
+    /**
+     * Returns the given cost scaled and rounded down to an int. The scaled cost is moved down by one ulp before it is
+     * rounded, since the product may itself have been rounded up, so a quantized cost is never higher than the cost it
+     * stands for.
+     */
+    private int quantize(double cost, double scale)
+    {
+        if (cost == Double.POSITIVE_INFINITY)
+        {
+            return Landmarks.UNREACHABLE;
+        }
+        var scaled = Math.max(0.0, Math.nextDown(cost * scale));
+        return (int) Math.min(Landmarks.UNREACHABLE - 1, Math.floor(scaled));
+    }
+
+    /**
+     * Returns the cost of the cheapest route from the given vertex to every vertex if forward is true, or from every
+     * vertex to the given vertex if forward is false. Vertexes that cannot be reached have infinite cost.
+     */
+    private double[] search(SearchState search, int vertex, boolean forward)
+    {
+        var edgeStore = graph.edgeStore();
+        search.reset(RoutingWorkspace.vertexCapacity(graph));
+        search.relax(vertex, 0.0, SearchState.NO_EDGE, 0.0);
+        while (!search.isDone())
+        {
+            var at = search.settle();
+            var atCost = search.cost(at);
+            var atVertex = graph.dataSpecification().newVertex(graph, at);
+            for (var edge : forward ? atVertex.outEdgeSequence() : atVertex.inEdgeSequence())
+            {
+                var cost = costFunction.costOf(edge);
+                if (!Cost.isMaximum(cost))
+                {
+                    var next = forward
+                            ? edgeStore.retrieveToVertexIdentifier(edge)
+                            : edgeStore.retrieveFromVertexIdentifier(edge);
+                    var nextCost = atCost + cost;
+                    search.relax(next, nextCost, SearchState.directionalIndex(edge), nextCost);
+                }
+            }
+        }
+
+        var costs = new double[RoutingWorkspace.vertexCapacity(graph)];
+        for (var index = 0; index < costs.length; index++)
+        {
+            costs[index] = search.cost(index);
+        }
+        return costs;
+    }
+}
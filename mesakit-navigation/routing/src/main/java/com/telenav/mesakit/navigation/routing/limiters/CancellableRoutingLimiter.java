@@ -0,0 +1,60 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.limiters;
+
+import com.telenav.mesakit.graph.Edge;
+import com.telenav.mesakit.navigation.routing.RoutingInstruction;
+import com.telenav.mesakit.navigation.routing.RoutingLimiter;
+import com.telenav.mesakit.navigation.routing.RoutingRequest;
+import com.telenav.mesakit.navigation.routing.StopRoutingInstruction;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Stops routing as soon as the given cancellation flag becomes true, and otherwise does what the limiter it wraps says
+ */
+public class CancellableRoutingLimiter implements RoutingLimiter
+{
+    private final RoutingLimiter limiter;
+
+    private final BooleanSupplier cancelled;
+
+    public CancellableRoutingLimiter(RoutingLimiter limiter, BooleanSupplier cancelled)
+    {
+        this.limiter = limiter;
+        this.cancelled = cancelled;
+    }
+
+    @Override
+    public RoutingInstruction instruction(Edge edge)
+    {
+        if (cancelled.getAsBoolean())
+        {
+            return new StopRoutingInstruction("Cancelled");
+        }
+        return limiter.instruction(edge);
+    }
+
+    @Override
+    public void start(RoutingRequest request)
+    {
+        limiter.start(request);
+    }
+}
@@ -0,0 +1,158 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.matrix;
+
+import com.telenav.mesakit.graph.Route;
+import com.telenav.mesakit.map.measurements.geographic.Distance;
+import com.telenav.mesakit.navigation.routing.cost.Cost;
+
+import java.util.Arrays;
+
+/**
+ * The result of a many-to-many routing request made with {@link RoutingMatrixService}. For each pair of a source
+ * (row) and a target (column), the matrix holds the cost and the length of the cheapest route from the source to the
+ * target, in row-major primitive arrays. If routes were requested, the route for each pair is also available.
+ * <p>
+ * If there is no route from a source to a target, the cost is infinite, {@link #isReachable(int, int)} returns false
+ * and the route is null.
+ *
+ * @see RoutingMatrixService
+ */
+public class RoutingMatrix
+{
+    /** The number of sources */
+    private final int rows;
+
+    /** The number of targets */
+    private final int columns;
+
+    /** The cost of the route for each source and target */
+    private final double[] costs;
+
+    /** The length of the route for each source and target in millimeters */
+    private final long[] lengths;
+
+    /** The route for each source and target, if routes were requested */
+    private final Route[] routes;
+
+    RoutingMatrix(int rows, int columns, boolean withRoutes)
+    {
+        this.rows = rows;
+        this.columns = columns;
+        costs = new double[rows * columns];
+        lengths = new long[rows * columns];
+        routes = withRoutes ? new Route[rows * columns] : null;
+        Arrays.fill(costs, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Returns the number of targets
+     */
+    public int columns()
+    {
+        return columns;
+    }
+
+    /**
+     * Returns the cost of the cheapest route from the given source to the given target
+     */
+    public Cost cost(int row, int column)
+    {
+        return isReachable(row, column) ? Cost.of(costValue(row, column)) : Cost.MAXIMUM;
+    }
+
+    /**
+     * Returns the cost of the cheapest route from the given source to the given target as a double, which is infinite
+     * if the target can't be reached
+     */
+    public double costValue(int row, int column)
+    {
+        return costs[cell(row, column)];
+    }
+
+    /**
+     * Returns the length of the cheapest route from the given source to the given target, or null if the target
+     * can't be reached
+     */
+    public Distance distance(int row, int column)
+    {
+        return isReachable(row, column) ? Distance.millimeters(lengthInMillimeters(row, column)) : null;
+    }
+
+    /**
+     * Returns true if the routes for each pair of source and target are available
+     */
+    public boolean hasRoutes()
+    {
+        return routes != null;
+    }
+
+    /**
+     * Returns true if the given target can be reached from the given source
+     */
+    public boolean isReachable(int row, int column)
+    {
+        return costs[cell(row, column)] != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the length of the cheapest route from the given source to the given target in millimeters
+     */
+    public long lengthInMillimeters(int row, int column)
+    {
+        return lengths[cell(row, column)];
+    }
+
+    /**
+     * Returns the cheapest route from the given source to the given target, if routes were requested and the target
+     * can be reached
+     */
+    public Route route(int row, int column)
+    {
+        return routes == null ? null : routes[cell(row, column)];
+    }
+
+    /**
+     * Returns the number of sources
+     */
+    public int rows()
+    {
+        return rows;
+    }
+
+    /**
+     * Stores the result for a single source and target
+     */
+    void set(int row, int column, double cost, long lengthInMillimeters, Route route)
+    {
+        var cell = cell(row, column);
+        costs[cell] = cost;
+        lengths[cell] = lengthInMillimeters;
+        if (routes != null)
+        {
+            routes[cell] = route;
+        }
+    }
+
+    private int cell(int row, int column)
+    {
+        return row * columns + column;
+    }
+}
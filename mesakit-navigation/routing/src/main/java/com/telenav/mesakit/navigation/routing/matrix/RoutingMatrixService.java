@@ -0,0 +1,305 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.matrix;
+
+import com.telenav.kivakit.core.messaging.repeaters.BaseRepeater;
+import com.telenav.kivakit.core.thread.Threads;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.mesakit.graph.Vertex;
+import com.telenav.mesakit.navigation.routing.RoutingLimiter;
+import com.telenav.mesakit.navigation.routing.cost.Cost;
+import com.telenav.mesakit.navigation.routing.cost.CostFunction;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRouter;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRoutingRequest;
+import com.telenav.mesakit.navigation.routing.dijkstra.Direction;
+import com.telenav.mesakit.navigation.routing.indexed.IndexedDijkstraRouter;
+import com.telenav.mesakit.navigation.routing.indexed.RoutingWorkspace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+import static com.telenav.kivakit.core.ensure.Ensure.fail;
+import static com.telenav.mesakit.navigation.routing.indexed.SearchState.NO_EDGE;
+import static com.telenav.mesakit.navigation.routing.indexed.SearchState.directionalIndex;
+
+/**
+ * Computes the cost and length of the cheapest routes between many sources and many targets. Rather than finding N×M
+ * routes one at a time, the service runs one search from each source (with the same cost semantics as
+ * {@link DijkstraRouter}) that stops as soon as every target has been settled, so each source costs about as much as a
+ * single route to its farthest target.
+ * <p>
+ * Sources are searched in parallel on a fixed-size pool of threads owned by the service, and each thread searches with
+ * its own {@link RoutingWorkspace}, so after the first request no search state is allocated. Results are returned in a
+ * {@link RoutingMatrix} of primitive arrays. {@link com.telenav.mesakit.graph.Route} objects are only built if they are
+ * requested.
+ * <p>
+ * Since {@link RoutingLimiter}s keep state for a single search, the service takes a supplier of limiters and starts a
+ * new limiter for each source. A limiter that says to stop ends the search for that source, leaving any targets that
+ * have not yet been settled unreachable.
+ * <p>
+ * The service should be closed when it is no longer needed to shut down its threads.
+ *
+ * @see RoutingMatrix
+ */
+public class RoutingMatrixService extends BaseRepeater implements AutoCloseable
+{
+    /** The cost of edges */
+    private final CostFunction costFunction;
+
+    /** Supplies a limiter for each source */
+    private final Supplier<RoutingLimiter> limiters;
+
+    /** The threads that search from sources */
+    private final ExecutorService executor;
+
+    public RoutingMatrixService(CostFunction costFunction, Count threads)
+    {
+        this(costFunction, threads, () -> RoutingLimiter.UNLIMITED);
+    }
+
+    public RoutingMatrixService(CostFunction costFunction, Count threads, Supplier<RoutingLimiter> limiters)
+    {
+        this.costFunction = costFunction;
+        this.limiters = limiters;
+        executor = Executors.newFixedThreadPool(threads.asInt(), runnable ->
+        {
+            var thread = new Thread(runnable, "RoutingMatrix");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void close()
+    {
+        Threads.shutdownAndAwaitTermination(executor);
+    }
+
+    /**
+     * Returns the costs and lengths of the cheapest routes from each source to each target, without routes
+     */
+    public RoutingMatrix matrix(List<Vertex> sources, List<Vertex> targets)
+    {
+        return matrix(sources, targets, false);
+    }
+
+    /**
+     * Returns the costs and lengths of the cheapest routes from each source to each target, including the routes
+     * themselves if withRoutes is true. All sources and targets must be vertexes of the same graph.
+     */
+    public RoutingMatrix matrix(List<Vertex> sources, List<Vertex> targets, boolean withRoutes)
+    {
+        var matrix = new RoutingMatrix(sources.size(), targets.size(), withRoutes);
+        if (sources.isEmpty() || targets.isEmpty())
+        {
+            return matrix;
+        }
+
+        // Check that all vertexes are in a single, non-composite graph
+        var graph = sources.get(0).graph();
+        ensure(!graph.isComposite(), "Routing matrixes are not supported for composite graphs");
+        for (var vertex : sources)
+        {
+            ensure(vertex.graph().equals(graph), "Source $ is not in graph $", vertex, graph.name());
+        }
+        for (var vertex : targets)
+        {
+            ensure(vertex.graph().equals(graph), "Target $ is not in graph $", vertex, graph.name());
+        }
+
+        // Search from each source in parallel
+        var targetIndex = new Targets(targets);
+        var rows = new ArrayList<Future<?>>();
+        for (var row = 0; row < sources.size(); row++)
+        {
+            var source = sources.get(row);
+            var at = row;
+            rows.add(executor.submit(() -> row(matrix, at, source, targetIndex)));
+        }
+
+        // and wait for them to finish
+        for (var row : rows)
+        {
+            try
+            {
+                row.get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return fail(e, "Interrupted while computing routing matrix");
+            }
+            catch (ExecutionException e)
+            {
+                return fail(e.getCause(), "Unable to compute routing matrix");
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * The distinct vertex indexes of the targets in sorted order, with the columns each vertex appears in
+     */
+    private static class Targets
+    {
+        /** The distinct target vertex indexes in ascending order */
+        private final int[] vertexes;
+
+        /** The start of each vertex's columns in {@link #columns} */
+        private final int[] offsets;
+
+        /** The columns of each vertex */
+        private final int[] columns;
+
+        Targets(List<Vertex> targets)
+        {
+            // Sort columns by vertex index
+            var keys = new long[targets.size()];
+            for (var column = 0; column < keys.length; column++)
+            {
+                keys[column] = ((long) targets.get(column).index() << 32) | column;
+            }
+            Arrays.sort(keys);
+
+            // and group them by vertex
+            var vertexes = new int[keys.length];
+            var offsets = new int[keys.length + 1];
+            columns = new int[keys.length];
+            var size = 0;
+            for (var i = 0; i < keys.length; i++)
+            {
+                var vertex = (int) (keys[i] >>> 32);
+                if (size == 0 || vertexes[size - 1] != vertex)
+                {
+                    vertexes[size] = vertex;
+                    offsets[size] = i;
+                    size++;
+                }
+                columns[i] = (int) keys[i];
+            }
+            offsets[size] = keys.length;
+            this.vertexes = Arrays.copyOf(vertexes, size);
+            this.offsets = Arrays.copyOf(offsets, size + 1);
+        }
+
+        boolean contains(int vertex)
+        {
+            return Arrays.binarySearch(vertexes, vertex) >= 0;
+        }
+
+        int size()
+        {
+            return vertexes.length;
+        }
+    }
+
+    /**
+     * Fills in the given row of the matrix by searching from its source until all targets are settled
+     */
+    private void row(RoutingMatrix matrix, int row, Vertex source, Targets targets)
+    {
+        var graph = source.graph();
+        var edgeStore = graph.edgeStore();
+        var adjacency = graph.vertexStore().adjacency();
+        var workspace = RoutingWorkspace.get();
+        var search = workspace.search(graph, Direction.FORWARD);
+        var lengths = workspace.lengths(RoutingWorkspace.vertexCapacity(graph));
+
+        // Start a limiter for the search
+        var limiter = limiters.get();
+        limiter.start(new DijkstraRoutingRequest(source, source).withLimiter(limiter));
+
+        // Seed the search with the source
+        search.relax(source.index(), 0.0, NO_EDGE, 0.0);
+        lengths[source.index()] = 0L;
+
+        // While there are targets left to settle
+        var remaining = targets.size();
+        searching:
+        while (!search.isDone())
+        {
+            // settle the next vertex
+            var at = search.settle();
+            if (targets.contains(at) && --remaining == 0)
+            {
+                break;
+            }
+
+            // and relax each edge leaving it
+            var atCost = search.cost(at);
+            for (int offset = adjacency.outStart(at), end = adjacency.outEnd(at); offset < end; offset++)
+            {
+                var next = adjacency.outTarget(offset);
+                if (search.isSettled(next))
+                {
+                    continue;
+                }
+
+                var candidate = edgeStore.edgeForIndex(adjacency.outEdge(offset));
+
+                var candidateCost = costFunction.costOf(candidate);
+                if (Cost.isMaximum(candidateCost))
+                {
+                    continue;
+                }
+
+                var instruction = limiter.instruction(candidate);
+                switch (instruction.meaning())
+                {
+                    case STOP_ROUTING:
+                        warning("Routing from $ halted by ${class}: $", source, limiter.getClass(), instruction.message());
+                        break searching;
+
+                    case EXPLORE_EDGE:
+                        var cost = atCost + candidateCost;
+                        if (search.relax(next, cost, directionalIndex(candidate), cost))
+                        {
+                            lengths[next] = lengths[at] + edgeStore.retrieveLengthInMillimeters(candidate);
+                        }
+                        break;
+
+                    case IGNORE_EDGE:
+                        break;
+                }
+            }
+        }
+
+        // Store the results for each settled target
+        for (var target = 0; target < targets.size(); target++)
+        {
+            var vertex = targets.vertexes[target];
+            if (search.isSettled(vertex))
+            {
+                var route = matrix.hasRoutes() ? IndexedDijkstraRouter.route(graph, search, vertex, true) : null;
+                for (var i = targets.offsets[target]; i < targets.offsets[target + 1]; i++)
+                {
+                    matrix.set(row, targets.columns[i], search.cost(vertex), lengths[vertex], route);
+                }
+            }
+        }
+    }
+}
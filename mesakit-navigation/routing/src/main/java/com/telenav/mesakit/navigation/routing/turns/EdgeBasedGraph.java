@@ -0,0 +1,259 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.turns;
+
+import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.graph.Route;
+import com.telenav.mesakit.graph.analytics.classification.classifiers.turn.TurnClassifier;
+import com.telenav.mesakit.navigation.routing.indexed.RoutingWorkspace;
+import com.telenav.mesakit.navigation.routing.indexed.SearchState;
+
+import java.util.Arrays;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * The turns of a {@link Graph} in a form that an {@link EdgeBasedRouter} can search without allocating: for each
+ * directional edge, the edges that can be turned onto at its to vertex, each with a precomputed penalty, along with a
+ * {@link TurnRestrictionAutomaton} for the graph's turn restrictions. All of this is held in primitive arrays in
+ * compressed sparse row form.
+ * <p>
+ * Directional edge indexes (negative for reverse edges) are mapped to <i>slots</i> in the range [0, 2 × edge store
+ * size] by {@link #slot(int)}. Turn penalties are computed once for each pair of edges by giving a two-edge route to
+ * a {@link TurnClassifier} and passing the resulting turn type to a set of {@link TurnPenalties}. If no penalties are
+ * given, turns are not classified.
+ *
+ * @see EdgeBasedRouter
+ * @see TurnRestrictionAutomaton
+ */
+public class EdgeBasedGraph
+{
+    /** The graph */
+    private final Graph graph;
+
+    /** The size of the graph's edge store */
+    private final int edgeStoreSize;
+
+    /** The to vertex of the edge in each slot */
+    private final int[] toVertex;
+
+    /** The start of each vertex's out edges in {@link #vertexEdges} */
+    private final int[] vertexOffsets;
+
+    /** The directional indexes of the out edges of each vertex */
+    private final int[] vertexEdges;
+
+    /** The start of each slot's turns in {@link #turnEdges} */
+    private final int[] turnOffsets;
+
+    /** The directional index of the edge turned onto by each turn */
+    private final int[] turnEdges;
+
+    /** The penalty for each turn */
+    private final float[] turnPenalties;
+
+    /** Turn restrictions */
+    private final TurnRestrictionAutomaton restrictions;
+
+    /**
+     * Builds an edge-based graph with turn restrictions and no turn penalties
+     */
+    public EdgeBasedGraph(Graph graph)
+    {
+        this(graph, null, TurnPenalties.NONE);
+    }
+
+    /**
+     * Builds an edge-based graph with turn restrictions and turn penalties for turn types determined by the given
+     * classifier
+     */
+    public EdgeBasedGraph(Graph graph, TurnClassifier classifier, TurnPenalties penalties)
+    {
+        this(graph, new TurnRestrictionAutomaton(graph), classifier, penalties);
+    }
+
+    /**
+     * Builds an edge-based graph with the given turn restrictions in place of the graph's own, and turn penalties for
+     * turn types determined by the given classifier
+     */
+    public EdgeBasedGraph(Graph graph, TurnRestrictionAutomaton restrictions, TurnClassifier classifier,
+                          TurnPenalties penalties)
+    {
+        ensure(!graph.isComposite(), "Edge-based routing is not supported for composite graphs");
+        ensure(penalties == TurnPenalties.NONE || classifier != null, "Turn penalties require a turn classifier");
+
+        this.graph = graph;
+        var edgeStore = graph.edgeStore();
+        edgeStoreSize = edgeStore.size();
+        var slots = 2 * edgeStoreSize + 1;
+        var vertexCapacity = RoutingWorkspace.vertexCapacity(graph);
+
+        // Collect the out edges of each vertex
+        vertexOffsets = new int[vertexCapacity + 1];
+        var edges = new int[Math.max(16, graph.edgeCount().asInt())];
+        var size = 0;
+        for (var vertex = 1; vertex < vertexCapacity; vertex++)
+        {
+            vertexOffsets[vertex] = size;
+            for (var edge : graph.dataSpecification().newVertex(graph, vertex).outEdgeSequence())
+            {
+                if (size == edges.length)
+                {
+                    edges = Arrays.copyOf(edges, size * 2);
+                }
+                edges[size++] = SearchState.directionalIndex(edge);
+            }
+        }
+        vertexOffsets[vertexCapacity] = size;
+        vertexEdges = Arrays.copyOf(edges, size);
+
+        // Find the to vertex of each edge and count the turns from it
+        toVertex = new int[slots];
+        turnOffsets = new int[slots + 1];
+        for (var edge : graph.edges())
+        {
+            var slot = slot(SearchState.directionalIndex(edge));
+            var to = edgeStore.retrieveToVertexIdentifier(edge);
+            toVertex[slot] = to;
+            turnOffsets[slot + 1] = vertexOffsets[to + 1] - vertexOffsets[to];
+        }
+        for (var slot = 0; slot < slots; slot++)
+        {
+            turnOffsets[slot + 1] += turnOffsets[slot];
+        }
+
+        // then store the turns and their penalties
+        turnEdges = new int[turnOffsets[slots]];
+        turnPenalties = new float[turnOffsets[slots]];
+        for (var edge : graph.edges())
+        {
+            var slot = slot(SearchState.directionalIndex(edge));
+            var to = toVertex[slot];
+            var turn = turnOffsets[slot];
+            for (var i = vertexOffsets[to]; i < vertexOffsets[to + 1]; i++, turn++)
+            {
+                turnEdges[turn] = vertexEdges[i];
+                if (penalties != TurnPenalties.NONE)
+                {
+                    var type = classifier.type(Route.forEdges(edge, edgeStore.edgeForIndex(vertexEdges[i])));
+                    turnPenalties[turn] = type == null ? 0.0f : (float) penalties.penalty(type).asDouble();
+                }
+            }
+        }
+
+        this.restrictions = restrictions;
+    }
+
+    /**
+     * Returns the graph
+     */
+    public Graph graph()
+    {
+        return graph;
+    }
+
+    /**
+     * Returns the turn restrictions of the graph
+     */
+    public TurnRestrictionAutomaton restrictions()
+    {
+        return restrictions;
+    }
+
+    /**
+     * Returns the number of slots for directional edge indexes
+     */
+    public int slots()
+    {
+        return 2 * edgeStoreSize + 1;
+    }
+
+    /**
+     * Returns the slot for the given directional edge index
+     */
+    public int slot(int edge)
+    {
+        return edge + edgeStoreSize;
+    }
+
+    /**
+     * Returns the vertex index of the to vertex of the given directional edge
+     */
+    public int toVertex(int edge)
+    {
+        return toVertex[slot(edge)];
+    }
+
+    /**
+     * Returns the directional index of the edge turned onto by the given turn
+     */
+    public int turnEdge(int turn)
+    {
+        return turnEdges[turn];
+    }
+
+    /**
+     * Returns the end of the turns from the given directional edge (exclusive)
+     */
+    public int turnsEnd(int edge)
+    {
+        return turnOffsets[slot(edge) + 1];
+    }
+
+    /**
+     * Returns the penalty for the given turn
+     */
+    public double turnPenalty(int turn)
+    {
+        return turnPenalties[turn];
+    }
+
+    /**
+     * Returns the start of the turns from the given directional edge
+     */
+    public int turnsStart(int edge)
+    {
+        return turnOffsets[slot(edge)];
+    }
+
+    /**
+     * Returns the end of the out edges of the given vertex in {@link #vertexEdge(int)} (exclusive)
+     */
+    public int vertexEdgesEnd(int vertex)
+    {
+        return vertexOffsets[vertex + 1];
+    }
+
+    /**
+     * Returns the start of the out edges of the given vertex in {@link #vertexEdge(int)}
+     */
+    public int vertexEdgesStart(int vertex)
+    {
+        return vertexOffsets[vertex];
+    }
+
+    /**
+     * Returns the directional index of the given out edge
+     */
+    public int vertexEdge(int index)
+    {
+        return vertexEdges[index];
+    }
+}
@@ -0,0 +1,262 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.turns;
+
+import com.telenav.kivakit.core.logging.Logger;
+import com.telenav.kivakit.core.logging.LoggerFactory;
+import com.telenav.mesakit.graph.Edge;
+import com.telenav.mesakit.graph.Route;
+import com.telenav.mesakit.navigation.routing.BaseRouter;
+import com.telenav.mesakit.navigation.routing.RoutingInstruction;
+import com.telenav.mesakit.navigation.routing.RoutingRequest;
+import com.telenav.mesakit.navigation.routing.RoutingResponse;
+import com.telenav.mesakit.navigation.routing.cost.Cost;
+import com.telenav.mesakit.navigation.routing.cost.CostFunction;
+import com.telenav.mesakit.navigation.routing.cost.RoutePermissionFunction;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRouter;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRoutingRequest;
+import com.telenav.mesakit.navigation.routing.dijkstra.Direction;
+import com.telenav.mesakit.navigation.routing.indexed.IndexedDijkstraRouter;
+import com.telenav.mesakit.navigation.routing.indexed.RoutingWorkspace;
+import com.telenav.mesakit.navigation.routing.indexed.SearchState;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static com.telenav.kivakit.core.ensure.Ensure.fail;
+import static com.telenav.mesakit.navigation.routing.turns.TurnRestrictionAutomaton.FORBIDDEN;
+import static com.telenav.mesakit.navigation.routing.turns.TurnRestrictionAutomaton.START;
+
+/**
+ * Edge-based (arc-state) Dijkstra routing that honors turn restrictions and turn penalties. Where
+ * {@link DijkstraRouter} settles vertexes and checks turn restrictions by building the route so far and giving it to a
+ * {@link RoutePermissionFunction}, this router settles <i>edges</i>, each paired with the state of a
+ * {@link TurnRestrictionAutomaton}. Taking a turn from one edge to the next is a single automaton transition, and the
+ * turn's penalty is read from a precomputed table in the {@link EdgeBasedGraph}, so turns are checked in O(1) without
+ * building routes.
+ * <p>
+ * A search starts on each edge leaving the start vertex and ends when an edge arriving at the end vertex is settled.
+ * The cost of a route is the sum of the costs of its edges and the penalties of its turns. Search state is keyed by
+ * edge slot, or for edges reached partway through a restriction, by automaton state, and comes from the calling
+ * thread's {@link RoutingWorkspace}.
+ *
+ * @see EdgeBasedGraph
+ * @see TurnRestrictionAutomaton
+ */
+public class EdgeBasedRouter extends BaseRouter
+{
+    private static final Logger LOGGER = LoggerFactory.newLogger();
+
+    /** The turns of the graph being routed on */
+    private final EdgeBasedGraph edgeBasedGraph;
+
+    /** The cost function for edges in route */
+    private final CostFunction costFunction;
+
+    public EdgeBasedRouter(EdgeBasedGraph edgeBasedGraph, CostFunction costFunction)
+    {
+        this.edgeBasedGraph = edgeBasedGraph;
+        this.costFunction = costFunction;
+    }
+
+    @Override
+    public RoutingResponse onFindRoute(RoutingRequest request)
+    {
+        var graph = request.start().graph();
+        if (!graph.equals(edgeBasedGraph.graph()))
+        {
+            return fail("Edge-based graph does not match graph $", graph.name());
+        }
+
+        // Start routing
+        request.onStartRouting();
+
+        // Get the start and end vertex indexes (backward Dijkstra requests swap these, so swap them back)
+        var start = request.start().index();
+        var end = request.end().index();
+        if (request instanceof DijkstraRoutingRequest dijkstra && !dijkstra.direction().isForward())
+        {
+            var swap = start;
+            start = end;
+            end = swap;
+        }
+
+        // A route from a vertex to itself has no edges, so as with DijkstraRouter, there is no route to return
+        if (start == end)
+        {
+            return request.done(null);
+        }
+
+        var edgeStore = graph.edgeStore();
+        var restrictions = edgeBasedGraph.restrictions();
+        var search = RoutingWorkspace.get().search(edgeBasedGraph.slots() + restrictions.states(), Direction.FORWARD);
+
+        // Seed the search with each edge leaving the start vertex
+        for (var index = edgeBasedGraph.vertexEdgesStart(start); index < edgeBasedGraph.vertexEdgesEnd(start); index++)
+        {
+            var edge = edgeBasedGraph.vertexEdge(index);
+            var candidate = edgeStore.edgeForIndex(edge);
+            var cost = costFunction.costOf(candidate);
+            if (!Cost.isMaximum(cost))
+            {
+                switch (explore(request, candidate))
+                {
+                    case STOP_ROUTING:
+                        return request.failed();
+
+                    case EXPLORE_EDGE:
+                        search.relax(key(edge, restrictions.next(START, edge)), cost, SearchState.NO_EDGE, cost);
+                        break;
+
+                    case IGNORE_EDGE:
+                        break;
+                }
+            }
+        }
+
+        // While we have edges to process
+        while (!search.isDone())
+        {
+            // get the next edge, the restriction state we're in, and the vertex it leads to
+            var at = search.settle();
+            var atCost = search.cost(at);
+            var atEdge = edge(at);
+            var atState = state(at);
+            var atVertex = edgeBasedGraph.toVertex(atEdge);
+            if (request.isDebugging())
+            {
+                request.debugger().onSettled(IndexedDijkstraRouter.vertex(graph, atVertex), Cost.of(atCost));
+            }
+
+            // If we reached the goal
+            if (atVertex == end)
+            {
+                // we're done
+                return request.done(route(search, at));
+            }
+
+            // Go through each turn we can make from the edge
+            for (var turn = edgeBasedGraph.turnsStart(atEdge); turn < edgeBasedGraph.turnsEnd(atEdge); turn++)
+            {
+                // and if the turn is not restricted
+                var next = edgeBasedGraph.turnEdge(turn);
+                var nextState = restrictions.next(atState, next);
+                if (nextState == FORBIDDEN)
+                {
+                    continue;
+                }
+
+                // and the edge is not settled in that state
+                var nextKey = key(next, nextState);
+                if (search.isSettled(nextKey))
+                {
+                    continue;
+                }
+
+                // and the edge can be traveled
+                var candidate = edgeStore.edgeForIndex(next);
+                var candidateCost = costFunction.costOf(candidate);
+                if (Cost.isMaximum(candidateCost))
+                {
+                    continue;
+                }
+
+                // then ask the limiter what we should do with the edge
+                switch (explore(request, candidate))
+                {
+                    case STOP_ROUTING:
+                        return request.failed();
+
+                    case EXPLORE_EDGE:
+                        var cost = atCost + candidateCost + edgeBasedGraph.turnPenalty(turn);
+                        search.relax(nextKey, cost, at + 1, cost);
+                        break;
+
+                    case IGNORE_EDGE:
+                        break;
+                }
+            }
+        }
+
+        // No route was found
+        return request.failed();
+    }
+
+    /**
+     * Returns the directional index of the edge for the given search key
+     */
+    private int edge(int key)
+    {
+        var slots = edgeBasedGraph.slots();
+        return key < slots ? key - (slots - 1) / 2 : edgeBasedGraph.restrictions().edge(key - slots);
+    }
+
+    /**
+     * Returns what the request's limiter says to do with the given edge
+     */
+    private RoutingInstruction.Meaning explore(RoutingRequest request, Edge edge)
+    {
+        var instruction = request.limiter().instruction(edge);
+        if (instruction.meaning() == RoutingInstruction.Meaning.STOP_ROUTING)
+        {
+            LOGGER.warning("Routing halted by ${class}: $", request.limiter().getClass(), instruction.message());
+        }
+        return instruction.meaning();
+    }
+
+    /**
+     * Returns the search key for the given edge in the given restriction state. Edges that are not partway through a
+     * restriction are keyed by slot, and other edges by their state, which identifies the edge.
+     */
+    private int key(int edge, int state)
+    {
+        return state == START ? edgeBasedGraph.slot(edge) : edgeBasedGraph.slots() + state;
+    }
+
+    /**
+     * Returns the route to the given search key by following predecessor keys back to the start of the search
+     */
+    private Route route(SearchState search, int key)
+    {
+        var edgeStore = edgeBasedGraph.graph().edgeStore();
+        var edges = new ArrayList<Edge>();
+        for (var at = key; ; )
+        {
+            edges.add(edgeStore.edgeForIndex(edge(at)));
+            var predecessor = search.predecessor(at);
+            if (predecessor == SearchState.NO_EDGE)
+            {
+                break;
+            }
+            at = predecessor - 1;
+        }
+        Collections.reverse(edges);
+        return Route.forEdges(edges);
+    }
+
+    /**
+     * Returns the restriction state for the given search key
+     */
+    private int state(int key)
+    {
+        var slots = edgeBasedGraph.slots();
+        return key < slots ? START : key - slots;
+    }
+}
@@ -0,0 +1,40 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.turns;
+
+import com.telenav.mesakit.graph.analytics.classification.classifiers.turn.TurnType;
+import com.telenav.mesakit.navigation.routing.cost.Cost;
+
+/**
+ * The cost of making a turn of a given type, added to the cost of the edge being turned onto by an
+ * {@link EdgeBasedRouter}
+ */
+public interface TurnPenalties
+{
+    /**
+     * Turns cost nothing
+     */
+    TurnPenalties NONE = type -> Cost.ZERO;
+
+    /**
+     * Returns the cost of making a turn of the given type
+     */
+    Cost penalty(TurnType type);
+}
@@ -0,0 +1,417 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing.turns;
+
+import com.telenav.mesakit.graph.EdgeRelation;
+import com.telenav.mesakit.graph.Graph;
+import com.telenav.mesakit.graph.relations.restrictions.TurnRestriction;
+import com.telenav.mesakit.navigation.routing.indexed.SearchState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+import static com.telenav.mesakit.navigation.routing.indexed.SearchState.NO_EDGE;
+
+/**
+ * A finite automaton over directional edge indexes that recognizes the edge sequences forbidden by the turn
+ * restrictions of a {@link Graph}. Each turn restriction relation is reduced to a sequence of edges: the last edge of
+ * its "from" member, the edges of any "via" way, and the first edge of its "to" member. The sequences are stored in a
+ * trie with Aho-Corasick failure links, and a search tracks the trie state it is in along with the edge it is on:
+ *
+ * <ul>
+ *     <li>A "no" restriction forbids taking the last edge of its sequence after the ones before it</li>
+ *     <li>An "only" restriction forbids taking any edge other than the next one in its sequence once its first edge
+ *     has been taken</li>
+ * </ul>
+ * <p>
+ * State {@link #START} means that no restriction has been partly matched. Every other state is a trie node for the
+ * longest suffix of the edges taken so far that begins some restriction, and because a node is reached by exactly one
+ * edge, the state of a search alone identifies the edge it is on (see {@link #edge(int)}). Each node has a failure link
+ * to the node for its own longest proper suffix, so restrictions that begin partway through another one are still
+ * tracked, and {@link #next(int, int)} checks the restrictions ending at every suffix of the current state.
+ * Transitions are looked up in an open-addressing hash table keyed by state and edge, so checking a turn costs one
+ * lookup per failure link, which is bounded by the length of the longest restriction, and does not allocate.
+ *
+ * @see EdgeBasedGraph
+ */
+public class TurnRestrictionAutomaton
+{
+    /** The state when no restriction is partly matched */
+    public static final int START = 0;
+
+    /** The result of a transition that is not allowed */
+    public static final int FORBIDDEN = -1;
+
+    /** Marker for an empty hash table slot */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    /** The edge that leads into each state */
+    private int[] edges = new int[16];
+
+    /** The state for the longest proper suffix of each state that is also a state */
+    private int[] failures;
+
+    /** The only edge that may be taken from each state of an "only" restriction, or {@link SearchState#NO_EDGE} */
+    private int[] permitted = new int[16];
+
+    /** The trie parent of each state */
+    private int[] parents = new int[16];
+
+    /** The number of states, including the start state */
+    private int states = 1;
+
+    /** Hash table keys, packing a state and a directional edge index */
+    private long[] keys;
+
+    /** Hash table values, the state reached or {@link #FORBIDDEN} */
+    private int[] values;
+
+    /** The number of transitions in the hash table */
+    private int transitions;
+
+    /**
+     * Builds an automaton for the turn restrictions in the given graph
+     */
+    public TurnRestrictionAutomaton(Graph graph)
+    {
+        this();
+
+        // Add each turn restriction to the trie
+        var onlyEnds = new ArrayList<int[]>();
+        for (var relation : graph.relations())
+        {
+            if (relation.isTurnRestriction())
+            {
+                add(relation, onlyEnds);
+            }
+        }
+        link(onlyEnds);
+    }
+
+    /**
+     * Builds an automaton for the given "no" and "only" restrictions, each a sequence of directional edge indexes
+     * that is at least two edges long
+     */
+    public TurnRestrictionAutomaton(int[][] no, int[][] only)
+    {
+        this();
+
+        var onlyEnds = new ArrayList<int[]>();
+        for (var sequence : no)
+        {
+            ensure(sequence.length >= 2, "A restriction must have at least two edges");
+            add(false, sequence, sequence.length, onlyEnds);
+        }
+        for (var sequence : only)
+        {
+            ensure(sequence.length >= 2, "A restriction must have at least two edges");
+            add(true, sequence, sequence.length, onlyEnds);
+        }
+        link(onlyEnds);
+    }
+
+    private TurnRestrictionAutomaton()
+    {
+        keys = new long[64];
+        values = new int[64];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Returns the directional index of the edge that leads into the given state, which must not be {@link #START}
+     */
+    public int edge(int state)
+    {
+        return edges[state];
+    }
+
+    /**
+     * Returns true if there are no restrictions in this automaton
+     */
+    public boolean isEmpty()
+    {
+        return states == 1;
+    }
+
+    /**
+     * Returns the state after taking the given edge from the given state, or {@link #FORBIDDEN} if taking the edge
+     * would violate a restriction
+     */
+    public int next(int state, int edge)
+    {
+        // Go through the state and each of its suffixes, from longest to shortest,
+        var next = START;
+        for (var suffix = state; ; suffix = failures[suffix])
+        {
+            // and if a restriction ending with the edge forbids it, or the suffix is part of an "only"
+            // restriction that requires a different edge (whatever other restrictions continue from it),
+            var transition = get(suffix, edge);
+            if (transition == FORBIDDEN || (permitted[suffix] != NO_EDGE && permitted[suffix] != edge))
+            {
+                // then the edge can't be taken
+                return FORBIDDEN;
+            }
+
+            // otherwise, the next state is the longest suffix that the edge extends.
+            if (next == START)
+            {
+                next = transition;
+            }
+            if (suffix == START)
+            {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of states in this automaton, including the start state
+     */
+    public int states()
+    {
+        return states;
+    }
+
+    /**
+     * Adds the given turn restriction relation to the trie
+     */
+    private void add(EdgeRelation relation, List<int[]> onlyEnds)
+    {
+        // Get the restriction and its type
+        var restriction = relation.turnRestriction();
+        var type = restriction.type();
+        if (restriction.isBad() || type == null)
+        {
+            return;
+        }
+
+        // and the sequence of edges it restricts
+        var via = restriction.via();
+        var sequence = new int[2 + (via == null ? 0 : via.size())];
+        var size = 0;
+        sequence[size++] = SearchState.directionalIndex(restriction.from().last());
+        if (via != null)
+        {
+            for (var edge : via)
+            {
+                sequence[size++] = SearchState.directionalIndex(edge);
+            }
+        }
+        sequence[size++] = SearchState.directionalIndex(restriction.to().first());
+        add(type.isOnly(), sequence, size, onlyEnds);
+    }
+
+    /**
+     * Adds a restriction on the given sequence of edges to the trie. The state and last edge of an "only" restriction
+     * are added to the given list, so they can be linked once all the failure links are known.
+     */
+    private void add(boolean isOnly, int[] sequence, int size, List<int[]> onlyEnds)
+    {
+        // Walk the trie, adding states for the sequence up to its last edge
+        var state = START;
+        for (var i = 0; i < size - 1; i++)
+        {
+            var next = get(state, sequence[i]);
+            if (next == FORBIDDEN)
+            {
+                // A shorter restriction already forbids this sequence
+                return;
+            }
+            if (next == START)
+            {
+                next = newState(state, sequence[i]);
+                put(state, sequence[i], next);
+            }
+            state = next;
+
+            // and for "only" restrictions, the next edge of the sequence is the only one that may be taken from this
+            // state. If another "only" restriction already permits a different edge, the restrictions contradict
+            // each other and the first one added is kept.
+            if (isOnly && permitted[state] == NO_EDGE)
+            {
+                permitted[state] = sequence[i + 1];
+            }
+        }
+
+        // then record the transition for the last edge. A "no" restriction forbids it,
+        var last = sequence[size - 1];
+        if (!isOnly)
+        {
+            put(state, last, FORBIDDEN);
+        }
+        else
+        {
+            // while an "only" restriction continues from the longest suffix that the last edge completes, which
+            // can't be known until the trie is complete. Making sure the last edge starts a state of its own
+            // guarantees that there is one.
+            if (get(START, last) == START)
+            {
+                put(START, last, newState(START, last));
+            }
+            onlyEnds.add(new int[] { state, last });
+        }
+    }
+
+    /**
+     * Returns the transition for the given state and edge, or {@link #START} if there is none
+     */
+    private int get(int state, int edge)
+    {
+        var key = key(state, edge);
+        for (var slot = slot(key); ; slot = (slot + 1) & (keys.length - 1))
+        {
+            if (keys[slot] == EMPTY)
+            {
+                return START;
+            }
+            if (keys[slot] == key)
+            {
+                return values[slot];
+            }
+        }
+    }
+
+    /**
+     * Links each state to the state for its longest proper suffix, then lets the last edge of each "only" restriction
+     * continue from the longest suffix that it completes
+     */
+    private void link(List<int[]> onlyEnds)
+    {
+        linkFailures();
+        for (var end : onlyEnds)
+        {
+            var state = end[0];
+            var last = end[1];
+            if (get(state, last) == START)
+            {
+                put(state, last, step(failures[state], last));
+            }
+        }
+    }
+
+    /**
+     * Sets the failure link of each state to the state for its longest proper suffix, visiting states in order of
+     * depth so that the links of shorter states are known first
+     */
+    private void linkFailures()
+    {
+        // Find the depth of each state,
+        var depths = new int[states];
+        var maximumDepth = 0;
+        for (var state = 1; state < states; state++)
+        {
+            // which is one more than its parent's, since parents are always created before their children
+            depths[state] = depths[parents[state]] + 1;
+            maximumDepth = Math.max(maximumDepth, depths[state]);
+        }
+
+        // then link the states at each depth in turn
+        failures = new int[states];
+        for (var depth = 2; depth <= maximumDepth; depth++)
+        {
+            for (var state = 1; state < states; state++)
+            {
+                if (depths[state] == depth)
+                {
+                    failures[state] = step(failures[parents[state]], edges[state]);
+                }
+            }
+        }
+    }
+
+    private long key(int state, int edge)
+    {
+        return ((long) state << 32) | (edge & 0xffff_ffffL);
+    }
+
+    private int newState(int parent, int edge)
+    {
+        if (states == edges.length)
+        {
+            edges = Arrays.copyOf(edges, states * 2);
+            permitted = Arrays.copyOf(permitted, states * 2);
+            parents = Arrays.copyOf(parents, states * 2);
+        }
+        edges[states] = edge;
+        parents[states] = parent;
+        return states++;
+    }
+
+    private void put(int state, int edge, int next)
+    {
+        // Keep the table at most half full
+        if ((transitions + 1) * 2 > keys.length)
+        {
+            var oldKeys = keys;
+            var oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            transitions = 0;
+            for (var i = 0; i < oldKeys.length; i++)
+            {
+                if (oldKeys[i] != EMPTY)
+                {
+                    put((int) (oldKeys[i] >>> 32), (int) oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        var key = key(state, edge);
+        var slot = slot(key);
+        while (keys[slot] != EMPTY && keys[slot] != key)
+        {
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        if (keys[slot] == EMPTY)
+        {
+            transitions++;
+        }
+        keys[slot] = key;
+        values[slot] = next;
+    }
+
+    /**
+     * Returns the state for the longest suffix of the given state followed by the given edge that is a trie node
+     */
+    private int step(int state, int edge)
+    {
+        for (var suffix = state; ; suffix = failures[suffix])
+        {
+            var next = get(suffix, edge);
+            if (next > START)
+            {
+                return next;
+            }
+            if (suffix == START)
+            {
+                return START;
+            }
+        }
+    }
+
+    private int slot(long key)
+    {
+        var hash = key * 0x9e37_79b9_7f4a_7c15L;
+        return (int) (hash >>> 32) & (keys.length - 1);
+    }
+}
@@ -0,0 +1,93 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing;
+
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.mesakit.graph.Vertex;
+import com.telenav.mesakit.map.measurements.motion.Speed;
+import com.telenav.mesakit.navigation.routing.alternatives.AlternativeRouteFinder;
+import com.telenav.mesakit.navigation.routing.bidijkstra.BiDijkstraRouter;
+import com.telenav.mesakit.navigation.routing.bidijkstra.BiDijkstraRoutingRequest;
+import com.telenav.mesakit.navigation.routing.cost.functions.TravelTimeCostFunction;
+import org.junit.Test;
+
+public class AlternativeRouteFinderTest extends RoutingUnitTest
+{
+    @Test
+    public void testGreenLakeAlternatives()
+    {
+        // Routes between the south and north ends of Green Lake can go around either side of the lake
+        var start = southOfGreenLake();
+        var end = northOfGreenLake();
+        var costFunction = new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, start, end);
+        var router = new BiDijkstraRouter(costFunction);
+        var finder = new AlternativeRouteFinder(router).withMaximumStretch(1.4);
+
+        var routes = finder.find(new BiDijkstraRoutingRequest(start, end));
+
+        // The best route comes first and costs the same as the route the router finds
+        ensure(routes.size() >= 2);
+        var best = routes.get(0);
+        var expected = router.findRoute(new BiDijkstraRoutingRequest(start, end)).route();
+        ensureEqual(expected, best.route());
+        ensureEqual(1.0, best.stretch());
+
+        // and every alternative goes from start to end within the limits, in score order
+        for (var index = 1; index < routes.size(); index++)
+        {
+            var alternative = routes.get(index);
+            ensureEqual(start, alternative.route().start());
+            ensureEqual(end, alternative.route().end());
+            ensure(alternative.stretch() >= 1.0 - 1E-9 && alternative.stretch() <= 1.4 + 1E-9);
+            ensure(alternative.sharing() <= 0.8);
+            ensure(alternative.localOptimality() >= 0.25);
+            ensure(!alternative.route().equals(best.route()));
+            ensureClose(cost(alternative.route(), costFunction), alternative.cost().asDouble(), 6);
+            if (index > 1)
+            {
+                ensure(routes.get(index - 1).score() <= alternative.score());
+            }
+        }
+    }
+
+    @Test
+    public void testMaximumAlternatives()
+    {
+        var start = southOfGreenLake();
+        var end = northOfGreenLake();
+        var router = new BiDijkstraRouter(new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, start, end));
+
+        var routes = new AlternativeRouteFinder(router)
+                .withMaximumStretch(2.0)
+                .withMaximumAlternatives(Count._1)
+                .find(new BiDijkstraRoutingRequest(start, end));
+        ensureEqual(2, routes.size());
+    }
+
+    private Vertex northOfGreenLake()
+    {
+        return vertex(osmGreenLakeSeattle(), 47.6856309, -122.3378812);
+    }
+
+    private Vertex southOfGreenLake()
+    {
+        return vertex(osmGreenLakeSeattle(), 47.6698347, -122.3399367);
+    }
+}
@@ -0,0 +1,182 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing;
+
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.mesakit.graph.core.testing.GraphUnitTest;
+import com.telenav.mesakit.map.measurements.motion.Speed;
+import com.telenav.mesakit.navigation.routing.batch.BatchRoutingResult;
+import com.telenav.mesakit.navigation.routing.batch.BatchRoutingService;
+import com.telenav.mesakit.navigation.routing.batch.RoutingPair;
+import com.telenav.mesakit.navigation.routing.bidijkstra.BiDijkstraRouter;
+import com.telenav.mesakit.navigation.routing.bidijkstra.BiDijkstraRoutingRequest;
+import com.telenav.mesakit.navigation.routing.cost.functions.TravelTimeCostFunction;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRoutingRequest;
+import com.telenav.mesakit.navigation.routing.indexed.IndexedDijkstraRouter;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+public class BatchRoutingServiceTest extends GraphUnitTest
+{
+    @Test
+    public void testBatch()
+    {
+        var start = osmGreenLakeSeattleEdge(6366507000001L).from();
+        var end = osmGreenLakeSeattleEdge(4794181000017L).to();
+        var router = new IndexedDijkstraRouter(new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, start, end));
+        var expected = router.findRoute(new DijkstraRoutingRequest(start, end)).route();
+
+        var pairs = new ArrayList<RoutingPair>();
+        for (var i = 0; i < 64; i++)
+        {
+            pairs.add(i % 2 == 0 ? new RoutingPair(start, end) : new RoutingPair(end, start));
+        }
+
+        try (var service = new BatchRoutingService(router, Count._4))
+        {
+            var results = new ConcurrentLinkedQueue<BatchRoutingResult>();
+            var job = service.submit(pairs.stream(), results::add).await();
+
+            // Every pair is routed once, and routes match routing the pair alone
+            ensureEqual(64, results.size());
+            ensureEqual(64, job.histogram().count().asInt());
+            ensureEqual(64, job.succeeded().asInt());
+            var indexes = new HashSet<Long>();
+            for (var result : results)
+            {
+                ensure(indexes.add(result.index()));
+                if (result.index() % 2 == 0)
+                {
+                    ensureEqual(expected, result.route());
+                }
+                else
+                {
+                    ensureEqual(end, result.route().start());
+                    ensureEqual(start, result.route().end());
+                }
+            }
+            ensure(!job.histogram().percentile(50).isGreaterThan(job.histogram().maximum()));
+        }
+    }
+
+    @Test
+    public void testBidirectionalBatch()
+    {
+        var start = osmGreenLakeSeattleEdge(6366507000001L).from();
+        var end = osmGreenLakeSeattleEdge(4794181000017L).to();
+        var router = new BiDijkstraRouter(new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, start, end));
+        var expected = router.findRoute(new BiDijkstraRoutingRequest(start, end)).route();
+
+        var pairs = new ArrayList<RoutingPair>();
+        for (var i = 0; i < 16; i++)
+        {
+            pairs.add(new RoutingPair(start, end));
+        }
+
+        // Route the pairs with bidirectional requests, which the bidirectional router requires
+        try (var service = new BatchRoutingService(router, Count._4, Count._8, () -> RoutingLimiter.UNLIMITED,
+                (pair, limiter) -> new BiDijkstraRoutingRequest(pair.start(), pair.end()).withLimiter(limiter)))
+        {
+            var results = new ConcurrentLinkedQueue<BatchRoutingResult>();
+            var job = service.submit(pairs.stream(), results::add).await();
+
+            // and every pair is routed without error to the same route as routing it alone
+            ensureEqual(16, results.size());
+            ensureEqual(16, job.succeeded().asInt());
+            for (var result : results)
+            {
+                ensureEqual(expected, result.route());
+            }
+        }
+    }
+
+    @Test
+    public void testCancel()
+    {
+        var start = osmGreenLakeSeattleEdge(6366507000001L).from();
+        var end = osmGreenLakeSeattleEdge(4794181000017L).to();
+        var router = new IndexedDijkstraRouter(new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, start, end));
+
+        try (var service = new BatchRoutingService(router, Count._2, Count._8, () -> RoutingLimiter.UNLIMITED))
+        {
+            // Route an endless stream of pairs, cancelling after the first ten results
+            var delivered = new AtomicInteger();
+            var pairs = Stream.generate(() -> new RoutingPair(start, end));
+            var job = service.submit(pairs, result -> delivered.incrementAndGet());
+            while (delivered.get() < 10)
+            {
+                Thread.onSpinWait();
+            }
+            job.cancel();
+            job.await();
+
+            // No more than the pending pairs finish after cancelling
+            ensure(job.isDone());
+            ensure(delivered.get() <= 10 + 8);
+        }
+    }
+
+    @Test
+    public void testCloseWhileRouting()
+    {
+        var start = osmGreenLakeSeattleEdge(6366507000001L).from();
+        var end = osmGreenLakeSeattleEdge(4794181000017L).to();
+        var router = new IndexedDijkstraRouter(new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, start, end));
+
+        // Route an endless stream of pairs, closing the service after the first ten results
+        var service = new BatchRoutingService(router, Count._2, Count._8, () -> RoutingLimiter.UNLIMITED);
+        var delivered = new AtomicInteger();
+        var pairs = Stream.generate(() -> new RoutingPair(start, end));
+        var job = service.submit(pairs, result -> delivered.incrementAndGet());
+        while (delivered.get() < 10)
+        {
+            Thread.onSpinWait();
+        }
+        service.close();
+        job.await();
+
+        // The job stops reading pairs once the workers are shut down
+        ensure(job.isDone());
+        ensure(job.isCancelled());
+    }
+
+    @Test
+    public void testSubmitAfterClose()
+    {
+        var start = osmGreenLakeSeattleEdge(6366507000001L).from();
+        var end = osmGreenLakeSeattleEdge(4794181000017L).to();
+        var router = new IndexedDijkstraRouter(new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, start, end));
+
+        var service = new BatchRoutingService(router, Count._2);
+        service.close();
+
+        // A job submitted to a closed service is cancelled and done without routing anything
+        var delivered = new AtomicInteger();
+        var job = service.submit(Stream.of(new RoutingPair(start, end)), result -> delivered.incrementAndGet()).await();
+        ensure(job.isDone());
+        ensure(job.isCancelled());
+        ensureEqual(0, delivered.get());
+    }
+}
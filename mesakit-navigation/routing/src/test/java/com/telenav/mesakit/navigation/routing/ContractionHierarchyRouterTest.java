@@ -0,0 +1,99 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.navigation.routing;
+
+import com.telenav.mesakit.graph.Route;
+import com.telenav.mesakit.graph.Vertex;
+import com.telenav.mesakit.map.measurements.motion.Speed;
+import com.telenav.mesakit.navigation.routing.contraction.ContractionHierarchy;
+import com.telenav.mesakit.navigation.routing.contraction.ContractionHierarchyBuilder;
+import com.telenav.mesakit.navigation.routing.contraction.ContractionHierarchyRouter;
+import com.telenav.mesakit.navigation.routing.cost.CostFunction;
+import com.telenav.mesakit.navigation.routing.cost.functions.TravelTimeCostFunction;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRouter;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRoutingRequest;
+import org.junit.Test;
+
+public class ContractionHierarchyRouterTest extends RoutingUnitTest
+{
+    @Test
+    public void testGreenLakeRouting()
+    {
+        var start = osmGreenLakeSeattleEdge(6366507000001L);
+        var end = osmGreenLakeSeattleEdge(4794181000017L);
+        var costFunction = new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, start.from(), end.to());
+        var hierarchy = listenTo(new ContractionHierarchyBuilder(start.graph(), costFunction)).build();
+        ensure(hierarchy.isFor(start.graph()));
+
+        // Both directions between the ends of the two edges should cost the same as with Dijkstra
+        for (var from : new Vertex[] { start.from(), start.to() })
+        {
+            for (var to : new Vertex[] { end.from(), end.to() })
+            {
+                ensureSameCost(hierarchy, costFunction, from, to);
+                ensureSameCost(hierarchy, costFunction, to, from);
+            }
+        }
+    }
+
+    @Test
+    public void testSidecarRoundTrip()
+    {
+        var start = osmGreenLakeSeattleEdge(6366507000001L);
+        var end = osmGreenLakeSeattleEdge(4794181000017L);
+        var costFunction = new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, start.from(), end.to());
+        var hierarchy = listenTo(new ContractionHierarchyBuilder(start.graph(), costFunction)).build();
+
+        // Save the hierarchy as a sidecar and load it again
+        var sidecar = ContractionHierarchy.sidecar(temporaryGraphFile());
+        hierarchy.save(sidecar);
+        var loaded = ContractionHierarchy.load(sidecar);
+        ensure(loaded.isFor(start.graph()));
+        ensureEqual(hierarchy.arcCount(), loaded.arcCount());
+        ensureEqual(hierarchy.shortcutCount(), loaded.shortcutCount());
+
+        // then check that both hierarchies find the same routes
+        for (var from : new Vertex[] { start.from(), start.to() })
+        {
+            for (var to : new Vertex[] { end.from(), end.to() })
+            {
+                ensureEqual(route(hierarchy, from, to), route(loaded, from, to));
+                ensureEqual(route(hierarchy, to, from), route(loaded, to, from));
+            }
+        }
+    }
+
+    private void ensureSameCost(ContractionHierarchy hierarchy, CostFunction costFunction, Vertex from, Vertex to)
+    {
+        var expected = new DijkstraRouter(costFunction).findRoute(new DijkstraRoutingRequest(from, to)).route();
+        var actual = route(hierarchy, from, to);
+        ensureEqual(expected == null, actual == null);
+        if (expected != null)
+        {
+            ensureEqual(expected.first().from(), actual.first().from());
+            ensureEqual(expected.last().to(), actual.last().to());
+            ensure(Math.abs(cost(expected, costFunction) - cost(actual, costFunction)) < 1E-9);
+        }
+    }
+
+    private Route route(ContractionHierarchy hierarchy, Vertex from, Vertex to)
+    {
+        return new ContractionHierarchyRouter(hierarchy).findRoute(new DijkstraRoutingRequest(from, to)).route();
+    }
+}
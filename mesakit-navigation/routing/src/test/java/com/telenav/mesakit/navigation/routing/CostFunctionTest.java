@@ -0,0 +1,72 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.navigation.routing;
+
+import com.telenav.kivakit.core.value.level.Weight;
+import com.telenav.mesakit.graph.core.testing.GraphUnitTest;
+import com.telenav.mesakit.map.measurements.motion.Speed;
+import com.telenav.mesakit.navigation.routing.cost.Cost;
+import com.telenav.mesakit.navigation.routing.cost.CostFunction;
+import com.telenav.mesakit.navigation.routing.cost.functions.TollRoadCostFunction;
+import com.telenav.mesakit.navigation.routing.cost.functions.TravelTimeCostFunction;
+import org.junit.Test;
+
+import static com.telenav.mesakit.navigation.routing.cost.functions.TollRoadCostFunction.TollRoadMode.AVOID_TOLL_ROADS;
+
+public class CostFunctionTest extends GraphUnitTest
+{
+    @Test
+    public void testAdd()
+    {
+        ensure(Cost.add(1.0, 2.0) == 3.0);
+        ensure(Cost.isMaximum(Cost.add(Cost.MAXIMUM_VALUE, 1.0)));
+        ensure(Cost.isMaximum(Cost.MAXIMUM.asDouble()));
+        ensure(!Cost.isMaximum(Cost.ZERO.asDouble()));
+    }
+
+    @Test
+    public void testPrimitiveCosts()
+    {
+        var start = osmGreenLakeSeattleEdge(6366507000001L).from();
+        var end = osmGreenLakeSeattleEdge(4794181000017L).to();
+        var travelTime = new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, start, end);
+        var tolls = new TollRoadCostFunction(AVOID_TOLL_ROADS);
+
+        checkPrimitiveCosts(travelTime);
+        checkPrimitiveCosts(tolls);
+        checkPrimitiveCosts(travelTime.plus(tolls));
+        checkPrimitiveCosts(travelTime.maximum(tolls));
+        checkPrimitiveCosts(travelTime.minimum(tolls));
+        checkPrimitiveCosts(travelTime.weightedSum(Weight.weight(0.25), edge -> Cost.of(0.5)));
+    }
+
+    /**
+     * Ensures that the primitive cost of each edge in the test graph is the same as its {@link Cost}
+     */
+    private void checkPrimitiveCosts(CostFunction costFunction)
+    {
+        for (var edge : osmGreenLakeSeattle().edges())
+        {
+            var cost = costFunction.cost(edge);
+            var costOf = costFunction.costOf(edge);
+            ensure(cost.isMaximum() == Cost.isMaximum(costOf));
+            ensure(Math.abs(cost.asDouble() - costOf) < 1E-9);
+        }
+    }
+}
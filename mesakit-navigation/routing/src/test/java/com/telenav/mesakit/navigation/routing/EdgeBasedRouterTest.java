@@ -0,0 +1,243 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.navigation.routing;
+
+import com.telenav.mesakit.graph.Edge;
+import com.telenav.mesakit.graph.Route;
+import com.telenav.mesakit.graph.Vertex;
+import com.telenav.mesakit.graph.analytics.classification.classifiers.turn.ComplexTurnClassifier;
+import com.telenav.mesakit.map.measurements.motion.Speed;
+import com.telenav.mesakit.navigation.routing.cost.Cost;
+import com.telenav.mesakit.navigation.routing.cost.CostFunction;
+import com.telenav.mesakit.navigation.routing.cost.functions.TravelTimeCostFunction;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRouter;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRoutingRequest;
+import com.telenav.mesakit.navigation.routing.indexed.SearchState;
+import com.telenav.mesakit.navigation.routing.turns.EdgeBasedGraph;
+import com.telenav.mesakit.navigation.routing.turns.EdgeBasedRouter;
+import com.telenav.mesakit.navigation.routing.turns.TurnPenalties;
+import com.telenav.mesakit.navigation.routing.turns.TurnRestrictionAutomaton;
+import org.junit.Test;
+
+import static com.telenav.mesakit.navigation.routing.turns.TurnRestrictionAutomaton.FORBIDDEN;
+import static com.telenav.mesakit.navigation.routing.turns.TurnRestrictionAutomaton.START;
+
+public class EdgeBasedRouterTest extends RoutingUnitTest
+{
+    @Test
+    public void testMatchesDijkstra()
+    {
+        var start = osmGreenLakeSeattleEdge(6366507000001L).from();
+        var end = osmGreenLakeSeattleEdge(4794181000017L).to();
+        var costFunction = new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, start, end);
+
+        var expected = new DijkstraRouter(costFunction).findRoute(new DijkstraRoutingRequest(start, end)).route();
+        var edgeBasedGraph = new EdgeBasedGraph(start.graph());
+        var route = new EdgeBasedRouter(edgeBasedGraph, costFunction)
+                .findRoute(new DijkstraRoutingRequest(start, end)).route();
+
+        // The edge-based route is a connected route between the same vertexes
+        ensure(route != null);
+        ensureEqual(start, route.first().from());
+        ensureEqual(end, route.last().to());
+
+        // and it never costs less than the vertex-based route (it can cost more only by avoiding a restricted turn)
+        ensure(cost(route, costFunction) >= cost(expected, costFunction) - 1E-6);
+        if (!restricted(edgeBasedGraph, expected))
+        {
+            ensureClose(cost(expected, costFunction), cost(route, costFunction), 6);
+        }
+    }
+
+    @Test
+    public void testOverlappingRestrictions()
+    {
+        var start = osmGreenLakeSeattleEdge(6366507000001L).from();
+        var end = osmGreenLakeSeattleEdge(4794181000017L).to();
+        var costFunction = new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, start, end);
+        var expected = new DijkstraRouter(costFunction).findRoute(new DijkstraRoutingRequest(start, end)).route();
+        ensure(expected.size() >= 4);
+
+        // Take three edges in a row from the middle of the shortest route
+        var middle = expected.size() / 2;
+        var x = expected.get(middle - 1);
+        var a = expected.get(middle);
+        var b = expected.get(middle + 1);
+
+        // A "no" restriction that begins on the last edge of an "only" restriction is still enforced,
+        var onlyThenNo = new TurnRestrictionAutomaton(new int[][] { { index(a), index(b) } },
+                new int[][] { { index(x), index(a) } });
+        var route = route(start, end, costFunction, onlyThenNo);
+        ensure(route != null);
+        ensureFalse(containsTurn(route, a, b));
+
+        // as is a "no" restriction that begins partway through a longer one that doesn't match
+        var no = new int[][] { { index(x), index(a), -index(a) }, { index(a), index(b) } };
+        var nested = new TurnRestrictionAutomaton(no, new int[0][]);
+        route = route(start, end, costFunction, nested);
+        ensure(route != null);
+        ensureFalse(containsTurn(route, a, b));
+    }
+
+    @Test
+    public void testRestrictedTurnAvoided()
+    {
+        var start = osmGreenLakeSeattleEdge(6366507000001L).from();
+        var end = osmGreenLakeSeattleEdge(4794181000017L).to();
+        var costFunction = new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, start, end);
+        var expected = new DijkstraRouter(costFunction).findRoute(new DijkstraRoutingRequest(start, end)).route();
+        ensure(expected.size() >= 4);
+
+        // Forbid a turn that the shortest route takes,
+        var middle = expected.size() / 2;
+        var a = expected.get(middle);
+        var b = expected.get(middle + 1);
+        var restrictions = new TurnRestrictionAutomaton(new int[][] { { index(a), index(b) } }, new int[0][]);
+
+        // and the edge-based route goes around it, at a higher cost
+        var route = route(start, end, costFunction, restrictions);
+        ensure(route != null);
+        ensureEqual(start, route.first().from());
+        ensureEqual(end, route.last().to());
+        ensureFalse(containsTurn(route, a, b));
+        ensure(cost(route, costFunction) >= cost(expected, costFunction) - 1E-6);
+    }
+
+    @Test
+    public void testRestrictionAutomaton()
+    {
+        // An "only" restriction requires its next edge, and a "no" restriction that starts on its last edge
+        // still applies
+        var onlyThenNo = new TurnRestrictionAutomaton(new int[][] { { 2, 3 } }, new int[][] { { 1, 2 } });
+        ensure(allowed(onlyThenNo, 1, 2));
+        ensure(allowed(onlyThenNo, 1, 2, 4));
+        ensureFalse(allowed(onlyThenNo, 1, 5));
+        ensureFalse(allowed(onlyThenNo, 1, 2, 3));
+        ensureFalse(allowed(onlyThenNo, 2, 3));
+        ensureFalse(allowed(onlyThenNo, 5, 1, 2, 3));
+
+        // and a "no" restriction that begins partway through a longer one is still tracked
+        var nested = new TurnRestrictionAutomaton(new int[][] { { 1, 2, 3 }, { 2, 4 } }, new int[0][]);
+        ensure(allowed(nested, 1, 2, 5));
+        ensureFalse(allowed(nested, 1, 2, 3));
+        ensureFalse(allowed(nested, 1, 2, 4));
+        ensureFalse(allowed(nested, 5, 1, 2, 4));
+        ensureFalse(allowed(nested, 1, 1, 2, 3));
+
+        // An "only" restriction forbids every other edge, even one that a "no" restriction continues with
+        var onlyAndNo = new TurnRestrictionAutomaton(new int[][] { { 1, 3, 4 } }, new int[][] { { 1, 2 } });
+        ensure(allowed(onlyAndNo, 1, 2));
+        ensureFalse(allowed(onlyAndNo, 1, 3));
+        ensureFalse(allowed(onlyAndNo, 1, 3, 4));
+        ensureFalse(allowed(onlyAndNo, 1, 5));
+        ensure(allowed(onlyAndNo, 3, 4));
+
+        // The state after any allowed edge identifies that edge
+        var state = nested.next(nested.next(START, 1), 2);
+        ensureEqual(2, nested.edge(state));
+    }
+
+    @Test
+    public void testSameStartAndEnd()
+    {
+        var vertex = osmGreenLakeSeattleEdge(6366507000001L).from();
+        var end = osmGreenLakeSeattleEdge(4794181000017L).to();
+        var costFunction = new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, vertex, end);
+
+        // Like DijkstraRouter, the edge-based router finds no route from a vertex to itself, rather than a loop
+        var dijkstra = new DijkstraRouter(costFunction);
+        var edgeBased = new EdgeBasedRouter(new EdgeBasedGraph(vertex.graph()), costFunction);
+        ensureEqual(null, dijkstra.onFindRoute(new DijkstraRoutingRequest(vertex, vertex)).route());
+        ensureEqual(null, edgeBased.onFindRoute(new DijkstraRoutingRequest(vertex, vertex)).route());
+        ensureEqual(null, edgeBased.findRoute(new DijkstraRoutingRequest(vertex, vertex)).route());
+    }
+
+    @Test
+    public void testTurnPenalties()
+    {
+        var start = osmGreenLakeSeattleEdge(6366507000001L).from();
+        var end = osmGreenLakeSeattleEdge(4794181000017L).to();
+        var costFunction = new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, start, end);
+
+        var free = new EdgeBasedRouter(new EdgeBasedGraph(start.graph()), costFunction)
+                .findRoute(new DijkstraRoutingRequest(start, end)).route();
+        var penalizing = new EdgeBasedGraph(start.graph(), ComplexTurnClassifier.DEFAULT, type -> Cost.of(10));
+        var penalized = new EdgeBasedRouter(penalizing, costFunction)
+                .findRoute(new DijkstraRoutingRequest(start, end)).route();
+
+        // With a penalty on every turn, the route found costs at least as much in edges alone
+        // and can have no more turns than the free route
+        ensure(penalized != null);
+        ensure(cost(penalized, costFunction) >= cost(free, costFunction) - 1E-6);
+        ensure(penalized.size() <= free.size());
+    }
+
+    private boolean allowed(TurnRestrictionAutomaton automaton, int... path)
+    {
+        var state = START;
+        for (var edge : path)
+        {
+            state = automaton.next(state, edge);
+            if (state == FORBIDDEN)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean containsTurn(Route route, Edge from, Edge to)
+    {
+        for (var i = 0; i + 1 < route.size(); i++)
+        {
+            if (route.get(i).equals(from) && route.get(i + 1).equals(to))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int index(Edge edge)
+    {
+        return SearchState.directionalIndex(edge);
+    }
+
+    private boolean restricted(EdgeBasedGraph edgeBasedGraph, Route route)
+    {
+        var restrictions = edgeBasedGraph.restrictions();
+        var state = START;
+        for (var edge : route)
+        {
+            state = restrictions.next(state, edge.isReverse() ? -edge.index() : edge.index());
+            if (state == FORBIDDEN)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Route route(Vertex start, Vertex end, CostFunction costFunction, TurnRestrictionAutomaton restrictions)
+    {
+        var edgeBasedGraph = new EdgeBasedGraph(start.graph(), restrictions, null, TurnPenalties.NONE);
+        return new EdgeBasedRouter(edgeBasedGraph, costFunction).findRoute(new DijkstraRoutingRequest(start, end))
+                .route();
+    }
+}
@@ -0,0 +1,99 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing;
+
+import com.telenav.mesakit.graph.Route;
+import com.telenav.mesakit.graph.Vertex;
+import com.telenav.mesakit.graph.core.testing.GraphUnitTest;
+import com.telenav.mesakit.map.measurements.motion.Speed;
+import com.telenav.mesakit.navigation.routing.cost.CostFunction;
+import com.telenav.mesakit.navigation.routing.cost.functions.TravelTimeCostFunction;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRouter;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRoutingRequest;
+import com.telenav.mesakit.navigation.routing.dijkstra.Direction;
+import com.telenav.mesakit.navigation.routing.indexed.IndexedDijkstraRouter;
+import org.junit.Test;
+
+public class IndexedDijkstraRouterTest extends GraphUnitTest
+{
+    @Test
+    public void testBackwardRouting()
+    {
+        var start = osmGreenLakeSeattleEdge(6366507000001L);
+        var end = osmGreenLakeSeattleEdge(4794181000017L);
+        var costFunction = costFunction(start.to(), end.from());
+        ensureEqual(indexedRoute(start.to(), end.from(), costFunction, Direction.FORWARD),
+                indexedRoute(start.to(), end.from(), costFunction, Direction.BACKWARD));
+    }
+
+    @Test
+    public void testDowntownSeattleRouting()
+    {
+        var start = osmDowntownSeattleTestEdge(6348968000003L);
+        var end = osmDowntownSeattleTestEdge(6415868000005L);
+        var costFunction = costFunction(start.to(), end.to());
+
+        // Route several times so that the thread's workspace is reused
+        for (var i = 0; i < 3; i++)
+        {
+            ensureEqual(dijkstraRoute(start.to(), end.to(), costFunction),
+                    indexedRoute(start.to(), end.to(), costFunction, Direction.FORWARD));
+        }
+    }
+
+    @Test
+    public void testGreenLakeRouting()
+    {
+        var start = osmGreenLakeSeattleEdge(6366507000001L);
+        var end = osmGreenLakeSeattleEdge(4794181000017L);
+        var costFunction = costFunction(start.to(), end.from());
+        ensureEqual(dijkstraRoute(start.to(), end.from(), costFunction),
+                indexedRoute(start.to(), end.from(), costFunction, Direction.FORWARD));
+    }
+
+    @Test
+    public void testOneEdgeRouting()
+    {
+        var edge = osmGreenLakeSeattleEdge(6366507000001L);
+        ensure(edge.isTwoWay());
+        ensureEqual(Route.fromEdge(edge), indexedRoute(edge.from(), edge.to(),
+                costFunction(edge.from(), edge.to()), Direction.FORWARD));
+        ensureEqual(Route.fromEdge(edge.reversed()), indexedRoute(edge.to(), edge.from(),
+                costFunction(edge.to(), edge.from()), Direction.FORWARD));
+    }
+
+    private CostFunction costFunction(Vertex start, Vertex end)
+    {
+        return new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, start.location(), end.location());
+    }
+
+    private Route dijkstraRoute(Vertex start, Vertex end, CostFunction costFunction)
+    {
+        return new DijkstraRouter(costFunction).findRoute(new DijkstraRoutingRequest(start, end)).route();
+    }
+
+    private Route indexedRoute(Vertex start, Vertex end, CostFunction costFunction, Direction direction)
+    {
+        var request = new DijkstraRoutingRequest(start, end).withDirection(direction);
+        var response = new IndexedDijkstraRouter(costFunction).findRoute(request);
+        trace("Found route ${debug}", response);
+        return response.route();
+    }
+}
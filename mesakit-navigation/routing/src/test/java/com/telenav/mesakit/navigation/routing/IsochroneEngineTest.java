@@ -0,0 +1,110 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.navigation.routing;
+
+import com.telenav.mesakit.graph.Vertex;
+import com.telenav.mesakit.map.measurements.geographic.Distance;
+import com.telenav.mesakit.map.measurements.motion.Speed;
+import com.telenav.mesakit.navigation.routing.cost.Cost;
+import com.telenav.mesakit.navigation.routing.cost.functions.TravelTimeCostFunction;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRouter;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRoutingRequest;
+import com.telenav.mesakit.navigation.routing.isochrone.Isochrone;
+import com.telenav.mesakit.navigation.routing.isochrone.IsochroneEngine;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class IsochroneEngineTest extends RoutingUnitTest
+{
+    @Test
+    public void testConcurrentRequests() throws Exception
+    {
+        var origin = osmGreenLakeSeattleEdge(6366507000001L).from();
+        var engine = new IsochroneEngine(new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, origin,
+                osmGreenLakeSeattleEdge(4794181000017L).to()));
+        var expected = engine.reachable(origin, Distance.meters(500)).vertexCount();
+
+        var executor = Executors.newFixedThreadPool(4);
+        var results = new ArrayList<Future<Integer>>();
+        for (var i = 0; i < 16; i++)
+        {
+            results.add(executor.submit(() -> engine.reachable(origin, Distance.meters(500)).vertexCount()));
+        }
+        for (var result : results)
+        {
+            ensureEqual(expected, result.get());
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCostBudget()
+    {
+        var origin = osmGreenLakeSeattleEdge(6366507000001L).from();
+        var destination = osmGreenLakeSeattleEdge(4794181000017L).to();
+        var costFunction = new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, origin, destination);
+        var route = new DijkstraRouter(costFunction).findRoute(new DijkstraRoutingRequest(origin, destination)).route();
+        var cost = cost(route, costFunction);
+
+        // The destination is reachable with exactly the cost of the cheapest route to it
+        var engine = new IsochroneEngine(costFunction);
+        var reachable = engine.reachable(origin, Cost.of(cost));
+        ensure(contains(reachable, destination));
+        ensure(reachable.polygon() != null);
+
+        // but not with any less
+        ensure(!contains(engine.reachable(origin, Cost.of(cost * 0.99)), destination));
+    }
+
+    @Test
+    public void testDistanceBudget()
+    {
+        var origin = osmGreenLakeSeattleEdge(6366507000001L).from();
+        var engine = new IsochroneEngine(new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, origin,
+                osmGreenLakeSeattleEdge(4794181000017L).to()));
+        var reachable = engine.reachable(origin, Distance.meters(250));
+
+        // Every reachable vertex is within the budget, and every edge fraction is within (0, 1]
+        ensure(reachable.vertexCount() > 0);
+        ensureEqual(origin, reachable.vertex(0));
+        for (var index = 0; index < reachable.vertexCount(); index++)
+        {
+            ensure(reachable.vertexCost(index) <= Distance.meters(250).asMillimeters());
+        }
+        for (var index = 0; index < reachable.edgeCount(); index++)
+        {
+            ensure(reachable.edgeFraction(index) > 0.0 && reachable.edgeFraction(index) <= 1.0);
+        }
+    }
+
+    private boolean contains(Isochrone isochrone, Vertex vertex)
+    {
+        for (var index = 0; index < isochrone.vertexCount(); index++)
+        {
+            if (isochrone.vertexIndex(index) == vertex.index())
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
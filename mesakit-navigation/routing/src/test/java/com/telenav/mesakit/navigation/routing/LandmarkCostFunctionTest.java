@@ -0,0 +1,120 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.navigation.routing;
+
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.mesakit.graph.Route;
+import com.telenav.mesakit.graph.Vertex;
+import com.telenav.mesakit.map.measurements.motion.Speed;
+import com.telenav.mesakit.navigation.routing.cost.Cost;
+import com.telenav.mesakit.navigation.routing.cost.functions.TravelTimeCostFunction;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRouter;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRoutingRequest;
+import com.telenav.mesakit.navigation.routing.landmarks.LandmarkCostFunction;
+import com.telenav.mesakit.navigation.routing.landmarks.LandmarksBuilder;
+import org.junit.Test;
+
+public class LandmarkCostFunctionTest extends RoutingUnitTest
+{
+    /**
+     * Checks that landmark A* finds a route with the same cost as plain Dijkstra without settling more vertexes.
+     * Timings are measured by LandmarkRoutingBenchmark in mesakit-benchmarks.
+     */
+    @Test
+    public void testSameRouteAsDijkstra()
+    {
+        var start = osmGreenLakeSeattleEdge(6366507000001L).to();
+        var end = osmGreenLakeSeattleEdge(4794181000017L).from();
+        var costFunction = new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, start, end);
+        var landmarks = listenTo(new LandmarksBuilder(start.graph(), costFunction, Count._8)).build();
+        var heuristic = new LandmarkCostFunction(landmarks, costFunction, start, end);
+
+        var dijkstra = new DijkstraRouter(costFunction);
+        var alt = new DijkstraRouter(costFunction).withHeuristicCostFunction(heuristic);
+
+        // Both routers should find routes with the same cost
+        var dijkstraSettled = new SettledCounter();
+        var altSettled = new SettledCounter();
+        var dijkstraRoute = dijkstra.findRoute(new DijkstraRoutingRequest(start, end)
+                .withDebugger(dijkstraSettled)).route();
+        var altRoute = alt.findRoute(new DijkstraRoutingRequest(start, end).withDebugger(altSettled)).route();
+        ensure(dijkstraRoute != null && altRoute != null);
+        ensure(Math.abs(cost(dijkstraRoute, costFunction) - cost(altRoute, costFunction)) < 1E-9);
+
+        // but landmarks should never settle more vertexes
+        ensure(altSettled.settled <= dijkstraSettled.settled);
+    }
+
+    @Test
+    public void testLowerBounds()
+    {
+        var start = osmGreenLakeSeattleEdge(6366507000001L).to();
+        var end = osmGreenLakeSeattleEdge(4794181000017L).from();
+        var costFunction = new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, start, end);
+        var landmarks = listenTo(new LandmarksBuilder(start.graph(), costFunction, Count._4)).build();
+        ensure(landmarks.isFor(start.graph()));
+        ensureEqual(4, landmarks.size());
+
+        // The bound between two vertexes can't be more than the cost of the cheapest route between them
+        var route = new DijkstraRouter(costFunction).findRoute(new DijkstraRoutingRequest(start, end)).route();
+        var active = new int[] { 0, 1, 2, 3 };
+        ensure(landmarks.lowerBound(start.index(), end.index(), active) <= cost(route, costFunction));
+        ensureEqual(0.0, landmarks.lowerBound(start.index(), start.index(), active));
+
+        // and the same holds from the start to a sample of other vertexes, despite the rounding of quantized costs
+        var router = new DijkstraRouter(costFunction);
+        for (var vertex : start.graph().vertexes())
+        {
+            if (vertex.index() % 25 == 0)
+            {
+                var cheapest = router.findRoute(new DijkstraRoutingRequest(start, vertex)).route();
+                if (cheapest != null)
+                {
+                    ensure(landmarks.lowerBound(start.index(), vertex.index(), active) <= cost(cheapest, costFunction));
+                }
+            }
+        }
+    }
+
+    private static class SettledCounter implements RoutingDebugger
+    {
+        int settled;
+
+        @Override
+        public void onEnd(RoutingRequest request, RoutingResponse response)
+        {
+        }
+
+        @Override
+        public void onRelaxed(Route route, Cost cost)
+        {
+        }
+
+        @Override
+        public void onSettled(Vertex vertex, Cost cost)
+        {
+            settled++;
+        }
+
+        @Override
+        public void onStart(RoutingRequest request)
+        {
+        }
+    }
+}
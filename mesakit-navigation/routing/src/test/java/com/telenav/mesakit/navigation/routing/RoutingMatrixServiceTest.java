@@ -0,0 +1,80 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.mesakit.navigation.routing;
+
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.mesakit.graph.Route;
+import com.telenav.mesakit.graph.Vertex;
+import com.telenav.mesakit.map.measurements.motion.Speed;
+import com.telenav.mesakit.navigation.routing.cost.CostFunction;
+import com.telenav.mesakit.navigation.routing.cost.functions.TravelTimeCostFunction;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRouter;
+import com.telenav.mesakit.navigation.routing.dijkstra.DijkstraRoutingRequest;
+import com.telenav.mesakit.navigation.routing.matrix.RoutingMatrixService;
+import org.junit.Test;
+
+import java.util.List;
+
+public class RoutingMatrixServiceTest extends RoutingUnitTest
+{
+    @Test
+    public void testGreenLakeMatrix()
+    {
+        var first = osmGreenLakeSeattleEdge(6366507000001L);
+        var second = osmGreenLakeSeattleEdge(4794181000017L);
+        var costFunction = new TravelTimeCostFunction(Speed.SIXTY_FIVE_MILES_PER_HOUR, first.from(), second.to());
+
+        var sources = List.of(first.from(), first.to(), second.from());
+        var targets = List.of(second.to(), second.from(), first.to(), second.to());
+        try (var service = listenTo(new RoutingMatrixService(costFunction, Count._2)))
+        {
+            var matrix = service.matrix(sources, targets, true);
+            ensureEqual(sources.size(), matrix.rows());
+            ensureEqual(targets.size(), matrix.columns());
+
+            // Each cell should match a single route found by Dijkstra
+            for (var row = 0; row < sources.size(); row++)
+            {
+                for (var column = 0; column < targets.size(); column++)
+                {
+                    var source = sources.get(row);
+                    var target = targets.get(column);
+                    if (source.equals(target))
+                    {
+                        ensureEqual(0.0, matrix.costValue(row, column));
+                        continue;
+                    }
+                    var expected = route(costFunction, source, target);
+                    ensureEqual(expected != null, matrix.isReachable(row, column));
+                    if (expected != null)
+                    {
+                        ensure(Math.abs(cost(expected, costFunction) - matrix.costValue(row, column)) < 1E-9);
+                        ensureEqual(expected.length(), matrix.distance(row, column));
+                        ensureEqual(expected.length(), matrix.route(row, column).length());
+                    }
+                }
+            }
+        }
+    }
+
+    private Route route(CostFunction costFunction, Vertex source, Vertex target)
+    {
+        return new DijkstraRouter(costFunction).findRoute(new DijkstraRoutingRequest(source, target)).route();
+    }
+}
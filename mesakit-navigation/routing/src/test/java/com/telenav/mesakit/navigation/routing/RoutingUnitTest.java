@@ -0,0 +1,43 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.mesakit.navigation.routing;
+
+import com.telenav.mesakit.graph.Route;
+import com.telenav.mesakit.graph.core.testing.GraphUnitTest;
+import com.telenav.mesakit.navigation.routing.cost.CostFunction;
+
+/**
+ * Base class for routing tests, with helpers for comparing routes
+ */
+public abstract class RoutingUnitTest extends GraphUnitTest
+{
+    /**
+     * Returns the total cost of the edges in the given route under the given cost function
+     */
+    protected double cost(Route route, CostFunction costFunction)
+    {
+        var cost = 0.0;
+        for (var edge : route)
+        {
+            cost += costFunction.cost(edge).asDouble();
+        }
+        return cost;
+    }
+}